@@ -2,6 +2,7 @@ module org.aiacon.simuladordemobilidadeurbana {
     requires javafx.controls;
     requires javafx.fxml;
     requires org.json;
+    requires jdk.management; // com.sun.management.ThreadMXBean, usado pelo AllocationProbe
 
 
     opens org.aiacon.simuladordemobilidadeurbana to javafx.fxml;
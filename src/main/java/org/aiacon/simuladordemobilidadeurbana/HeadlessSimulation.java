@@ -0,0 +1,155 @@
+package org.aiacon.simuladordemobilidadeurbana;
+
+import org.aiacon.simuladordemobilidadeurbana.io.JsonParser;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.aiacon.simuladordemobilidadeurbana.simulation.Configuration;
+import org.aiacon.simuladordemobilidadeurbana.simulation.EventSchedulerType;
+import org.aiacon.simuladordemobilidadeurbana.simulation.SimulationEngine;
+import org.aiacon.simuladordemobilidadeurbana.simulation.Simulator;
+import org.aiacon.simuladordemobilidadeurbana.simulation.Statistics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Execução em lote, sem interface: carrega o mapa, roda a simulação na thread principal o mais rápido possível
+ * (sem a pausa entre passos e sem os logs por passo/evento) e mostra só o resumo final, com a velocidade em
+ * segundos simulados por segundo real. Não usa JavaFX; pode rodar pelo classpath, por exemplo:
+ * <pre>
+ * java -cp target/classes:json.jar org.aiacon.simuladordemobilidadeurbana.HeadlessSimulation --duration 3600 --metrics metricas.txt
+ * </pre>
+ * Opções: --map arquivo.json (padrão: o mapa embutido), --duration s, --stop-generation s, --rate veículos/s,
+ * --mode 1|2|3, --engine time|event, --scheduler heap|wheel, --threads n, --regions k, --seed n, --peak, --prune, --metrics arquivo, --verbose, --paced.
+ * <p>
+ * Curva de aceleração da atualização paralela dos veículos: o mesmo cenário com --threads 1, 2, 4, 8... numa máquina
+ * com vários núcleos, comparando a velocidade do resumo. A taxa precisa manter mais de 8192 veículos na VehicleStore
+ * (abaixo disso o passo é serial); no mapa embutido, por exemplo:
+ * <pre>
+ * java -cp target/classes:json.jar org.aiacon.simuladordemobilidadeurbana.HeadlessSimulation --rate 80 --duration 300 --stop-generation 300 --seed 3 --threads n
+ * </pre>
+ */
+public class HeadlessSimulation {
+    private static final String DEFAULT_MAP_RESOURCE = "/mapa/CentroTeresinaPiauiBrazil.json";
+
+    public static void main(String[] args) {
+        Configuration config = new Configuration();
+        config.setRealTimePacing(false);
+        config.setVerboseLogging(false);
+        config.setTrafficLightMode(2);
+        config.setVehicleGenerationRate(0.5);
+        config.setSimulationDuration(3600.0);
+        config.setVehicleGenerationStopTime(1500.0);
+
+        String mapFile = null;
+        String metricsFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--map" -> mapFile = value(args, ++i);
+                    case "--duration" -> config.setSimulationDuration(Double.parseDouble(value(args, ++i)));
+                    case "--stop-generation" -> config.setVehicleGenerationStopTime(Double.parseDouble(value(args, ++i)));
+                    case "--rate" -> config.setVehicleGenerationRate(Double.parseDouble(value(args, ++i)));
+                    case "--mode" -> config.setTrafficLightMode(Integer.parseInt(value(args, ++i)));
+                    case "--engine" -> config.setSimulationEngine(parseEngine(value(args, ++i)));
+                    case "--scheduler" -> config.setEventSchedulerType(parseScheduler(value(args, ++i)));
+                    case "--threads" -> config.setVehicleUpdateParallelism(Integer.parseInt(value(args, ++i)));
+                    case "--regions" -> config.setPartitionRegions(Integer.parseInt(value(args, ++i)));
+                    case "--seed" -> config.setRandomSeed(Long.parseLong(value(args, ++i)));
+                    case "--peak" -> config.setPeakHour(true);
+                    case "--prune" -> config.setPruneToLargestComponent(true);
+                    case "--metrics" -> metricsFile = value(args, ++i);
+                    case "--verbose" -> config.setVerboseLogging(true);
+                    case "--paced" -> config.setRealTimePacing(true);
+                    default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("HEADLESS: " + e.getMessage());
+            System.err.println("Uso: HeadlessSimulation [--map arquivo.json] [--duration s] [--stop-generation s] [--rate veículos/s] "
+                    + "[--mode 1|2|3] [--engine time|event] [--scheduler heap|wheel] [--threads n] [--regions k] [--seed n] [--peak] [--prune] [--metrics arquivo] [--verbose] [--paced]");
+            System.exit(2);
+            return;
+        }
+
+        Graph graph;
+        try {
+            graph = loadGraph(mapFile, config);
+        } catch (Exception e) {
+            System.err.println("HEADLESS: Erro ao carregar o mapa: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        Simulator simulator = new Simulator(graph, config);
+        simulator.run(); // Na thread principal; termina ao fim da duração configurada
+
+        if (metricsFile != null) {
+            try {
+                writeMetrics(Path.of(metricsFile), simulator, config);
+                System.out.println("HEADLESS: Métricas gravadas em " + metricsFile);
+            } catch (IOException e) {
+                System.err.println("HEADLESS: Falha ao gravar as métricas em " + metricsFile + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Falta o valor da opção " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    private static SimulationEngine parseEngine(String name) {
+        return switch (name) {
+            case "time" -> SimulationEngine.TIME_STEPPED;
+            case "event" -> SimulationEngine.DISCRETE_EVENT;
+            default -> throw new IllegalArgumentException("Motor desconhecido: " + name + " (use time ou event)");
+        };
+    }
+
+    private static EventSchedulerType parseScheduler(String name) {
+        return switch (name) {
+            case "heap" -> EventSchedulerType.BINARY_HEAP;
+            case "wheel" -> EventSchedulerType.TIMING_WHEEL;
+            default -> throw new IllegalArgumentException("Fila de eventos desconhecida: " + name + " (use heap ou wheel)");
+        };
+    }
+
+    private static Graph loadGraph(String mapFile, Configuration config) throws Exception {
+        if (mapFile != null) {
+            return JsonParser.loadGraph(mapFile, config);
+        }
+        InputStream stream = HeadlessSimulation.class.getResourceAsStream(DEFAULT_MAP_RESOURCE);
+        if (stream == null) {
+            throw new IOException("Mapa embutido não encontrado: " + DEFAULT_MAP_RESOURCE);
+        }
+        return JsonParser.loadGraphFromStream(stream, config);
+    }
+
+    // Uma métrica por linha, no formato chave=valor (números com ponto decimal)
+    private static void writeMetrics(Path file, Simulator simulator, Configuration config) throws IOException {
+        Statistics stats = simulator.getStats();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.printf(Locale.ROOT, "simulated_seconds=%.1f%n", simulator.getSimulationTime());
+            out.printf(Locale.ROOT, "wall_clock_seconds=%.3f%n", simulator.getWallClockSeconds());
+            out.printf(Locale.ROOT, "simulated_seconds_per_wall_second=%.1f%n", simulator.getSimulationSpeed());
+            out.printf(Locale.ROOT, "simulation_engine=%s%n", config.getSimulationEngine());
+            out.printf(Locale.ROOT, "traffic_light_mode=%d%n", config.getTrafficLightMode());
+            out.printf(Locale.ROOT, "vehicles_generated=%d%n", stats.getTotalVehiclesGenerated());
+            out.printf(Locale.ROOT, "vehicles_arrived=%d%n", stats.getVehiclesArrived());
+            out.printf(Locale.ROOT, "vehicles_active=%d%n", simulator.getActiveVehicleCount());
+            out.printf(Locale.ROOT, "average_travel_time_seconds=%.2f%n", stats.getAverageTravelTime());
+            out.printf(Locale.ROOT, "average_wait_time_seconds=%.2f%n", stats.getAverageWaitTime());
+            out.printf(Locale.ROOT, "total_fuel_liters=%.3f%n", stats.getTotalFuelConsumed());
+            out.printf(Locale.ROOT, "average_fuel_liters_per_vehicle=%.3f%n", stats.getAverageFuelConsumptionPerVehicle());
+            out.printf(Locale.ROOT, "max_congestion_percent=%.2f%n", stats.getMaxRecordedCongestionRatio());
+            out.printf(Locale.ROOT, "average_congestion_percent=%.2f%n", stats.getAverageCongestionIndex());
+        }
+    }
+}
@@ -90,7 +90,7 @@ public class HelloApplication extends Application {
                 ", Duração Total: " + config.getSimulationDuration() + "s, Parar Geração em: " + config.getVehicleGenerationStopTime() + "s");
 
         this.simulator = new Simulator(graph, config); // Simulator também usa o mesmo objeto config
-        Visualizer visualizer = new Visualizer(graph, this.simulator);
+        Visualizer visualizer = new Visualizer(this.simulator.getGraph(), this.simulator); // Pode ser o grafo recortado pelo Simulator
 
         try {
             visualizer.start(primaryStage);
@@ -12,6 +12,7 @@ public class AdaptiveQueueStrategy implements TrafficLightControlStrategy {
     private int queueThresholdParam;
     private double minGreenTimeParam;
     private double incrementPerVehicleParam;
+    private final NextPhaseDecision decision = new NextPhaseDecision(null, 0.0); // Reaproveitada a cada troca de fase
 
     public AdaptiveQueueStrategy(double baseGreen, double yellow, double maxGreen,
                                  int threshold, double minGreen, double incrementPerVehicle) {
@@ -70,7 +71,7 @@ public class AdaptiveQueueStrategy implements TrafficLightControlStrategy {
                 durationDetermined = calculateAdaptiveGreenTime(light, queueSizes, false, isPeakHour);
                 break;
         }
-        return new NextPhaseDecision(nextPhaseDetermined, durationDetermined);
+        return decision.set(nextPhaseDetermined, durationDetermined);
     }
 
     private double calculateAdaptiveGreenTime(TrafficLight light, int[] queueSizes, boolean isEastWestGreenPhase, boolean isPeakHour) {
@@ -11,6 +11,7 @@ public class EnergySavingStrategy implements TrafficLightControlStrategy {
     private double strategyMinGreenDuration;
     private int strategyLowTrafficThreshold;
     private double strategyMaxGreenDuration; // Teto máximo para o verde
+    private final NextPhaseDecision decision = new NextPhaseDecision(null, 0.0); // Reaproveitada a cada troca de fase
 
     public EnergySavingStrategy(double baseGreen, double yellow, double minGreen, int threshold, double maxGreen) {
         this.strategyBaseGreenDuration = baseGreen;
@@ -86,7 +87,7 @@ public class EnergySavingStrategy implements TrafficLightControlStrategy {
                 duration = calculateEnergySavingGreenTime(light, queueSizes, false, isPeakHour);
                 break;
         }
-        return new NextPhaseDecision(nextPhase, duration);
+        return decision.set(nextPhase, duration);
     }
 
     @Override
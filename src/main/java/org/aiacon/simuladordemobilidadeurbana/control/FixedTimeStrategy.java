@@ -9,6 +9,7 @@ public class FixedTimeStrategy implements TrafficLightControlStrategy {
 
     private double strategyGreenDuration;
     private double strategyYellowDuration;
+    private final NextPhaseDecision decision = new NextPhaseDecision(null, 0.0); // Reaproveitada a cada troca de fase
 
     public FixedTimeStrategy(double greenTime, double yellowTime) {
         this.strategyGreenDuration = greenTime;
@@ -90,7 +91,7 @@ public class FixedTimeStrategy implements TrafficLightControlStrategy {
                 duration = activeGreenDuration;
                 break;
         }
-        return new NextPhaseDecision(nextPhase, duration);
+        return decision.set(nextPhase, duration);
     }
 
     @Override
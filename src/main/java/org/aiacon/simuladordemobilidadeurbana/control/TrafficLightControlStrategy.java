@@ -13,7 +13,8 @@ public interface TrafficLightControlStrategy {
      * @param queueSizes Um array ou Map contendo o tamanho das filas para as direções relevantes do cruzamento.
      * Por exemplo, [norte, leste, sul, oeste] ou um Map com chaves de direção.
      * @param isPeakHour Indica se é horário de pico.
-     * @return Um objeto contendo a próxima fase e a duração calculada para essa fase.
+     * @return Um objeto contendo a próxima fase e a duração calculada para essa fase. As estratégias devolvem
+     * sempre a mesma instância, válida só até a próxima chamada (o passo do semáforo não aloca).
      */
     NextPhaseDecision decideNextPhase(TrafficLight light, double deltaTime, int[] queueSizes, boolean isPeakHour);
 
@@ -22,7 +22,6 @@ public class JsonParser {
      * @throws Exception    Se ocorrer um erro no processamento do JSON.
      */
     public static Graph loadGraph(String filename, Configuration config) throws IOException, Exception { // << ADICIONADO config
-        Graph graph = new Graph();
         StringBuilder jsonContent = new StringBuilder();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
@@ -33,8 +32,7 @@ public class JsonParser {
         }
 
         JSONObject json = new JSONObject(jsonContent.toString());
-        processJson(json, graph, config); // << PASSAR config
-        return graph;
+        return processJson(json, config); // << PASSAR config
     }
 
     /**
@@ -51,7 +49,6 @@ public class JsonParser {
             throw new IOException("InputStream é nulo, não foi possível localizar o arquivo JSON.");
         }
 
-        Graph graph = new Graph();
         StringBuilder jsonContent = new StringBuilder();
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
@@ -62,20 +59,24 @@ public class JsonParser {
         }
 
         JSONObject json = new JSONObject(jsonContent.toString());
-        processJson(json, graph, config); // << PASSAR config
-        return graph;
+        return processJson(json, config); // << PASSAR config
     }
 
     /**
-     * Processa o JSON para adicionar nós, arestas e semáforos ao grafo.
+     * Processa o JSON para criar o grafo com nós, arestas e semáforos. Cada nó recebe um índice denso na ordem do
+     * arquivo, registrado no {@link NodeDictionary} do grafo (ID do OSM <-> índice); as pontas das arestas e os
+     * semáforos são resolvidos para índices uma única vez, aqui.
      *
      * @param json  Objeto JSON contendo os dados do grafo.
-     * @param graph Instância do grafo a ser preenchida.
      * @param config Objeto de configuração da simulação. // << NOVO PARÂMETRO
+     * @return O grafo preenchido.
      */
-    private static void processJson(JSONObject json, Graph graph, Configuration config) { // << ADICIONADO config
-        System.out.println("<<<<< EXECUTANDO NOVA VERSÃO DO JsonParser.processJson! >>>>>");
+    private static Graph processJson(JSONObject json, Configuration config) { // << ADICIONADO config
+        boolean verbose = config == null || config.isVerboseLogging(); // Log de cada aresta carregada
         JSONArray nodesArray = json.getJSONArray("nodes");
+        JSONArray edgesArray = json.getJSONArray("edges");
+        // Arestas de mão dupla viram duas: reserva para o pior caso, sem crescer durante a carga
+        Graph graph = new Graph(nodesArray.length(), edgesArray.length() * 2);
         for (int i = 0; i < nodesArray.length(); i++) {
             JSONObject nodeJson = nodesArray.getJSONObject(i);
             Node newNode = new Node(
@@ -86,9 +87,10 @@ public class JsonParser {
             );
             graph.addNode(newNode);
         }
-        System.out.println("Total de nós carregados no grafo: " + graph.getNodes().size());
+        NodeDictionary dictionary = graph.getNodeDictionary();
+        System.out.println("Total de nós carregados no grafo: " + graph.getNodes().size() + " (" + dictionary.size() +
+                " IDs do OSM no dicionário de nós, " + String.format("%.1f", dictionary.estimatedBytes() / 1024.0) + " KB)");
 
-        JSONArray edgesArray = json.getJSONArray("edges");
         for (int i = 0; i < edgesArray.length(); i++) {
             JSONObject edgeJson = edgesArray.getJSONObject(i);
             String edgeId = edgeJson.getString("id");
@@ -101,26 +103,32 @@ public class JsonParser {
             int capacity = (int) (maxspeed / 10); // Pode necessitar de ajuste ou vir do JSON se disponível
 
             Edge forwardEdge = new Edge(edgeId, sourceNodeId, targetNodeId, length, travelTime, isOneWay, maxspeed, capacity);
-            graph.addEdge(forwardEdge);
-            Node sourceNode = graph.getNode(sourceNodeId);
+            graph.addEdge(forwardEdge); // Resolve as pontas para índices; daqui em diante só eles são usados
+            Node sourceNode = graph.getNodeByIndex(forwardEdge.getSourceIndex());
+            Node targetNode = graph.getNodeByIndex(forwardEdge.getTargetIndex());
             if (sourceNode != null) {
                 sourceNode.addEdge(forwardEdge);
-                System.out.println("ARESTA_JSON_PARSER: Aresta " + forwardEdge.getId() + " (origem: " + sourceNodeId + " -> destino: " + targetNodeId + ") adicionada ao nó de ORIGEM " + sourceNodeId);
+                if (verbose) System.out.println("ARESTA_JSON_PARSER: Aresta " + forwardEdge.getId() + " (origem: " + sourceNodeId + " -> destino: " + targetNodeId + ") adicionada ao nó de ORIGEM " + sourceNodeId);
             } else {
                 System.err.println("AVISO_JSON_PARSER: Nó de origem com ID " + sourceNodeId + " não encontrado para a aresta " + forwardEdge.getId());
             }
+            if (targetNode != null) {
+                targetNode.addIncomingEdge(forwardEdge); // Adjacência reversa, usada pela busca bidirecional
+            }
 
             if (!isOneWay) {
                 String reverseEdgeId = edgeId + "_rev";
                 Edge reverseEdge = new Edge(reverseEdgeId, targetNodeId, sourceNodeId, length, travelTime, false, maxspeed, capacity);
                 graph.addEdge(reverseEdge);
-                Node targetNodeOriginalEdge = graph.getNode(targetNodeId);
-                if (targetNodeOriginalEdge != null) {
-                    targetNodeOriginalEdge.addEdge(reverseEdge);
-                    System.out.println("ARESTA_JSON_PARSER: Aresta REVERSA " + reverseEdge.getId() + " (origem: " + targetNodeId + " -> destino: " + sourceNodeId + ") adicionada ao nó de ORIGEM " + targetNodeId);
+                if (targetNode != null) {
+                    targetNode.addEdge(reverseEdge);
+                    if (verbose) System.out.println("ARESTA_JSON_PARSER: Aresta REVERSA " + reverseEdge.getId() + " (origem: " + targetNodeId + " -> destino: " + sourceNodeId + ") adicionada ao nó de ORIGEM " + targetNodeId);
                 } else {
                     System.err.println("AVISO_JSON_PARSER: Nó de destino (para origem da aresta reversa) com ID " + targetNodeId + " não encontrado para a aresta " + forwardEdge.getId());
                 }
+                if (sourceNode != null) {
+                    sourceNode.addIncomingEdge(reverseEdge);
+                }
             }
         }
         System.out.println("Total de arestas carregadas no grafo (incluindo reversas): " + graph.getEdges().size());
@@ -145,7 +153,7 @@ public class JsonParser {
                         config // << PASSANDO O OBJETO CONFIGURATION
                 ));
 
-                Node trafficNode = graph.getNode(trafficLightNodeId);
+                Node trafficNode = graph.getNodeByIndex(graph.indexOf(trafficLightNodeId));
                 if (trafficNode != null) {
                     trafficNode.isTrafficLight = true;
                 } else {
@@ -156,5 +164,6 @@ public class JsonParser {
         } else {
             System.out.println("Nenhum semáforo encontrado no JSON (chave 'traffic_lights' ausente).");
         }
+        return graph;
     }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+// Lista genérica sobre array redimensionável: acesso por índice O(1) e nenhuma alocação por elemento
+public class CustomArrayList<T> implements Iterable<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] elements;
+    private int size;
+
+    public CustomArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CustomArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacidade inicial negativa: " + initialCapacity);
+        }
+        this.elements = new Object[Math.max(1, initialCapacity)];
+        this.size = 0;
+    }
+
+    // Adicionar um item no final da lista - O(1) amortizado
+    public void add(T item) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = item;
+    }
+
+    // Obter um item pelo índice - O(1)
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        return (T) elements[index];
+    }
+
+    // Substituir o item da posição informada - O(1)
+    @SuppressWarnings("unchecked")
+    public T set(int index, T item) {
+        checkIndex(index);
+        T previous = (T) elements[index];
+        elements[index] = item;
+        return previous;
+    }
+
+    public T getFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("A lista está vazia.");
+        }
+        return get(0);
+    }
+
+    public T getLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("A lista está vazia.");
+        }
+        return get(size - 1);
+    }
+
+    // Remover o último item - O(1)
+    public T removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Não é possível remover de uma lista vazia.");
+        }
+        T data = get(size - 1);
+        elements[--size] = null;
+        return data;
+    }
+
+    // Retornar o tamanho da lista - O(1)
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Retornar o índice do item - O(N)
+    public int indexOf(T item) {
+        for (int i = 0; i < size; i++) {
+            if (item == null ? elements[i] == null : item.equals(elements[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(T item) {
+        return indexOf(item) != -1;
+    }
+
+    // Remover a primeira ocorrência do item, deslocando os seguintes - O(N)
+    public boolean remove(T item) {
+        int index = indexOf(item);
+        if (index == -1) {
+            return false;
+        }
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        return true;
+    }
+
+    /**
+     * Remove, no próprio array, todos os itens para os quais {@code filter} retorna true, mantendo a ordem
+     * dos demais. O filtro é chamado exatamente uma vez por item, na ordem da lista. O(N), sem alocação.
+     *
+     * @return quantos itens foram removidos.
+     */
+    @SuppressWarnings("unchecked")
+    public int removeIf(Predicate<? super T> filter) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            T item = (T) elements[i];
+            if (!filter.test(item)) {
+                elements[kept++] = item;
+            }
+        }
+        int removed = size - kept;
+        Arrays.fill(elements, kept, size, null); // Libera as referências para o GC
+        size = kept;
+        return removed;
+    }
+
+    // Esvaziar a lista mantendo a capacidade alocada
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice inválido: " + index + " para tamanho " + size);
+        }
+    }
+
+    // O iterador lê o array e o tamanho do momento em que foi criado e não falha se a lista mudar durante a
+    // iteração. A lista não é sincronizada: uma thread que itera enquanto outra altera a lista (por exemplo, um
+    // removeIf compactando o array) pode ver null nas posições esvaziadas, o mesmo elemento duas vezes (lido antes
+    // e depois de ser movido para trás), pular elementos ou ler valores desatualizados. Quem lê de outra thread
+    // deve tolerar isso; a interface recebe uma cópia (Simulator.getVehicles) e não depende deste comportamento.
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final Object[] snapshot = elements;
+            private final int end = Math.min(size, snapshot.length);
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Não há mais elementos na lista.");
+                }
+                return (T) snapshot[index++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "[]";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < size; i++) {
+            sb.append(elements[i] == null ? "null" : elements[i].toString());
+            if (i + 1 < size) {
+                sb.append(" -> ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -9,7 +9,9 @@ public class Edge {
     private boolean oneway; // Mão única (true) ou dupla (false)
     private double maxspeed; // Velocidade máxima em km/h
     private int capacity; // Capacidade de fluxo (veículos)
-    public Edge next; // Para lista encadeada
+    private Graph owner; // Grafo ao qual a aresta pertence, notificado quando o tempo de viagem muda
+    private int sourceIndex = -1; // Índices densos das pontas, resolvidos por Graph#addEdge (-1 se desconhecido)
+    private int targetIndex = -1;
 
     // Construtor
     public Edge(String id, String source, String target, double length, double travelTime,
@@ -22,7 +24,6 @@ public class Edge {
         this.oneway = oneway;
         this.maxspeed = maxspeed;
         this.capacity = capacity;
-        this.next = null;
     }
 
     // Getters e Setters
@@ -36,6 +37,7 @@ public class Edge {
 
     public void setSource(String source) {
         this.source = source;
+        this.sourceIndex = -1; // O ID mudou: o índice resolvido não vale mais
     }
 
     public String getTarget() {
@@ -44,6 +46,22 @@ public class Edge {
 
     public void setTarget(String target) {
         this.target = target;
+        this.targetIndex = -1;
+    }
+
+    // Índice denso do nó de origem, ou -1 se a aresta entrou no grafo antes do nó
+    public int getSourceIndex() {
+        return sourceIndex;
+    }
+
+    // Índice denso do nó de destino, ou -1 se a aresta entrou no grafo antes do nó
+    public int getTargetIndex() {
+        return targetIndex;
+    }
+
+    void setNodeIndices(int sourceIndex, int targetIndex) {
+        this.sourceIndex = sourceIndex;
+        this.targetIndex = targetIndex;
     }
 
     public double getLength() {
@@ -59,7 +77,15 @@ public class Edge {
     }
 
     public void setTravelTime(double travelTime) {
+        if (Double.compare(this.travelTime, travelTime) == 0) return;
         this.travelTime = travelTime;
+        if (owner != null) {
+            owner.onTravelTimeChanged();
+        }
+    }
+
+    void setOwner(Graph owner) {
+        this.owner = owner;
     }
 
     public boolean isOneway() {
@@ -0,0 +1,109 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.util.Arrays;
+
+/**
+ * Índice de arestas por par (origem, destino) de índices densos de nós: tabela hash de endereçamento aberto
+ * (sondagem linear) com chaves {@code long} primitivas, sem objetos por entrada.
+ * A chave empacota a origem nos 32 bits altos e o destino nos 32 baixos; o valor é um inteiro não negativo
+ * (a posição da aresta na estrutura que mantém o índice). Com arestas paralelas vale a primeira inserida,
+ * a mesma que uma varredura da lista de adjacência encontraria primeiro.
+ */
+public class EdgeIndex {
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] values; // EMPTY marca posição livre
+    private int mask;
+    private int size;
+
+    public EdgeIndex(int expectedEdges) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedEdges) * 2 - 1) << 1; // Fator de carga <= 0,5
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        this.mask = capacity - 1;
+    }
+
+    private static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    // Espalha os bits da chave (finalizador do MurmurHash3) antes de aplicar a máscara
+    private static int slotOf(long key, int mask) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    /**
+     * Associa {@code value} ao par (from, to) se o par ainda não estiver no índice.
+     *
+     * @return true se inseriu; false se o par já existia (o valor anterior é mantido).
+     */
+    public boolean putIfAbsent(int from, int to, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Valor do índice de arestas deve ser não negativo: " + value);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        long key = key(from, to);
+        int slot = slotOf(key, mask);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return true;
+    }
+
+    // Valor associado ao par (from, to), ou -1 se não houver aresta entre eles
+    public int get(int from, int to) {
+        long key = key(from, to);
+        int slot = slotOf(key, mask);
+        int value;
+        while ((value = values[slot]) != EMPTY) {
+            if (keys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public boolean contains(int from, int to) {
+        return get(from, to) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == EMPTY) continue;
+            int slot = slotOf(oldKeys[i], mask);
+            while (values[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
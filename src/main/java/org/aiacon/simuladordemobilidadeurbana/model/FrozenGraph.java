@@ -0,0 +1,206 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+/**
+ * Retrato imutável da topologia de um {@link Graph}, obtido por {@link Graph#freeze()} depois do carregamento.
+ * Os nós são identificados pelo índice denso atribuído pelo Graph (ver {@link Node#getIndex()}) e as arestas de
+ * saída de cada nó ficam contíguas em arrays primitivos (formato CSR): as arestas do nó {@code u} ocupam as
+ * posições {@code [offsets[u], offsets[u + 1])}, na mesma ordem da lista de adjacência do nó. A adjacência
+ * reversa (arestas de entrada) é a transposta desses arrays e contém exatamente as mesmas arestas.
+ * <p>
+ * Entram apenas as arestas transitáveis: destino existente no grafo e tempo de viagem positivo e finito no
+ * momento do congelamento. Os tempos de viagem guardados aqui são os desse momento; quem precisa dos tempos
+ * atuais (o roteamento) lê de {@link #getEdge(int)}.
+ */
+public final class FrozenGraph {
+    private final Graph source;
+    private final int nodeCount;
+    private final int sourceEdgeCount; // Tamanho de graph.getEdges() no momento do congelamento
+    private final String[] nodeIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final boolean[] trafficLights;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] lengths;
+    private final double[] travelTimes;
+    private final Edge[] edges;
+    private final int[] inOffsets;   // Arestas de entrada do nó v: posições [inOffsets[v], inOffsets[v + 1])
+    private final int[] inSources;   // Origem de cada aresta de entrada
+    private final int[] inEdgeSlots; // Posição da mesma aresta nos arrays de saída
+    private volatile SpatialGrid spatialGrid; // Construído na primeira consulta espacial (ver getSpatialGrid())
+
+    FrozenGraph(Graph graph) {
+        this.source = graph;
+        this.nodeCount = graph.getNodes().size();
+        this.sourceEdgeCount = graph.getEdges() != null ? graph.getEdges().size() : 0;
+        this.nodeIds = new String[nodeCount];
+        this.latitudes = new double[nodeCount];
+        this.longitudes = new double[nodeCount];
+        this.trafficLights = new boolean[nodeCount];
+        this.offsets = new int[nodeCount + 1];
+
+        // Primeira passada: coordenadas e grau de saída
+        int totalEdges = 0;
+        for (int u = 0; u < nodeCount; u++) {
+            Node node = graph.getNodeByIndex(u);
+            offsets[u] = totalEdges;
+            if (node == null) continue;
+            nodeIds[u] = node.getId();
+            latitudes[u] = node.getLatitude();
+            longitudes[u] = node.getLongitude();
+            trafficLights[u] = node.isTrafficLight;
+            if (node.getEdges() == null) continue;
+            for (Edge edge : node.getEdges()) {
+                if (targetIndexOf(graph, edge) >= 0) {
+                    totalEdges++;
+                }
+            }
+        }
+        offsets[nodeCount] = totalEdges;
+
+        // Segunda passada: arestas na ordem original das listas de adjacência
+        this.targets = new int[totalEdges];
+        this.lengths = new double[totalEdges];
+        this.travelTimes = new double[totalEdges];
+        this.edges = new Edge[totalEdges];
+        for (int u = 0; u < nodeCount; u++) {
+            Node node = graph.getNodeByIndex(u);
+            if (node == null || node.getEdges() == null) continue;
+            int slot = offsets[u];
+            for (Edge edge : node.getEdges()) {
+                int v = targetIndexOf(graph, edge);
+                if (v < 0) continue;
+                targets[slot] = v;
+                lengths[slot] = edge.getLength();
+                travelTimes[slot] = edge.getTravelTime();
+                edges[slot] = edge;
+                slot++;
+            }
+        }
+
+        // Adjacência reversa: contagem por destino, soma de prefixos e preenchimento em ordem de origem
+        this.inOffsets = new int[nodeCount + 1];
+        this.inSources = new int[totalEdges];
+        this.inEdgeSlots = new int[totalEdges];
+        for (int e = 0; e < totalEdges; e++) {
+            inOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] fill = new int[nodeCount];
+        for (int u = 0; u < nodeCount; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                int slot = inOffsets[v] + fill[v]++;
+                inSources[slot] = u;
+                inEdgeSlots[slot] = e;
+            }
+        }
+    }
+
+    // Índice do destino da aresta, ou -1 se a aresta não é transitável
+    private static int targetIndexOf(Graph graph, Edge edge) {
+        if (edge == null) return -1;
+        double travelTime = edge.getTravelTime();
+        if (travelTime <= 0 || travelTime == Double.POSITIVE_INFINITY || Double.isNaN(travelTime)) {
+            return -1;
+        }
+        int target = edge.getTargetIndex();
+        return (target >= 0) ? target : graph.indexOf(edge.getTarget());
+    }
+
+    // Indica se o grafo de origem ganhou nós ou arestas depois do congelamento
+    public boolean isStale() {
+        return source.getNodes().size() != nodeCount
+                || (source.getEdges() != null ? source.getEdges().size() : 0) != sourceEdgeCount;
+    }
+
+    public Graph getSource() { return source; }
+    public int getNodeCount() { return nodeCount; }
+    public int getEdgeCount() { return targets.length; }
+
+    // Índice denso do nó com o ID informado, ou -1 se não existir
+    public int indexOf(String nodeId) {
+        return source.indexOf(nodeId);
+    }
+
+    // Índice denso do destino da aresta, pelo índice já resolvido na aresta quando houver
+    public int targetIndexOf(Edge edge) {
+        int target = edge.getTargetIndex();
+        return (target >= 0) ? target : source.indexOf(edge.getTarget());
+    }
+
+    public String getNodeId(int node) { return nodeIds[node]; }
+    public double getLatitude(int node) { return latitudes[node]; }
+    public double getLongitude(int node) { return longitudes[node]; }
+    public boolean isTrafficLight(int node) { return trafficLights[node]; }
+
+    public int firstEdge(int node) { return offsets[node]; }
+    public int lastEdge(int node) { return offsets[node + 1]; } // Exclusivo
+    public int getOutDegree(int node) { return offsets[node + 1] - offsets[node]; }
+    public int getTarget(int edge) { return targets[edge]; }
+    public double getLength(int edge) { return lengths[edge]; }
+    public double getTravelTime(int edge) { return travelTimes[edge]; } // Tempo no momento do congelamento
+    public Edge getEdge(int edge) { return edges[edge]; }
+
+    public int firstIncomingEdge(int node) { return inOffsets[node]; }
+    public int lastIncomingEdge(int node) { return inOffsets[node + 1]; } // Exclusivo
+    public int getIncomingSource(int incoming) { return inSources[incoming]; }
+    public int getIncomingEdgeSlot(int incoming) { return inEdgeSlots[incoming]; }
+
+    // Posição da primeira aresta de from para to, ou -1 se não houver
+    public int findEdge(int from, int to) {
+        for (int e = offsets[from], end = offsets[from + 1]; e < end; e++) {
+            if (targets[e] == to) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    // Índice espacial das coordenadas dos nós, construído uma vez e compartilhado (interface, gerador de viagens)
+    public SpatialGrid getSpatialGrid() {
+        SpatialGrid grid = spatialGrid;
+        if (grid == null) {
+            synchronized (this) {
+                grid = spatialGrid;
+                if (grid == null) {
+                    grid = new SpatialGrid(this);
+                    spatialGrid = grid;
+                }
+            }
+        }
+        return grid;
+    }
+
+    // Busca em largura pelas arestas de saída: quantos nós são alcançáveis a partir de start (incluindo ele)
+    public int countReachable(int start) {
+        if (start < 0 || start >= nodeCount) return 0;
+        boolean[] visited = new boolean[nodeCount];
+        int[] queue = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        visited[start] = true;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = offsets[u], end = offsets[u + 1]; e < end; e++) {
+                int v = targets[e];
+                if (!visited[v]) {
+                    visited[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return tail;
+    }
+
+    // Memória aproximada dos arrays (sem contar as Strings de ID e os objetos Edge, compartilhados com o Graph)
+    public long estimatedBytes() {
+        long n = nodeCount;
+        long m = targets.length;
+        return n * (2L * Double.BYTES + 1 + 2L * Integer.BYTES + 8)
+                + m * (3L * Integer.BYTES + 2L * Double.BYTES + 8);
+    }
+}
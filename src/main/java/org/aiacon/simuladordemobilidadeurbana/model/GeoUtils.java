@@ -0,0 +1,23 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+// Funções geográficas auxiliares sobre coordenadas em graus (WGS84)
+public final class GeoUtils {
+    public static final double EARTH_RADIUS_METERS = 6371008.8; // Raio médio da Terra
+
+    private GeoUtils() {
+    }
+
+    // Distância de grande círculo (fórmula de haversine) em metros
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    public static double haversineMeters(Node a, Node b) {
+        return haversineMeters(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+    }
+}
@@ -1,7 +1,9 @@
 package org.aiacon.simuladordemobilidadeurbana.model;
 
-import java.util.HashMap; // Importar HashMap
-import java.util.Map;    // Importar Map
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 // Representa o grafo da rede urbana
 public class Graph {
@@ -9,21 +11,56 @@ public class Graph {
     private CustomLinkedList<Edge> edgesList; // Usando a CustomLinkedList refatorada
     private CustomLinkedList<TrafficLight> trafficLightsList; // Usando a CustomLinkedList refatorada
 
-    // Estrutura auxiliar permitida para busca rápida de nós por ID
-    private Map<String, Node> nodeMap;
+    // IDs do OSM <-> índices densos, em arrays primitivos; IDs que não são números do OSM ficam no mapa auxiliar
+    private NodeDictionary nodeDictionary;
+    private Map<String, Node> nonNumericNodes; // Criado só se algum nó tiver ID não numérico
+    private Node[] nodesByIndex; // nodesByIndex[i] = nó com índice denso i (busca O(1) por índice)
+    private Edge[] edgesByOrdinal; // Arestas na ordem de inserção, indexadas pelo edgeIndex
+    private EdgeIndex edgeIndex; // (índice da origem, índice do destino) -> posição em edgesByOrdinal
+    private int unindexedEdges; // Arestas adicionadas antes de seus nós; só encontradas pela varredura da lista
+    private int unattachedTrafficLights; // Semáforos cujo nó não existia ao serem adicionados
+
+    // Retrato CSR imutável da topologia (ver freeze()); descartado quando nós ou arestas são adicionados
+    private volatile FrozenGraph frozen;
+
+    // Incrementado sempre que o tempo de viagem de uma aresta do grafo muda (ver Edge#setTravelTime)
+    private volatile long weightVersion;
 
     public Graph() {
+        this(16, 16);
+    }
+
+    // Com os tamanhos conhecidos (ex.: lidos do JSON), os arrays e o dicionário não precisam crescer na carga
+    public Graph(int expectedNodes, int expectedEdges) {
         this.nodesList = new CustomLinkedList<>();
         this.edgesList = new CustomLinkedList<>();
         this.trafficLightsList = new CustomLinkedList<>();
-        this.nodeMap = new HashMap<>(); // Inicializar o HashMap
+        this.nodeDictionary = new NodeDictionary(expectedNodes);
+        this.nodesByIndex = new Node[Math.max(16, expectedNodes)];
+        this.edgesByOrdinal = new Edge[Math.max(16, expectedEdges)];
+        this.edgeIndex = new EdgeIndex(Math.max(16, expectedEdges));
     }
 
     public void addNode(Node node) {
         if (node != null && node.getId() != null && !node.getId().isEmpty()) {
-            if (!this.nodeMap.containsKey(node.getId())) {
+            if (indexOf(node.getId()) < 0) {
+                int index = this.nodesList.size();
+                node.setIndex(index); // Índices densos na ordem de inserção
+                if (index == nodesByIndex.length) {
+                    nodesByIndex = Arrays.copyOf(nodesByIndex, index * 2);
+                }
+                nodesByIndex[index] = node;
                 this.nodesList.add(node); // Adiciona à sua lista personalizada
-                this.nodeMap.put(node.getId(), node); // Adiciona ao HashMap
+                long osmId = NodeDictionary.parseId(node.getId());
+                if (osmId != NodeDictionary.NO_ID) {
+                    nodeDictionary.put(osmId, index);
+                } else {
+                    if (nonNumericNodes == null) {
+                        nonNumericNodes = new HashMap<>();
+                    }
+                    nonNumericNodes.put(node.getId(), node);
+                }
+                this.frozen = null;
                 // System.out.println("Nó adicionado ao grafo: " + node.getId()); // Log no JsonParser é melhor
             } else {
                 // System.err.println("GRAPH_ADD_NODE: Tentativa de adicionar nó com ID duplicado: " + node.getId());
@@ -37,23 +74,140 @@ public class Graph {
         return this.nodesList;
     }
 
-    // Busca um nó específico no grafo pelo seu ID usando o HashMap
+    // Busca um nó específico no grafo pelo seu ID, pelo dicionário de IDs do OSM
     public Node getNode(String nodeId) {
+        int index = indexOf(nodeId);
+        return (index >= 0) ? nodesByIndex[index] : null;
+    }
+
+    /**
+     * Índice denso do nó com o ID informado, ou -1 se não existir. Este é o ponto de entrada dos IDs em texto:
+     * daqui para dentro, nós são identificados pelo índice.
+     */
+    public int indexOf(String nodeId) {
         if (nodeId == null || nodeId.isEmpty()) {
-            return null;
+            return -1;
+        }
+        long osmId = NodeDictionary.parseId(nodeId);
+        if (osmId != NodeDictionary.NO_ID) {
+            return nodeDictionary.indexOf(osmId);
         }
-        return this.nodeMap.get(nodeId); // Busca O(1) em média
+        Node node = (nonNumericNodes != null) ? nonNumericNodes.get(nodeId) : null;
+        return (node != null) ? node.getIndex() : -1;
+    }
+
+    public NodeDictionary getNodeDictionary() {
+        return nodeDictionary;
     }
 
     public void addEdge(Edge edge) {
         if (edge != null) {
+            int ordinal = this.edgesList.size();
+            if (ordinal == edgesByOrdinal.length) {
+                edgesByOrdinal = Arrays.copyOf(edgesByOrdinal, ordinal * 2);
+            }
+            edgesByOrdinal[ordinal] = edge;
+            // As pontas são resolvidas uma vez aqui; depois a aresta é consultada pelos índices
+            int sourceIndex = indexOf(edge.getSource());
+            int targetIndex = indexOf(edge.getDestination());
+            edge.setNodeIndices(sourceIndex, targetIndex);
+            if (sourceIndex >= 0 && targetIndex >= 0) {
+                edgeIndex.putIfAbsent(sourceIndex, targetIndex, ordinal);
+            } else {
+                unindexedEdges++;
+            }
             this.edgesList.add(edge);
+            edge.setOwner(this);
+            this.frozen = null;
             // System.out.println("Aresta adicionada ao grafo: origem=" + edge.getSource() + ", destino=" + edge.getDestination());
         } else {
             System.err.println("GRAPH_ADD_EDGE: Tentativa de adicionar uma aresta nula.");
         }
     }
 
+    /**
+     * Congela a topologia atual em um {@link FrozenGraph} (arrays primitivos em formato CSR). O retrato é
+     * construído uma vez e reaproveitado enquanto o grafo não ganhar nós nem arestas; a API de construção
+     * (addNode/addEdge) continua valendo durante o carregamento.
+     */
+    public FrozenGraph freeze() {
+        FrozenGraph current = frozen;
+        if (current != null && !current.isStale()) {
+            return current;
+        }
+        synchronized (this) {
+            current = frozen;
+            if (current == null || current.isStale()) {
+                current = new FrozenGraph(this);
+                frozen = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Novo grafo só com os nós marcados em keep (pelo índice denso), as arestas entre eles e os seus semáforos.
+     * Nós e arestas são copiados (os índices são renumerados na ordem original); os semáforos são os mesmos
+     * objetos. Usado para descartar as partes do mapa fora da maior componente fortemente conexa
+     * (ver {@link StronglyConnectedComponents}).
+     */
+    public Graph inducedSubgraph(boolean[] keep) {
+        int kept = 0;
+        for (int i = 0; i < nodesList.size(); i++) {
+            if (i < keep.length && keep[i] && nodesByIndex[i] != null) kept++;
+        }
+        Graph subgraph = new Graph(kept, edgesList.size());
+        for (int i = 0; i < nodesList.size(); i++) {
+            Node node = nodesByIndex[i];
+            if (i < keep.length && keep[i] && node != null) {
+                subgraph.addNode(new Node(node.getId(), node.getLatitude(), node.getLongitude(), node.isTrafficLight));
+            }
+        }
+        // Arestas de saída na ordem das listas de adjacência; as de entrada reaproveitam as mesmas cópias
+        Map<Edge, Edge> copies = new IdentityHashMap<>();
+        for (int i = 0; i < nodesList.size(); i++) {
+            Node node = nodesByIndex[i];
+            if (i >= keep.length || !keep[i] || node == null) continue;
+            Node copySource = subgraph.getNode(node.getId());
+            for (Edge edge : node.getEdges()) {
+                int target = edge.getTargetIndex();
+                if (target < 0 || target >= keep.length || !keep[target]) continue;
+                Edge copy = new Edge(edge.getId(), edge.getSource(), edge.getTarget(), edge.getLength(),
+                        edge.getTravelTime(), edge.isOneway(), edge.getMaxspeed(), edge.getCapacity());
+                subgraph.addEdge(copy);
+                copySource.addEdge(copy);
+                copies.put(edge, copy);
+            }
+        }
+        for (int i = 0; i < nodesList.size(); i++) {
+            Node node = nodesByIndex[i];
+            if (i >= keep.length || !keep[i] || node == null) continue;
+            Node copyTarget = subgraph.getNode(node.getId());
+            for (Edge edge : node.getIncomingEdges()) {
+                Edge copy = copies.get(edge);
+                if (copy != null) {
+                    copyTarget.addIncomingEdge(copy);
+                }
+            }
+        }
+        for (TrafficLight tl : trafficLightsList) {
+            if (tl != null && subgraph.containsNode(tl.getNodeId())) {
+                subgraph.addTrafficLight(tl);
+            }
+        }
+        return subgraph;
+    }
+
+    // Versão dos pesos: estruturas derivadas (grafo de roteamento, landmarks, CH) comparam este valor para saber
+    // se precisam reler os tempos de viagem
+    public long getWeightVersion() {
+        return weightVersion;
+    }
+
+    synchronized void onTravelTimeChanged() {
+        weightVersion++;
+    }
+
     public CustomLinkedList<Edge> getEdges() {
         return this.edgesList;
     }
@@ -61,6 +215,15 @@ public class Graph {
     public void addTrafficLight(TrafficLight trafficLight) {
         if (trafficLight != null) {
             this.trafficLightsList.add(trafficLight);
+            // Associa o semáforo ao nó para a busca nó -> semáforo ser O(1); com duplicatas vale o primeiro
+            Node node = getNode(trafficLight.getNodeId());
+            if (node != null) {
+                if (node.getTrafficLight() == null) {
+                    node.setTrafficLight(trafficLight);
+                }
+            } else {
+                unattachedTrafficLights++;
+            }
             // System.out.println("Semáforo adicionado ao grafo: " + trafficLight);
         } else {
             System.err.println("GRAPH_ADD_TRAFFIC_LIGHT: Tentativa de adicionar um semáforo nulo.");
@@ -71,29 +234,70 @@ public class Graph {
         return this.trafficLightsList;
     }
 
-    public boolean containsNode(String nodeId) {
-        if (nodeId == null || nodeId.isEmpty()) {
-            return false;
+    // Semáforo do nó, ou null. O(1) pela referência guardada no Node
+    public TrafficLight getTrafficLight(String nodeId) {
+        if (nodeId == null) return null;
+        Node node = getNode(nodeId);
+        if (node != null && node.getTrafficLight() != null) {
+            return node.getTrafficLight();
+        }
+        if (unattachedTrafficLights == 0) {
+            return null;
+        }
+        // Semáforos adicionados antes do seu nó: varredura da lista, como antes da associação
+        for (TrafficLight tl : this.trafficLightsList) {
+            if (tl != null && nodeId.equals(tl.getNodeId())) {
+                return tl;
+            }
+        }
+        return null;
+    }
+
+    // Nó pelo índice denso (ver Node#getIndex()), ou null se o índice for inválido
+    public Node getNodeByIndex(int index) {
+        if (index < 0 || index >= nodesList.size()) {
+            return null;
         }
-        return this.nodeMap.containsKey(nodeId); // O(1) em média
+        return nodesByIndex[index];
+    }
+
+    public boolean containsNode(String nodeId) {
+        return indexOf(nodeId) >= 0;
     }
 
     public boolean containsEdge(String sourceId, String targetId) {
+        return getEdge(sourceId, targetId) != null;
+    }
+
+    // Primeira aresta adicionada de sourceId para targetId, ou null. O(1) pelo índice de arestas
+    public Edge getEdge(String sourceId, String targetId) {
         if (sourceId == null || targetId == null || sourceId.isEmpty() || targetId.isEmpty()) {
-            return false;
+            return null;
+        }
+        int sourceIndex = indexOf(sourceId);
+        int targetIndex = indexOf(targetId);
+        if (sourceIndex >= 0 && targetIndex >= 0) {
+            int ordinal = edgeIndex.get(sourceIndex, targetIndex);
+            if (ordinal >= 0) {
+                return edgesByOrdinal[ordinal];
+            }
         }
+        if (unindexedEdges == 0) {
+            return null;
+        }
+        // Restam apenas arestas que chegaram antes dos seus nós: varredura da lista global, como antes do índice
         for (Edge edge : this.edgesList) {
             if (edge == null) continue;
-            // Checagem primária
             if (edge.getSource().equals(sourceId) && edge.getDestination().equals(targetId)) {
-                return true;
+                return edge;
             }
-            // Se a lógica de bidirecionalidade ainda for necessária aqui (idealmente o JsonParser já trata isso
-            // criando duas arestas unidirecionais para 'oneway:false')
-            // if (!edge.isOneway() && edge.getSource().equals(targetId) && edge.getDestination().equals(sourceId)) {
-            // return true;
-            // }
         }
-        return false;
+        return null;
+    }
+
+    // Variante por índices densos, sem busca de IDs (apenas arestas indexadas)
+    public Edge getEdge(int sourceIndex, int targetIndex) {
+        int ordinal = edgeIndex.get(sourceIndex, targetIndex);
+        return (ordinal >= 0) ? edgesByOrdinal[ordinal] : null;
     }
-}
\ No newline at end of file
+}
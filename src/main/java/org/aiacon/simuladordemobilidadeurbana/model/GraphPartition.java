@@ -0,0 +1,313 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Partição dos nós de um {@link FrozenGraph} em k regiões espaciais, por bissecção recursiva de coordenadas: o
+ * conjunto de nós é cortado ao meio (na proporção do número de regiões de cada lado) pela mediana da coordenada do
+ * eixo mais comprido em metros, latitude ou longitude, e cada metade é cortada de novo até restar uma região por
+ * parte. As regiões ficam com o mesmo número de nós, a menos de um.
+ * <p>
+ * Um corte reto pode separar pedaços de uma região que só se ligam através da vizinha (um trecho do outro lado de
+ * um rio, por exemplo). Depois da bissecção, cada pedaço de uma região que não é o maior dela (considerando as
+ * ruas nos dois sentidos) passa para a região vizinha com que tem mais arestas em comum. O relatório
+ * ({@link #describe()}) mostra o que sobra de desequilíbrio, as arestas cortadas e os pedaços desconexos.
+ */
+public final class GraphPartition {
+    private static final double METERS_PER_DEGREE_LAT = Math.toRadians(1.0) * GeoUtils.EARTH_RADIUS_METERS;
+
+    private final FrozenGraph topology;
+    private final int regionCount;
+    private final int[] regionOf;       // Região de cada nó
+    private final int[] regionNodes;    // Nós por região
+    private final int[] regionEdges;    // Arestas que saem de nós da região
+    private final int[] regionLights;   // Nós com semáforo por região
+    private final int[] regionPieces;   // Pedaços desconexos (ruas nos dois sentidos) por região
+    private final int cutEdges;         // Arestas entre nós de regiões diferentes
+    private final int boundaryNodes;    // Nós com alguma aresta (de saída ou de entrada) para outra região
+    private final int movedNodes;       // Nós trocados de região para juntar pedaços desconexos
+
+    private GraphPartition(FrozenGraph topology, int regionCount, int[] regionOf, int movedNodes) {
+        this.topology = topology;
+        this.regionCount = regionCount;
+        this.regionOf = regionOf;
+        this.movedNodes = movedNodes;
+        this.regionNodes = new int[regionCount];
+        this.regionEdges = new int[regionCount];
+        this.regionLights = new int[regionCount];
+        int cut = 0;
+        boolean[] boundary = new boolean[topology.getNodeCount()];
+        for (int node = 0; node < topology.getNodeCount(); node++) {
+            int region = regionOf[node];
+            regionNodes[region]++;
+            regionEdges[region] += topology.getOutDegree(node);
+            if (topology.isTrafficLight(node)) regionLights[region]++;
+            for (int edge = topology.firstEdge(node); edge < topology.lastEdge(node); edge++) {
+                int target = topology.getTarget(edge);
+                if (regionOf[target] != region) {
+                    cut++;
+                    boundary[node] = true;
+                    boundary[target] = true;
+                }
+            }
+        }
+        int boundaryCount = 0;
+        for (boolean b : boundary) {
+            if (b) boundaryCount++;
+        }
+        this.cutEdges = cut;
+        this.boundaryNodes = boundaryCount;
+        this.regionPieces = countPieces(topology, regionOf, regionCount, new int[topology.getNodeCount()]);
+    }
+
+    /**
+     * Divide os nós em {@code regions} regiões (limitado ao número de nós, no mínimo 1) por bissecção recursiva de
+     * coordenadas, juntando depois os pedaços desconexos de cada região à vizinha mais ligada a eles.
+     */
+    public static GraphPartition recursiveCoordinateBisection(FrozenGraph topology, int regions) {
+        int nodeCount = topology.getNodeCount();
+        int k = Math.max(1, Math.min(regions, Math.max(1, nodeCount)));
+        int[] regionOf = new int[nodeCount];
+        int[] nodes = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            nodes[node] = node;
+        }
+        // Pilha explícita de partes a cortar: início, fim (exclusivo), primeira região e número de regiões
+        int[] stack = new int[4 * Math.max(1, 2 * k)];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = nodeCount;
+        stack[top++] = 0;
+        stack[top++] = k;
+        double[] keys = new double[nodeCount];
+        while (top > 0) {
+            int parts = stack[--top];
+            int firstRegion = stack[--top];
+            int to = stack[--top];
+            int from = stack[--top];
+            if (parts == 1 || to - from <= 1) {
+                for (int i = from; i < to; i++) {
+                    regionOf[nodes[i]] = firstRegion;
+                }
+                continue;
+            }
+            int leftParts = parts / 2;
+            int split = from + (int) ((long) (to - from) * leftParts / parts);
+            boolean byLatitude = latitudeExtentIsLonger(topology, nodes, from, to);
+            for (int i = from; i < to; i++) {
+                keys[nodes[i]] = byLatitude ? topology.getLatitude(nodes[i]) : topology.getLongitude(nodes[i]);
+            }
+            select(nodes, keys, from, to - 1, split);
+            stack[top++] = from;
+            stack[top++] = split;
+            stack[top++] = firstRegion;
+            stack[top++] = leftParts;
+            stack[top++] = split;
+            stack[top++] = to;
+            stack[top++] = firstRegion + leftParts;
+            stack[top++] = parts - leftParts;
+        }
+        int moved = mergeStrayPieces(topology, regionOf, k);
+        return new GraphPartition(topology, k, regionOf, moved);
+    }
+
+    private static boolean latitudeExtentIsLonger(FrozenGraph topology, int[] nodes, int from, int to) {
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            double lat = topology.getLatitude(nodes[i]);
+            double lon = topology.getLongitude(nodes[i]);
+            if (lat < minLat) minLat = lat;
+            if (lat > maxLat) maxLat = lat;
+            if (lon < minLon) minLon = lon;
+            if (lon > maxLon) maxLon = lon;
+        }
+        double metersPerDegreeLon = METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians((minLat + maxLat) / 2.0));
+        return (maxLat - minLat) * METERS_PER_DEGREE_LAT >= (maxLon - minLon) * metersPerDegreeLon;
+    }
+
+    // Rearranja nodes[lo..hi] para que a posição k tenha o nó de ordem k pela chave (empate: menor índice)
+    private static void select(int[] nodes, double[] keys, int lo, int hi, int k) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            // Mediana de três como pivô: a parte fica determinística e não degrada com nós já ordenados
+            if (before(nodes[mid], nodes[lo], keys)) swap(nodes, mid, lo);
+            if (before(nodes[hi], nodes[lo], keys)) swap(nodes, hi, lo);
+            if (before(nodes[hi], nodes[mid], keys)) swap(nodes, hi, mid);
+            int pivot = nodes[mid];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (before(nodes[i], pivot, keys)) i++;
+                while (before(pivot, nodes[j], keys)) j--;
+                if (i <= j) {
+                    swap(nodes, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean before(int a, int b, double[] keys) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private static void swap(int[] nodes, int i, int j) {
+        int t = nodes[i];
+        nodes[i] = nodes[j];
+        nodes[j] = t;
+    }
+
+    // Raiz do nó na floresta de união-busca, com compressão de caminho pela metade
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    // Pedaços de cada região: componentes das arestas internas, nos dois sentidos (pieceRoot recebe a raiz de cada nó)
+    private static int[] countPieces(FrozenGraph topology, int[] regionOf, int regionCount, int[] pieceRoot) {
+        int nodeCount = topology.getNodeCount();
+        for (int node = 0; node < nodeCount; node++) {
+            pieceRoot[node] = node;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = topology.firstEdge(node); edge < topology.lastEdge(node); edge++) {
+                int target = topology.getTarget(edge);
+                if (regionOf[target] != regionOf[node]) continue;
+                int a = find(pieceRoot, node), b = find(pieceRoot, target);
+                if (a != b) pieceRoot[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+        int[] pieces = new int[regionCount];
+        for (int node = 0; node < nodeCount; node++) {
+            if (find(pieceRoot, node) == node) pieces[regionOf[node]]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            pieceRoot[node] = find(pieceRoot, node);
+        }
+        return pieces;
+    }
+
+    // Passa cada pedaço que não é o maior da sua região para a região vizinha com mais arestas ligadas a ele
+    private static int mergeStrayPieces(FrozenGraph topology, int[] regionOf, int regionCount) {
+        int nodeCount = topology.getNodeCount();
+        int[] root = new int[nodeCount];
+        countPieces(topology, regionOf, regionCount, root);
+        int[] pieceSize = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            pieceSize[root[node]]++;
+        }
+        int[] largestPiece = new int[regionCount];
+        Arrays.fill(largestPiece, -1);
+        for (int node = 0; node < nodeCount; node++) {
+            if (root[node] != node) continue;
+            int region = regionOf[node];
+            if (largestPiece[region] < 0 || pieceSize[node] > pieceSize[largestPiece[region]]) largestPiece[region] = node;
+        }
+        // Votos de cada pedaço a mover: arestas (de saída e de entrada) para cada outra região
+        Map<Integer, int[]> votes = new HashMap<>();
+        for (int node = 0; node < nodeCount; node++) {
+            int piece = root[node];
+            if (piece == largestPiece[regionOf[node]]) continue;
+            int[] tally = votes.computeIfAbsent(piece, p -> new int[regionCount]);
+            for (int edge = topology.firstEdge(node); edge < topology.lastEdge(node); edge++) {
+                int target = topology.getTarget(edge);
+                if (regionOf[target] != regionOf[node]) tally[regionOf[target]]++;
+            }
+            for (int in = topology.firstIncomingEdge(node); in < topology.lastIncomingEdge(node); in++) {
+                int source = topology.getIncomingSource(in);
+                if (regionOf[source] != regionOf[node]) tally[regionOf[source]]++;
+            }
+        }
+        int[] destination = new int[nodeCount];
+        Arrays.fill(destination, -1);
+        for (Map.Entry<Integer, int[]> entry : votes.entrySet()) {
+            int[] tally = entry.getValue();
+            int best = -1;
+            for (int region = 0; region < regionCount; region++) {
+                if (tally[region] > 0 && (best < 0 || tally[region] > tally[best])) best = region;
+            }
+            destination[entry.getKey()] = best; // -1: pedaço isolado, sem vizinho em outra região; fica onde está
+        }
+        int moved = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            int target = destination[root[node]];
+            if (target >= 0) {
+                regionOf[node] = target;
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    public FrozenGraph getTopology() { return topology; }
+    public int getRegionCount() { return regionCount; }
+    public int getRegion(int node) { return regionOf[node]; }
+    public int getRegionNodeCount(int region) { return regionNodes[region]; }
+    public int getRegionEdgeCount(int region) { return regionEdges[region]; }
+    public int getRegionTrafficLightCount(int region) { return regionLights[region]; }
+    public int getRegionPieceCount(int region) { return regionPieces[region]; }
+    public int getCutEdgeCount() { return cutEdges; }
+    public int getBoundaryNodeCount() { return boundaryNodes; }
+    public int getMovedNodeCount() { return movedNodes; }
+
+    // Fração das arestas que ligam regiões diferentes
+    public double getCutEdgeFraction() {
+        return (topology.getEdgeCount() > 0) ? (double) cutEdges / topology.getEdgeCount() : 0.0;
+    }
+
+    // Maior região dividida pela média (1.0 = perfeitamente equilibrado), em nós e em arestas
+    public double getNodeImbalance() {
+        return imbalance(regionNodes);
+    }
+
+    public double getEdgeImbalance() {
+        return imbalance(regionEdges);
+    }
+
+    private double imbalance(int[] counts) {
+        long total = 0;
+        int max = 0;
+        for (int count : counts) {
+            total += count;
+            max = Math.max(max, count);
+        }
+        return (total > 0) ? max * (double) counts.length / total : 1.0;
+    }
+
+    // Relatório de qualidade para o log: cortes, desequilíbrio e pedaços desconexos
+    public String describe() {
+        int disconnected = 0;
+        for (int pieces : regionPieces) {
+            if (pieces > 1) disconnected++;
+        }
+        return String.format("%d região(ões); %d de %d arestas cortadas (%.1f%%), %d nós de fronteira; " +
+                        "desequilíbrio %.3f em nós e %.3f em arestas; %d nós trocados de região para juntar pedaços; " +
+                        "%d região(ões) ainda com mais de um pedaço",
+                regionCount, cutEdges, topology.getEdgeCount(), 100.0 * getCutEdgeFraction(), boundaryNodes,
+                getNodeImbalance(), getEdgeImbalance(), movedNodes, disconnected);
+    }
+
+    // Uma linha por região: nós, arestas, semáforos e pedaços
+    public String describeRegions() {
+        StringBuilder sb = new StringBuilder();
+        for (int region = 0; region < regionCount; region++) {
+            if (region > 0) sb.append(System.lineSeparator());
+            sb.append(String.format("  região %d: %d nós, %d arestas, %d semáforos, %d pedaço(s)",
+                    region, regionNodes[region], regionEdges[region], regionLights[region], regionPieces[region]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static org.aiacon.simuladordemobilidadeurbana.model.OffHeapVehicleColumns.*;
+
+// Colunas da VehicleStore como arrays primitivos paralelos no heap (uma coluna por campo)
+public final class HeapVehicleColumns implements VehicleColumns {
+    private double[] position;       // Posição na aresta atual (0 a 1)
+    private double[] travelTime;     // Tempo total de viagem (s)
+    private double[] waitTime;       // Tempo total de espera (s)
+    private double[] fuelConsumed;   // L
+    private double[] fuelRateMoving; // L/s em movimento
+    private double[] fuelRateIdle;   // L/s em marcha lenta
+    private int[] currentNode;       // Índice do nó atual (origem da aresta, se em movimento)
+    private int[] destinationNode;
+    private int[] currentEdge;       // Posição CSR da aresta sendo percorrida, ou -1
+    private int[] routeCursor;       // Posição do nó atual na rota
+    private byte[] flags;
+
+    public HeapVehicleColumns(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        position = new double[capacity];
+        travelTime = new double[capacity];
+        waitTime = new double[capacity];
+        fuelConsumed = new double[capacity];
+        fuelRateMoving = new double[capacity];
+        fuelRateIdle = new double[capacity];
+        currentNode = new int[capacity];
+        destinationNode = new int[capacity];
+        currentEdge = new int[capacity];
+        routeCursor = new int[capacity];
+        flags = new byte[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return flags.length;
+    }
+
+    @Override
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= flags.length) return;
+        int capacity = Math.max(minCapacity, flags.length * 2);
+        position = Arrays.copyOf(position, capacity);
+        travelTime = Arrays.copyOf(travelTime, capacity);
+        waitTime = Arrays.copyOf(waitTime, capacity);
+        fuelConsumed = Arrays.copyOf(fuelConsumed, capacity);
+        fuelRateMoving = Arrays.copyOf(fuelRateMoving, capacity);
+        fuelRateIdle = Arrays.copyOf(fuelRateIdle, capacity);
+        currentNode = Arrays.copyOf(currentNode, capacity);
+        destinationNode = Arrays.copyOf(destinationNode, capacity);
+        currentEdge = Arrays.copyOf(currentEdge, capacity);
+        routeCursor = Arrays.copyOf(routeCursor, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    @Override
+    public void clear(int slot) {
+        position[slot] = 0.0;
+        travelTime[slot] = 0.0;
+        waitTime[slot] = 0.0;
+        fuelConsumed[slot] = 0.0;
+        fuelRateMoving[slot] = 0.0;
+        fuelRateIdle[slot] = 0.0;
+        currentNode[slot] = 0;
+        destinationNode[slot] = 0;
+        currentEdge[slot] = 0;
+        routeCursor[slot] = 0;
+        flags[slot] = 0;
+    }
+
+    @Override public double getPosition(int slot) { return position[slot]; }
+    @Override public void setPosition(int slot, double value) { position[slot] = value; }
+    @Override public double getTravelTime(int slot) { return travelTime[slot]; }
+    @Override public void setTravelTime(int slot, double value) { travelTime[slot] = value; }
+    @Override public double getWaitTime(int slot) { return waitTime[slot]; }
+    @Override public void setWaitTime(int slot, double value) { waitTime[slot] = value; }
+    @Override public double getFuelConsumed(int slot) { return fuelConsumed[slot]; }
+    @Override public void setFuelConsumed(int slot, double value) { fuelConsumed[slot] = value; }
+    @Override public double getFuelRateMoving(int slot) { return fuelRateMoving[slot]; }
+    @Override public void setFuelRateMoving(int slot, double value) { fuelRateMoving[slot] = value; }
+    @Override public double getFuelRateIdle(int slot) { return fuelRateIdle[slot]; }
+    @Override public void setFuelRateIdle(int slot, double value) { fuelRateIdle[slot] = value; }
+
+    @Override public int getCurrentNode(int slot) { return currentNode[slot]; }
+    @Override public void setCurrentNode(int slot, int node) { currentNode[slot] = node; }
+    @Override public int getDestinationNode(int slot) { return destinationNode[slot]; }
+    @Override public void setDestinationNode(int slot, int node) { destinationNode[slot] = node; }
+    @Override public int getCurrentEdge(int slot) { return currentEdge[slot]; }
+    @Override public void setCurrentEdge(int slot, int edge) { currentEdge[slot] = edge; }
+    @Override public int getRouteCursor(int slot) { return routeCursor[slot]; }
+    @Override public void setRouteCursor(int slot, int cursor) { routeCursor[slot] = cursor; }
+
+    @Override public byte getFlags(int slot) { return flags[slot]; }
+    @Override public void setFlags(int slot, byte value) { flags[slot] = value; }
+
+    // Monta os registros campo a campo no formato de OffHeapVehicleColumns.RECORD
+    @Override
+    public void copyRecords(MemorySegment target, long offset, int slotCount) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            long base = offset + slot * RECORD_BYTES;
+            target.set(JAVA_DOUBLE, base + POSITION, position[slot]);
+            target.set(JAVA_DOUBLE, base + TRAVEL_TIME, travelTime[slot]);
+            target.set(JAVA_DOUBLE, base + WAIT_TIME, waitTime[slot]);
+            target.set(JAVA_DOUBLE, base + FUEL_CONSUMED, fuelConsumed[slot]);
+            target.set(JAVA_DOUBLE, base + FUEL_RATE_MOVING, fuelRateMoving[slot]);
+            target.set(JAVA_DOUBLE, base + FUEL_RATE_IDLE, fuelRateIdle[slot]);
+            target.set(JAVA_INT, base + CURRENT_NODE, currentNode[slot]);
+            target.set(JAVA_INT, base + DESTINATION_NODE, destinationNode[slot]);
+            target.set(JAVA_INT, base + CURRENT_EDGE, currentEdge[slot]);
+            target.set(JAVA_INT, base + ROUTE_CURSOR, routeCursor[slot]);
+            target.set(JAVA_BYTE, base + FLAGS, flags[slot]);
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return (long) flags.length * (6L * Double.BYTES + 4L * Integer.BYTES + 1);
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return false;
+    }
+}
@@ -6,9 +6,11 @@ public class Node {
     public double latitude; // Coordenada latitudinal
     public double longitude; // Coordenada longitudinal
     public boolean isTrafficLight; // Indica se tem semáforo
-    public Node next; // Para lista encadeada
+    private int index = -1; // Índice denso (0..N-1) atribuído pelo Graph na inserção
+    private TrafficLight trafficLight; // Semáforo do nó (null se não houver), associado por Graph#addTrafficLight
 
     private CustomLinkedList<Edge> edges; // Lista de arestas conectadas ao nó (implementação personalizada)
+    private CustomLinkedList<Edge> incomingEdges; // Arestas que chegam ao nó (inclui as de ruas de mão única)
 
     // Construtor
     public Node(String id, double latitude, double longitude, boolean isTrafficLight) {
@@ -16,8 +18,8 @@ public class Node {
         this.latitude = latitude;
         this.longitude = longitude;
         this.isTrafficLight = isTrafficLight;
-        this.next = null;
         this.edges = new CustomLinkedList<>(); // Inicializa a lista de arestas com a sua implementação personalizada
+        this.incomingEdges = new CustomLinkedList<>();
     }
 
     // Getter para o campo id
@@ -25,6 +27,15 @@ public class Node {
         return id;
     }
 
+    // Índice denso do nó no grafo (-1 se ainda não foi adicionado a um Graph)
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
     // Adiciona uma aresta conectada ao nó
     public void addEdge(Edge edge) {
         if (edge != null) {
@@ -36,6 +47,18 @@ public class Node {
     public CustomLinkedList<Edge> getEdges() {
         return edges; // Retorna a referência da CustomLinkedList
     }
+
+    // Adiciona uma aresta que tem este nó como destino
+    public void addIncomingEdge(Edge edge) {
+        if (edge != null) {
+            incomingEdges.add(edge);
+        }
+    }
+
+    // Retorna a lista de arestas que chegam ao nó (adjacência reversa)
+    public CustomLinkedList<Edge> getIncomingEdges() {
+        return incomingEdges;
+    }
     // Dentro da classe Node.java
 // private boolean isTrafficLight; // Se você mudar para private
 
@@ -43,6 +66,17 @@ public class Node {
         this.isTrafficLight = isTrafficLight;
     }
 
+    public TrafficLight getTrafficLight() {
+        return trafficLight;
+    }
+
+    public void setTrafficLight(TrafficLight trafficLight) {
+        this.trafficLight = trafficLight;
+        if (trafficLight != null) {
+            this.isTrafficLight = true;
+        }
+    }
+
     public double getLatitude() {
         return latitude;
     }
@@ -0,0 +1,149 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.util.Arrays;
+
+/**
+ * Dicionário bidirecional entre os IDs numéricos do OSM (ex.: "590496402") e os índices densos dos nós
+ * (ver {@link Node#getIndex()}), só com arrays primitivos: {@code osmIds[índice]} dá o ID, e uma tabela hash de
+ * endereçamento aberto (sondagem linear, como a do {@link EdgeIndex}) dá o índice de um ID. Nenhuma String nem
+ * objeto por entrada: o texto do ID só é lido na entrada (parser) e montado na saída (interface, logs).
+ * <p>
+ * Só entram IDs na forma decimal canônica (ver {@link #parseId(String)}); o {@link Graph} mantém os demais à parte.
+ */
+public class NodeDictionary {
+    public static final long NO_ID = -1L; // Índice sem ID numérico, ou texto que não é um ID do OSM
+    private static final int EMPTY = -1;
+
+    private long[] osmIds; // Índice -> ID do OSM (NO_ID se o nó não tem ID numérico)
+    private int indexLimit; // Maior índice registrado + 1
+    private long[] keys;
+    private int[] values; // EMPTY marca posição livre
+    private int mask;
+    private int size;
+
+    public NodeDictionary(int expectedNodes) {
+        this.osmIds = new long[Math.max(16, expectedNodes)];
+        Arrays.fill(osmIds, NO_ID);
+        int capacity = Integer.highestOneBit(Math.max(4, expectedNodes) * 2 - 1) << 1; // Fator de carga <= 0,5
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        this.mask = capacity - 1;
+    }
+
+    // Espalha os bits do ID (finalizador do MurmurHash3): IDs do OSM próximos caem em posições distantes
+    private static int slotOf(long key, int mask) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    /**
+     * ID numérico do texto, ou {@link #NO_ID} se ele não for um inteiro decimal não negativo na forma canônica
+     * (sem sinal, sem zeros à esquerda, até 18 dígitos). Assim dois textos diferentes nunca viram o mesmo ID.
+     */
+    public static long parseId(String text) {
+        if (text == null) return NO_ID;
+        int length = text.length();
+        if (length == 0 || length > 18 || (length > 1 && text.charAt(0) == '0')) return NO_ID;
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return NO_ID;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Associa o ID ao índice do nó.
+     *
+     * @return true se associou; false se o ID já estava no dicionário (a associação anterior é mantida).
+     */
+    public boolean put(long osmId, int index) {
+        if (osmId < 0 || index < 0) {
+            throw new IllegalArgumentException("ID do OSM e índice do nó devem ser não negativos: " + osmId + " -> " + index);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int slot = slotOf(osmId, mask);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == osmId) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = osmId;
+        values[slot] = index;
+        size++;
+        if (index >= osmIds.length) {
+            int oldLength = osmIds.length;
+            osmIds = Arrays.copyOf(osmIds, Math.max(index + 1, oldLength * 2));
+            Arrays.fill(osmIds, oldLength, osmIds.length, NO_ID);
+        }
+        osmIds[index] = osmId;
+        indexLimit = Math.max(indexLimit, index + 1);
+        return true;
+    }
+
+    // Índice do nó com o ID do OSM, ou -1 se não houver
+    public int indexOf(long osmId) {
+        if (osmId < 0) return -1;
+        int slot = slotOf(osmId, mask);
+        int value;
+        while ((value = values[slot]) != EMPTY) {
+            if (keys[slot] == osmId) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Mesma busca a partir do texto do ID (-1 se o texto não for um ID numérico ou não estiver no dicionário)
+    public int indexOf(String osmId) {
+        return indexOf(parseId(osmId));
+    }
+
+    // ID do OSM do nó com o índice, ou NO_ID
+    public long osmIdOf(int index) {
+        return (index >= 0 && index < indexLimit) ? osmIds[index] : NO_ID;
+    }
+
+    public boolean contains(long osmId) {
+        return indexOf(osmId) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Memória aproximada dos arrays
+    public long estimatedBytes() {
+        return (long) osmIds.length * Long.BYTES + (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == EMPTY) continue;
+            int slot = slotOf(oldKeys[i], mask);
+            while (values[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+
+/**
+ * Colunas da {@link VehicleStore} fora do heap: um {@link MemorySegment} contíguo com um registro de tamanho fixo
+ * ({@link #RECORD}, 72 bytes) por posição. Os campos de um veículo ficam juntos, e percorrer as posições em ordem
+ * lê a memória sequencialmente. O coletor de lixo não enxerga nem copia esta memória, então o heap não cresce com a
+ * população de veículos.
+ * <p>
+ * Os segmentos vêm de {@link Arena#ofAuto()}: podem ser lidos pela thread da interface (visões {@link Vehicle})
+ * enquanto a simulação os altera, e o segmento antigo de um redimensionamento é liberado quando deixa de ser
+ * alcançável, sem invalidar uma leitura em andamento.
+ */
+public final class OffHeapVehicleColumns implements VehicleColumns {
+    // Formato do registro de um veículo; também é o formato dos retratos em arquivo (ver VehicleStore#writeSnapshot)
+    public static final StructLayout RECORD = MemoryLayout.structLayout(
+            JAVA_DOUBLE.withName("position"),
+            JAVA_DOUBLE.withName("travelTime"),
+            JAVA_DOUBLE.withName("waitTime"),
+            JAVA_DOUBLE.withName("fuelConsumed"),
+            JAVA_DOUBLE.withName("fuelRateMoving"),
+            JAVA_DOUBLE.withName("fuelRateIdle"),
+            JAVA_INT.withName("currentNode"),
+            JAVA_INT.withName("destinationNode"),
+            JAVA_INT.withName("currentEdge"),
+            JAVA_INT.withName("routeCursor"),
+            JAVA_BYTE.withName("flags"),
+            MemoryLayout.paddingLayout(7)
+    ).withName("vehicle");
+
+    public static final long RECORD_BYTES = RECORD.byteSize();
+    public static final long POSITION = offsetOf("position");
+    public static final long TRAVEL_TIME = offsetOf("travelTime");
+    public static final long WAIT_TIME = offsetOf("waitTime");
+    public static final long FUEL_CONSUMED = offsetOf("fuelConsumed");
+    public static final long FUEL_RATE_MOVING = offsetOf("fuelRateMoving");
+    public static final long FUEL_RATE_IDLE = offsetOf("fuelRateIdle");
+    public static final long CURRENT_NODE = offsetOf("currentNode");
+    public static final long DESTINATION_NODE = offsetOf("destinationNode");
+    public static final long CURRENT_EDGE = offsetOf("currentEdge");
+    public static final long ROUTE_CURSOR = offsetOf("routeCursor");
+    public static final long FLAGS = offsetOf("flags");
+
+    // Acesso sem verificação de alinhamento: o alinhamento dos campos já é garantido pelo layout e pela alocação
+    private static final ValueLayout.OfDouble DOUBLE = JAVA_DOUBLE_UNALIGNED;
+    private static final ValueLayout.OfInt INT = JAVA_INT_UNALIGNED;
+
+    private MemorySegment records;
+    private int capacity;
+
+    public OffHeapVehicleColumns(int initialCapacity) {
+        this.capacity = Math.max(16, initialCapacity);
+        this.records = allocate(capacity);
+    }
+
+    private static long offsetOf(String field) {
+        return RECORD.byteOffset(groupElement(field));
+    }
+
+    private static MemorySegment allocate(int capacity) {
+        return Arena.ofAuto().allocate(RECORD_BYTES * capacity, RECORD.byteAlignment()); // Já vem zerado
+    }
+
+    private static long base(int slot) {
+        return slot * RECORD_BYTES;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= capacity) return;
+        int newCapacity = Math.max(minCapacity, capacity * 2);
+        MemorySegment larger = allocate(newCapacity);
+        MemorySegment.copy(records, 0, larger, 0, RECORD_BYTES * capacity);
+        records = larger;
+        capacity = newCapacity;
+    }
+
+    @Override
+    public void clear(int slot) {
+        records.asSlice(base(slot), RECORD_BYTES).fill((byte) 0);
+    }
+
+    @Override public double getPosition(int slot) { return records.get(DOUBLE, base(slot) + POSITION); }
+    @Override public void setPosition(int slot, double value) { records.set(DOUBLE, base(slot) + POSITION, value); }
+    @Override public double getTravelTime(int slot) { return records.get(DOUBLE, base(slot) + TRAVEL_TIME); }
+    @Override public void setTravelTime(int slot, double value) { records.set(DOUBLE, base(slot) + TRAVEL_TIME, value); }
+    @Override public double getWaitTime(int slot) { return records.get(DOUBLE, base(slot) + WAIT_TIME); }
+    @Override public void setWaitTime(int slot, double value) { records.set(DOUBLE, base(slot) + WAIT_TIME, value); }
+    @Override public double getFuelConsumed(int slot) { return records.get(DOUBLE, base(slot) + FUEL_CONSUMED); }
+    @Override public void setFuelConsumed(int slot, double value) { records.set(DOUBLE, base(slot) + FUEL_CONSUMED, value); }
+    @Override public double getFuelRateMoving(int slot) { return records.get(DOUBLE, base(slot) + FUEL_RATE_MOVING); }
+    @Override public void setFuelRateMoving(int slot, double value) { records.set(DOUBLE, base(slot) + FUEL_RATE_MOVING, value); }
+    @Override public double getFuelRateIdle(int slot) { return records.get(DOUBLE, base(slot) + FUEL_RATE_IDLE); }
+    @Override public void setFuelRateIdle(int slot, double value) { records.set(DOUBLE, base(slot) + FUEL_RATE_IDLE, value); }
+
+    @Override public int getCurrentNode(int slot) { return records.get(INT, base(slot) + CURRENT_NODE); }
+    @Override public void setCurrentNode(int slot, int node) { records.set(INT, base(slot) + CURRENT_NODE, node); }
+    @Override public int getDestinationNode(int slot) { return records.get(INT, base(slot) + DESTINATION_NODE); }
+    @Override public void setDestinationNode(int slot, int node) { records.set(INT, base(slot) + DESTINATION_NODE, node); }
+    @Override public int getCurrentEdge(int slot) { return records.get(INT, base(slot) + CURRENT_EDGE); }
+    @Override public void setCurrentEdge(int slot, int edge) { records.set(INT, base(slot) + CURRENT_EDGE, edge); }
+    @Override public int getRouteCursor(int slot) { return records.get(INT, base(slot) + ROUTE_CURSOR); }
+    @Override public void setRouteCursor(int slot, int cursor) { records.set(INT, base(slot) + ROUTE_CURSOR, cursor); }
+
+    @Override public byte getFlags(int slot) { return records.get(JAVA_BYTE, base(slot) + FLAGS); }
+    @Override public void setFlags(int slot, byte flags) { records.set(JAVA_BYTE, base(slot) + FLAGS, flags); }
+
+    // Mesmo formato de registro: cópia em bloco
+    @Override
+    public void copyRecords(MemorySegment target, long offset, int slotCount) {
+        MemorySegment.copy(records, 0, target, offset, RECORD_BYTES * slotCount);
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return RECORD_BYTES * capacity;
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return true;
+    }
+}
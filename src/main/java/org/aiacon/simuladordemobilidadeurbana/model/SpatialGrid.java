@@ -0,0 +1,231 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Índice espacial dos nós de um {@link FrozenGraph}: grade uniforme sobre o retângulo de latitude/longitude que
+ * contém todos os nós, com cerca de {@link #DEFAULT_NODES_PER_CELL} nós por célula. Os nós de cada célula ficam
+ * contíguos (formato CSR, como as arestas do FrozenGraph), junto com cópias das suas coordenadas, de modo que uma
+ * consulta só lê as células que cruzam a região pedida.
+ * <p>
+ * Consultas: nó mais próximo, nós dentro de um raio em metros e nós dentro de um retângulo de coordenadas. As
+ * distâncias usam a projeção equirretangular em torno do centro da grade, que na escala de uma cidade difere da
+ * distância de haversine ({@link GeoUtils}) bem abaixo de um metro por quilômetro.
+ * <p>
+ * Imutável depois de construído; pode ser consultado por várias threads.
+ */
+public final class SpatialGrid {
+    public static final double DEFAULT_NODES_PER_CELL = 2.0;
+    private static final double METERS_PER_DEGREE_LAT = Math.toRadians(1.0) * GeoUtils.EARTH_RADIUS_METERS;
+
+    private final int nodeCount;
+    private final double minLat, maxLat, minLon, maxLon;
+    private final int rows, cols;
+    private final double cellHeight, cellWidth; // Em graus
+    private final double metersPerDegreeLon;    // Na latitude central
+    private final int[] cellStart;   // Nós da célula c: posições [cellStart[c], cellStart[c + 1])
+    private final int[] cellNodes;   // Índices densos dos nós, agrupados por célula
+    private final double[] cellLats; // Coordenadas na mesma ordem de cellNodes
+    private final double[] cellLons;
+
+    public SpatialGrid(FrozenGraph topology) {
+        this(topology, DEFAULT_NODES_PER_CELL);
+    }
+
+    public SpatialGrid(FrozenGraph topology, double nodesPerCell) {
+        this.nodeCount = topology.getNodeCount();
+        double loLat = Double.MAX_VALUE, hiLat = -Double.MAX_VALUE;
+        double loLon = Double.MAX_VALUE, hiLon = -Double.MAX_VALUE;
+        for (int node = 0; node < nodeCount; node++) {
+            double lat = topology.getLatitude(node);
+            double lon = topology.getLongitude(node);
+            if (lat < loLat) loLat = lat;
+            if (lat > hiLat) hiLat = lat;
+            if (lon < loLon) loLon = lon;
+            if (lon > hiLon) hiLon = lon;
+        }
+        if (nodeCount == 0) {
+            loLat = hiLat = loLon = hiLon = 0.0;
+        }
+        this.minLat = loLat;
+        this.maxLat = hiLat;
+        this.minLon = loLon;
+        this.maxLon = hiLon;
+        this.metersPerDegreeLon = METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians((loLat + hiLat) / 2.0));
+
+        // Células aproximadamente quadradas em metros, com o número de células proporcional ao de nós
+        double heightMeters = Math.max((hiLat - loLat) * METERS_PER_DEGREE_LAT, 1.0);
+        double widthMeters = Math.max((hiLon - loLon) * metersPerDegreeLon, 1.0);
+        double targetCells = Math.max(1.0, nodeCount / Math.max(0.1, nodesPerCell));
+        double cellMeters = Math.sqrt(heightMeters * widthMeters / targetCells);
+        this.rows = (int) Math.max(1, Math.min(4096, Math.ceil(heightMeters / cellMeters)));
+        this.cols = (int) Math.max(1, Math.min(4096, Math.ceil(widthMeters / cellMeters)));
+        this.cellHeight = Math.max(hiLat - loLat, 1e-9) / rows;
+        this.cellWidth = Math.max(hiLon - loLon, 1e-9) / cols;
+
+        // Ordenação por contagem: tamanho de cada célula, soma de prefixos e preenchimento na ordem dos índices
+        int[] cellOf = new int[nodeCount];
+        this.cellStart = new int[rows * cols + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            int cell = row(topology.getLatitude(node)) * cols + col(topology.getLongitude(node));
+            cellOf[node] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int cell = 0; cell < rows * cols; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        this.cellNodes = new int[nodeCount];
+        this.cellLats = new double[nodeCount];
+        this.cellLons = new double[nodeCount];
+        int[] fill = Arrays.copyOf(cellStart, rows * cols);
+        for (int node = 0; node < nodeCount; node++) {
+            int position = fill[cellOf[node]]++;
+            cellNodes[position] = node;
+            cellLats[position] = topology.getLatitude(node);
+            cellLons[position] = topology.getLongitude(node);
+        }
+    }
+
+    // Linha/coluna da célula que contém a coordenada; fora da grade, a da borda mais próxima
+    private int row(double lat) {
+        int r = (int) ((lat - minLat) / cellHeight);
+        return (r < 0) ? 0 : Math.min(r, rows - 1);
+    }
+
+    private int col(double lon) {
+        int c = (int) ((lon - minLon) / cellWidth);
+        return (c < 0) ? 0 : Math.min(c, cols - 1);
+    }
+
+    // Quadrado da distância em metros pela projeção equirretangular
+    private double squaredMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dy = (lat2 - lat1) * METERS_PER_DEGREE_LAT;
+        double dx = (lon2 - lon1) * metersPerDegreeLon;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Nó mais próximo da coordenada, ou -1 se a grade estiver vazia. A busca percorre anéis de células em volta da
+     * célula do ponto e para quando o anel seguinte já está mais longe que o melhor nó encontrado.
+     */
+    public int nearest(double lat, double lon) {
+        if (nodeCount == 0) return -1;
+        int centerRow = row(lat);
+        int centerCol = col(lon);
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        double ringMeters = Math.min(cellHeight * METERS_PER_DEGREE_LAT, cellWidth * metersPerDegreeLon);
+        // Distância do ponto até a borda da sua célula: os anéis seguintes ficam pelo menos a esta distância
+        double insideMeters = Math.max(0.0, Math.min(
+                Math.min(lat - (minLat + centerRow * cellHeight), minLat + (centerRow + 1) * cellHeight - lat) * METERS_PER_DEGREE_LAT,
+                Math.min(lon - (minLon + centerCol * cellWidth), minLon + (centerCol + 1) * cellWidth - lon) * metersPerDegreeLon));
+        int maxRing = Math.max(rows, cols);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (best >= 0) {
+                double ringDistance = insideMeters + (ring - 1) * ringMeters;
+                if (ringDistance > 0 && ringDistance * ringDistance > bestDistance) break;
+            }
+            int r0 = centerRow - ring, r1 = centerRow + ring;
+            int c0 = centerCol - ring, c1 = centerCol + ring;
+            for (int r = Math.max(0, r0); r <= Math.min(rows - 1, r1); r++) {
+                boolean edgeRow = (r == r0 || r == r1);
+                for (int c = Math.max(0, c0); c <= Math.min(cols - 1, c1); c++) {
+                    if (!edgeRow && c != c0 && c != c1) continue; // Só a borda do anel; o interior já foi visto
+                    int cell = r * cols + c;
+                    for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++) {
+                        double distance = squaredMeters(lat, lon, cellLats[i], cellLons[i]);
+                        if (distance < bestDistance || (distance == bestDistance && cellNodes[i] < best)) {
+                            bestDistance = distance;
+                            best = cellNodes[i];
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Nós a até radiusMeters da coordenada, em ordem crescente de índice
+    public int[] withinRadius(double lat, double lon, double radiusMeters) {
+        if (nodeCount == 0 || radiusMeters < 0) return new int[0];
+        double dLat = radiusMeters / METERS_PER_DEGREE_LAT;
+        double dLon = radiusMeters / metersPerDegreeLon;
+        double limit = radiusMeters * radiusMeters;
+        int[] found = new int[16];
+        int count = 0;
+        for (int r = row(lat - dLat), r1 = row(lat + dLat); r <= r1; r++) {
+            for (int c = col(lon - dLon), c1 = col(lon + dLon); c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++) {
+                    if (squaredMeters(lat, lon, cellLats[i], cellLons[i]) <= limit) {
+                        if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                        found[count++] = cellNodes[i];
+                    }
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Nós dentro do retângulo de coordenadas (bordas incluídas), em ordem crescente de índice
+    public int[] withinBox(double south, double west, double north, double east) {
+        if (nodeCount == 0 || south > north || west > east) return new int[0];
+        int[] found = new int[16];
+        int count = 0;
+        for (int r = row(south), r1 = row(north); r <= r1; r++) {
+            for (int c = col(west), c1 = col(east); c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++) {
+                    double lat = cellLats[i];
+                    double lon = cellLons[i];
+                    if (lat >= south && lat <= north && lon >= west && lon <= east) {
+                        if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                        found[count++] = cellNodes[i];
+                    }
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Visita os nós dentro do retângulo de coordenadas (bordas incluídas), célula a célula, sem montar uma lista.
+     * Usado pela interface para desenhar só o que está na área visível.
+     */
+    public void forEachInBox(double south, double west, double north, double east, IntConsumer visitor) {
+        if (nodeCount == 0 || south > north || west > east) return;
+        if (north < minLat || south > maxLat || east < minLon || west > maxLon) return;
+        for (int r = row(south), r1 = row(north); r <= r1; r++) {
+            for (int c = col(west), c1 = col(east); c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int i = cellStart[cell], end = cellStart[cell + 1]; i < end; i++) {
+                    double lat = cellLats[i];
+                    double lon = cellLons[i];
+                    if (lat >= south && lat <= north && lon >= west && lon <= east) {
+                        visitor.accept(cellNodes[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Retângulo que contém todos os nós (calculado uma vez, na construção)
+    public double getMinLatitude() { return minLat; }
+    public double getMaxLatitude() { return maxLat; }
+    public double getMinLongitude() { return minLon; }
+    public double getMaxLongitude() { return maxLon; }
+
+    public int getNodeCount() { return nodeCount; }
+    public int getRows() { return rows; }
+    public int getColumns() { return cols; }
+
+    // Memória aproximada dos arrays
+    public long estimatedBytes() {
+        return (long) cellStart.length * Integer.BYTES + (long) nodeCount * (Integer.BYTES + 2L * Double.BYTES);
+    }
+}
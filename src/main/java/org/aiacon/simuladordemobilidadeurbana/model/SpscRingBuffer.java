@@ -0,0 +1,84 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fila circular limitada, sem bloqueio, para exatamente uma thread produtora e uma consumidora.
+ * O produtor só escreve {@code tail} e o consumidor só escreve {@code head}; cada lado publica seu índice com
+ * semântica de liberação (setRelease) depois de gravar/limpar a posição, e o outro lado o lê com aquisição
+ * (getAcquire), o que garante que o elemento está visível antes de o índice avançar.
+ * A capacidade é arredondada para a próxima potência de 2 para o índice ser calculado com máscara.
+ */
+public class SpscRingBuffer<T> {
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Próxima posição a ler (escrita apenas pelo consumidor)
+    private final AtomicLong tail = new AtomicLong(); // Próxima posição a escrever (escrita apenas pelo produtor)
+    private long cachedHead; // Cópia local do produtor, evita ler o contador do consumidor a cada offer
+    private long cachedTail; // Cópia local do consumidor
+
+    public SpscRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade da fila deve ser positiva: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    // Produtor: insere o item, ou retorna false se a fila estiver cheia
+    public boolean offer(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("SpscRingBuffer não aceita elementos nulos.");
+        }
+        long t = tail.get();
+        if (t - cachedHead >= slots.length) {
+            cachedHead = head.getAcquire();
+            if (t - cachedHead >= slots.length) {
+                return false; // Cheia
+            }
+        }
+        slots[(int) t & mask] = item;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    // Consumidor: próximo item sem removê-lo, ou null se a fila estiver vazia
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        long h = head.get();
+        if (h >= cachedTail) {
+            cachedTail = tail.getAcquire();
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        return (T) slots[(int) h & mask];
+    }
+
+    // Consumidor: remove e retorna o próximo item, ou null se a fila estiver vazia
+    public T poll() {
+        T item = peek();
+        if (item != null) {
+            long h = head.get();
+            slots[(int) h & mask] = null; // Libera a referência para o GC
+            head.setRelease(h + 1);
+        }
+        return item;
+    }
+
+    // Número aproximado de elementos (exato se chamado por uma das duas threads sem concorrência da outra)
+    public int size() {
+        long size = tail.getAcquire() - head.getAcquire();
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
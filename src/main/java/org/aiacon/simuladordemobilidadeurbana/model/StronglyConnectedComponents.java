@@ -0,0 +1,157 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.util.Arrays;
+
+/**
+ * Componentes fortemente conexas de um {@link FrozenGraph}, pelo algoritmo de Tarjan em versão iterativa (pilha
+ * explícita de chamadas, sem recursão: mapas grandes não estouram a pilha da thread). Tempo O(V + E) e memória de
+ * alguns arrays de int do tamanho do número de nós.
+ * <p>
+ * Numa componente, todo nó alcança todos os outros; uma viagem só tem rota garantida se origem e destino estiverem
+ * na mesma componente. Ruas de mão única sem saída e trechos desligados do resto do mapa formam componentes
+ * pequenas, que {@link Graph#inducedSubgraph(boolean[])} pode remover antes da simulação.
+ */
+public final class StronglyConnectedComponents {
+    private final int nodeCount;
+    private final int[] componentOf;    // Componente de cada nó
+    private final int[] componentSizes; // Nós de cada componente
+    private final int largest;          // Componente com mais nós (a de menor número, em caso de empate)
+
+    public StronglyConnectedComponents(FrozenGraph topology) {
+        this.nodeCount = topology.getNodeCount();
+        this.componentOf = new int[nodeCount];
+        int[] order = new int[nodeCount];   // Ordem de descoberta + 1 (0 = não visitado)
+        int[] low = new int[nodeCount];     // Menor ordem alcançável pela subárvore sem sair da pilha
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];   // Pilha de Tarjan: nós ainda sem componente
+        int[] callNode = new int[nodeCount]; // Pilha de chamadas: nó e próxima aresta a examinar
+        int[] callEdge = new int[nodeCount];
+        int[] sizes = new int[16];
+        int components = 0;
+        int counter = 0;
+        int top = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (order[root] != 0) continue;
+            int depth = 0;
+            callNode[0] = root;
+            callEdge[0] = topology.firstEdge(root);
+            order[root] = low[root] = ++counter;
+            stack[top++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int u = callNode[depth];
+                int edge = callEdge[depth];
+                if (edge < topology.lastEdge(u)) {
+                    callEdge[depth] = edge + 1;
+                    int v = topology.getTarget(edge);
+                    if (order[v] == 0) {
+                        // "Chamada" para v
+                        order[v] = low[v] = ++counter;
+                        stack[top++] = v;
+                        onStack[v] = true;
+                        depth++;
+                        callNode[depth] = v;
+                        callEdge[depth] = topology.firstEdge(v);
+                    } else if (onStack[v] && order[v] < low[u]) {
+                        low[u] = order[v];
+                    }
+                    continue;
+                }
+                // Todas as arestas de u examinadas: u fecha uma componente se for a raiz dela
+                if (low[u] == order[u]) {
+                    if (components == sizes.length) sizes = Arrays.copyOf(sizes, components * 2);
+                    int size = 0;
+                    int w;
+                    do {
+                        w = stack[--top];
+                        onStack[w] = false;
+                        componentOf[w] = components;
+                        size++;
+                    } while (w != u);
+                    sizes[components++] = size;
+                }
+                // "Retorno" para o pai, que herda o low de u
+                depth--;
+                if (depth >= 0) {
+                    int parent = callNode[depth];
+                    if (low[u] < low[parent]) low[parent] = low[u];
+                }
+            }
+        }
+        this.componentSizes = Arrays.copyOf(sizes, components);
+        int best = -1;
+        for (int c = 0; c < components; c++) {
+            if (best < 0 || componentSizes[c] > componentSizes[best]) best = c;
+        }
+        this.largest = best;
+    }
+
+    public int getNodeCount() { return nodeCount; }
+    public int getComponentCount() { return componentSizes.length; }
+    public int getComponent(int node) { return componentOf[node]; }
+    public int getComponentSize(int component) { return componentSizes[component]; }
+
+    // Componente com mais nós, ou -1 se o grafo não tiver nós
+    public int getLargestComponent() { return largest; }
+
+    public int getLargestComponentSize() {
+        return (largest >= 0) ? componentSizes[largest] : 0;
+    }
+
+    // Verdadeiro se todo nó alcança todos os outros (grafo vazio não conta)
+    public boolean isStronglyConnected() {
+        return componentSizes.length == 1;
+    }
+
+    public boolean sameComponent(int a, int b) {
+        return componentOf[a] == componentOf[b];
+    }
+
+    // Máscara por índice de nó: verdadeiro para os nós da maior componente
+    public boolean[] largestComponentMask() {
+        boolean[] mask = new boolean[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            mask[node] = componentOf[node] == largest;
+        }
+        return mask;
+    }
+
+    // Tamanhos das componentes em ordem decrescente
+    public int[] sortedSizes() {
+        int[] sorted = componentSizes.clone();
+        Arrays.sort(sorted);
+        for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+            int t = sorted[i];
+            sorted[i] = sorted[j];
+            sorted[j] = t;
+        }
+        return sorted;
+    }
+
+    // Resumo para o log: número de componentes, a maior, as seguintes e quantos nós ficam isolados
+    public String describe(int maxListed) {
+        int[] sorted = sortedSizes();
+        int singletons = 0;
+        for (int size : sorted) {
+            if (size == 1) singletons++;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(sorted.length).append(" componente(s) fortemente conexa(s); maior com ")
+                .append(getLargestComponentSize()).append(" de ").append(nodeCount).append(" nós");
+        if (nodeCount > 0) {
+            sb.append(String.format(" (%.1f%%)", 100.0 * getLargestComponentSize() / nodeCount));
+        }
+        if (sorted.length > 1) {
+            sb.append("; seguintes: ");
+            int listed = Math.min(sorted.length - 1, Math.max(0, maxListed));
+            for (int i = 1; i <= listed; i++) {
+                if (i > 1) sb.append(", ");
+                sb.append(sorted[i]);
+            }
+            if (sorted.length - 1 > listed) sb.append(", ...");
+            sb.append("; ").append(singletons).append(" nó(s) isolado(s)");
+        }
+        return sb.toString();
+    }
+}
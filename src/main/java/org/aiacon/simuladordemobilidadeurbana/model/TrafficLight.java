@@ -11,6 +11,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class TrafficLight {
+    // Direções de aproximação na ordem dos índices das filas (ver getDirectionIndex)
+    public static final String[] APPROACH_DIRECTIONS = {"north", "east", "south", "west"};
+
     private String nodeId;
     private int mode;
     private String initialJsonDirection;
@@ -19,6 +22,8 @@ public class TrafficLight {
     private double phaseTimer;
 
     private Queue[] directionQueues;
+    private final int[] queueSizesBuffer = new int[4]; // Reaproveitado a cada troca de fase; as estratégias só o leem
+    private final int[] waitingEntries = new int[4]; // Entradas de espera lançadas em bloco pelo motor de eventos, fora das filas
     private Map<String, Integer> directionNameToIndexMap;
 
     private TrafficLightControlStrategy controlStrategy;
@@ -37,10 +42,9 @@ public class TrafficLight {
         }
 
         this.directionNameToIndexMap = new HashMap<>();
-        directionNameToIndexMap.put("north", 0);
-        directionNameToIndexMap.put("east", 1);
-        directionNameToIndexMap.put("south", 2);
-        directionNameToIndexMap.put("west", 3);
+        for (int i = 0; i < APPROACH_DIRECTIONS.length; i++) {
+            directionNameToIndexMap.put(APPROACH_DIRECTIONS[i], i);
+        }
 
         switch (this.mode) {
             case 1:
@@ -109,9 +113,12 @@ public class TrafficLight {
     }
 
     public int[] getAllQueueSizes() {
-        int[] sizes = new int[4];
+        return fillQueueSizes(new int[4]);
+    }
+
+    private int[] fillQueueSizes(int[] sizes) {
         for (int i = 0; i < 4; i++) {
-            sizes[i] = (directionQueues[i] != null) ? directionQueues[i].size() : 0;
+            sizes[i] = ((directionQueues[i] != null) ? directionQueues[i].size() : 0) + waitingEntries[i];
         }
         return sizes;
     }
@@ -148,7 +155,7 @@ public class TrafficLight {
                 logPhaseChange();
                 return;
             }
-            NextPhaseDecision decision = controlStrategy.decideNextPhase(this, deltaTime, getAllQueueSizes(), this.peakHourStatus);
+            NextPhaseDecision decision = controlStrategy.decideNextPhase(this, deltaTime, fillQueueSizes(queueSizesBuffer), this.peakHourStatus);
 
             if (decision != null && decision.nextPhase != null) {
                 setCurrentPhase(decision.nextPhase, decision.duration);
@@ -164,6 +171,42 @@ public class TrafficLight {
         }
     }
 
+    /**
+     * Quantas chamadas seguidas de {@link #update(double, boolean)} com este deltaTime levam à próxima troca de fase
+     * (a troca acontece na última delas). Usado pelo motor de eventos para agendar a troca em vez de atualizar o
+     * semáforo a cada passo.
+     */
+    public int stepsUntilPhaseChange(double deltaTime) {
+        if (this.phaseTimer == Double.POSITIVE_INFINITY || deltaTime <= 0) return Integer.MAX_VALUE; // Nunca troca
+        double timer = this.phaseTimer;
+        int steps = 0;
+        do {
+            timer -= deltaTime;
+            steps++;
+        } while (timer > 0 && steps < Integer.MAX_VALUE);
+        return steps;
+    }
+
+    // Mesmo efeito de 'steps' chamadas de update(deltaTime, isPeakHour): só a última pode trocar a fase
+    public void advance(int steps, double deltaTime, boolean isPeakHour) {
+        for (int i = 1; i < steps; i++) {
+            this.phaseTimer -= deltaTime;
+        }
+        update(deltaTime, isPeakHour);
+    }
+
+    /**
+     * Soma {@code entries} entradas de espera à direção, como o mesmo número de chamadas de
+     * {@link #addVehicleToQueue(String, Vehicle)} faria no tamanho da fila. Usado pelo motor de eventos, que lança de
+     * uma vez os segundos em que os veículos ficaram parados; as entradas ficam num contador à parte, então a
+     * {@link Queue} da direção continua sendo uma fila de veículos. Os tamanhos informados às estratégias e as somas
+     * de getAllQueueSizes e getTotalVehiclesInQueues incluem o contador.
+     */
+    public void addQueueEntries(int directionIndex, int entries) {
+        if (directionIndex < 0 || directionIndex >= waitingEntries.length || entries <= 0) return;
+        waitingEntries[directionIndex] += entries;
+    }
+
     public String getLightStateForApproach(String approachDirection) {
         if (controlStrategy == null) {
             System.err.println("TrafficLight " + nodeId + ": Estratégia de controle não inicializada ao chamar getLightStateForApproach.");
@@ -173,6 +216,7 @@ public class TrafficLight {
     }
 
     private void logPhaseChange() {
+        if (config != null && !config.isVerboseLogging()) return;
         String phaseStr = (this.currentPhase != null) ? this.currentPhase.toString() : "INDEFINIDA";
         System.out.println("Semáforo " + nodeId + ": Nova FASE -> " + phaseStr +
                 ". Duração programada: " + String.format("%.1f", this.phaseTimer) + "s.");
@@ -193,6 +237,9 @@ public class TrafficLight {
                 }
             }
         }
+        for (int entries : waitingEntries) {
+            total += entries;
+        }
         return total;
     }
 }
\ No newline at end of file
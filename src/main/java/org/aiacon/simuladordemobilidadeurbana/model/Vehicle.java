@@ -1,41 +1,128 @@
 package org.aiacon.simuladordemobilidadeurbana.model;
 
+// Enquanto o veículo está em circulação, seu estado mutável fica nas colunas da VehicleStore e este objeto é
+// só uma visão (para a interface, logs e filas de semáforo); fora da store, os campos abaixo guardam o estado.
 public class Vehicle {
-    private String id; // Identificador único
+    private String id; // Identificador único (montado sob demanda a partir de number, ver getId)
+    private int number; // Número sequencial do veículo gerado, ou -1 se o ID foi dado diretamente
     private String origin; // Nó de origem
     private String destination; // Nó de destino
-    private CustomLinkedList<String> route; // Rota calculada (lista de nós)
+    private int[] route; // Rota calculada: índices densos dos nós (ver Node#getIndex()), da origem ao destino
+    private int routeCursor; // Posição do nó atual em route; avança uma casa a cada chegada em nó
     private String currentNode; // Nó atual
     private double travelTime; // Tempo total de viagem (s)
     private double waitTime; // Tempo total de espera (s)
     private double position; // Posição na aresta atual (0 a 1)
+    private Edge currentEdge; // Aresta sendo percorrida (null quando parado em um nó)
     public Vehicle next; // Para lista encadeada
     private double fuelConsumed;
     private double fuelConsumptionRateMoving; // L/s em movimento
     private double fuelConsumptionRateIdle;   // L/s em marcha lenta
+    private double departureTime; // Instante de partida (tempo simulado), definido pelo pipeline de viagens
+    // Store que guarda o estado enquanto o veículo circula (null fora dela). Volátil porque a interface lê a
+    // visão em outra thread: quem vê a store não nula vê também o slot, e quem a vê nula vê os campos já copiados
+    private volatile VehicleStore store;
+    private int slot = -1; // Posição do veículo nas colunas da store; só vale enquanto store não é nula
     // Construtor
-    public Vehicle(String id, String origin, String destination, CustomLinkedList<String> route) {
+    public Vehicle(String id, String origin, String destination, int[] route) {
         this.id = id;
+        this.number = -1;
+        init(origin, destination, route);
+    }
+
+    // Veículo gerado: o ID "V" + number só é montado quando alguém o pede (logs, interface)
+    public Vehicle(int number, String origin, String destination, int[] route) {
+        this.id = null;
+        this.number = number;
+        init(origin, destination, route);
+    }
+
+    /**
+     * Reaproveita o objeto para uma nova viagem (ver {@link VehiclePool}): todo o estado volta ao de um veículo
+     * recém-criado. O campo {@code next} não é tocado, pois pertence às filas de semáforo.
+     */
+    void reset(int number, String origin, String destination, int[] route) {
+        if (store != null) {
+            throw new IllegalStateException("Veículo " + getId() + " ainda está em circulação e não pode ser reaproveitado.");
+        }
+        this.id = null;
+        this.number = number;
+        this.currentEdge = null;
+        this.departureTime = 0.0;
+        init(origin, destination, route);
+    }
+
+    private void init(String origin, String destination, int[] route) {
         this.origin = origin;
         this.destination = destination;
-        this.route = (route != null) ? route : new CustomLinkedList<>(); // Atribuir rota válida
+        this.route = (route != null) ? route : new int[0]; // Atribuir rota válida
+        this.routeCursor = 0;
         this.currentNode = origin;
         this.travelTime = 0.0;
         this.waitTime = 0.0;
         this.position = 0.0;
-        this.next = null;
         this.fuelConsumed = 0.0;
         // Valores de exemplo, podem vir da Configuration ou ser fixos por tipo de veículo no futuro
         this.fuelConsumptionRateMoving = 0.0005; // Ex: 0.5 ml/s em movimento (aprox. 1.8 L/hora)
         this.fuelConsumptionRateIdle = 0.0002;
     }
 
+    // Chamado pela VehicleStore ao colocar o veículo em circulação
+    void attach(VehicleStore store, int slot) {
+        this.slot = slot;
+        this.store = store;
+    }
+
+    // Chamado pela VehicleStore ao liberar a posição: copia o estado final das colunas para os campos
+    void detach() {
+        VehicleStore store = this.store;
+        if (store == null) return;
+        FrozenGraph topology = store.getTopology();
+        this.route = store.getRoute(slot);
+        this.routeCursor = store.getRouteCursor(slot);
+        int node = store.getCurrentNode(slot);
+        this.currentNode = (node >= 0) ? topology.getNodeId(node) : currentNode;
+        this.travelTime = store.getTravelTime(slot);
+        this.waitTime = store.getWaitTime(slot);
+        this.position = store.getPosition(slot);
+        int edge = store.getCurrentEdge(slot);
+        this.currentEdge = (edge >= 0) ? topology.getEdge(edge) : null;
+        this.fuelConsumed = store.getFuelConsumed(slot);
+        this.store = null;
+    }
+
+    // Indica se o estado do veículo está nas colunas de uma VehicleStore
+    public boolean isStored() {
+        return store != null;
+    }
+
+    // Posição do veículo na VehicleStore, ou -1 fora dela
+    public int getSlot() {
+        return (store != null) ? slot : -1;
+    }
 
     // Getters e Setters
     public String getId() {
+        String id = this.id;
+        if (id == null) {
+            id = "V" + number; // Corrida benigna: outra thread no máximo monta uma String igual
+            this.id = id;
+        }
         return id;
     }
 
+    public int getNumber() {
+        return number;
+    }
+
+    public double getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(double departureTime) {
+        this.departureTime = departureTime;
+    }
+
     public String getOrigin() {
         return origin;
     }
@@ -44,56 +131,173 @@ public class Vehicle {
         return destination;
     }
 
-    public CustomLinkedList<String> getRoute() {
-        return route;
+    // Rota sem cópia, para a VehicleStore compartilhar o array
+    int[] getRouteArray() {
+        VehicleStore store = this.store;
+        int[] stored = (store != null) ? store.getRoute(slot) : null;
+        return (stored != null) ? stored : route;
+    }
+
+    // Cópia da rota em índices de nós
+    public int[] getRoute() {
+        return getRouteArray().clone();
+    }
+
+    public int getRouteLength() {
+        return getRouteArray().length;
+    }
+
+    public boolean hasRoute() {
+        return getRouteArray().length > 0;
     }
 
-    public void setRoute(CustomLinkedList<String> route) {
+    // Substitui a rota; a nova rota deve começar no nó atual do veículo
+    public void setRoute(int[] route) {
         if (route == null) {
             System.err.println("Atribuição de rota nula para o veículo " + id);
-            this.route = new CustomLinkedList<>(); // Substitui por uma rota vazia
-        } else {
-            this.route = route;
+            route = new int[0]; // Substitui por uma rota vazia
+        }
+        VehicleStore store = this.store;
+        if (store != null) {
+            store.setRoute(slot, route);
+            return;
+        }
+        this.route = route;
+        this.routeCursor = 0;
+    }
+
+    public int getRouteCursor() {
+        VehicleStore store = this.store;
+        return (store != null) ? store.getRouteCursor(slot) : routeCursor;
+    }
+
+    // Índice do nó atual na rota, ou -1 se não houver rota
+    public int getCurrentNodeIndex() {
+        int[] route = getRouteArray();
+        int cursor = getRouteCursor();
+        return (cursor < route.length) ? route[cursor] : -1;
+    }
+
+    // Índice do próximo nó da rota em O(1), ou -1 se o veículo está no último nó
+    public int getNextNodeIndex() {
+        int[] route = getRouteArray();
+        int cursor = getRouteCursor();
+        return (cursor + 1 < route.length) ? route[cursor + 1] : -1;
+    }
+
+    // Índice do nó anterior da rota em O(1), ou -1 se o veículo está no primeiro nó
+    public int getPreviousNodeIndex() {
+        int[] route = getRouteArray();
+        int cursor = getRouteCursor();
+        return (cursor > 0 && cursor - 1 < route.length) ? route[cursor - 1] : -1;
+    }
+
+    // Chegada ao próximo nó da rota: avança o cursor, atualiza o nó atual e deixa a aresta
+    public void advanceToNextNode(String nextNodeId) {
+        VehicleStore store = this.store;
+        if (store != null) {
+            store.advance(slot, store.getTopology().indexOf(nextNodeId));
+            return;
         }
+        if (routeCursor + 1 < route.length) {
+            routeCursor++;
+        }
+        this.currentNode = nextNodeId;
+        this.currentEdge = null;
+    }
+
+    public Edge getCurrentEdge() {
+        VehicleStore store = this.store;
+        if (store != null) {
+            int edge = store.getCurrentEdge(slot);
+            return (edge >= 0) ? store.getTopology().getEdge(edge) : null;
+        }
+        return currentEdge;
+    }
+
+    // Definida ao sair de um nó, para o passo seguinte não precisar procurar a aresta
+    public void setCurrentEdge(Edge currentEdge) {
+        VehicleStore store = this.store;
+        if (store != null) {
+            int from = store.getCurrentNode(slot);
+            int to = (currentEdge != null) ? store.getTopology().targetIndexOf(currentEdge) : -1;
+            store.setCurrentEdge(slot, (from >= 0 && to >= 0) ? store.getTopology().findEdge(from, to) : -1);
+            return;
+        }
+        this.currentEdge = currentEdge;
     }
 
     public String getCurrentNode() {
+        VehicleStore store = this.store;
+        if (store != null) {
+            int node = store.getCurrentNode(slot);
+            return (node >= 0) ? store.getTopology().getNodeId(node) : null;
+        }
         return currentNode;
     }
 
     public void setCurrentNode(String currentNode) {
+        VehicleStore store = this.store;
+        if (store != null) {
+            store.setCurrentNode(slot, store.getTopology().indexOf(currentNode));
+            return;
+        }
         this.currentNode = currentNode;
     }
 
     public double getTravelTime() {
-        return travelTime;
+        VehicleStore store = this.store;
+        return (store != null) ? store.getTravelTime(slot) : travelTime;
     }
 
     public void incrementTravelTime(double deltaTime) {
+        VehicleStore store = this.store;
+        if (store != null) {
+            store.addTravelTime(slot, deltaTime);
+            return;
+        }
         this.travelTime += deltaTime;
     }
 
     public double getWaitTime() {
-        return waitTime;
+        VehicleStore store = this.store;
+        return (store != null) ? store.getWaitTime(slot) : waitTime;
     }
 
     public void incrementWaitTime(double deltaTime) {
+        VehicleStore store = this.store;
+        if (store != null) {
+            store.addWaitTime(slot, deltaTime);
+            return;
+        }
         this.waitTime += deltaTime;
     }
 
     public double getPosition() {
-        return position;
+        VehicleStore store = this.store;
+        return (store != null) ? store.getPosition(slot) : position;
     }
 
     public void setPosition(double position) {
+        VehicleStore store = this.store;
+        if (store != null) {
+            store.setPosition(slot, position);
+            return;
+        }
         this.position = position;
     }
 
     public double getFuelConsumed() {
-        return fuelConsumed;
+        VehicleStore store = this.store;
+        return (store != null) ? store.getFuelConsumed(slot) : fuelConsumed;
     }
 
     public void incrementFuelConsumption(double consumption) {
+        VehicleStore store = this.store;
+        if (store != null) {
+            store.addFuel(slot, consumption);
+            return;
+        }
         this.fuelConsumed += consumption;
     }
 
@@ -0,0 +1,56 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Armazenamento das colunas numéricas da {@link VehicleStore}, uma entrada por posição ({@code slot}).
+ * Há duas implementações: {@link HeapVehicleColumns} (arrays primitivos no heap) e {@link OffHeapVehicleColumns}
+ * (registros de tamanho fixo em memória nativa). A VehicleStore só fala com esta interface, e em cada execução
+ * apenas uma implementação é usada, então as chamadas no passo da simulação continuam sendo inlinadas pelo JIT.
+ */
+public interface VehicleColumns {
+    int capacity();
+
+    // Aumenta a capacidade para pelo menos minCapacity, preservando as posições existentes
+    void ensureCapacity(int minCapacity);
+
+    // Zera a posição, para ser reaproveitada por outro veículo
+    void clear(int slot);
+
+    double getPosition(int slot);
+    void setPosition(int slot, double value);
+    double getTravelTime(int slot);
+    void setTravelTime(int slot, double value);
+    double getWaitTime(int slot);
+    void setWaitTime(int slot, double value);
+    double getFuelConsumed(int slot);
+    void setFuelConsumed(int slot, double value);
+    double getFuelRateMoving(int slot);
+    void setFuelRateMoving(int slot, double value);
+    double getFuelRateIdle(int slot);
+    void setFuelRateIdle(int slot, double value);
+
+    int getCurrentNode(int slot);
+    void setCurrentNode(int slot, int node);
+    int getDestinationNode(int slot);
+    void setDestinationNode(int slot, int node);
+    int getCurrentEdge(int slot);
+    void setCurrentEdge(int slot, int edge);
+    int getRouteCursor(int slot);
+    void setRouteCursor(int slot, int cursor);
+
+    byte getFlags(int slot);
+    void setFlags(int slot, byte flags);
+
+    /**
+     * Copia as posições {@code [0, slotCount)} para {@code target} a partir de {@code offset}, no formato de
+     * registro de {@link OffHeapVehicleColumns#RECORD} (usado pelos retratos em arquivo).
+     */
+    void copyRecords(MemorySegment target, long offset, int slotCount);
+
+    // Bytes ocupados pelas colunas (no heap ou fora dele, conforme a implementação)
+    long estimatedBytes();
+
+    // Indica se as colunas ficam fora do heap
+    boolean isOffHeap();
+}
@@ -0,0 +1,71 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+/**
+ * Objetos {@link Vehicle} de viagens encerradas, reaproveitados pelas próximas partidas: a simulação devolve cada
+ * veículo que chega ao destino ({@link #release}) e o gerador o reinicializa ({@link #acquire}) em vez de alocar
+ * um novo. Com o fluxo estável de chegadas e partidas, o número de objetos fica limitado ao pico de veículos em
+ * circulação mais a capacidade do pool.
+ * <p>
+ * Os veículos livres ficam numa {@link SpscRingBuffer}: uma única thread devolve (a da simulação) e uma única
+ * thread retira (a do gerador, que pode ser a mesma ou a do {@code TripPipeline}). Com o pool cheio, o veículo
+ * devolvido é descartado para o coletor de lixo. As rotas não são copiadas: o veículo aponta para o array
+ * imutável do resultado do roteamento, compartilhado com os caches do {@code RoutePlanner}.
+ */
+public class VehiclePool {
+    private final SpscRingBuffer<Vehicle> free;
+
+    // Métricas: cada contador tem um único escritor (acquire ou release)
+    private long created;
+    private long reused;
+    private long released;
+    private long dropped;
+
+    public VehiclePool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade do pool de veículos deve ser positiva: " + capacity);
+        }
+        this.free = new SpscRingBuffer<>(capacity);
+    }
+
+    // Veículo pronto para partir de origin: reaproveitado do pool, ou novo se o pool estiver vazio
+    public Vehicle acquire(int number, String origin, String destination, int[] route) {
+        Vehicle vehicle = free.poll();
+        if (vehicle == null) {
+            created++;
+            return new Vehicle(number, origin, destination, route);
+        }
+        reused++;
+        vehicle.reset(number, origin, destination, route);
+        return vehicle;
+    }
+
+    /**
+     * Devolve um veículo que saiu de circulação. Quem devolve não deve mais usar o objeto.
+     *
+     * @return false se o pool estava cheio e o veículo foi descartado.
+     */
+    public boolean release(Vehicle vehicle) {
+        if (vehicle == null) return false;
+        if (vehicle.isStored()) {
+            throw new IllegalStateException("Veículo " + vehicle.getId() + " ainda está em circulação e não pode voltar ao pool.");
+        }
+        if (!free.offer(vehicle)) {
+            dropped++;
+            return false;
+        }
+        released++;
+        return true;
+    }
+
+    public int getAvailable() { return free.size(); }
+    public int getCapacity() { return free.capacity(); }
+    public long getCreated() { return created; }
+    public long getReused() { return reused; }
+    public long getReleased() { return released; }
+    public long getDropped() { return dropped; }
+
+    public void printSummary() {
+        System.out.printf("Pool de veículos: %d criados, %d reaproveitados, %d devolvidos, %d descartados (pool cheio), %d livres de %d%n",
+                getCreated(), getReused(), getReleased(), getDropped(), getAvailable(), getCapacity());
+    }
+}
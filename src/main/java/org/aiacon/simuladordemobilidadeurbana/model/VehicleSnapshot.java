@@ -0,0 +1,103 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+import static org.aiacon.simuladordemobilidadeurbana.model.OffHeapVehicleColumns.*;
+
+/**
+ * Leitura de um retrato gravado por {@link VehicleStore#writeSnapshot(Path)}. O arquivo é mapeado somente para
+ * leitura e os registros são lidos direto do mapeamento, sem carregar os veículos no heap; só o deslocamento de
+ * cada rota distinta é calculado na abertura. Feche com {@link #close()} para desfazer o mapeamento.
+ */
+public final class VehicleSnapshot implements AutoCloseable {
+    private final Arena arena;
+    private final MemorySegment mapped;
+    private final int slotCount;
+    private final int activeCount;
+    private final int nodeCount;
+    private final long routeIndexOffset; // Número da rota de cada posição
+    private final long[] routeOffsets;   // Posição no arquivo do tamanho de cada rota distinta
+
+    private VehicleSnapshot(Arena arena, MemorySegment mapped) {
+        this.arena = arena;
+        this.mapped = mapped;
+        if (mapped.byteSize() < VehicleStore.SNAPSHOT_HEADER_BYTES
+                || mapped.get(JAVA_INT_UNALIGNED, 0) != VehicleStore.SNAPSHOT_MAGIC) {
+            throw new IllegalArgumentException("Arquivo não é um retrato de veículos.");
+        }
+        int version = mapped.get(JAVA_INT_UNALIGNED, 4);
+        int recordBytes = mapped.get(JAVA_INT_UNALIGNED, 20);
+        if (version != VehicleStore.SNAPSHOT_VERSION || recordBytes != RECORD_BYTES) {
+            throw new IllegalArgumentException("Versão de retrato não suportada: " + version + " (registro de " + recordBytes + " bytes).");
+        }
+        this.slotCount = mapped.get(JAVA_INT_UNALIGNED, 8);
+        this.activeCount = mapped.get(JAVA_INT_UNALIGNED, 12);
+        this.nodeCount = mapped.get(JAVA_INT_UNALIGNED, 16);
+        this.routeIndexOffset = VehicleStore.SNAPSHOT_HEADER_BYTES + RECORD_BYTES * slotCount;
+        long offset = mapped.get(JAVA_LONG_UNALIGNED, 24);
+        this.routeOffsets = new long[mapped.get(JAVA_INT_UNALIGNED, offset)];
+        offset += Integer.BYTES;
+        for (int route = 0; route < routeOffsets.length; route++) {
+            routeOffsets[route] = offset;
+            offset += Integer.BYTES * (1L + mapped.get(JAVA_INT_UNALIGNED, offset));
+        }
+    }
+
+    public static VehicleSnapshot open(Path file) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new VehicleSnapshot(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private static long base(int slot) {
+        return VehicleStore.SNAPSHOT_HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    public int getSlotCount() { return slotCount; }
+    public int getActiveCount() { return activeCount; }
+    public int getNodeCount() { return nodeCount; }
+    public int getRouteCount() { return routeOffsets.length; }
+
+    public boolean isActive(int slot) { return (getFlags(slot) & VehicleStore.ACTIVE) != 0; }
+    public byte getFlags(int slot) { return mapped.get(JAVA_BYTE, base(slot) + FLAGS); }
+    public double getPosition(int slot) { return mapped.get(JAVA_DOUBLE_UNALIGNED, base(slot) + POSITION); }
+    public double getTravelTime(int slot) { return mapped.get(JAVA_DOUBLE_UNALIGNED, base(slot) + TRAVEL_TIME); }
+    public double getWaitTime(int slot) { return mapped.get(JAVA_DOUBLE_UNALIGNED, base(slot) + WAIT_TIME); }
+    public double getFuelConsumed(int slot) { return mapped.get(JAVA_DOUBLE_UNALIGNED, base(slot) + FUEL_CONSUMED); }
+    public int getCurrentNode(int slot) { return mapped.get(JAVA_INT_UNALIGNED, base(slot) + CURRENT_NODE); }
+    public int getDestinationNode(int slot) { return mapped.get(JAVA_INT_UNALIGNED, base(slot) + DESTINATION_NODE); }
+    public int getCurrentEdge(int slot) { return mapped.get(JAVA_INT_UNALIGNED, base(slot) + CURRENT_EDGE); }
+    public int getRouteCursor(int slot) { return mapped.get(JAVA_INT_UNALIGNED, base(slot) + ROUTE_CURSOR); }
+
+    // Número da rota da posição na tabela de rotas distintas, ou -1 para posições livres
+    public int getRouteIndex(int slot) {
+        return mapped.get(JAVA_INT_UNALIGNED, routeIndexOffset + (long) slot * Integer.BYTES);
+    }
+
+    // Rota da posição em índices de nós (vazia para posições livres)
+    public int[] getRoute(int slot) {
+        int route = getRouteIndex(slot);
+        if (route < 0) return new int[0];
+        long offset = routeOffsets[route];
+        int length = mapped.get(JAVA_INT_UNALIGNED, offset);
+        return mapped.asSlice(offset + Integer.BYTES, (long) length * Integer.BYTES).toArray(JAVA_INT_UNALIGNED);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
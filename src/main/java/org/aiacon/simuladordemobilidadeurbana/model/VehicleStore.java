@@ -0,0 +1,304 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+/**
+ * Estado dos veículos ativos em colunas primitivas paralelas (estrutura de arrays): cada veículo ocupa uma
+ * posição ({@code slot}) em todas as colunas, e o passo da simulação percorre as colunas em sequência em vez de
+ * seguir ponteiros para objetos espalhados pelo heap.
+ * <p>
+ * Nós e arestas são índices da topologia congelada ({@link FrozenGraph}): a aresta atual é a posição da aresta
+ * nos arrays CSR, ou -1 quando o veículo está parado em um nó. As posições liberadas por veículos que chegaram
+ * ao destino vão para uma lista livre e são reaproveitadas pelos próximos veículos, então as colunas só crescem
+ * até o pico de veículos simultâneos.
+ * <p>
+ * O {@link Vehicle} de cada posição continua existindo como visão para a interface e os logs: enquanto está na
+ * store, seus getters e setters leem e escrevem nestas colunas (ver {@link Vehicle#isStored()}).
+ * As colunas numéricas ficam em um {@link VehicleColumns}: arrays no heap ({@link HeapVehicleColumns}) ou
+ * registros fora do heap ({@link OffHeapVehicleColumns}); rotas e visões ficam sempre no heap.
+ * Não é thread-safe; só a thread da simulação deve alterá-la.
+ */
+public class VehicleStore {
+    // Flags de estado
+    public static final byte ACTIVE = 1;  // Posição ocupada por um veículo em circulação
+    public static final byte WAITING = 2; // Parado em semáforo fechado no último passo
+    public static final byte MOVING = 4;  // Percorreu uma aresta no último passo
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    // Retrato em arquivo: cabeçalho, registros no formato OffHeapVehicleColumns.RECORD e rotas
+    public static final int SNAPSHOT_MAGIC = 0x56535450; // "VSTP"
+    public static final int SNAPSHOT_VERSION = 1;
+    public static final long SNAPSHOT_HEADER_BYTES = 32;
+
+    private final FrozenGraph topology;
+
+    private final VehicleColumns columns;
+    private int[][] routes;     // Rotas em índices de nós (arrays imutáveis, compartilháveis)
+    private Vehicle[] vehicles; // Visão de cada posição
+
+    private int[] freeSlots; // Pilha de posições liberadas, com a mesma capacidade das colunas (release não aloca)
+    private int freeCount;
+    private int slotLimit;   // Posições já usadas alguma vez: [0, slotLimit)
+    private int activeCount;
+
+    public VehicleStore(FrozenGraph topology) {
+        this(topology, new HeapVehicleColumns(DEFAULT_CAPACITY));
+    }
+
+    public VehicleStore(FrozenGraph topology, int initialCapacity) {
+        this(topology, new HeapVehicleColumns(initialCapacity));
+    }
+
+    public VehicleStore(FrozenGraph topology, VehicleColumns columns) {
+        if (topology == null) {
+            throw new IllegalArgumentException("VehicleStore precisa da topologia congelada do grafo.");
+        }
+        if (columns == null) {
+            throw new IllegalArgumentException("VehicleStore precisa de um armazenamento de colunas.");
+        }
+        this.topology = topology;
+        this.columns = columns;
+        this.routes = new int[columns.capacity()][];
+        this.vehicles = new Vehicle[columns.capacity()];
+        this.freeSlots = new int[columns.capacity()];
+    }
+
+    /**
+     * Coloca o veículo em circulação: copia seu estado para uma posição livre (reaproveitada, se houver) e passa
+     * a usá-la como armazenamento do veículo.
+     *
+     * @return a posição ocupada.
+     */
+    public int add(Vehicle vehicle) {
+        if (vehicle == null) {
+            throw new IllegalArgumentException("Veículo nulo não pode entrar na VehicleStore.");
+        }
+        if (vehicle.isStored()) {
+            throw new IllegalStateException("Veículo " + vehicle.getId() + " já está em uma VehicleStore.");
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotLimit == columns.capacity()) {
+                columns.ensureCapacity(slotLimit * 2);
+                routes = Arrays.copyOf(routes, columns.capacity());
+                vehicles = Arrays.copyOf(vehicles, columns.capacity());
+                freeSlots = Arrays.copyOf(freeSlots, columns.capacity());
+            }
+            slot = slotLimit++;
+        }
+        int node = topology.indexOf(vehicle.getCurrentNode());
+        columns.setPosition(slot, vehicle.getPosition());
+        columns.setTravelTime(slot, vehicle.getTravelTime());
+        columns.setWaitTime(slot, vehicle.getWaitTime());
+        columns.setFuelConsumed(slot, vehicle.getFuelConsumed());
+        columns.setFuelRateMoving(slot, vehicle.getFuelConsumptionRateMoving());
+        columns.setFuelRateIdle(slot, vehicle.getFuelConsumptionRateIdle());
+        columns.setCurrentNode(slot, node);
+        columns.setDestinationNode(slot, topology.indexOf(vehicle.getDestination()));
+        columns.setRouteCursor(slot, vehicle.getRouteCursor());
+        Edge edge = vehicle.getCurrentEdge();
+        columns.setCurrentEdge(slot, (edge != null) ? findEdgeSlot(node, edge) : -1);
+        columns.setFlags(slot, ACTIVE);
+        routes[slot] = vehicle.getRouteArray();
+        vehicles[slot] = vehicle;
+        activeCount++;
+        vehicle.attach(this, slot);
+        return slot;
+    }
+
+    /**
+     * Retira o veículo da posição (chegada ao destino ou descarte): o estado final volta para o objeto
+     * {@link Vehicle}, que continua válido para estatísticas e logs, e a posição vai para a lista livre.
+     */
+    public Vehicle release(int slot) {
+        checkActive(slot);
+        Vehicle vehicle = vehicles[slot];
+        vehicle.detach();
+        routes[slot] = null;
+        vehicles[slot] = null;
+        columns.clear(slot);
+        freeSlots[freeCount++] = slot;
+        activeCount--;
+        return vehicle;
+    }
+
+    // Posição CSR da aresta de from com o mesmo objeto Edge (ou com o mesmo destino, se o objeto não estiver no retrato)
+    private int findEdgeSlot(int from, Edge edge) {
+        if (from < 0) return -1;
+        for (int e = topology.firstEdge(from), end = topology.lastEdge(from); e < end; e++) {
+            if (topology.getEdge(e) == edge) return e;
+        }
+        return topology.findEdge(from, topology.targetIndexOf(edge));
+    }
+
+    private void checkActive(int slot) {
+        if (slot < 0 || slot >= slotLimit || (columns.getFlags(slot) & ACTIVE) == 0) {
+            throw new IllegalArgumentException("Posição " + slot + " não contém um veículo ativo.");
+        }
+    }
+
+    public FrozenGraph getTopology() { return topology; }
+    public VehicleColumns getColumns() { return columns; }
+
+    // As posições ativas estão em [0, getSlotLimit()); use isActive para pular as livres
+    public int getSlotLimit() { return slotLimit; }
+    public int getActiveCount() { return activeCount; }
+    public int getCapacity() { return columns.capacity(); }
+    public boolean isActive(int slot) { return (columns.getFlags(slot) & ACTIVE) != 0; }
+    public Vehicle getVehicle(int slot) { return vehicles[slot]; }
+
+    public byte getFlags(int slot) { return columns.getFlags(slot); }
+    public boolean hasFlag(int slot, byte flag) { return (columns.getFlags(slot) & flag) != 0; }
+
+    public void setFlag(int slot, byte flag, boolean value) {
+        byte flags = columns.getFlags(slot);
+        columns.setFlags(slot, (byte) (value ? (flags | flag) : (flags & ~flag)));
+    }
+
+    public double getPosition(int slot) { return columns.getPosition(slot); }
+    public void setPosition(int slot, double value) { columns.setPosition(slot, value); }
+    public double getTravelTime(int slot) { return columns.getTravelTime(slot); }
+    public void addTravelTime(int slot, double delta) { columns.setTravelTime(slot, columns.getTravelTime(slot) + delta); }
+    public double getWaitTime(int slot) { return columns.getWaitTime(slot); }
+    public void addWaitTime(int slot, double delta) { columns.setWaitTime(slot, columns.getWaitTime(slot) + delta); }
+    public double getFuelConsumed(int slot) { return columns.getFuelConsumed(slot); }
+    public void addFuel(int slot, double liters) { columns.setFuelConsumed(slot, columns.getFuelConsumed(slot) + liters); }
+    public double getFuelRateMoving(int slot) { return columns.getFuelRateMoving(slot); }
+    public double getFuelRateIdle(int slot) { return columns.getFuelRateIdle(slot); }
+
+    public int getCurrentNode(int slot) { return columns.getCurrentNode(slot); }
+    public void setCurrentNode(int slot, int node) { columns.setCurrentNode(slot, node); }
+    public int getDestinationNode(int slot) { return columns.getDestinationNode(slot); }
+    public int getCurrentEdge(int slot) { return columns.getCurrentEdge(slot); }
+    public void setCurrentEdge(int slot, int edge) { columns.setCurrentEdge(slot, edge); }
+
+    public int[] getRoute(int slot) { return routes[slot]; }
+    public int getRouteCursor(int slot) { return columns.getRouteCursor(slot); }
+
+    // Substitui a rota; a nova rota começa no nó atual
+    public void setRoute(int slot, int[] route) {
+        routes[slot] = route;
+        columns.setRouteCursor(slot, 0);
+    }
+
+    // Próximo nó da rota, ou -1 no último nó
+    public int getNextNode(int slot) {
+        int[] route = routes[slot];
+        int next = columns.getRouteCursor(slot) + 1;
+        return (next < route.length) ? route[next] : -1;
+    }
+
+    // Nó anterior da rota, ou -1 no primeiro nó
+    public int getPreviousNode(int slot) {
+        int[] route = routes[slot];
+        int previous = columns.getRouteCursor(slot) - 1;
+        return (previous >= 0 && previous < route.length) ? route[previous] : -1;
+    }
+
+    // Chegada ao próximo nó: avança o cursor, atualiza o nó atual e deixa a aresta
+    public void advance(int slot, int node) {
+        int cursor = columns.getRouteCursor(slot);
+        if (cursor + 1 < routes[slot].length) {
+            columns.setRouteCursor(slot, cursor + 1);
+        }
+        columns.setCurrentNode(slot, node);
+        columns.setCurrentEdge(slot, -1);
+    }
+
+    public void setRouteCursor(int slot, int cursor) { columns.setRouteCursor(slot, cursor); }
+
+    // Veículo parado no nó de destino
+    public boolean hasArrived(int slot) {
+        return columns.getCurrentNode(slot) == columns.getDestinationNode(slot) && columns.getPosition(slot) == 0.0;
+    }
+
+    // Visões dos veículos ativos, na ordem das posições (cópia para a interface; não é usada no passo da simulação)
+    public CustomArrayList<Vehicle> snapshotVehicles() {
+        CustomArrayList<Vehicle> snapshot = new CustomArrayList<>(Math.max(1, activeCount));
+        Vehicle[] views = vehicles;
+        int limit = Math.min(slotLimit, views.length);
+        for (int slot = 0; slot < limit; slot++) {
+            Vehicle vehicle = views[slot];
+            if (vehicle != null) {
+                snapshot.add(vehicle);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Grava o estado atual em {@code file} por um mapeamento de memória: cabeçalho de
+     * {@value #SNAPSHOT_HEADER_BYTES} bytes, um registro {@link OffHeapVehicleColumns#RECORD} por posição em
+     * {@code [0, getSlotLimit())} (posições livres ficam zeradas, sem a flag ACTIVE), o número da rota de cada
+     * posição (-1 se não houver) e a tabela de rotas distintas, cada uma como um int de tamanho seguido dos índices
+     * dos nós. Veículos que compartilham o mesmo array de rota gravam a rota uma vez só. Com colunas fora do heap os
+     * registros são copiados em bloco. Leia com {@link VehicleSnapshot}.
+     *
+     * @return o tamanho do arquivo em bytes.
+     */
+    public long writeSnapshot(Path file) throws IOException {
+        // Rotas distintas (por identidade do array) e o número de cada uma
+        IdentityHashMap<int[], Integer> routeIds = new IdentityHashMap<>();
+        CustomArrayList<int[]> distinctRoutes = new CustomArrayList<>();
+        long routeTableBytes = Integer.BYTES; // Quantidade de rotas
+        for (int slot = 0; slot < slotLimit; slot++) {
+            int[] route = routes[slot];
+            if (route != null && !routeIds.containsKey(route)) {
+                routeIds.put(route, distinctRoutes.size());
+                distinctRoutes.add(route);
+                routeTableBytes += Integer.BYTES * (1L + route.length);
+            }
+        }
+        long routeIndexOffset = SNAPSHOT_HEADER_BYTES + OffHeapVehicleColumns.RECORD_BYTES * slotLimit;
+        long routeTableOffset = routeIndexOffset + (long) Integer.BYTES * slotLimit;
+        long size = routeTableOffset + routeTableBytes;
+
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            mapped.set(JAVA_INT_UNALIGNED, 0, SNAPSHOT_MAGIC);
+            mapped.set(JAVA_INT_UNALIGNED, 4, SNAPSHOT_VERSION);
+            mapped.set(JAVA_INT_UNALIGNED, 8, slotLimit);
+            mapped.set(JAVA_INT_UNALIGNED, 12, activeCount);
+            mapped.set(JAVA_INT_UNALIGNED, 16, topology.getNodeCount());
+            mapped.set(JAVA_INT_UNALIGNED, 20, (int) OffHeapVehicleColumns.RECORD_BYTES);
+            mapped.set(JAVA_LONG_UNALIGNED, 24, routeTableOffset);
+            columns.copyRecords(mapped, SNAPSHOT_HEADER_BYTES, slotLimit);
+
+            for (int slot = 0; slot < slotLimit; slot++) {
+                int[] route = routes[slot];
+                mapped.set(JAVA_INT_UNALIGNED, routeIndexOffset + (long) slot * Integer.BYTES, (route != null) ? routeIds.get(route) : -1);
+            }
+            long offset = routeTableOffset;
+            mapped.set(JAVA_INT_UNALIGNED, offset, distinctRoutes.size());
+            offset += Integer.BYTES;
+            for (int[] route : distinctRoutes) {
+                mapped.set(JAVA_INT_UNALIGNED, offset, route.length);
+                offset += Integer.BYTES;
+                MemorySegment.copy(route, 0, mapped, JAVA_INT_UNALIGNED, offset, route.length);
+                offset += (long) route.length * Integer.BYTES;
+            }
+            mapped.force();
+        }
+        return size;
+    }
+
+    // Bytes aproximados das colunas, dos arrays de rotas e de visões e da lista livre (sem as rotas e os Vehicle)
+    public long estimatedBytes() {
+        return columns.estimatedBytes() + (long) vehicles.length * 2 * 8 + (long) freeSlots.length * Integer.BYTES;
+    }
+}
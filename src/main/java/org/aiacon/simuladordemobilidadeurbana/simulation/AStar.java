@@ -0,0 +1,57 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+/**
+ * Busca A* ponto a ponto sobre o {@link RoutingGraph}.
+ * A heurística é a distância de grande círculo (haversine) até o destino dividida pela maior velocidade
+ * efetiva da rede ({@link RoutingGraph#lowerBoundTravelTime(int, int)}). Ela nunca superestima o tempo
+ * restante, então a rota devolvida tem o mesmo custo da rota do {@link Dijkstra}, mas a busca assenta
+ * apenas os nós na direção do destino. Com empates de custo, a rota pode passar por outros nós que a do Dijkstra:
+ * a heurística muda a ordem em que os nós são assentados e, com ela, qual antecessor fica registrado.
+ */
+public class AStar {
+
+    public static RouteResult findRoute(RoutingGraph routingGraph, int origin, int destination) {
+        Dijkstra.SearchSpace space = Dijkstra.acquireSearchSpace(routingGraph.getNodeCount());
+        space.reset();
+        IndexedMinHeap heap = space.heap;
+
+        space.reach(origin, 0.0, -1);
+        heap.insertOrDecrease(origin, routingGraph.lowerBoundTravelTime(origin, destination));
+
+        boolean found = false;
+        int settledCount = 0;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledCount++;
+            if (current == destination) {
+                found = true;
+                break;
+            }
+            space.settle(current);
+            double currentDistance = space.distance[current];
+
+            for (int e = routingGraph.firstEdge(current), end = routingGraph.lastEdge(current); e < end; e++) {
+                int neighbor = routingGraph.getTarget(e);
+                if (space.isSettled(neighbor)) {
+                    continue;
+                }
+                double weight = routingGraph.getWeight(e);
+                if (weight == Double.POSITIVE_INFINITY) {
+                    continue; // Aresta intransitável
+                }
+                double newDist = currentDistance + weight;
+                if (!space.isReached(neighbor) || newDist < space.distance[neighbor]) {
+                    space.reach(neighbor, newDist, current);
+                    // Prioridade f = g + h; a heurística é recalculada a cada melhoria (custo de um haversine)
+                    heap.insertOrDecrease(neighbor, newDist + routingGraph.lowerBoundTravelTime(neighbor, destination));
+                }
+            }
+        }
+        heap.clear();
+
+        if (!found) {
+            return RouteResult.unreachable(settledCount);
+        }
+        return new RouteResult(space.buildPath(origin, destination), space.distance[destination], settledCount);
+    }
+}
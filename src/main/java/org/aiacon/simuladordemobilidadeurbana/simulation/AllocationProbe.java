@@ -0,0 +1,68 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mede quantos bytes a thread atual aloca entre {@link #begin()} e {@link #end()}, pelo contador por thread da
+ * JVM ({@code com.sun.management.ThreadMXBean}). O Simulator a usa em volta da parte do passo que deve ser livre de
+ * alocação (semáforos, movimento dos veículos, chegadas e congestionamento) quando
+ * {@link Configuration#isAllocationProbe()} está ligado. Em JVMs sem o contador, não mede nada.
+ */
+public class AllocationProbe {
+    private final com.sun.management.ThreadMXBean threadBean; // null se a JVM não suportar a medição
+    private long startBytes;
+    private long samples;
+    private long allocatingSamples;
+    private long totalBytes;
+    private long maxBytes;
+
+    public AllocationProbe() {
+        com.sun.management.ThreadMXBean bean = null;
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean candidate
+                && candidate.isThreadAllocatedMemorySupported()) {
+            if (!candidate.isThreadAllocatedMemoryEnabled()) {
+                candidate.setThreadAllocatedMemoryEnabled(true);
+            }
+            bean = candidate;
+        } else {
+            System.err.println("ALLOCATION_PROBE: JVM sem contador de bytes alocados por thread; a medição fica desligada.");
+        }
+        this.threadBean = bean;
+    }
+
+    public boolean isSupported() {
+        return threadBean != null;
+    }
+
+    public void begin() {
+        if (threadBean != null) {
+            startBytes = threadBean.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    // Encerra a medição iniciada em begin() e devolve os bytes alocados no intervalo (0 se não suportado)
+    public long end() {
+        if (threadBean == null) return 0;
+        long bytes = threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+        samples++;
+        totalBytes += bytes;
+        if (bytes > 0) allocatingSamples++;
+        if (bytes > maxBytes) maxBytes = bytes;
+        return bytes;
+    }
+
+    public long getSamples() { return samples; }
+    public long getAllocatingSamples() { return allocatingSamples; }
+    public long getTotalBytes() { return totalBytes; }
+    public long getMaxBytes() { return maxBytes; }
+
+    public double getAverageBytes() {
+        return (samples > 0) ? (double) totalBytes / samples : 0.0;
+    }
+
+    public void printSummary() {
+        if (threadBean == null) return;
+        System.out.printf("Alocação por passo (movimento dos veículos): %d passos medidos, %d com alocação, média %.1f B, máximo %d B%n",
+                getSamples(), getAllocatingSamples(), getAverageBytes(), getMaxBytes());
+    }
+}
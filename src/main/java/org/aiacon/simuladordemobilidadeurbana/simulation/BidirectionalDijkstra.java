@@ -0,0 +1,124 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+/**
+ * Dijkstra bidirecional sobre o {@link RoutingGraph}: uma busca parte da origem pelas arestas de saída e outra
+ * parte do destino pelas arestas de entrada, sempre expandindo o lado com a menor chave no topo do heap.
+ * Cada relaxamento que alcança um nó já visto pela busca oposta é um candidato a rota; a busca termina quando
+ * a soma dos dois topos não pode mais melhorar o melhor candidato (critério de encontro no meio).
+ * Não exige pré-processamento e assenta aproximadamente metade dos nós do Dijkstra unidirecional.
+ * O custo é o mesmo do {@link Dijkstra}; se há mais de uma rota de custo mínimo, o nó de encontro decide qual
+ * delas sai, e ela pode ser outra que a do Dijkstra.
+ */
+public class BidirectionalDijkstra {
+
+    // Segunda área de trabalho por thread (a primeira é a mesma do Dijkstra unidirecional)
+    private static final ThreadLocal<Dijkstra.SearchSpace> backwardSpaces = new ThreadLocal<>();
+
+    public static RouteResult findRoute(RoutingGraph routingGraph, int origin, int destination) {
+        if (origin == destination) {
+            return new RouteResult(new int[]{origin}, 0.0, 1);
+        }
+        Dijkstra.SearchSpace forward = Dijkstra.acquireSearchSpace(routingGraph.getNodeCount());
+        Dijkstra.SearchSpace backward = acquireBackwardSpace(routingGraph.getNodeCount());
+        forward.reset();
+        backward.reset();
+
+        forward.reach(origin, 0.0, -1);
+        forward.heap.insertOrDecrease(origin, 0.0);
+        backward.reach(destination, 0.0, -1);
+        backward.heap.insertOrDecrease(destination, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meetingNode = -1;
+        int settledCount = 0;
+
+        // Se um dos lados se esgota, todos os nós alcançáveis por ele já foram assentados e o melhor candidato é final
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            double minForward = forward.heap.peekKey();
+            double minBackward = backward.heap.peekKey();
+            if (minForward + minBackward >= best) {
+                break; // Nenhum caminho ainda não examinado pode ser mais curto que o melhor encontrado
+            }
+
+            if (minForward <= minBackward) {
+                int u = forward.heap.poll();
+                settledCount++;
+                forward.settle(u);
+                double du = forward.distance[u];
+                for (int e = routingGraph.firstEdge(u), end = routingGraph.lastEdge(u); e < end; e++) {
+                    int v = routingGraph.getTarget(e);
+                    if (forward.isSettled(v)) continue;
+                    double weight = routingGraph.getWeight(e);
+                    if (weight == Double.POSITIVE_INFINITY) continue; // Aresta intransitável
+                    double nd = du + weight;
+                    if (!forward.isReached(v) || nd < forward.distance[v]) {
+                        forward.reach(v, nd, u);
+                        forward.heap.insertOrDecrease(v, nd);
+                        if (backward.isReached(v) && nd + backward.distance[v] < best) {
+                            best = nd + backward.distance[v];
+                            meetingNode = v;
+                        }
+                    }
+                }
+            } else {
+                int u = backward.heap.poll();
+                settledCount++;
+                backward.settle(u);
+                double du = backward.distance[u];
+                for (int e = routingGraph.firstIncomingEdge(u), end = routingGraph.lastIncomingEdge(u); e < end; e++) {
+                    int x = routingGraph.getIncomingSource(e); // Aresta x -> u
+                    if (backward.isSettled(x)) continue;
+                    double weight = routingGraph.getIncomingWeight(e);
+                    if (weight == Double.POSITIVE_INFINITY) continue;
+                    double nd = du + weight;
+                    if (!backward.isReached(x) || nd < backward.distance[x]) {
+                        backward.reach(x, nd, u); // Na busca reversa o "antecessor" é o próximo nó rumo ao destino
+                        backward.heap.insertOrDecrease(x, nd);
+                        if (forward.isReached(x) && nd + forward.distance[x] < best) {
+                            best = nd + forward.distance[x];
+                            meetingNode = x;
+                        }
+                    }
+                }
+            }
+        }
+        forward.heap.clear();
+        backward.heap.clear();
+
+        if (meetingNode < 0) {
+            return RouteResult.unreachable(settledCount);
+        }
+
+        // origem ... encontro (antecessores da busca direta) + encontro ... destino (sucessores da busca reversa)
+        int forwardLength = 0;
+        for (int node = meetingNode; node != -1; node = forward.predecessor[node]) {
+            forwardLength++;
+        }
+        int backwardLength = 0;
+        for (int node = backward.predecessor[meetingNode]; node != -1; node = backward.predecessor[node]) {
+            backwardLength++;
+        }
+        int[] path = new int[forwardLength + backwardLength];
+        int node = meetingNode;
+        for (int i = forwardLength - 1; i >= 0; i--) {
+            path[i] = node;
+            node = forward.predecessor[node];
+        }
+        node = backward.predecessor[meetingNode];
+        for (int i = forwardLength; i < path.length; i++) {
+            path[i] = node;
+            node = backward.predecessor[node];
+        }
+        // Recalcula o custo na ordem origem -> destino para coincidir bit a bit com o Dijkstra na mesma rota
+        return new RouteResult(path, routingGraph.pathTravelTime(path), settledCount);
+    }
+
+    private static Dijkstra.SearchSpace acquireBackwardSpace(int nodeCount) {
+        Dijkstra.SearchSpace space = backwardSpaces.get();
+        if (space == null || space.capacity() != nodeCount) {
+            space = new Dijkstra.SearchSpace(nodeCount);
+            backwardSpaces.set(space);
+        }
+        return space;
+    }
+}
@@ -25,6 +25,39 @@ public class Configuration {
 
     private double vehicleGenerationStopTime;
 
+    private RoutingAlgorithm routingAlgorithm;
+    private String contractionHierarchyFile; // Arquivo de cache do pré-processamento de CH (null = não persistir)
+    private int landmarkCount; // Número de landmarks do modo ALT
+    private int routeCacheCapacity; // Máximo de pares origem/destino no cache LRU de rotas (0 = sem cache)
+    private int shortestPathTreeCacheMegabytes; // Memória das árvores de caminhos por origem, só no modo DIJKSTRA (0 = sem cache)
+    private RouteExecutorType routeExecutorType; // Como os lotes de rotas dos veículos gerados são calculados
+    private int routeParallelism; // Número máximo de rotas calculadas simultaneamente
+    private Long randomSeed; // Semente da geração de veículos (null = não determinística)
+    private boolean asyncTripPipeline; // Gera e roteia viagens numa thread à frente do relógio (ver TripPipeline)
+    private double tripLookaheadSeconds; // Quantos segundos simulados de partidas o pipeline pode preparar adiantado
+    private int tripQueueCapacity; // Capacidade da fila de veículos prontos (contrapressão quando cheia)
+    private boolean offHeapVehicleState; // Estado dos veículos em memória nativa (ver OffHeapVehicleColumns)
+    private String vehicleStateSnapshotFile; // Retrato do estado dos veículos gravado ao fim da simulação (null = não gravar)
+    private int vehiclePoolCapacity; // Veículos de viagens encerradas guardados para reaproveitamento (0 = sem pool)
+    private boolean allocationProbe; // Mede os bytes alocados pela thread da simulação em cada passo
+    // Zonas de demanda: círculos (centro em graus, raio em metros) de onde saem e para onde vão as viagens (raio 0 = grafo inteiro)
+    private double originZoneLatitude;
+    private double originZoneLongitude;
+    private double originZoneRadiusMeters;
+    private double destinationZoneLatitude;
+    private double destinationZoneLongitude;
+    private double destinationZoneRadiusMeters;
+    private boolean pruneToLargestComponent; // Simula só a maior componente fortemente conexa do mapa (ver StronglyConnectedComponents)
+    private boolean realTimePacing; // Pausa entre os passos para a interface acompanhar; desligado, roda o mais rápido possível
+    private boolean verboseLogging; // Logs por passo e por evento (estado da simulação, veículos gerados, trocas de fase)
+    private SimulationEngine simulationEngine; // Passos fixos de 1 s ou fila de eventos (ver DiscreteEventEngine)
+    private EventSchedulerType eventSchedulerType; // Fila de eventos do motor de eventos discretos
+    private double timingWheelResolution; // Segundos por posição do nível 0 da roda de tempo
+    private int timingWheelSlotBits;      // Cada nível da roda tem 2^bits posições
+    private int timingWheelLevels;        // Níveis da roda; eventos além do último vão para o transbordo
+    private int vehicleUpdateParallelism; // Threads da atualização dos veículos no motor por passos (1 = serial)
+    private int partitionRegions; // Regiões do mapa, uma thread cada, no motor por passos (1 = sem divisão)
+
     public Configuration() {
         this.vehicleGenerationRate = 0.3; // Ajustado para testes de calibração
         this.simulationDuration = 600.0;
@@ -48,6 +81,34 @@ public class Configuration {
         this.energySavingMinGreen = 7.0;
         this.energySavingThreshold = 1;
         this.energySavingMaxGreenTime = 40.0;
+
+        this.routingAlgorithm = RoutingAlgorithm.DIJKSTRA;
+        this.contractionHierarchyFile = null;
+        this.landmarkCount = 8;
+        this.routeCacheCapacity = 16384;
+        this.shortestPathTreeCacheMegabytes = 0; // Vale a pena com poucas origens (zonas de demanda) ou mapas pequenos
+        this.routeExecutorType = RouteExecutorType.FORK_JOIN;
+        this.routeParallelism = Runtime.getRuntime().availableProcessors();
+        this.randomSeed = null;
+        this.asyncTripPipeline = true;
+        this.tripLookaheadSeconds = 30.0;
+        this.tripQueueCapacity = 1024;
+        this.offHeapVehicleState = false;
+        this.vehicleStateSnapshotFile = null;
+        this.vehiclePoolCapacity = 4096;
+        this.allocationProbe = false;
+        this.originZoneRadiusMeters = 0.0;
+        this.destinationZoneRadiusMeters = 0.0;
+        this.pruneToLargestComponent = false;
+        this.realTimePacing = true;
+        this.verboseLogging = true;
+        this.simulationEngine = SimulationEngine.TIME_STEPPED;
+        this.eventSchedulerType = EventSchedulerType.TIMING_WHEEL;
+        this.timingWheelResolution = TimingWheelEventScheduler.DEFAULT_RESOLUTION;
+        this.timingWheelSlotBits = TimingWheelEventScheduler.DEFAULT_SLOT_BITS;
+        this.timingWheelLevels = TimingWheelEventScheduler.DEFAULT_LEVELS;
+        this.vehicleUpdateParallelism = 1;
+        this.partitionRegions = 1;
     }
 
     // Getters e Setters
@@ -97,4 +158,74 @@ public class Configuration {
 
     public double getVehicleGenerationStopTime() { return vehicleGenerationStopTime; }
     public void setVehicleGenerationStopTime(double vehicleGenerationStopTime) { this.vehicleGenerationStopTime = vehicleGenerationStopTime; }
-}
\ No newline at end of file
+
+    public RoutingAlgorithm getRoutingAlgorithm() { return routingAlgorithm; }
+    public void setRoutingAlgorithm(RoutingAlgorithm routingAlgorithm) { this.routingAlgorithm = routingAlgorithm; }
+    public String getContractionHierarchyFile() { return contractionHierarchyFile; }
+    public void setContractionHierarchyFile(String contractionHierarchyFile) { this.contractionHierarchyFile = contractionHierarchyFile; }
+    public int getLandmarkCount() { return landmarkCount; }
+    public void setLandmarkCount(int landmarkCount) { this.landmarkCount = landmarkCount; }
+    public int getRouteCacheCapacity() { return routeCacheCapacity; }
+    public void setRouteCacheCapacity(int routeCacheCapacity) { this.routeCacheCapacity = routeCacheCapacity; }
+    public int getShortestPathTreeCacheMegabytes() { return shortestPathTreeCacheMegabytes; }
+    public void setShortestPathTreeCacheMegabytes(int shortestPathTreeCacheMegabytes) { this.shortestPathTreeCacheMegabytes = shortestPathTreeCacheMegabytes; }
+    public RouteExecutorType getRouteExecutorType() { return routeExecutorType; }
+    public void setRouteExecutorType(RouteExecutorType routeExecutorType) { this.routeExecutorType = routeExecutorType; }
+    public int getRouteParallelism() { return routeParallelism; }
+    public void setRouteParallelism(int routeParallelism) { this.routeParallelism = routeParallelism; }
+    public Long getRandomSeed() { return randomSeed; }
+    public void setRandomSeed(Long randomSeed) { this.randomSeed = randomSeed; }
+    public boolean isAsyncTripPipeline() { return asyncTripPipeline; }
+    public void setAsyncTripPipeline(boolean asyncTripPipeline) { this.asyncTripPipeline = asyncTripPipeline; }
+    public double getTripLookaheadSeconds() { return tripLookaheadSeconds; }
+    public void setTripLookaheadSeconds(double tripLookaheadSeconds) { this.tripLookaheadSeconds = tripLookaheadSeconds; }
+    public int getTripQueueCapacity() { return tripQueueCapacity; }
+    public void setTripQueueCapacity(int tripQueueCapacity) { this.tripQueueCapacity = tripQueueCapacity; }
+    public boolean isOffHeapVehicleState() { return offHeapVehicleState; }
+    public void setOffHeapVehicleState(boolean offHeapVehicleState) { this.offHeapVehicleState = offHeapVehicleState; }
+    public String getVehicleStateSnapshotFile() { return vehicleStateSnapshotFile; }
+    public void setVehicleStateSnapshotFile(String vehicleStateSnapshotFile) { this.vehicleStateSnapshotFile = vehicleStateSnapshotFile; }
+    public int getVehiclePoolCapacity() { return vehiclePoolCapacity; }
+    public void setVehiclePoolCapacity(int vehiclePoolCapacity) { this.vehiclePoolCapacity = vehiclePoolCapacity; }
+    public boolean isAllocationProbe() { return allocationProbe; }
+    public void setAllocationProbe(boolean allocationProbe) { this.allocationProbe = allocationProbe; }
+
+    public double getOriginZoneLatitude() { return originZoneLatitude; }
+    public double getOriginZoneLongitude() { return originZoneLongitude; }
+    public double getOriginZoneRadiusMeters() { return originZoneRadiusMeters; }
+    public void setOriginZone(double latitude, double longitude, double radiusMeters) {
+        this.originZoneLatitude = latitude;
+        this.originZoneLongitude = longitude;
+        this.originZoneRadiusMeters = radiusMeters;
+    }
+
+    public double getDestinationZoneLatitude() { return destinationZoneLatitude; }
+    public double getDestinationZoneLongitude() { return destinationZoneLongitude; }
+    public double getDestinationZoneRadiusMeters() { return destinationZoneRadiusMeters; }
+    public void setDestinationZone(double latitude, double longitude, double radiusMeters) {
+        this.destinationZoneLatitude = latitude;
+        this.destinationZoneLongitude = longitude;
+        this.destinationZoneRadiusMeters = radiusMeters;
+    }
+
+    public boolean isPruneToLargestComponent() { return pruneToLargestComponent; }
+    public void setPruneToLargestComponent(boolean pruneToLargestComponent) { this.pruneToLargestComponent = pruneToLargestComponent; }
+    public boolean isRealTimePacing() { return realTimePacing; }
+    public void setRealTimePacing(boolean realTimePacing) { this.realTimePacing = realTimePacing; }
+    public boolean isVerboseLogging() { return verboseLogging; }
+    public void setVerboseLogging(boolean verboseLogging) { this.verboseLogging = verboseLogging; }
+    public SimulationEngine getSimulationEngine() { return simulationEngine; }
+    public void setSimulationEngine(SimulationEngine simulationEngine) { this.simulationEngine = simulationEngine; }
+    public EventSchedulerType getEventSchedulerType() { return eventSchedulerType; }
+    public void setEventSchedulerType(EventSchedulerType eventSchedulerType) { this.eventSchedulerType = eventSchedulerType; }
+    public double getTimingWheelResolution() { return timingWheelResolution; }
+    public void setTimingWheelResolution(double timingWheelResolution) { this.timingWheelResolution = timingWheelResolution; }
+    public int getTimingWheelSlotBits() { return timingWheelSlotBits; }
+    public void setTimingWheelSlotBits(int timingWheelSlotBits) { this.timingWheelSlotBits = timingWheelSlotBits; }
+    public int getTimingWheelLevels() { return timingWheelLevels; }
+    public void setTimingWheelLevels(int timingWheelLevels) { this.timingWheelLevels = timingWheelLevels; }
+    public int getVehicleUpdateParallelism() { return vehicleUpdateParallelism; }
+    public void setVehicleUpdateParallelism(int vehicleUpdateParallelism) { this.vehicleUpdateParallelism = vehicleUpdateParallelism; }
+    public int getPartitionRegions() { return partitionRegions; }
+    public void setPartitionRegions(int partitionRegions) { this.partitionRegions = partitionRegions; }
+}
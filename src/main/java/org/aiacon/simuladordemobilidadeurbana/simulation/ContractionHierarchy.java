@@ -0,0 +1,702 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Contraction Hierarchies (CH) sobre o {@link RoutingGraph}.
+ * <p>
+ * O pré-processamento contrai os nós um a um, em ordem de importância (diferença de arestas), inserindo atalhos
+ * sempre que o único caminho mínimo entre dois vizinhos passa pelo nó contraído. A consulta é um Dijkstra
+ * bidirecional que só sobe na hierarquia: a busca direta usa arestas para nós de rank maior e a reversa usa
+ * arestas vindas de nós de rank maior. Os atalhos guardam o nó intermediário e são desempacotados recursivamente,
+ * de modo que a rota final é uma sequência de nós do grafo original.
+ * <p>
+ * O resultado pode ser salvo em arquivo ({@link #save(Path)}) e recarregado sem recontração, desde que a
+ * impressão digital do grafo (topologia e pesos) seja a mesma. Os pesos são os tempos de viagem do momento
+ * da construção; se eles mudarem durante a simulação, a hierarquia deixa de ser válida ({@link #isCurrent()}).
+ */
+public class ContractionHierarchy {
+    private static final int FILE_MAGIC = 0x43484731; // "CHG1"
+    private static final int WITNESS_SETTLE_LIMIT = 500;  // Limite de nós assentados por busca de testemunha na contração
+    private static final int PRIORITY_SETTLE_LIMIT = 50;  // Limite menor ao apenas estimar a prioridade de um nó
+
+    private final RoutingGraph routingGraph;
+    private final long fingerprint;
+    private final long weightVersion; // Versão dos pesos do RoutingGraph usada na construção
+    private final int nodeCount;
+    private final int[] rank;
+
+    // Arestas para cima (u -> v com rank[v] > rank[u]), agrupadas pela origem u
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    private final int[] upMiddle; // Nó intermediário do atalho, ou -1 para aresta original
+
+    // Arestas para baixo (u -> v com rank[u] > rank[v]), agrupadas pelo destino v
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downMiddle;
+
+    // Duas áreas de busca por thread (direta e reversa)
+    private final ThreadLocal<Dijkstra.SearchSpace[]> searchSpaces = new ThreadLocal<>();
+
+    private ContractionHierarchy(RoutingGraph routingGraph, long fingerprint, int[] rank,
+                                 int[] upOffsets, int[] upTargets, double[] upWeights, int[] upMiddle,
+                                 int[] downOffsets, int[] downSources, double[] downWeights, int[] downMiddle) {
+        this.routingGraph = routingGraph;
+        this.fingerprint = fingerprint;
+        this.weightVersion = routingGraph.getWeightVersion();
+        this.nodeCount = rank.length;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddle = upMiddle;
+        this.downOffsets = downOffsets;
+        this.downSources = downSources;
+        this.downWeights = downWeights;
+        this.downMiddle = downMiddle;
+    }
+
+    public int getNodeCount() { return nodeCount; }
+    public int getShortcutCount() {
+        int count = 0;
+        for (int m : upMiddle) if (m >= 0) count++;
+        for (int m : downMiddle) if (m >= 0) count++;
+        return count;
+    }
+    public int getRank(int node) { return rank[node]; }
+
+    // Falso depois que algum tempo de viagem do grafo mudou: os atalhos podem não ser mais caminhos mínimos
+    public boolean isCurrent() {
+        return routingGraph.getWeightVersion() == weightVersion;
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Consulta
+    // ------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Calcula a rota de menor tempo entre dois nós. O custo é idêntico ao do {@link Dijkstra}; o tempo de viagem
+     * devolvido é somado sobre as arestas originais da rota desempacotada, na mesma ordem do Dijkstra. Só o custo é
+     * garantido: se há mais de uma rota de custo mínimo, o nó de encontro e os atalhos escolhidos podem levar a
+     * uma sequência de nós diferente da do Dijkstra.
+     */
+    public RouteResult findRoute(int origin, int destination) {
+        if (origin == destination) {
+            return new RouteResult(new int[]{origin}, 0.0, 1);
+        }
+        Dijkstra.SearchSpace[] spaces = acquireSearchSpaces();
+        Dijkstra.SearchSpace forward = spaces[0];
+        Dijkstra.SearchSpace backward = spaces[1];
+        forward.reset();
+        backward.reset();
+
+        forward.reach(origin, 0.0, -1);
+        forward.heap.insertOrDecrease(origin, 0.0);
+        backward.reach(destination, 0.0, -1);
+        backward.heap.insertOrDecrease(destination, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meetingNode = -1;
+        int settledCount = 0;
+
+        while (true) {
+            double minForward = forward.heap.isEmpty() ? Double.POSITIVE_INFINITY : forward.heap.peekKey();
+            double minBackward = backward.heap.isEmpty() ? Double.POSITIVE_INFINITY : backward.heap.peekKey();
+            if (Math.min(minForward, minBackward) >= best) {
+                break; // Nenhuma das buscas pode melhorar a melhor rota encontrada (ou ambas terminaram)
+            }
+
+            if (minForward <= minBackward) {
+                int u = forward.heap.poll();
+                settledCount++;
+                forward.settle(u);
+                double du = forward.distance[u];
+                for (int e = upOffsets[u]; e < upOffsets[u + 1]; e++) {
+                    int v = upTargets[e];
+                    double nd = du + upWeights[e];
+                    if (!forward.isReached(v) || nd < forward.distance[v]) {
+                        forward.reach(v, nd, u);
+                        forward.heap.insertOrDecrease(v, nd);
+                        if (backward.isReached(v) && nd + backward.distance[v] < best) {
+                            best = nd + backward.distance[v];
+                            meetingNode = v;
+                        }
+                    }
+                }
+            } else {
+                int u = backward.heap.poll();
+                settledCount++;
+                backward.settle(u);
+                double du = backward.distance[u];
+                for (int e = downOffsets[u]; e < downOffsets[u + 1]; e++) {
+                    int x = downSources[e]; // Aresta x -> u, com x acima de u
+                    double nd = du + downWeights[e];
+                    if (!backward.isReached(x) || nd < backward.distance[x]) {
+                        backward.reach(x, nd, u);
+                        backward.heap.insertOrDecrease(x, nd);
+                        if (forward.isReached(x) && nd + forward.distance[x] < best) {
+                            best = nd + forward.distance[x];
+                            meetingNode = x;
+                        }
+                    }
+                }
+            }
+        }
+        forward.heap.clear();
+        backward.heap.clear();
+
+        if (meetingNode < 0) {
+            return RouteResult.unreachable(settledCount);
+        }
+
+        // Sequência de nós da hierarquia: origem ... encontro ... destino
+        IntBuffer hierarchyPath = new IntBuffer(16);
+        for (int node = meetingNode; node != -1; node = forward.predecessor[node]) {
+            hierarchyPath.add(node);
+        }
+        hierarchyPath.reverse();
+        for (int node = backward.predecessor[meetingNode]; node != -1; node = backward.predecessor[node]) {
+            hierarchyPath.add(node);
+        }
+
+        IntBuffer path = new IntBuffer(hierarchyPath.size * 2);
+        path.add(hierarchyPath.data[0]);
+        for (int i = 0; i + 1 < hierarchyPath.size; i++) {
+            appendUnpacked(hierarchyPath.data[i], hierarchyPath.data[i + 1], path);
+        }
+        int[] nodes = path.toArray();
+        return new RouteResult(nodes, routingGraph.pathTravelTime(nodes), settledCount);
+    }
+
+    // Acrescenta ao caminho os nós (exceto 'from') da aresta from -> to, desempacotando atalhos
+    private void appendUnpacked(int from, int to, IntBuffer path) {
+        IntBuffer stack = new IntBuffer(8);
+        stack.add(from);
+        stack.add(to);
+        while (stack.size > 0) {
+            int b = stack.data[--stack.size];
+            int a = stack.data[--stack.size];
+            int middle = middleOf(a, b);
+            if (middle < 0) {
+                path.add(b);
+            } else {
+                // Empilha (middle, b) antes de (a, middle) para processar a primeira metade antes
+                stack.add(middle);
+                stack.add(b);
+                stack.add(a);
+                stack.add(middle);
+            }
+        }
+    }
+
+    private int middleOf(int a, int b) {
+        if (rank[a] < rank[b]) {
+            for (int e = upOffsets[a]; e < upOffsets[a + 1]; e++) {
+                if (upTargets[e] == b) return upMiddle[e];
+            }
+        } else {
+            for (int e = downOffsets[b]; e < downOffsets[b + 1]; e++) {
+                if (downSources[e] == a) return downMiddle[e];
+            }
+        }
+        throw new IllegalStateException("CH: aresta " + a + " -> " + b + " não encontrada ao desempacotar a rota.");
+    }
+
+    private Dijkstra.SearchSpace[] acquireSearchSpaces() {
+        Dijkstra.SearchSpace[] spaces = searchSpaces.get();
+        if (spaces == null) {
+            spaces = new Dijkstra.SearchSpace[]{new Dijkstra.SearchSpace(nodeCount), new Dijkstra.SearchSpace(nodeCount)};
+            searchSpaces.set(spaces);
+        }
+        return spaces;
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Construção, persistência e carregamento
+    // ------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Carrega a hierarquia do arquivo, se ele existir e corresponder ao grafo; caso contrário, executa o
+     * pré-processamento e salva o resultado (quando um caminho de arquivo é informado).
+     *
+     * @param routingGraph Grafo compacto de roteamento.
+     * @param filePath     Caminho do arquivo de cache, ou null para não persistir.
+     */
+    public static ContractionHierarchy loadOrBuild(RoutingGraph routingGraph, String filePath) {
+        Path file = (filePath != null && !filePath.isEmpty()) ? Paths.get(filePath) : null;
+        if (file != null && Files.exists(file)) {
+            try {
+                ContractionHierarchy loaded = load(file, routingGraph);
+                if (loaded != null) {
+                    System.out.println("CH_LOAD: Hierarquia carregada de " + file + " (" + loaded.getShortcutCount() + " atalhos).");
+                    return loaded;
+                }
+                System.out.println("CH_LOAD: Arquivo " + file + " não corresponde ao grafo atual. Recalculando.");
+            } catch (IOException e) {
+                System.err.println("CH_LOAD: Falha ao ler " + file + ": " + e.getMessage() + ". Recalculando.");
+            }
+        }
+
+        long start = System.nanoTime();
+        ContractionHierarchy hierarchy = build(routingGraph);
+        System.out.printf("CH_PREPROCESS: %d nós contraídos em %.1f ms, %d atalhos inseridos.%n",
+                hierarchy.nodeCount, (System.nanoTime() - start) / 1e6, hierarchy.getShortcutCount());
+
+        if (file != null) {
+            try {
+                hierarchy.save(file);
+                System.out.println("CH_SAVE: Hierarquia salva em " + file);
+            } catch (IOException e) {
+                System.err.println("CH_SAVE: Não foi possível salvar a hierarquia em " + file + ": " + e.getMessage());
+            }
+        }
+        return hierarchy;
+    }
+
+    public static ContractionHierarchy build(RoutingGraph routingGraph) {
+        return new Builder(routingGraph).contractAll();
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(nodeCount);
+            out.writeLong(fingerprint);
+            writeInts(out, rank);
+            writeInts(out, upOffsets);
+            writeInts(out, upTargets);
+            writeDoubles(out, upWeights);
+            writeInts(out, upMiddle);
+            writeInts(out, downOffsets);
+            writeInts(out, downSources);
+            writeDoubles(out, downWeights);
+            writeInts(out, downMiddle);
+        }
+    }
+
+    // Retorna null se o arquivo foi gerado para outro grafo (ou com outros pesos)
+    public static ContractionHierarchy load(Path file, RoutingGraph routingGraph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Formato de arquivo de CH desconhecido.");
+            }
+            int storedNodeCount = in.readInt();
+            long storedFingerprint = in.readLong();
+            if (storedNodeCount != routingGraph.getNodeCount() || storedFingerprint != fingerprintOf(routingGraph)) {
+                return null;
+            }
+            int[] rank = readInts(in);
+            int[] upOffsets = readInts(in);
+            int[] upTargets = readInts(in);
+            double[] upWeights = readDoubles(in);
+            int[] upMiddle = readInts(in);
+            int[] downOffsets = readInts(in);
+            int[] downSources = readInts(in);
+            double[] downWeights = readDoubles(in);
+            int[] downMiddle = readInts(in);
+            return new ContractionHierarchy(routingGraph, storedFingerprint, rank, upOffsets, upTargets, upWeights, upMiddle,
+                    downOffsets, downSources, downWeights, downMiddle);
+        }
+    }
+
+    // Impressão digital da topologia e dos pesos do grafo de roteamento
+    static long fingerprintOf(RoutingGraph routingGraph) {
+        long hash = 1125899906842597L;
+        int n = routingGraph.getNodeCount();
+        hash = 31 * hash + n;
+        for (int u = 0; u < n; u++) {
+            hash = 31 * hash + routingGraph.lastEdge(u);
+            for (int e = routingGraph.firstEdge(u); e < routingGraph.lastEdge(u); e++) {
+                hash = 31 * hash + routingGraph.getTarget(e);
+                hash = 31 * hash + Double.doubleToLongBits(routingGraph.getWeight(e));
+            }
+        }
+        return hash;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        for (double value : values) out.writeDouble(value);
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = in.readInt();
+        return values;
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException {
+        double[] values = new double[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = in.readDouble();
+        return values;
+    }
+
+    // Lista de inteiros crescente usada na reconstrução das rotas
+    private static final class IntBuffer {
+        int[] data;
+        int size;
+
+        IntBuffer(int capacity) {
+            this.data = new int[Math.max(4, capacity)];
+        }
+
+        void add(int value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        void reverse() {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                int tmp = data[i];
+                data[i] = data[j];
+                data[j] = tmp;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    /**
+     * Pré-processamento: mantém listas de adjacência dinâmicas (arestas de saída e de entrada) apenas entre nós
+     * ainda não contraídos e contrai os nós pela menor prioridade "diferença de arestas + vizinhos já contraídos",
+     * com atualização preguiçosa. Ao contrair v, suas arestas restantes vão para a hierarquia final (para cima se
+     * saem de v, para baixo se chegam em v) e são removidas das listas dos vizinhos.
+     */
+    private static final class Builder {
+        final RoutingGraph routingGraph;
+        final int n;
+        final int[][] outTo;
+        final double[][] outWeight;
+        final int[][] outMid;
+        final int[] outDegree;
+        final int[][] inFrom;
+        final double[][] inWeight;
+        final int[][] inMid;
+        final int[] inDegree;
+        final boolean[] contracted;
+        final int[] deletedNeighbors;
+        final int[] rank;
+        final Dijkstra.SearchSpace witness;
+        final int[] targetMark; // targetMark[w] == targetGeneration se w é vizinho de saída do nó em contração
+        int targetGeneration;
+
+        // Atalhos encontrados na última chamada a findShortcuts(v, true)
+        int[] shortcutFrom = new int[16];
+        int[] shortcutTo = new int[16];
+        double[] shortcutWeight = new double[16];
+        int shortcutCount;
+
+        // Arestas finais da hierarquia, na ordem de contração: (nó contraído, vizinho de rank maior, peso, meio)
+        final EdgeBuffer upEdges = new EdgeBuffer();
+        final EdgeBuffer downEdges = new EdgeBuffer();
+
+        Builder(RoutingGraph routingGraph) {
+            this.routingGraph = routingGraph;
+            this.n = routingGraph.getNodeCount();
+            this.outTo = new int[n][];
+            this.outWeight = new double[n][];
+            this.outMid = new int[n][];
+            this.outDegree = new int[n];
+            this.inFrom = new int[n][];
+            this.inWeight = new double[n][];
+            this.inMid = new int[n][];
+            this.inDegree = new int[n];
+            this.contracted = new boolean[n];
+            this.deletedNeighbors = new int[n];
+            this.rank = new int[n];
+            this.witness = new Dijkstra.SearchSpace(n);
+            this.targetMark = new int[n];
+            for (int u = 0; u < n; u++) {
+                outTo[u] = new int[4];
+                outWeight[u] = new double[4];
+                outMid[u] = new int[4];
+                inFrom[u] = new int[4];
+                inWeight[u] = new double[4];
+                inMid[u] = new int[4];
+            }
+            for (int u = 0; u < n; u++) {
+                for (int e = routingGraph.firstEdge(u); e < routingGraph.lastEdge(u); e++) {
+                    int v = routingGraph.getTarget(e);
+                    if (v != u && routingGraph.getWeight(e) != Double.POSITIVE_INFINITY) { // Intransitáveis ficam de fora
+                        addOrImproveEdge(u, v, routingGraph.getWeight(e), -1);
+                    }
+                }
+            }
+        }
+
+        // Insere u -> v ou reduz o peso da aresta existente (arestas paralelas ficam com o menor peso)
+        void addOrImproveEdge(int u, int v, double weight, int middle) {
+            for (int i = 0; i < outDegree[u]; i++) {
+                if (outTo[u][i] == v) {
+                    if (weight < outWeight[u][i]) {
+                        outWeight[u][i] = weight;
+                        outMid[u][i] = middle;
+                        for (int j = 0; j < inDegree[v]; j++) {
+                            if (inFrom[v][j] == u) {
+                                inWeight[v][j] = weight;
+                                inMid[v][j] = middle;
+                                break;
+                            }
+                        }
+                    }
+                    return;
+                }
+            }
+            if (outDegree[u] == outTo[u].length) {
+                int capacity = outTo[u].length * 2;
+                outTo[u] = Arrays.copyOf(outTo[u], capacity);
+                outWeight[u] = Arrays.copyOf(outWeight[u], capacity);
+                outMid[u] = Arrays.copyOf(outMid[u], capacity);
+            }
+            outTo[u][outDegree[u]] = v;
+            outWeight[u][outDegree[u]] = weight;
+            outMid[u][outDegree[u]] = middle;
+            outDegree[u]++;
+
+            if (inDegree[v] == inFrom[v].length) {
+                int capacity = inFrom[v].length * 2;
+                inFrom[v] = Arrays.copyOf(inFrom[v], capacity);
+                inWeight[v] = Arrays.copyOf(inWeight[v], capacity);
+                inMid[v] = Arrays.copyOf(inMid[v], capacity);
+            }
+            inFrom[v][inDegree[v]] = u;
+            inWeight[v][inDegree[v]] = weight;
+            inMid[v][inDegree[v]] = middle;
+            inDegree[v]++;
+        }
+
+        ContractionHierarchy contractAll() {
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insertOrUpdate(v, priority(v));
+            }
+            int order = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                double current = priority(v);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    queue.insertOrUpdate(v, current); // Prioridade desatualizada: devolve à fila
+                    continue;
+                }
+                findShortcuts(v, true);
+                for (int i = 0; i < shortcutCount; i++) {
+                    addOrImproveEdge(shortcutFrom[i], shortcutTo[i], shortcutWeight[i], v);
+                }
+                contracted[v] = true;
+                rank[v] = order++;
+
+                // As arestas restantes de v ligam-no a nós que serão contraídos depois (rank maior)
+                for (int i = 0; i < outDegree[v]; i++) {
+                    int w = outTo[v][i];
+                    upEdges.add(v, w, outWeight[v][i], outMid[v][i]);
+                    removeIncoming(w, v);
+                }
+                for (int i = 0; i < inDegree[v]; i++) {
+                    int u = inFrom[v][i];
+                    downEdges.add(v, u, inWeight[v][i], inMid[v][i]);
+                    removeOutgoing(u, v);
+                }
+                // Os vizinhos só acumulam o termo "vizinhos contraídos"; a prioridade completa é recalculada quando
+                // cada um chega ao topo da fila (recalcular todos a cada contração custava ~6x o tempo total)
+                for (int i = 0; i < outDegree[v]; i++) {
+                    markNeighborContracted(outTo[v][i]);
+                }
+                for (int i = 0; i < inDegree[v]; i++) {
+                    markNeighborContracted(inFrom[v][i]);
+                }
+            }
+            return assemble();
+        }
+
+        private void removeOutgoing(int u, int v) {
+            for (int i = 0; i < outDegree[u]; i++) {
+                if (outTo[u][i] == v) {
+                    int last = --outDegree[u];
+                    outTo[u][i] = outTo[u][last];
+                    outWeight[u][i] = outWeight[u][last];
+                    outMid[u][i] = outMid[u][last];
+                    return;
+                }
+            }
+        }
+
+        private void removeIncoming(int v, int u) {
+            for (int i = 0; i < inDegree[v]; i++) {
+                if (inFrom[v][i] == u) {
+                    int last = --inDegree[v];
+                    inFrom[v][i] = inFrom[v][last];
+                    inWeight[v][i] = inWeight[v][last];
+                    inMid[v][i] = inMid[v][last];
+                    return;
+                }
+            }
+        }
+
+        private void markNeighborContracted(int neighbor) {
+            if (!contracted[neighbor]) {
+                deletedNeighbors[neighbor]++;
+            }
+        }
+
+        private double priority(int v) {
+            int shortcuts = findShortcuts(v, false);
+            return shortcuts - (inDegree[v] + outDegree[v]) + deletedNeighbors[v];
+        }
+
+        /**
+         * Conta (e opcionalmente registra) os atalhos necessários para contrair v: para cada par u -> v -> w
+         * de vizinhos ainda ativos, um atalho u -> w é necessário se não existir caminho testemunha de u até w,
+         * evitando v, com custo menor ou igual.
+         */
+        private int findShortcuts(int v, boolean record) {
+            shortcutCount = 0;
+            int count = 0;
+            double maxOut = 0.0;
+            targetGeneration++;
+            for (int j = 0; j < outDegree[v]; j++) {
+                maxOut = Math.max(maxOut, outWeight[v][j]);
+                targetMark[outTo[v][j]] = targetGeneration;
+            }
+            int settleLimit = record ? WITNESS_SETTLE_LIMIT : PRIORITY_SETTLE_LIMIT;
+            for (int i = 0; i < inDegree[v]; i++) {
+                int u = inFrom[v][i];
+                double weightIn = inWeight[v][i];
+                witnessSearch(u, v, weightIn + maxOut, outDegree[v], settleLimit);
+                for (int j = 0; j < outDegree[v]; j++) {
+                    int w = outTo[v][j];
+                    if (w == u) continue;
+                    double via = weightIn + outWeight[v][j];
+                    double witnessDistance = witness.isReached(w) ? witness.distance[w] : Double.POSITIVE_INFINITY;
+                    if (witnessDistance > via) {
+                        count++;
+                        if (record) recordShortcut(u, w, via);
+                    }
+                }
+            }
+            return count;
+        }
+
+        private void recordShortcut(int from, int to, double weight) {
+            if (shortcutCount == shortcutFrom.length) {
+                int capacity = shortcutCount * 2;
+                shortcutFrom = Arrays.copyOf(shortcutFrom, capacity);
+                shortcutTo = Arrays.copyOf(shortcutTo, capacity);
+                shortcutWeight = Arrays.copyOf(shortcutWeight, capacity);
+            }
+            shortcutFrom[shortcutCount] = from;
+            shortcutTo[shortcutCount] = to;
+            shortcutWeight[shortcutCount] = weight;
+            shortcutCount++;
+        }
+
+        // Dijkstra local a partir de 'source' no grafo restante, ignorando 'excluded'. Para ao ultrapassar o custo
+        // máximo, o limite de nós assentados ou quando todos os vizinhos de saída marcados já foram assentados.
+        private void witnessSearch(int source, int excluded, double maxDistance, int targets, int settleLimit) {
+            witness.reset();
+            IndexedMinHeap heap = witness.heap;
+            witness.reach(source, 0.0, -1);
+            heap.insertOrDecrease(source, 0.0);
+            int settled = 0;
+            int targetsSettled = 0;
+            while (!heap.isEmpty() && settled < settleLimit && targetsSettled < targets) {
+                if (heap.peekKey() > maxDistance) break;
+                int x = heap.poll();
+                witness.settle(x);
+                settled++;
+                if (targetMark[x] == targetGeneration) targetsSettled++;
+                double dx = witness.distance[x];
+                for (int i = 0; i < outDegree[x]; i++) {
+                    int y = outTo[x][i];
+                    if (y == excluded || witness.isSettled(y)) continue;
+                    double nd = dx + outWeight[x][i];
+                    if (!witness.isReached(y) || nd < witness.distance[y]) {
+                        witness.reach(y, nd, x);
+                        heap.insertOrDecrease(y, nd);
+                    }
+                }
+            }
+            heap.clear();
+        }
+
+        // Converte as arestas registradas nos arrays compactos, agrupadas pelo nó de rank menor
+        private ContractionHierarchy assemble() {
+            int[] upOffsets = groupOffsets(upEdges);
+            int[] downOffsets = groupOffsets(downEdges);
+            int[] upTargets = new int[upEdges.size];
+            double[] upWeights = new double[upEdges.size];
+            int[] upMiddle = new int[upEdges.size];
+            int[] downSources = new int[downEdges.size];
+            double[] downWeights = new double[downEdges.size];
+            int[] downMiddle = new int[downEdges.size];
+            int[] fill = Arrays.copyOf(upOffsets, n);
+            for (int i = 0; i < upEdges.size; i++) {
+                int slot = fill[upEdges.low[i]]++;
+                upTargets[slot] = upEdges.high[i];
+                upWeights[slot] = upEdges.weight[i];
+                upMiddle[slot] = upEdges.middle[i];
+            }
+            fill = Arrays.copyOf(downOffsets, n);
+            for (int i = 0; i < downEdges.size; i++) {
+                int slot = fill[downEdges.low[i]]++;
+                downSources[slot] = downEdges.high[i];
+                downWeights[slot] = downEdges.weight[i];
+                downMiddle[slot] = downEdges.middle[i];
+            }
+            return new ContractionHierarchy(routingGraph, fingerprintOf(routingGraph), rank,
+                    upOffsets, upTargets, upWeights, upMiddle, downOffsets, downSources, downWeights, downMiddle);
+        }
+
+        private int[] groupOffsets(EdgeBuffer edges) {
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < edges.size; i++) {
+                offsets[edges.low[i] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            return offsets;
+        }
+    }
+
+    // Arestas da hierarquia acumuladas durante a contração, em arrays paralelos
+    private static final class EdgeBuffer {
+        int[] low = new int[64];
+        int[] high = new int[64];
+        double[] weight = new double[64];
+        int[] middle = new int[64];
+        int size;
+
+        void add(int lowNode, int highNode, double edgeWeight, int middleNode) {
+            if (size == low.length) {
+                int capacity = size * 2;
+                low = Arrays.copyOf(low, capacity);
+                high = Arrays.copyOf(high, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+                middle = Arrays.copyOf(middle, capacity);
+            }
+            low[size] = lowNode;
+            high[size] = highNode;
+            weight[size] = edgeWeight;
+            middle[size] = middleNode;
+            size++;
+        }
+    }
+}
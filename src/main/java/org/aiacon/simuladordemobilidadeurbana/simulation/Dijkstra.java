@@ -3,27 +3,26 @@ package org.aiacon.simuladordemobilidadeurbana.simulation;
 import org.aiacon.simuladordemobilidadeurbana.model.Graph;
 import org.aiacon.simuladordemobilidadeurbana.model.CustomLinkedList;
 import org.aiacon.simuladordemobilidadeurbana.model.Node;
-import org.aiacon.simuladordemobilidadeurbana.model.Edge;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 public class Dijkstra {
 
+    // Cache do grafo compacto por instância de Graph (reconstruído se o grafo crescer depois)
+    private static final Map<Graph, RoutingGraph> routingGraphs = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Área de trabalho reaproveitada entre consultas da mesma thread (evita alocar O(N) por rota)
+    private static final ThreadLocal<SearchSpace> searchSpaces = new ThreadLocal<>();
+
     public static CustomLinkedList<String> calculateRoute(Graph graph, String originId, String destinationId) {
         if (graph == null || originId == null || destinationId == null || graph.getNodes() == null || graph.getNodes().isEmpty()) {
             System.err.println("DIJKSTRA_ROUTE: Grafo nulo, IDs nulos, ou grafo sem nós.");
             return null;
         }
 
-        Map<String, Integer> distances = new HashMap<>(); // Usar ID do nó (String) como chave
-        Map<String, String> previousNodeIds = new HashMap<>(); // Mapear ID do nó para ID do nó anterior
-        HashSet<String> visitedNodeIds = new HashSet<>(); // Nós visitados por ID
-
-        // Usar um tipo de "fila de prioridade" simulada para pegar o nó com menor distância
-        Map<String, Integer> unvisitedNodesWithDistance = new HashMap<>();
-
         Node originNode = graph.getNode(originId);
         Node destinationNode = graph.getNode(destinationId);
 
@@ -36,126 +35,162 @@ public class Dijkstra {
             return null;
         }
 
-        // Inicializar distâncias
-        for (Node node : graph.getNodes()) { // Iteração correta
-            if (node != null) {
-                distances.put(node.getId(), Integer.MAX_VALUE);
-                unvisitedNodesWithDistance.put(node.getId(), Integer.MAX_VALUE);
-            }
-        }
-
-        distances.put(originId, 0);
-        unvisitedNodesWithDistance.put(originId, 0);
+        RoutingGraph routingGraph = getRoutingGraph(graph);
+        int[] path = calculateRoute(routingGraph, originNode.getIndex(), destinationNode.getIndex());
 
-        while (!unvisitedNodesWithDistance.isEmpty()) {
-            String currentNodeId = getClosestUnvisitedNode(unvisitedNodesWithDistance, visitedNodeIds);
+        if (path.length == 0) {
+            System.err.println("DIJKSTRA_ROUTE_ERROR: Destino " + destinationId + " inalcançável a partir da origem " + originId + ".");
+            return new CustomLinkedList<>(); // Retorna rota vazia
+        }
+        return toNodeIdList(routingGraph, path);
+    }
 
-            if (currentNodeId == null || distances.get(currentNodeId) == Integer.MAX_VALUE) {
-                //System.err.println("DIJKSTRA_ROUTE: Não há mais nós alcançáveis ou nó atual com distância infinita.");
-                break; // Nenhum nó restante alcançável ou o restante é infinito
-            }
+    /**
+     * Calcula a rota de menor tempo de viagem entre dois nós do grafo compacto.
+     *
+     * @param routingGraph Grafo compacto de roteamento.
+     * @param origin       Índice denso do nó de origem.
+     * @param destination  Índice denso do nó de destino.
+     * @return Os índices dos nós da rota, da origem ao destino, ou um array vazio se o destino é inalcançável.
+     */
+    public static int[] calculateRoute(RoutingGraph routingGraph, int origin, int destination) {
+        return findRoute(routingGraph, origin, destination).path();
+    }
 
-            if (currentNodeId.equals(destinationId)) {
-                //System.out.println("DIJKSTRA_ROUTE: Destino " + destinationId + " alcançado.");
+    /**
+     * Executa o Dijkstra com parada no destino e devolve a rota, seu custo e o número de nós assentados.
+     */
+    public static RouteResult findRoute(RoutingGraph routingGraph, int origin, int destination) {
+        SearchSpace space = acquireSearchSpace(routingGraph.getNodeCount());
+        space.reset();
+        IndexedMinHeap heap = space.heap;
+
+        space.reach(origin, 0.0, -1);
+        heap.insertOrDecrease(origin, 0.0);
+
+        boolean found = false;
+        int settledCount = 0;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledCount++;
+            if (current == destination) {
+                found = true;
                 break; // Destino alcançado
             }
+            space.settle(current);
+            double currentDistance = space.distance[current];
 
-            visitedNodeIds.add(currentNodeId);
-            unvisitedNodesWithDistance.remove(currentNodeId); // Remover da "fila de prioridade"
-
-            Node currentNodeObject = graph.getNode(currentNodeId);
-            if (currentNodeObject == null || currentNodeObject.getEdges() == null) {
-                //System.err.println("DIJKSTRA_ROUTE_WARNING: Nó atual " + currentNodeId + " não encontrado ou não tem arestas.");
-                continue;
-            }
-
-            for (Edge edge : currentNodeObject.getEdges()) { // Iteração correta sobre as arestas do nó atual
-                if (edge == null) continue;
-
-                String neighborNodeId = edge.getTarget();
-                if (visitedNodeIds.contains(neighborNodeId)) {
+            for (int e = routingGraph.firstEdge(current), end = routingGraph.lastEdge(current); e < end; e++) {
+                int neighbor = routingGraph.getTarget(e);
+                if (space.isSettled(neighbor)) {
                     continue; // Já visitou, pula
                 }
-
-                Node neighborNodeObject = graph.getNode(neighborNodeId); // Otimização: poderia já ter o objeto Node
-                if (neighborNodeObject == null) {
-                    //System.err.println("DIJKSTRA_ROUTE_WARNING: Vizinho " + neighborNodeId + " da aresta " + edge.getId() + " não encontrado.");
-                    continue;
+                double weight = routingGraph.getWeight(e);
+                if (weight == Double.POSITIVE_INFINITY) {
+                    continue; // Aresta intransitável (tempo de viagem inválido)
                 }
-
-                double edgeTravelTime = edge.getTravelTime();
-                if (edgeTravelTime <= 0 || edgeTravelTime == Double.POSITIVE_INFINITY) {
-                    // System.err.println("DIJKSTRA_ROUTE_WARNING: Aresta " + edge.getId() + " com tempo de viagem inválido: " + edgeTravelTime);
-                    continue; // Ignora arestas com tempo de viagem inválido
+                double newDist = currentDistance + weight;
+                if (!space.isReached(neighbor) || newDist < space.distance[neighbor]) {
+                    space.reach(neighbor, newDist, current);
+                    heap.insertOrDecrease(neighbor, newDist);
                 }
+            }
+        }
+        heap.clear();
 
-                // Usar int para distância para simplificar, mas pode truncar. Idealmente, usar double.
-                // Multiplicar por 100 para manter alguma precisão se travelTime for pequeno.
-                int newDist = distances.get(currentNodeId) + (int) (edgeTravelTime * 100.0);
+        if (!found) {
+            return RouteResult.unreachable(settledCount);
+        }
+        return new RouteResult(space.buildPath(origin, destination), space.distance[destination], settledCount);
+    }
 
-                if (newDist < distances.getOrDefault(neighborNodeId, Integer.MAX_VALUE)) {
-                    distances.put(neighborNodeId, newDist);
-                    previousNodeIds.put(neighborNodeId, currentNodeId);
-                    unvisitedNodesWithDistance.put(neighborNodeId, newDist); // Atualiza na "fila de prioridade"
-                }
+    // Retorna (construindo se necessário) o grafo compacto associado ao Graph, com os pesos atuais das arestas
+    public static RoutingGraph getRoutingGraph(Graph graph) {
+        synchronized (routingGraphs) {
+            RoutingGraph routingGraph = routingGraphs.get(graph);
+            if (routingGraph == null || routingGraph.isStale()) {
+                routingGraph = new RoutingGraph(graph);
+                routingGraphs.put(graph, routingGraph);
+            } else {
+                routingGraph.refreshWeights(); // Tempos de viagem alterados durante a simulação
             }
+            return routingGraph;
         }
+    }
 
-        // Se o destino não foi alcançado (não está em 'previousNodeIds' e não é a origem)
-        if (!previousNodeIds.containsKey(destinationId) && !originId.equals(destinationId)) {
-            System.err.println("DIJKSTRA_ROUTE_ERROR: Caminho para o destino " + destinationId + " não pôde ser construído (não está em 'previousNodeIds').");
-            return new CustomLinkedList<>(); // Retorna rota vazia
+    // Converte uma rota em índices para a lista de IDs usada pelo restante da simulação
+    public static CustomLinkedList<String> toNodeIdList(RoutingGraph routingGraph, int[] path) {
+        CustomLinkedList<String> route = new CustomLinkedList<>();
+        for (int node : path) {
+            route.add(routingGraph.getNodeId(node));
         }
+        return route;
+    }
 
-        return buildPath(previousNodeIds, originId, destinationId);
+    static SearchSpace acquireSearchSpace(int nodeCount) {
+        SearchSpace space = searchSpaces.get();
+        if (space == null || space.capacity() != nodeCount) {
+            space = new SearchSpace(nodeCount);
+            searchSpaces.set(space);
+        }
+        return space;
     }
 
-    private static String getClosestUnvisitedNode(Map<String, Integer> unvisitedNodesWithDistance, HashSet<String> visitedNodeIds) {
-        String closestNodeId = null;
-        int minDistance = Integer.MAX_VALUE;
+    /**
+     * Estado de uma busca (distâncias, antecessores e marcas de visita).
+     * As marcas usam um contador de geração, de modo que reiniciar a busca é O(1) em vez de O(N).
+     */
+    static final class SearchSpace {
+        final double[] distance;
+        final int[] predecessor;
+        final int[] reachedMark;
+        final int[] settledMark;
+        final IndexedMinHeap heap;
+        private int generation;
+
+        SearchSpace(int nodeCount) {
+            this.distance = new double[nodeCount];
+            this.predecessor = new int[nodeCount];
+            this.reachedMark = new int[nodeCount];
+            this.settledMark = new int[nodeCount];
+            this.heap = new IndexedMinHeap(nodeCount);
+            this.generation = 0;
+        }
+
+        int capacity() { return distance.length; }
 
-        for (Map.Entry<String, Integer> entry : unvisitedNodesWithDistance.entrySet()) {
-            String nodeId = entry.getKey();
-            int distance = entry.getValue();
-            if (!visitedNodeIds.contains(nodeId) && distance < minDistance) {
-                minDistance = distance;
-                closestNodeId = nodeId;
+        void reset() {
+            generation++;
+            if (generation == Integer.MAX_VALUE) { // Estouro do contador: zera as marcas
+                Arrays.fill(reachedMark, 0);
+                Arrays.fill(settledMark, 0);
+                generation = 1;
             }
+            heap.clear();
         }
-        return closestNodeId;
-    }
 
-    private static CustomLinkedList<String> buildPath(Map<String, String> previousNodeIds, String originId, String destinationId) {
-        CustomLinkedList<String> path = new CustomLinkedList<>();
-        String currentNodeId = destinationId;
+        boolean isReached(int node) { return reachedMark[node] == generation; }
+        boolean isSettled(int node) { return settledMark[node] == generation; }
+        void settle(int node) { settledMark[node] = generation; }
 
-        // Se o destino não tem antecessor e não é a origem, não há caminho.
-        if (!previousNodeIds.containsKey(currentNodeId) && !currentNodeId.equals(originId)) {
-            //System.err.println("DIJKSTRA_BUILD_PATH: Destino " + destinationId + " não é alcançável (não está em previousNodeIds).");
-            return path; // Retorna caminho vazio
+        void reach(int node, double dist, int previous) {
+            reachedMark[node] = generation;
+            distance[node] = dist;
+            predecessor[node] = previous;
         }
 
-        while (currentNodeId != null) {
-            path.addFirst(currentNodeId);
-            if (currentNodeId.equals(originId)) {
-                break; // Chegou na origem
+        int[] buildPath(int origin, int destination) {
+            int length = 1;
+            for (int node = destination; node != origin; node = predecessor[node]) {
+                length++;
             }
-            currentNodeId = previousNodeIds.get(currentNodeId); // Move para o nó anterior
-            if (currentNodeId == null && !path.getFirst().equals(originId)) {
-                //System.err.println("DIJKSTRA_BUILD_PATH: Caminho interrompido antes de alcançar a origem.");
-                return new CustomLinkedList<>(); // Caminho quebrado
+            int[] path = new int[length];
+            int node = destination;
+            for (int i = length - 1; i >= 0; i--) {
+                path[i] = node;
+                node = predecessor[node];
             }
+            return path;
         }
-
-        // Validação final: o caminho deve começar na origem e terminar no destino.
-        // A primeira validação é se o primeiro elemento é a origem, se o path não estiver vazio.
-        if (path.isEmpty() || !path.getFirst().equals(originId)) {
-            if (!originId.equals(destinationId)) { // Se origem e destino são iguais, um path com um nó é válido.
-                // System.err.println("DIJKSTRA_BUILD_PATH: Caminho construído não começa na origem " + originId + " ou está vazio. Primeiro no path: " + (path.isEmpty() ? "VAZIO" : path.getFirst()));
-                return new CustomLinkedList<>(); // Retorna caminho vazio
-            }
-        }
-
-        return path;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,419 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.model.CustomArrayList;
+import org.aiacon.simuladordemobilidadeurbana.model.FrozenGraph;
+import org.aiacon.simuladordemobilidadeurbana.model.TrafficLight;
+import org.aiacon.simuladordemobilidadeurbana.model.Vehicle;
+import org.aiacon.simuladordemobilidadeurbana.model.VehiclePool;
+import org.aiacon.simuladordemobilidadeurbana.model.VehicleStore;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Motor de eventos discretos do {@link Simulator} ({@link SimulationEngine#DISCRETE_EVENT}): em vez de visitar todos
+ * os veículos e semáforos a cada segundo, processa só os eventos agendados numa {@link EventScheduler} — troca de
+ * fase de um semáforo, partidas do segundo, decisão de um veículo num nó (atravessar ou esperar o sinal) e saída de
+ * uma aresta, que pode ser a chegada ao destino. Um veículo numa aresta de 6 s é tocado duas vezes (entrada e
+ * saída), não seis; um veículo parado no sinal só volta a ser tocado quando a sua direção abre.
+ * <p>
+ * O modelo é o mesmo do motor por passos, na mesma resolução de 1 s: o número de segundos para atravessar uma
+ * aresta e para o próximo fim de fase é obtido repetindo as mesmas somas do passo a passo, e os acumuladores do
+ * veículo (tempo de viagem, espera, combustível) recebem de uma vez o que receberiam a cada passo. As filas dos
+ * semáforos contam, como no motor por passos, uma entrada por segundo de espera de cada veículo; elas são
+ * atualizadas antes de cada troca de fase (as estratégias adaptativas leem os tamanhos) e no fim. O índice de
+ * congestionamento continua sendo amostrado a cada segundo, a partir de contadores mantidos pelos eventos, sem
+ * percorrer veículos nem semáforos. Com a mesma semente, as viagens geradas são as mesmas e as estatísticas
+ * coincidem com as do motor por passos, a menos da ordem das somas em ponto flutuante.
+ */
+final class DiscreteEventEngine {
+    private static final double STEP = 1.0; // Resolução do modelo (s), a mesma do motor por passos
+
+    // Tipo do evento nos 32 bits altos: no mesmo segundo, os eventos saem nesta ordem (semáforos antes dos veículos,
+    // como no passo do Simulator); nos bits baixos, o semáforo (índice em trafficLights) ou a posição do veículo
+    private static final long LIGHT_CHANGE = 0L << 32;
+    private static final long DEPARTURES = 1L << 32;
+    private static final long NODE = 2L << 32;
+    private static final long EDGE_EXIT = 3L << 32;
+    private static final int DIRECTIONS = TrafficLight.APPROACH_DIRECTIONS.length;
+
+    private final Simulator simulator;
+    private final Configuration config;
+    private final FrozenGraph topology;
+    private final VehicleStore store;
+    private final TrafficLight[] trafficLights;
+    private final TrafficLight[] trafficLightsByNode;
+    private final int[] lightIndexByNode; // Índice em trafficLights do semáforo de cada nó (-1 se não houver)
+    private final Statistics stats;
+    private final VehiclePool vehiclePool;
+    private final EventScheduler scheduler;
+    private final boolean peakHour;
+    private final CustomArrayList<Vehicle> departures = new CustomArrayList<>();
+    private double[] edgeTravelTimes;
+
+    private final int[] lightSteps; // Chamadas de update até a troca de fase agendada de cada semáforo
+
+    // Veículos parados por (semáforo, direção) = semáforo * DIRECTIONS + direção. As entradas de fila já lançadas no
+    // semáforo vão até o segundo anterior a queueAccountedFrom de cada veículo; a soma desses inícios é mantida por
+    // (semáforo, direção) e no total, para o tamanho das filas sair em O(1)
+    private final int[][] waiting;
+    private final int[] waitingCount;
+    private final long[] queueAccountedSum;
+    private long totalWaiting;
+    private long totalQueueAccountedSum;
+    private long flushedQueueEntries; // Entradas já lançadas nas filas dos semáforos
+
+    // Por posição da VehicleStore
+    private long[] blockedSince; // Segundo em que o veículo parou no sinal
+    private int[] edgeTicks;     // Segundos da aresta em que o veículo está
+
+    private long lastTick;
+    private long departuresLastTick;
+
+    // Métricas
+    private long lightChanges;
+    private long nodeEvents;
+    private long edgeExits;
+    private long idleTicks;
+    private long stuckVehicles;
+
+    DiscreteEventEngine(Simulator simulator, Configuration config, FrozenGraph topology, VehicleStore store,
+                        TrafficLight[] trafficLights, TrafficLight[] trafficLightsByNode, Statistics stats,
+                        VehiclePool vehiclePool) {
+        this(simulator, config, topology, store, trafficLights, trafficLightsByNode, stats, vehiclePool, createScheduler(config));
+    }
+
+    // Fila de eventos escolhida em Configuration.eventSchedulerType
+    static EventScheduler createScheduler(Configuration config) {
+        if (config.getEventSchedulerType() == EventSchedulerType.BINARY_HEAP) {
+            return new HeapEventScheduler();
+        }
+        return new TimingWheelEventScheduler(config.getTimingWheelResolution(), config.getTimingWheelSlotBits(), config.getTimingWheelLevels());
+    }
+
+    DiscreteEventEngine(Simulator simulator, Configuration config, FrozenGraph topology, VehicleStore store,
+                        TrafficLight[] trafficLights, TrafficLight[] trafficLightsByNode, Statistics stats,
+                        VehiclePool vehiclePool, EventScheduler scheduler) {
+        this.simulator = simulator;
+        this.config = config;
+        this.topology = topology;
+        this.store = store;
+        this.trafficLights = trafficLights;
+        this.trafficLightsByNode = trafficLightsByNode;
+        this.stats = stats;
+        this.vehiclePool = vehiclePool;
+        this.scheduler = scheduler;
+        this.peakHour = config.isPeakHour();
+
+        Map<TrafficLight, Integer> lightIndex = new IdentityHashMap<>();
+        for (int i = 0; i < trafficLights.length; i++) {
+            lightIndex.putIfAbsent(trafficLights[i], i);
+        }
+        this.lightIndexByNode = new int[trafficLightsByNode.length];
+        for (int node = 0; node < trafficLightsByNode.length; node++) {
+            Integer index = (trafficLightsByNode[node] != null) ? lightIndex.get(trafficLightsByNode[node]) : null;
+            lightIndexByNode[node] = (index != null) ? index : -1;
+        }
+        this.lightSteps = new int[trafficLights.length];
+        this.waiting = new int[trafficLights.length * DIRECTIONS][];
+        this.waitingCount = new int[waiting.length];
+        this.queueAccountedSum = new long[waiting.length];
+        this.blockedSince = new long[Math.max(16, store.getCapacity())];
+        this.edgeTicks = new int[blockedSince.length];
+    }
+
+    void run() {
+        // Mesmos segundos do loop por passos (time += 1 enquanto time < duração)
+        double duration = config.getSimulationDuration();
+        lastTick = (duration > 0) ? (long) Math.ceil(duration) : 0;
+        double stopTime = config.getVehicleGenerationStopTime();
+        departuresLastTick = (stopTime >= 1) ? Math.min(lastTick, (long) Math.floor(stopTime)) : 0;
+        edgeTravelTimes = simulator.getEdgeTravelTimes();
+
+        for (int i = 0; i < trafficLights.length; i++) {
+            scheduleLightChange(i, 0);
+        }
+        if (departuresLastTick >= 1) {
+            scheduler.schedule(1, DEPARTURES);
+        } else {
+            logGenerationStopped(stopTime);
+        }
+
+        long sampled = 0; // Último segundo com a amostra de congestionamento registrada
+        while (simulator.isRunning()) {
+            if (Thread.currentThread().isInterrupted()) {
+                System.out.println("SIMULATOR_RUN: Thread de simulação interrompida, encerrando loop.");
+                simulator.abort();
+                break;
+            }
+            double nextTime = scheduler.peekTime();
+            long tick = (nextTime <= lastTick) ? (long) nextTime : lastTick + 1;
+            if (config.isRealTimePacing() && tick > sampled) {
+                simulator.sleep((Math.min(tick, lastTick) - sampled) * STEP);
+            }
+            // Segundos sem nenhum evento: nada muda além do tempo, só a amostra de congestionamento
+            for (long t = sampled + 1; t < tick && t <= lastTick; t++) {
+                sampleCongestion(t);
+                idleTicks++;
+            }
+            if (tick > lastTick) {
+                sampled = lastTick;
+                break;
+            }
+            simulator.setSimulationTime(tick);
+            edgeTravelTimes = simulator.getEdgeTravelTimes(); // Relidos só se algum peso mudou
+            while (scheduler.peekTime() == tick && simulator.isRunning()) {
+                dispatch(scheduler.poll(), tick);
+            }
+            sampleCongestion(tick);
+            sampled = tick;
+        }
+        simulator.setSimulationTime(sampled);
+        finish(sampled);
+        System.out.printf("DISCRETE_EVENT: %d trocas de fase, %d decisões em nós, %d saídas de aresta; %d de %d segundos sem eventos; %d veículos parados sem saída (fila: %s)%n",
+                lightChanges, nodeEvents, edgeExits, idleTicks, sampled, stuckVehicles, scheduler.getClass().getSimpleName());
+    }
+
+    private void dispatch(long event, long tick) {
+        int target = (int) event;
+        switch ((int) (event >>> 32)) {
+            case 0 -> onLightChange(target, tick);
+            case 1 -> onDepartures(tick);
+            case 2 -> onNode(target, tick);
+            case 3 -> onEdgeExit(target, tick);
+            default -> throw new IllegalStateException("Evento desconhecido: " + event);
+        }
+    }
+
+    private void scheduleLightChange(int light, long now) {
+        int steps = trafficLights[light].stepsUntilPhaseChange(STEP);
+        lightSteps[light] = steps;
+        if (steps != Integer.MAX_VALUE && now + steps <= lastTick) {
+            scheduler.schedule(now + steps, LIGHT_CHANGE | light);
+        }
+    }
+
+    // Troca de fase: lança nas filas a espera acumulada (a estratégia lê os tamanhos), troca e libera quem abriu
+    private void onLightChange(int light, long tick) {
+        lightChanges++;
+        TrafficLight tl = trafficLights[light];
+        flushQueues(light, tick);
+        tl.advance(lightSteps[light], STEP, peakHour);
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            int key = light * DIRECTIONS + direction;
+            if (waitingCount[key] > 0
+                    && "green".equalsIgnoreCase(tl.getLightStateForApproach(TrafficLight.APPROACH_DIRECTIONS[direction]))) {
+                releaseWaiting(key, tick);
+            }
+        }
+        scheduleLightChange(light, tick);
+    }
+
+    // Entradas de fila dos veículos parados no semáforo, do início ainda não lançado até o segundo anterior a tick
+    private void flushQueues(int light, long tick) {
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            int key = light * DIRECTIONS + direction;
+            int count = waitingCount[key];
+            if (count == 0) continue;
+            long accounted = (long) count * tick;
+            long entries = accounted - queueAccountedSum[key];
+            if (entries > 0) {
+                trafficLights[light].addQueueEntries(direction, (int) Math.min(Integer.MAX_VALUE, entries));
+                flushedQueueEntries += entries;
+            }
+            totalQueueAccountedSum += accounted - queueAccountedSum[key];
+            queueAccountedSum[key] = accounted;
+        }
+    }
+
+    // A direção abriu em tick: cada veículo recebe os segundos de espera e decide de novo no mesmo segundo
+    private void releaseWaiting(int key, long tick) {
+        int count = waitingCount[key];
+        int[] slots = waiting[key];
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+            long waited = tick - blockedSince[slot];
+            store.addTravelTime(slot, waited * STEP);
+            store.addWaitTime(slot, waited * STEP);
+            store.addFuel(slot, store.getFuelRateIdle(slot) * waited * STEP);
+            scheduler.schedule(tick, NODE | slot);
+        }
+        totalWaiting -= count;
+        totalQueueAccountedSum -= queueAccountedSum[key]; // flushQueues acabou de levar todos a tick
+        queueAccountedSum[key] = 0;
+        waitingCount[key] = 0;
+    }
+
+    private void onDepartures(long tick) {
+        departures.clear();
+        simulator.collectDepartures(STEP, departures);
+        for (int i = 0; i < departures.size(); i++) {
+            int slot = simulator.addVehicle(departures.get(i));
+            if (slot < 0) continue;
+            ensureSlotCapacity(slot);
+            onNode(slot, tick); // Primeira decisão no mesmo segundo da partida, depois dos semáforos
+        }
+        departures.clear();
+        if (tick + 1 <= departuresLastTick) {
+            scheduler.schedule(tick + 1, DEPARTURES);
+        } else if (tick + 1 <= lastTick) {
+            logGenerationStopped(config.getVehicleGenerationStopTime());
+        }
+    }
+
+    // Veículo parado num nó: segue para a próxima aresta se o sinal estiver verde (ou não houver semáforo)
+    private void onNode(int slot, long tick) {
+        nodeEvents++;
+        int currentNode = store.getCurrentNode(slot);
+        int nextNode = store.getNextNode(slot);
+
+        if (nextNode < 0) {
+            store.addTravelTime(slot, STEP);
+            store.addFuel(slot, store.getFuelRateIdle(slot) * STEP);
+            if (store.hasArrived(slot)) {
+                arrive(slot);
+            } else {
+                Vehicle vehicle = store.getVehicle(slot);
+                System.err.println("UPDATE_VEHICLE: Veículo " + vehicle.getId() + " em " + vehicle.getCurrentNode() + " sem próximo nó, mas não está no destino " + vehicle.getDestination() + ". Rota: " + simulator.describeRoute(vehicle));
+                stuckVehicles++;
+            }
+            return;
+        }
+
+        TrafficLight tl = (currentNode >= 0) ? trafficLightsByNode[currentNode] : null;
+        if (tl != null) {
+            int previousNode = store.getPreviousNode(slot);
+            String approach = (previousNode >= 0)
+                    ? simulator.determineCardinalDirection(previousNode, currentNode)
+                    : simulator.determineCardinalDirection(currentNode, nextNode);
+            if (!"green".equalsIgnoreCase(tl.getLightStateForApproach(approach))) {
+                store.setFlag(slot, VehicleStore.WAITING, true);
+                store.setFlag(slot, VehicleStore.MOVING, false);
+                Integer direction = tl.getDirectionIndex(approach);
+                int light = lightIndexByNode[currentNode];
+                blockedSince[slot] = tick;
+                if (direction == null || light < 0) {
+                    // Direção sem fila: o sinal nunca abre para ela (no motor por passos, o veículo também fica parado)
+                    System.err.println("TrafficLight " + tl.getNodeId() + ": Não foi possível encontrar índice para direção '" + approach + "' ao tentar enfileirar veículo " + store.getVehicle(slot).getId());
+                    stuckVehicles++;
+                    return;
+                }
+                block(slot, light * DIRECTIONS + direction, tick);
+                return;
+            }
+        }
+
+        int edge = topology.findEdge(currentNode, nextNode);
+        if (edge < 0) {
+            Vehicle vehicle = store.getVehicle(slot);
+            System.err.println("UPDATE_VEHICLE (EM NÓ): Veículo " + vehicle.getId() + " no nó " + vehicle.getCurrentNode() +
+                    ". Não foi possível encontrar a aresta para o PRÓXIMO nó da rota: " + topology.getNodeId(nextNode) +
+                    ". Rota: " + simulator.describeRoute(vehicle));
+            simulator.abort();
+            return;
+        }
+        double edgeTravelTime = edgeTravelTimes[edge];
+        if (edgeTravelTime <= 0) edgeTravelTime = STEP;
+        double step = STEP / edgeTravelTime;
+
+        store.setCurrentEdge(slot, edge);
+        store.setFlag(slot, VehicleStore.WAITING, false);
+        store.setFlag(slot, VehicleStore.MOVING, true);
+        store.setPosition(slot, Math.min(step, 1.0));
+        // Segundos até o fim da aresta: as mesmas somas de posição do motor por passos
+        if (!(step > 0) || Math.ceil(1.0 / step) > lastTick - tick + 2) {
+            return; // Não sai da aresta antes do fim da simulação
+        }
+        double position = step;
+        int ticks = 1;
+        while (position < 1.0) {
+            position += step;
+            ticks++;
+        }
+        if (ticks == 1) {
+            exitEdge(slot, nextNode, 1, tick);
+        } else {
+            edgeTicks[slot] = ticks;
+            scheduler.schedule(tick + ticks - 1, EDGE_EXIT | slot);
+        }
+    }
+
+    private void block(int slot, int key, long tick) {
+        int count = waitingCount[key];
+        int[] slots = waiting[key];
+        if (slots == null) {
+            slots = waiting[key] = new int[4];
+        } else if (count == slots.length) {
+            slots = waiting[key] = Arrays.copyOf(slots, count * 2);
+        }
+        slots[count] = slot;
+        waitingCount[key] = count + 1;
+        queueAccountedSum[key] += tick;
+        totalWaiting++;
+        totalQueueAccountedSum += tick;
+    }
+
+    private void onEdgeExit(int slot, long tick) {
+        exitEdge(slot, store.getNextNode(slot), edgeTicks[slot], tick);
+    }
+
+    // Fim da aresta no segundo tick, depois de 'ticks' segundos nela (o último já parado no nó seguinte)
+    private void exitEdge(int slot, int nextNode, int ticks, long tick) {
+        edgeExits++;
+        store.advance(slot, nextNode);
+        store.setPosition(slot, 0.0);
+        store.setFlag(slot, VehicleStore.MOVING, false);
+        store.addTravelTime(slot, ticks * STEP);
+        store.addFuel(slot, store.getFuelRateMoving(slot) * (ticks - 1) * STEP);
+        if (store.hasArrived(slot)) {
+            arrive(slot);
+            return;
+        }
+        store.addFuel(slot, store.getFuelRateIdle(slot) * STEP);
+        if (tick + 1 <= lastTick) {
+            scheduler.schedule(tick + 1, NODE | slot);
+        }
+    }
+
+    private void arrive(int slot) {
+        stats.vehicleArrived(store.getTravelTime(slot), store.getWaitTime(slot), store.getFuelConsumed(slot));
+        Vehicle arrived = store.release(slot);
+        if (vehiclePool != null) {
+            vehiclePool.release(arrived);
+        }
+    }
+
+    // Mesma amostra do fim de cada passo: veículos ativos e entradas nas filas até o fim do segundo tick
+    private void sampleCongestion(long tick) {
+        long queued = flushedQueueEntries + totalWaiting * (tick + 1) - totalQueueAccountedSum;
+        stats.calculateCurrentCongestion(store.getActiveCount(), topology.getNodeCount(), (int) Math.min(Integer.MAX_VALUE, queued));
+    }
+
+    // Fim da simulação: filas dos semáforos e acumuladores dos veículos parados até o último segundo simulado
+    private void finish(long lastSimulated) {
+        for (int light = 0; light < trafficLights.length; light++) {
+            flushQueues(light, lastSimulated + 1);
+        }
+        for (int key = 0; key < waiting.length; key++) {
+            for (int i = 0; i < waitingCount[key]; i++) {
+                int slot = waiting[key][i];
+                long waited = lastSimulated + 1 - blockedSince[slot];
+                store.addTravelTime(slot, waited * STEP);
+                store.addWaitTime(slot, waited * STEP);
+                store.addFuel(slot, store.getFuelRateIdle(slot) * waited * STEP);
+            }
+        }
+    }
+
+    private void ensureSlotCapacity(int slot) {
+        if (slot < blockedSince.length) return;
+        int capacity = Math.max(slot + 1, blockedSince.length * 2);
+        blockedSince = Arrays.copyOf(blockedSince, capacity);
+        edgeTicks = Arrays.copyOf(edgeTicks, capacity);
+    }
+
+    private void logGenerationStopped(double stopTime) {
+        System.out.println("SIMULATOR_RUN: Tempo limite de geração de veículos (" + String.format("%.2f", stopTime) + "s) atingido. Nenhum veículo novo será gerado.");
+    }
+}
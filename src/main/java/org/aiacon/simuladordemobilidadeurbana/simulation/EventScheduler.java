@@ -0,0 +1,24 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+/**
+ * Fila de eventos do {@link DiscreteEventEngine}: cada evento é um {@code long} (tipo e alvo codificados pelo
+ * motor) com o instante em que deve acontecer. Os eventos saem em ordem crescente de instante e, no mesmo instante,
+ * em ordem crescente do próprio valor, de modo que a ordem de processamento é determinística.
+ */
+public interface EventScheduler {
+
+    // Agenda o evento; o instante não pode ser anterior ao do último evento retirado
+    void schedule(double time, long event);
+
+    // Instante do próximo evento, ou Double.POSITIVE_INFINITY se a fila estiver vazia
+    double peekTime();
+
+    // Retira o próximo evento (o de menor instante); a fila não pode estar vazia
+    long poll();
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
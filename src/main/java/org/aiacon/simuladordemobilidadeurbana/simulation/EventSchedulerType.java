@@ -0,0 +1,7 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+// Fila de eventos usada pelo DiscreteEventEngine (ver Configuration.eventSchedulerType)
+public enum EventSchedulerType {
+    BINARY_HEAP,  // HeapEventScheduler: O(log N) por evento, sem limite de horizonte
+    TIMING_WHEEL  // TimingWheelEventScheduler: O(1) por evento nas rodas, transbordo em heap além do horizonte
+}
@@ -0,0 +1,90 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link EventScheduler} sobre um heap binário mínimo em arrays paralelos (instante e evento), sem objeto por
+ * evento. Inserção e retirada em O(log N).
+ */
+public class HeapEventScheduler implements EventScheduler {
+    private double[] times;
+    private long[] events;
+    private int size;
+
+    public HeapEventScheduler() {
+        this(256);
+    }
+
+    public HeapEventScheduler(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.times = new double[capacity];
+        this.events = new long[capacity];
+    }
+
+    @Override
+    public void schedule(double time, long event) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            events = Arrays.copyOf(events, size * 2);
+        }
+        int i = size++;
+        // Sobe a partir da última posição até encontrar um pai menor
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(time, event, times[parent], events[parent])) break;
+            times[i] = times[parent];
+            events[i] = events[parent];
+            i = parent;
+        }
+        times[i] = time;
+        events[i] = event;
+    }
+
+    @Override
+    public double peekTime() {
+        return (size > 0) ? times[0] : Double.POSITIVE_INFINITY;
+    }
+
+    // Evento que poll() devolveria; a fila não pode estar vazia
+    public long peekEvent() {
+        if (size == 0) throw new NoSuchElementException("Fila de eventos vazia.");
+        return events[0];
+    }
+
+    @Override
+    public long poll() {
+        if (size == 0) throw new NoSuchElementException("Fila de eventos vazia.");
+        long first = events[0];
+        double lastTime = times[--size];
+        long lastEvent = events[size];
+        // Desce o último elemento a partir da raiz
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && less(times[right], events[right], times[child], events[child])) {
+                child = right;
+            }
+            if (!less(times[child], events[child], lastTime, lastEvent)) break;
+            times[i] = times[child];
+            events[i] = events[child];
+            i = child;
+        }
+        if (size > 0) {
+            times[i] = lastTime;
+            events[i] = lastEvent;
+        }
+        return first;
+    }
+
+    private static boolean less(double timeA, long eventA, double timeB, long eventB) {
+        return timeA < timeB || (timeA == timeB && eventA < eventB);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
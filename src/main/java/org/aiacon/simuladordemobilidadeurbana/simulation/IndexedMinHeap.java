@@ -0,0 +1,116 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Heap binário mínimo indexado sobre inteiros {@code 0..capacity-1} com prioridades {@code double}.
+ * Suporta {@code decreaseKey} em O(log N) sem alocar objetos por elemento, o que o torna adequado
+ * para a fila de prioridade do Dijkstra e do A* sobre o {@link RoutingGraph}.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;       // heap[i] = elemento na posição i
+    private final int[] positions;  // positions[e] = posição de e no heap, ou -1 se ausente
+    private final double[] keys;    // keys[e] = prioridade atual de e
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(positions, -1);
+        this.size = 0;
+    }
+
+    public int capacity() { return heap.length; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int element) { return positions[element] >= 0; }
+
+    // Prioridade do menor elemento, sem removê-lo
+    public double peekKey() {
+        if (size == 0) throw new NoSuchElementException("Heap vazio.");
+        return keys[heap[0]];
+    }
+
+    // Insere o elemento ou diminui sua prioridade, se já estiver presente com prioridade maior
+    public void insertOrDecrease(int element, double key) {
+        int pos = positions[element];
+        if (pos < 0) {
+            keys[element] = key;
+            heap[size] = element;
+            positions[element] = size;
+            siftUp(size++);
+        } else if (key < keys[element]) {
+            keys[element] = key;
+            siftUp(pos);
+        }
+    }
+
+    // Insere o elemento ou redefine sua prioridade (aumentando ou diminuindo)
+    public void insertOrUpdate(int element, double key) {
+        int pos = positions[element];
+        if (pos < 0 || key < keys[element]) {
+            insertOrDecrease(element, key);
+        } else if (key > keys[element]) {
+            keys[element] = key;
+            siftDown(pos);
+        }
+    }
+
+    // Remove e retorna o elemento de menor prioridade
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException("Heap vazio.");
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    // Esvazia o heap em O(tamanho atual), sem percorrer toda a capacidade
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int element = heap[pos];
+        double key = keys[element];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentElement = heap[parent];
+            if (keys[parentElement] <= key) break;
+            heap[pos] = parentElement;
+            positions[parentElement] = pos;
+            pos = parent;
+        }
+        heap[pos] = element;
+        positions[element] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int element = heap[pos];
+        double key = keys[element];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) break;
+            heap[pos] = heap[child];
+            positions[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = element;
+        positions[element] = pos;
+    }
+}
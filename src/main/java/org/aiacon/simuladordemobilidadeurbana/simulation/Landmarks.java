@@ -0,0 +1,253 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pré-processamento e consulta ALT (A*, Landmarks e desigualdade triangular) sobre o {@link RoutingGraph}.
+ * <p>
+ * Para cada landmark L guardamos d(L, v) e d(v, L) para todos os nós. Pela desigualdade triangular,
+ * {@code d(v, t) >= max(d(L, t) - d(L, v), d(v, L) - d(t, L))}, o que dá ao A* uma heurística muito mais
+ * informativa que a distância geográfica. As distâncias são as do momento da construção (fluxo livre): se os
+ * tempos de viagem só aumentarem durante a simulação, a heurística continua sendo um limite inferior válido e
+ * a consulta continua exata. Se algum tempo cair abaixo do valor da construção, {@link #isAdmissible()} passa a
+ * ser falso e as landmarks precisam ser recalculadas.
+ * <p>
+ * As distâncias ficam em arrays {@code float} (metade da memória de {@code double}) organizados por nó:
+ * as {@code count} landmarks de um nó ficam contíguas e a heurística lê uma única região do array.
+ */
+public class Landmarks {
+    // Folga relativa descontada da heurística para compensar o arredondamento das distâncias para float
+    private static final double FLOAT_SLACK = 1e-6;
+
+    private final RoutingGraph routingGraph;
+    private final int count;
+    private final int[] landmarkNodes;
+    private final float[] fromLandmark; // fromLandmark[v * count + l] = d(L_l, v)
+    private final float[] toLandmark;   // toLandmark[v * count + l] = d(v, L_l)
+    private final double slack;         // Desconto absoluto (s) aplicado a cada limite inferior
+    private final double[] baseWeights; // Pesos usados na construção, para detectar reduções de tempo de viagem
+
+    private volatile long checkedVersion; // Última versão de pesos verificada por isAdmissible()
+    private volatile boolean admissible = true;
+
+    private Landmarks(RoutingGraph routingGraph, int[] landmarkNodes, float[] fromLandmark, float[] toLandmark,
+                      double maxDistance, double[] baseWeights, long weightVersion) {
+        this.routingGraph = routingGraph;
+        this.count = landmarkNodes.length;
+        this.landmarkNodes = landmarkNodes;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+        this.slack = maxDistance * FLOAT_SLACK;
+        this.baseWeights = baseWeights;
+        this.checkedVersion = weightVersion;
+    }
+
+    public RoutingGraph getRoutingGraph() { return routingGraph; }
+    public int getCount() { return count; }
+    public int getLandmarkNode(int landmark) { return landmarkNodes[landmark]; }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Consulta
+    // ------------------------------------------------------------------------------------------------------------
+
+    /**
+     * A* com a heurística das landmarks. Nós já assentados podem ser reabertos se uma rota melhor aparecer
+     * (o arredondamento para float torna a heurística apenas quase consistente); com a heurística admissível,
+     * o primeiro caminho até o destino retirado do heap é mínimo.
+     */
+    public RouteResult findRoute(int origin, int destination) {
+        Dijkstra.SearchSpace space = Dijkstra.acquireSearchSpace(routingGraph.getNodeCount());
+        space.reset();
+        IndexedMinHeap heap = space.heap;
+
+        space.reach(origin, 0.0, -1);
+        heap.insertOrDecrease(origin, lowerBound(origin, destination));
+
+        boolean found = false;
+        int settledCount = 0;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settledCount++;
+            if (current == destination) {
+                found = true;
+                break;
+            }
+            double currentDistance = space.distance[current];
+
+            for (int e = routingGraph.firstEdge(current), end = routingGraph.lastEdge(current); e < end; e++) {
+                int neighbor = routingGraph.getTarget(e);
+                double weight = routingGraph.getWeight(e);
+                if (weight == Double.POSITIVE_INFINITY) continue; // Aresta intransitável
+                double newDist = currentDistance + weight;
+                if (!space.isReached(neighbor) || newDist < space.distance[neighbor]) {
+                    space.reach(neighbor, newDist, current);
+                    heap.insertOrDecrease(neighbor, newDist + lowerBound(neighbor, destination));
+                }
+            }
+        }
+        heap.clear();
+
+        if (!found) {
+            return RouteResult.unreachable(settledCount);
+        }
+        return new RouteResult(space.buildPath(origin, destination), space.distance[destination], settledCount);
+    }
+
+    // Limite inferior de d(v, t) pela desigualdade triangular sobre todas as landmarks
+    double lowerBound(int v, int t) {
+        int baseV = v * count;
+        int baseT = t * count;
+        float best = 0f;
+        for (int l = 0; l < count; l++) {
+            float forward = fromLandmark[baseT + l] - fromLandmark[baseV + l];  // d(L, t) - d(L, v)
+            float backward = toLandmark[baseV + l] - toLandmark[baseT + l];    // d(v, L) - d(t, L)
+            // Termos infinitos (nó inalcançável a partir da landmark) ou NaN são ignorados
+            if (forward > best && forward != Float.POSITIVE_INFINITY) best = forward;
+            if (backward > best && backward != Float.POSITIVE_INFINITY) best = backward;
+        }
+        return best > slack ? best - slack : 0.0;
+    }
+
+    /**
+     * Indica se a heurística ainda é um limite inferior para os pesos atuais, isto é, se nenhum tempo de viagem
+     * ficou abaixo do valor usado na construção. A verificação percorre as arestas apenas quando a versão dos
+     * pesos do grafo muda.
+     */
+    public boolean isAdmissible() {
+        long version = routingGraph.getWeightVersion();
+        if (version == checkedVersion) {
+            return admissible; // Caminho rápido sem bloqueio: consultas paralelas não disputam o monitor
+        }
+        return recheck(version);
+    }
+
+    private synchronized boolean recheck(long version) {
+        if (version != checkedVersion) {
+            boolean stillAdmissible = true;
+            for (int e = 0; e < baseWeights.length; e++) {
+                if (routingGraph.getWeight(e) < baseWeights[e]) {
+                    stillAdmissible = false;
+                    break;
+                }
+            }
+            admissible = stillAdmissible; // Publicado antes da versão, para o caminho rápido nunca ver um valor parcial
+            checkedVersion = version;
+        }
+        return admissible;
+    }
+
+    // ------------------------------------------------------------------------------------------------------------
+    // Pré-processamento
+    // ------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Escolhe {@code requestedCount} landmarks (limitado ao número de nós) por "ponto mais distante" e calcula as
+     * distâncias de e para cada uma. Cada landmark nova é o nó alcançável mais distante (em tempo de viagem) das já escolhidas, o que as espalha
+     * pela periferia do mapa. As buscas reversas (d(v, L)) não influenciam a escolha e rodam em paralelo no
+     * ForkJoinPool comum enquanto as próximas landmarks são selecionadas.
+     */
+    public static Landmarks build(RoutingGraph routingGraph, int requestedCount) {
+        int n = routingGraph.getNodeCount();
+        if (n == 0) {
+            throw new IllegalArgumentException("ALT: grafo de roteamento sem nós.");
+        }
+        int count = Math.max(1, Math.min(requestedCount, n));
+        long weightVersion = routingGraph.getWeightVersion();
+        double[] baseWeights = new double[routingGraph.getEdgeCount()];
+        for (int e = 0; e < baseWeights.length; e++) {
+            baseWeights[e] = routingGraph.getWeight(e);
+        }
+
+        float[] fromLandmark = new float[n * count];
+        float[] toLandmark = new float[n * count];
+        int[] landmarkNodes = new int[count];
+        double[] minDistance = new double[n]; // Menor distância de qualquer landmark escolhida até cada nó
+        Arrays.fill(minDistance, Double.POSITIVE_INFINITY);
+        List<CompletableFuture<Void>> reverseSearches = new ArrayList<>();
+        double maxDistance = 0.0;
+
+        // Primeira landmark: o nó mais distante do nó 0 (evita começar no centro do mapa)
+        int next = farthest(oneToAll(routingGraph, 0, false), null);
+        for (int l = 0; l < count; l++) {
+            int landmark = next;
+            landmarkNodes[l] = landmark;
+            final int column = l;
+            reverseSearches.add(CompletableFuture.runAsync(() ->
+                    storeColumn(oneToAll(routingGraph, landmark, true), toLandmark, count, column)));
+
+            double[] distances = oneToAll(routingGraph, landmark, false);
+            storeColumn(distances, fromLandmark, count, l);
+            for (int v = 0; v < n; v++) {
+                if (distances[v] < minDistance[v]) minDistance[v] = distances[v];
+                if (distances[v] != Double.POSITIVE_INFINITY) maxDistance = Math.max(maxDistance, distances[v]);
+            }
+            next = farthest(minDistance, landmarkNodes);
+        }
+        CompletableFuture.allOf(reverseSearches.toArray(new CompletableFuture<?>[0])).join();
+        for (float d : toLandmark) {
+            if (d != Float.POSITIVE_INFINITY) maxDistance = Math.max(maxDistance, d);
+        }
+        return new Landmarks(routingGraph, landmarkNodes, fromLandmark, toLandmark, maxDistance, baseWeights, weightVersion);
+    }
+
+    // Nó de maior distância finita que ainda não é landmark
+    private static int farthest(double[] distances, int[] chosen) {
+        int best = 0;
+        double bestDistance = -1.0;
+        for (int v = 0; v < distances.length; v++) {
+            double d = distances[v];
+            if (d != Double.POSITIVE_INFINITY && d > bestDistance && (chosen == null || !contains(chosen, v))) {
+                best = v;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int x : values) if (x == value) return true;
+        return false;
+    }
+
+    private static void storeColumn(double[] distances, float[] target, int count, int column) {
+        for (int v = 0; v < distances.length; v++) {
+            target[v * count + column] = (float) distances[v];
+        }
+    }
+
+    // Dijkstra de um para todos (reverse = true percorre as arestas de entrada, obtendo d(v, source))
+    private static double[] oneToAll(RoutingGraph routingGraph, int source, boolean reverse) {
+        int n = routingGraph.getNodeCount();
+        double[] result = new double[n];
+        Arrays.fill(result, Double.POSITIVE_INFINITY);
+        Dijkstra.SearchSpace space = Dijkstra.acquireSearchSpace(n);
+        space.reset();
+        IndexedMinHeap heap = space.heap;
+
+        space.reach(source, 0.0, -1);
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            space.settle(u);
+            double du = space.distance[u];
+            result[u] = du;
+            int first = reverse ? routingGraph.firstIncomingEdge(u) : routingGraph.firstEdge(u);
+            int last = reverse ? routingGraph.lastIncomingEdge(u) : routingGraph.lastEdge(u);
+            for (int e = first; e < last; e++) {
+                int v = reverse ? routingGraph.getIncomingSource(e) : routingGraph.getTarget(e);
+                if (space.isSettled(v)) continue;
+                double weight = reverse ? routingGraph.getIncomingWeight(e) : routingGraph.getWeight(e);
+                if (weight == Double.POSITIVE_INFINITY) continue;
+                double nd = du + weight;
+                if (!space.isReached(v) || nd < space.distance[v]) {
+                    space.reach(v, nd, u);
+                    heap.insertOrDecrease(v, nd);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -2,12 +2,20 @@ package org.aiacon.simuladordemobilidadeurbana.simulation; // Ou .control
 
 import org.aiacon.simuladordemobilidadeurbana.model.LightPhase; // Supondo que LightPhase está em TrafficLight
 
+// Decisão de uma estratégia de semáforo. Cada estratégia reaproveita a mesma instância a cada troca de fase (uma
+// estratégia por semáforo), então a decisão só vale até a próxima chamada de decideNextPhase
 public class NextPhaseDecision {
-    public final LightPhase nextPhase;
-    public final double duration;
+    public LightPhase nextPhase;
+    public double duration;
 
     public NextPhaseDecision(LightPhase nextPhase, double duration) {
         this.nextPhase = nextPhase;
         this.duration = duration;
     }
+
+    public NextPhaseDecision set(LightPhase nextPhase, double duration) {
+        this.nextPhase = nextPhase;
+        this.duration = duration;
+        return this;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,331 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.model.CustomArrayList;
+import org.aiacon.simuladordemobilidadeurbana.model.FrozenGraph;
+import org.aiacon.simuladordemobilidadeurbana.model.GraphPartition;
+import org.aiacon.simuladordemobilidadeurbana.model.SpscRingBuffer;
+import org.aiacon.simuladordemobilidadeurbana.model.TrafficLight;
+import org.aiacon.simuladordemobilidadeurbana.model.Vehicle;
+import org.aiacon.simuladordemobilidadeurbana.model.VehicleStore;
+
+import java.util.Arrays;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Passo do motor por passos dividido por regiões do mapa ({@link GraphPartition}): cada região tem uma thread que
+ * atualiza os seus semáforos e os veículos parados nos seus nós ou saindo deles. Um veículo que chega a um nó de
+ * outra região passa para ela por uma {@link SpscRingBuffer} exclusiva do par (região de origem, região de
+ * destino) e é atualizado por ela a partir do passo seguinte. Todas as regiões e a thread da simulação se encontram
+ * numa barreira no início e no fim de cada passo; entre as duas, as regiões se encontram mais uma vez, depois de
+ * receber os veículos do passo anterior e antes de passar adiante os deste passo, para que uma região nunca leia
+ * uma fila enquanto a outra ponta escreve nela.
+ * <p>
+ * Um veículo só lê o semáforo do nó em que está, que é da mesma região, e só escreve na sua posição da
+ * VehicleStore; o que mexe em estado compartilhado (filas dos semáforos, mensagens, chegadas) fica anotado pelo
+ * Simulator e é aplicado depois da barreira, na thread da simulação, em ordem de posição. Cada região percorre os
+ * seus veículos em ordem de posição e os semáforos são independentes entre si, então o resultado é idêntico ao do
+ * passo serial para a mesma semente, com qualquer número de regiões.
+ */
+final class RegionParallelStepper {
+    private static final int HANDOFF_CAPACITY = 1024;
+
+    private final Simulator simulator;
+    private final VehicleStore store;
+    private final GraphPartition partition;
+    private final int regionCount;
+    private final boolean peakHour;
+    private final Region[] regions;
+    private final CyclicBarrier barrier;        // Início e fim do passo: regiões e a thread da simulação
+    private final CyclicBarrier receiveBarrier; // Só as regiões: todas receberam antes de alguma passar veículos
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Thread[] workers;
+    private volatile boolean stopping;
+    private double deltaTime;
+
+    // Chegadas, filas e mensagens das regiões, em ordem de posição (reaproveitado a cada passo)
+    private int[] merged = new int[64];
+    private final int[] cursors;
+
+    // Métricas
+    private long steps;
+    private final long[] vehicleUpdatesByRegion;
+
+    RegionParallelStepper(Simulator simulator, VehicleStore store, FrozenGraph topology, GraphPartition partition,
+                          TrafficLight[] trafficLights, boolean peakHour) {
+        this.simulator = simulator;
+        this.store = store;
+        this.partition = partition;
+        this.regionCount = partition.getRegionCount();
+        this.peakHour = peakHour;
+        this.regions = new Region[regionCount];
+        for (int r = 0; r < regionCount; r++) {
+            regions[r] = new Region(r);
+        }
+        // Semáforos pela região do seu nó, mantendo a ordem de trafficLights dentro de cada região
+        for (TrafficLight tl : trafficLights) {
+            int node = topology.indexOf(tl.getNodeId());
+            regions[(node >= 0) ? partition.getRegion(node) : 0].lights.add(tl);
+        }
+        this.cursors = new int[regionCount];
+        this.vehicleUpdatesByRegion = new long[regionCount];
+        this.barrier = new CyclicBarrier(regionCount + 1);
+        this.receiveBarrier = new CyclicBarrier(regionCount);
+        this.workers = new Thread[regionCount];
+        for (int r = 0; r < regionCount; r++) {
+            Region region = regions[r];
+            workers[r] = new Thread(() -> workerLoop(region), "region-worker-" + r);
+            workers[r].setDaemon(true);
+            workers[r].start();
+        }
+    }
+
+    // Veículo que acabou de entrar na store (thread da simulação, fora do passo): vai para a região da origem
+    void adopt(int slot) {
+        Region region = regions[partition.getRegion(store.getCurrentNode(slot))];
+        region.adopted = region.append(region.adopted, region.adoptedCount++, slot);
+    }
+
+    /**
+     * Um passo completo: semáforos e veículos de todas as regiões em paralelo e, depois da barreira, os efeitos
+     * anotados (filas, mensagens, chegadas) na ordem das posições. Chamado pela thread da simulação.
+     */
+    void step(double deltaTime) {
+        this.deltaTime = deltaTime;
+        steps++;
+        await(); // Início: as regiões começam
+        await(); // Fim: todas terminaram
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new IllegalStateException("Falha na atualização de uma região.", error);
+        }
+        commitInSlotOrder();
+    }
+
+    private void await() {
+        try {
+            barrier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando as regiões.", e);
+        } catch (BrokenBarrierException e) {
+            throw new IllegalStateException("Barreira das regiões rompida.", e);
+        }
+    }
+
+    private void workerLoop(Region region) {
+        while (true) {
+            try {
+                barrier.await();
+            } catch (InterruptedException | BrokenBarrierException e) {
+                return;
+            }
+            if (stopping) return;
+            try {
+                region.receive();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+            try {
+                receiveBarrier.await();
+            } catch (InterruptedException | BrokenBarrierException e) {
+                return;
+            }
+            try {
+                if (failure.get() == null) region.step();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+            try {
+                barrier.await();
+            } catch (InterruptedException | BrokenBarrierException e) {
+                return;
+            }
+        }
+    }
+
+    // Intercala as posições com efeito de cada região (já em ordem) e os aplica, parando se a simulação parar
+    private void commitInSlotOrder() {
+        int total = 0;
+        for (Region region : regions) {
+            total += region.eventfulCount;
+        }
+        if (merged.length < total) merged = new int[Math.max(total, merged.length * 2)];
+        Arrays.fill(cursors, 0);
+        for (int i = 0; i < total; i++) {
+            int best = -1;
+            for (int r = 0; r < regionCount; r++) {
+                Region region = regions[r];
+                if (cursors[r] < region.eventfulCount
+                        && (best < 0 || region.eventful[cursors[r]] < regions[best].eventful[cursors[best]])) {
+                    best = r;
+                }
+            }
+            merged[i] = regions[best].eventful[cursors[best]++];
+        }
+        for (int i = 0; i < total && simulator.isRunning(); i++) {
+            simulator.commitVehicle(merged[i]);
+        }
+    }
+
+    void shutdown() {
+        stopping = true;
+        try {
+            barrier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (BrokenBarrierException e) {
+            // As threads já saíram
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    void printSummary() {
+        long handoffs = 0, spilled = 0;
+        for (Region region : regions) {
+            handoffs += region.handoffCount;
+            spilled += region.spilledCount;
+        }
+        long total = 0, max = 0;
+        for (long updates : vehicleUpdatesByRegion) {
+            total += updates;
+            max = Math.max(max, updates);
+        }
+        double imbalance = (total > 0) ? max * (double) regionCount / total : 1.0;
+        System.out.printf("Regiões: %d threads, %d passos, %d veículos passados entre regiões (%d além da fila), " +
+                        "carga de veículos por região: desequilíbrio %.3f (máx./média)%n",
+                regionCount, steps, handoffs, spilled, imbalance);
+    }
+
+    long getVehicleUpdates(int region) { return vehicleUpdatesByRegion[region]; }
+
+    // Veículos passados a outra região que não couberam na fila do par (HANDOFF_CAPACITY) e foram pela lista
+    long getSpilledHandoffs() {
+        long spilled = 0;
+        for (Region region : regions) {
+            spilled += region.spilledCount;
+        }
+        return spilled;
+    }
+
+    // Array de tipo genérico a partir de um array com curinga recém-criado (ainda vazio, então a conversão é segura)
+    @SuppressWarnings("unchecked")
+    private static <T> T[] newArray(Object[] empty) {
+        return (T[]) empty;
+    }
+
+    // Estado de uma região; só a sua thread o altera durante o passo (a lista adopted, só a da simulação, fora dele)
+    private final class Region {
+        final int index;
+        final CustomArrayList<TrafficLight> lights = new CustomArrayList<>();
+        final SpscRingBuffer<Vehicle>[] incoming; // Por região de origem
+        // Veículos que não couberam na fila do par; a região de destino os lê depois da barreira
+        final CustomArrayList<Vehicle>[] overflowTo;
+        int[] adopted = new int[16]; // Veículos novos desta região (escritos pela thread da simulação fora do passo)
+        int adoptedCount;
+        int[] owned = new int[64];  // Posições dos veículos da região, em ordem crescente
+        int ownedCount;
+        int[] next = new int[64];
+        int[] arriving = new int[16];
+        int[] eventful = new int[64]; // Posições com efeito a aplicar neste passo, em ordem crescente
+        int eventfulCount;
+        long handoffCount;
+        long spilledCount;
+
+        Region(int index) {
+            this.index = index;
+            this.incoming = newArray(new SpscRingBuffer<?>[regionCount]);
+            this.overflowTo = newArray(new CustomArrayList<?>[regionCount]);
+            for (int r = 0; r < regionCount; r++) {
+                if (r == index) continue;
+                incoming[r] = new SpscRingBuffer<>(HANDOFF_CAPACITY);
+                overflowTo[r] = new CustomArrayList<>();
+            }
+        }
+
+        void step() {
+            for (int i = 0; i < lights.size(); i++) {
+                lights.get(i).update(deltaTime, peakHour);
+            }
+            eventfulCount = 0;
+            int kept = 0;
+            if (next.length < ownedCount) next = new int[owned.length];
+            for (int i = 0; i < ownedCount; i++) {
+                int slot = owned[i];
+                simulator.updateVehicle(slot, deltaTime);
+                boolean arrived = store.hasArrived(slot);
+                if (arrived || simulator.hasPendingEffect(slot)) {
+                    if (eventfulCount == eventful.length) eventful = Arrays.copyOf(eventful, eventfulCount * 2);
+                    eventful[eventfulCount++] = slot;
+                }
+                if (arrived) continue; // A posição é liberada na aplicação dos efeitos
+                int region = partition.getRegion(store.getCurrentNode(slot));
+                if (region == index) {
+                    next[kept++] = slot;
+                } else {
+                    hand(slot, region);
+                }
+            }
+            vehicleUpdatesByRegion[index] += ownedCount;
+            int[] swap = owned;
+            owned = next;
+            next = swap;
+            ownedCount = kept;
+        }
+
+        private void hand(int slot, int region) {
+            Vehicle vehicle = store.getVehicle(slot);
+            handoffCount++;
+            if (!regions[region].incoming[index].offer(vehicle)) {
+                overflowTo[region].add(vehicle);
+                spilledCount++;
+            }
+        }
+
+        // Veículos novos e os que vieram de outras regiões no passo anterior, intercalados em ordem de posição
+        void receive() {
+            int count = 0;
+            for (int i = 0; i < adoptedCount; i++) {
+                arriving = append(arriving, count++, adopted[i]);
+            }
+            adoptedCount = 0;
+            for (int r = 0; r < regionCount; r++) {
+                if (r == index) continue;
+                Vehicle vehicle;
+                while ((vehicle = incoming[r].poll()) != null) {
+                    arriving = append(arriving, count++, vehicle.getSlot());
+                }
+                CustomArrayList<Vehicle> spilled = regions[r].overflowTo[index];
+                for (int i = 0; i < spilled.size(); i++) {
+                    arriving = append(arriving, count++, spilled.get(i).getSlot());
+                }
+                spilled.clear();
+            }
+            if (count == 0) return;
+            Arrays.sort(arriving, 0, count);
+            int total = ownedCount + count;
+            if (next.length < total) next = new int[Math.max(total, next.length * 2)];
+            int a = 0, b = 0, k = 0;
+            while (a < ownedCount || b < count) {
+                if (b == count || (a < ownedCount && owned[a] < arriving[b])) {
+                    next[k++] = owned[a++];
+                } else {
+                    next[k++] = arriving[b++];
+                }
+            }
+            int[] swap = owned;
+            owned = next;
+            next = swap.length >= total ? swap : new int[total];
+            ownedCount = total;
+        }
+
+        int[] append(int[] array, int position, int value) {
+            if (position == array.length) array = Arrays.copyOf(array, position * 2);
+            array[position] = value;
+            return array;
+        }
+    }
+}
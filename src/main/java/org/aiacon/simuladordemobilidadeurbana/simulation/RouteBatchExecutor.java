@@ -0,0 +1,89 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Executa as tarefas de um lote de rotas (uma por índice {@code 0..count-1}) em paralelo e só retorna quando
+ * todas terminaram. Cada tarefa escreve apenas na sua posição do array de resultados, então o resultado do lote
+ * não depende da ordem de execução nem do número de threads.
+ * <p>
+ * As buscas de rota só leem o grafo; quem chama deve garantir que nada altere nós, arestas ou tempos de viagem
+ * enquanto o lote roda (a simulação fica bloqueada aguardando o lote, então isso vale dentro do tick).
+ * <p>
+ * As áreas de busca dos algoritmos são por thread: os workers do ForkJoinPool as reaproveitam entre lotes, enquanto
+ * cada thread virtual aloca as suas a cada lote. Em mapas grandes, prefira {@link RouteExecutorType#FORK_JOIN}.
+ */
+public class RouteBatchExecutor {
+    private final RouteExecutorType type;
+    private final int parallelism;
+    private final ForkJoinPool forkJoinPool; // Apenas no modo FORK_JOIN
+
+    public RouteBatchExecutor(RouteExecutorType type, int parallelism) {
+        this.type = (type != null) ? type : RouteExecutorType.SEQUENTIAL;
+        this.parallelism = Math.max(1, parallelism);
+        this.forkJoinPool = (this.type == RouteExecutorType.FORK_JOIN) ? new ForkJoinPool(this.parallelism) : null;
+    }
+
+    public RouteExecutorType getType() { return type; }
+    public int getParallelism() { return parallelism; }
+
+    /**
+     * Executa {@code task.accept(i)} para todo i em [0, count). Uma exceção em qualquer tarefa é relançada aqui
+     * depois que as demais terminam.
+     */
+    public void forEach(int count, IntConsumer task) {
+        if (count <= 1 || type == RouteExecutorType.SEQUENTIAL || parallelism == 1) {
+            for (int i = 0; i < count; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+        if (type == RouteExecutorType.FORK_JOIN) {
+            // Um stream paralelo submetido a um ForkJoinPool roda nos workers desse pool
+            forkJoinPool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).join();
+        } else {
+            runOnVirtualThreads(count, task);
+        }
+    }
+
+    // Até "parallelism" threads virtuais retiram índices de um contador compartilhado
+    private void runOnVirtualThreads(int count, IntConsumer task) {
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        int workers = Math.min(parallelism, count);
+        Thread[] threads = new Thread[workers];
+        for (int w = 0; w < workers; w++) {
+            threads[w] = Thread.ofVirtual().name("route-batch-", w).start(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < count) {
+                    try {
+                        task.accept(i);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido aguardando o lote de rotas.", e);
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    public void shutdown() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU de rotas, limitado a {@code capacity} pares origem/destino.
+ * Guarda os {@link RouteResult} (imutáveis) já calculados para o grafo de roteamento atual; quando a versão dos
+ * pesos do {@link RoutingGraph} muda (ver {@link RoutingGraph#refreshWeights()}), todas as entradas são descartadas,
+ * de modo que nunca se devolve uma rota calculada com tempos de viagem antigos.
+ * Todos os métodos são sincronizados: o cache pode ser compartilhado entre threads.
+ */
+public class RouteCache {
+    private final int capacity;
+    private final LinkedHashMap<Long, RouteResult> entries;
+
+    private RoutingGraph routingGraph; // Grafo e versão de pesos a que as entradas atuais correspondem
+    private long weightVersion;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public RouteCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade do cache de rotas deve ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        // accessOrder = true: a iteração vai da entrada usada há mais tempo para a mais recente
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RouteResult> eldest) {
+                if (size() > RouteCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static long keyOf(int origin, int destination) {
+        return ((long) origin << 32) | (destination & 0xFFFFFFFFL);
+    }
+
+    // Descarta tudo se o grafo foi reconstruído ou seus pesos mudaram desde que as entradas foram guardadas
+    private void validate(RoutingGraph current, long currentVersion) {
+        if (current != routingGraph || currentVersion != weightVersion) {
+            if (!entries.isEmpty()) {
+                invalidations++;
+                entries.clear();
+            }
+            routingGraph = current;
+            weightVersion = currentVersion;
+        }
+    }
+
+    /**
+     * @return A rota guardada para o par, ou null se não houver entrada válida para os pesos atuais.
+     */
+    public synchronized RouteResult get(RoutingGraph current, int origin, int destination) {
+        validate(current, current.getWeightVersion());
+        RouteResult result = entries.get(keyOf(origin, destination));
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return result;
+    }
+
+    /**
+     * Guarda uma rota calculada com a versão de pesos {@code computedVersion}. Se os pesos mudaram enquanto a rota
+     * era calculada, ela já nasce desatualizada e não é guardada.
+     */
+    public synchronized void put(RoutingGraph current, long computedVersion, int origin, int destination, RouteResult result) {
+        long currentVersion = current.getWeightVersion();
+        validate(current, currentVersion);
+        if (computedVersion == currentVersion && result != null) {
+            entries.put(keyOf(origin, destination), result);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public int getCapacity() { return capacity; }
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized long getInvalidations() { return invalidations; }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return (lookups > 0) ? (double) hits / lookups : 0.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RouteCache{entradas=%d/%d, acertos=%d, faltas=%d (%.1f%% de acerto), despejos=%d, invalidações=%d}",
+                entries.size(), capacity, hits, misses, getHitRate() * 100.0, evictions, invalidations);
+    }
+}
@@ -0,0 +1,8 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+// Onde as rotas de um lote de veículos são calculadas (ver RouteBatchExecutor)
+public enum RouteExecutorType {
+    SEQUENTIAL,      // Na própria thread da simulação, uma rota por vez
+    FORK_JOIN,       // ForkJoinPool dedicado com o paralelismo configurado
+    VIRTUAL_THREADS  // Threads virtuais, no máximo "paralelismo" simultâneas
+}
@@ -0,0 +1,247 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.model.CustomLinkedList;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.aiacon.simuladordemobilidadeurbana.model.Node;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ponto único de cálculo de rotas da simulação.
+ * Escolhe o algoritmo conforme {@link Configuration#getRoutingAlgorithm()} e acumula contadores de consultas
+ * e de nós assentados, permitindo comparar o custo dos algoritmos em mapas grandes.
+ * Antes de buscar, consulta o {@link RouteCache} (se habilitado), que devolve rotas já calculadas para os pesos atuais.
+ * As viagens geradas só passam pelas árvores de caminhos por origem ({@link ShortestPathTreeCache}) se elas forem
+ * habilitadas em Configuration e o algoritmo for DIJKSTRA.
+ */
+public class RoutePlanner {
+    private final Graph graph;
+    private final RoutingAlgorithm algorithm;
+    private final ContractionHierarchy contractionHierarchy; // Apenas no modo CONTRACTION_HIERARCHIES
+    private final int landmarkCount;
+    private volatile Landmarks landmarks; // Apenas no modo ALT; recalculadas se deixarem de ser admissíveis
+    private volatile boolean staleHierarchyReported;
+    private final RouteCache routeCache; // null se Configuration.routeCacheCapacity <= 0
+    private final ShortestPathTreeCache treeCache; // null se Configuration.shortestPathTreeCacheMegabytes <= 0
+    private final RouteBatchExecutor batchExecutor;
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong settledNodesTotal = new AtomicLong();
+
+    public RoutePlanner(Graph graph, Configuration config) {
+        if (graph == null) {
+            throw new IllegalArgumentException("RoutePlanner requer um grafo não nulo.");
+        }
+        this.graph = graph;
+        RoutingAlgorithm configured = (config != null) ? config.getRoutingAlgorithm() : null;
+        this.algorithm = (configured != null) ? configured : RoutingAlgorithm.DIJKSTRA;
+        this.landmarkCount = (config != null) ? config.getLandmarkCount() : 8;
+        int cacheCapacity = (config != null) ? config.getRouteCacheCapacity() : 0;
+        this.routeCache = (cacheCapacity > 0) ? new RouteCache(cacheCapacity) : null;
+        int treeCacheMegabytes = (config != null) ? config.getShortestPathTreeCacheMegabytes() : 0;
+        if (treeCacheMegabytes > 0 && algorithm != RoutingAlgorithm.DIJKSTRA) {
+            // Árvores são buscas de Dijkstra de um para todos; nos outros modos valem o algoritmo e o cache de rotas
+            System.out.println("ROUTE_PLANNER: Cache de árvores de caminhos ignorado no modo " + algorithm + ".");
+            treeCacheMegabytes = 0;
+        }
+        this.treeCache = (treeCacheMegabytes > 0) ? new ShortestPathTreeCache(treeCacheMegabytes * 1024L * 1024L) : null;
+        this.batchExecutor = (config != null)
+                ? new RouteBatchExecutor(config.getRouteExecutorType(), config.getRouteParallelism())
+                : new RouteBatchExecutor(RouteExecutorType.SEQUENTIAL, 1);
+
+        // O pré-processamento roda uma única vez, logo após o carregamento do grafo
+        if (algorithm == RoutingAlgorithm.CONTRACTION_HIERARCHIES) {
+            this.contractionHierarchy = ContractionHierarchy.loadOrBuild(getRoutingGraph(), config.getContractionHierarchyFile());
+        } else {
+            this.contractionHierarchy = null;
+        }
+        if (algorithm == RoutingAlgorithm.ALT) {
+            this.landmarks = buildLandmarks(getRoutingGraph());
+        }
+    }
+
+    private Landmarks buildLandmarks(RoutingGraph routingGraph) {
+        long start = System.nanoTime();
+        Landmarks built = Landmarks.build(routingGraph, landmarkCount);
+        System.out.printf("ALT_PREPROCESS: %d landmarks calculadas em %.1f ms para %d nós.%n",
+                built.getCount(), (System.nanoTime() - start) / 1e6, routingGraph.getNodeCount());
+        return built;
+    }
+
+    // Landmarks válidas para os pesos atuais; só são recalculadas se algum tempo de viagem cair abaixo do da construção
+    private Landmarks currentLandmarks(RoutingGraph routingGraph) {
+        Landmarks current = landmarks;
+        if (current.getRoutingGraph() == routingGraph && current.isAdmissible()) {
+            return current;
+        }
+        synchronized (this) {
+            current = landmarks;
+            if (current.getRoutingGraph() != routingGraph || !current.isAdmissible()) {
+                System.out.println("ALT: tempos de viagem abaixo dos usados nas landmarks. Recalculando.");
+                current = buildLandmarks(routingGraph);
+                landmarks = current;
+            }
+            return current;
+        }
+    }
+
+    public RoutingGraph getRoutingGraph() {
+        return Dijkstra.getRoutingGraph(graph);
+    }
+
+    public RoutingAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public ContractionHierarchy getContractionHierarchy() {
+        return contractionHierarchy;
+    }
+
+    /**
+     * Calcula a rota entre dois nós identificados pelo índice denso.
+     *
+     * @return O resultado da consulta; {@link RouteResult#isFound()} é falso se o destino for inalcançável.
+     */
+    public RouteResult findRoute(int origin, int destination) {
+        RoutingGraph routingGraph = getRoutingGraph();
+        if (routeCache == null) {
+            return search(routingGraph, origin, destination);
+        }
+        RouteResult cached = routeCache.get(routingGraph, origin, destination);
+        if (cached != null) {
+            return cached;
+        }
+        long weightVersion = routingGraph.getWeightVersion();
+        RouteResult result = search(routingGraph, origin, destination);
+        routeCache.put(routingGraph, weightVersion, origin, destination, result);
+        return result;
+    }
+
+    /**
+     * Rota extraída da árvore de caminhos mínimos da origem. Enquanto a árvore estiver no cache, todas as viagens
+     * que partem da mesma origem custam uma única busca de um para todos. Sem cache de árvores (o padrão, e sempre
+     * fora do modo DIJKSTRA), equivale a {@link #findRoute(int, int)}: algoritmo configurado e cache de rotas.
+     */
+    public RouteResult findRouteFromOrigin(int origin, int destination) {
+        if (treeCache == null) {
+            return findRoute(origin, destination);
+        }
+        RoutingGraph routingGraph = getRoutingGraph();
+        ShortestPathTree tree = treeCache.get(routingGraph, origin);
+        if (tree == null) {
+            long weightVersion = routingGraph.getWeightVersion();
+            tree = ShortestPathTree.compute(routingGraph, origin);
+            queryCount.incrementAndGet();
+            settledNodesTotal.addAndGet(tree.getReachedCount());
+            treeCache.put(routingGraph, weightVersion, tree);
+        }
+        return tree.routeTo(destination);
+    }
+
+    /**
+     * Calcula as rotas de um lote de pares origem/destino em paralelo (cada par como em
+     * {@link #findRouteFromOrigin(int, int)}). A posição i do resultado corresponde ao par i, e cada rota é a mesma
+     * que o cálculo sequencial daria, independentemente do executor e do número de threads.
+     */
+    public RouteResult[] findRoutesFromOrigins(int[] origins, int[] destinations) {
+        if (origins.length != destinations.length) {
+            throw new IllegalArgumentException("Lote de rotas com " + origins.length + " origens e " + destinations.length + " destinos.");
+        }
+        RouteResult[] results = new RouteResult[origins.length];
+        getRoutingGraph(); // Constrói/atualiza o grafo compacto antes de dividir o trabalho entre threads
+        batchExecutor.forEach(origins.length, i -> results[i] = findRouteFromOrigin(origins[i], destinations[i]));
+        return results;
+    }
+
+    public RouteBatchExecutor getBatchExecutor() {
+        return batchExecutor;
+    }
+
+    // Libera as threads do executor de lotes
+    public void shutdown() {
+        batchExecutor.shutdown();
+    }
+
+    // Executa a busca do algoritmo configurado (sem passar pelo cache) e atualiza os contadores
+    private RouteResult search(RoutingGraph routingGraph, int origin, int destination) {
+        RouteResult result;
+        switch (algorithm) {
+            case A_STAR:
+                result = AStar.findRoute(routingGraph, origin, destination);
+                break;
+            case BIDIRECTIONAL_DIJKSTRA:
+                result = BidirectionalDijkstra.findRoute(routingGraph, origin, destination);
+                break;
+            case ALT:
+                result = currentLandmarks(routingGraph).findRoute(origin, destination);
+                break;
+            case CONTRACTION_HIERARCHIES:
+                if (contractionHierarchy.isCurrent()) {
+                    result = contractionHierarchy.findRoute(origin, destination);
+                } else {
+                    // Os atalhos foram calculados com os pesos antigos: a busca bidirecional sem pré-processamento é exata
+                    if (!staleHierarchyReported) {
+                        staleHierarchyReported = true;
+                        System.out.println("ROUTE_PLANNER: Tempos de viagem mudaram; CH desatualizada, usando Dijkstra bidirecional.");
+                    }
+                    result = BidirectionalDijkstra.findRoute(routingGraph, origin, destination);
+                }
+                break;
+            case DIJKSTRA:
+            default:
+                result = Dijkstra.findRoute(routingGraph, origin, destination);
+                break;
+        }
+        queryCount.incrementAndGet();
+        settledNodesTotal.addAndGet(result.getSettledNodes());
+        return result;
+    }
+
+    // Versão por IDs do OSM: null para IDs inválidos e lista vazia se não houver caminho (mesmo contrato do Dijkstra)
+    public CustomLinkedList<String> calculateRoute(String originId, String destinationId) {
+        Node originNode = graph.getNode(originId);
+        Node destinationNode = graph.getNode(destinationId);
+        if (originNode == null || destinationNode == null) {
+            System.err.println("ROUTE_PLANNER: Nó de origem (" + originId + ") ou destino (" + destinationId + ") não encontrado no grafo.");
+            return null;
+        }
+        RouteResult result = findRoute(originNode.getIndex(), destinationNode.getIndex());
+        return toNodeIdList(result);
+    }
+
+    public CustomLinkedList<String> toNodeIdList(RouteResult result) {
+        return Dijkstra.toNodeIdList(getRoutingGraph(), result.path());
+    }
+
+    public RouteCache getRouteCache() {
+        return routeCache;
+    }
+
+    public ShortestPathTreeCache getShortestPathTreeCache() {
+        return treeCache;
+    }
+
+    // Número de buscas efetivamente executadas (consultas respondidas pelo cache não entram)
+    public long getQueryCount() {
+        return queryCount.get();
+    }
+
+    public long getTotalSettledNodes() {
+        return settledNodesTotal.get();
+    }
+
+    public double getAverageSettledNodes() {
+        long queries = queryCount.get();
+        return (queries > 0) ? (double) settledNodesTotal.get() / queries : 0.0;
+    }
+
+    public void printSummary() {
+        System.out.printf("Roteamento (%s): %d consultas, média de %.1f nós assentados por consulta (grafo com %d nós)%n",
+                algorithm, getQueryCount(), getAverageSettledNodes(), getRoutingGraph().getNodeCount());
+        if (routeCache != null) {
+            System.out.println("Cache de rotas: " + routeCache);
+        }
+        if (treeCache != null) {
+            System.out.println("Cache de árvores de caminhos: " + treeCache);
+        }
+    }
+}
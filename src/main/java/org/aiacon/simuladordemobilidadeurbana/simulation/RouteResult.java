@@ -0,0 +1,43 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Resultado imutável de uma consulta de rota: os índices dos nós percorridos, o custo total
+ * (tempo de viagem em segundos) e o número de nós assentados pela busca, usado para comparar algoritmos.
+ */
+public final class RouteResult {
+    private static final int[] EMPTY = new int[0];
+
+    private final int[] path;
+    private final double travelTime;
+    private final int settledNodes;
+
+    RouteResult(int[] path, double travelTime, int settledNodes) {
+        this.path = (path != null) ? path : EMPTY;
+        this.travelTime = travelTime;
+        this.settledNodes = settledNodes;
+    }
+
+    static RouteResult unreachable(int settledNodes) {
+        return new RouteResult(EMPTY, Double.POSITIVE_INFINITY, settledNodes);
+    }
+
+    public boolean isFound() { return path.length > 0; }
+    public int size() { return path.length; }
+    public int getNode(int position) { return path[position]; }
+    public double getTravelTime() { return travelTime; }
+    public int getSettledNodes() { return settledNodes; }
+
+    // Cópia defensiva da rota em índices
+    public int[] toArray() { return path.clone(); }
+
+    // Acesso sem cópia, restrito ao pacote (o array nunca deve ser modificado)
+    int[] path() { return path; }
+
+    @Override
+    public String toString() {
+        return "RouteResult{nós=" + Arrays.toString(path) + ", tempo=" + String.format("%.2f", travelTime) +
+                "s, assentados=" + settledNodes + "}";
+    }
+}
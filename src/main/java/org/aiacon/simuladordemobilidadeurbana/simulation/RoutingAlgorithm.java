@@ -0,0 +1,12 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+// Algoritmos de roteamento disponíveis para o RoutePlanner. Todos devolvem uma rota de custo mínimo, com o mesmo
+// custo da rota do Dijkstra; quando há mais de uma rota de custo mínimo, a sequência de nós pode ser outra, pois
+// cada busca fica com a primeira que encontra, e a ordem em que os nós são assentados muda de um algoritmo a outro.
+public enum RoutingAlgorithm {
+    DIJKSTRA, // Dijkstra unidirecional com parada no destino
+    A_STAR,   // A* com heurística de haversine / velocidade máxima da rede
+    BIDIRECTIONAL_DIJKSTRA, // Dijkstra a partir da origem e do destino, com critério de encontro no meio
+    ALT,      // A* com limites inferiores de landmarks (ver Landmarks); continua exato se os tempos de viagem só aumentarem
+    CONTRACTION_HIERARCHIES // Consulta bidirecional sobre hierarquia pré-processada (ver ContractionHierarchy)
+}
@@ -0,0 +1,159 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.model.Edge;
+import org.aiacon.simuladordemobilidadeurbana.model.FrozenGraph;
+import org.aiacon.simuladordemobilidadeurbana.model.GeoUtils;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.aiacon.simuladordemobilidadeurbana.model.Node;
+
+/**
+ * Grafo usado pelos algoritmos de roteamento: a topologia imutável de {@link Graph#freeze()} (formato CSR,
+ * ver {@link FrozenGraph}) mais os pesos atuais das arestas, que mudam durante a simulação.
+ * Os nós são identificados pelo índice denso atribuído pelo {@link Graph} (ver {@link Node#getIndex()});
+ * as arestas de saída do nó {@code u} ocupam as posições {@code [firstEdge(u), lastEdge(u))}.
+ * Arestas com destino inexistente ficam fora da topologia. As de tempo de viagem inválido (zero, negativo, NaN ou
+ * infinito) ficam, pois o tempo muda durante a simulação, mas com peso {@code Double.POSITIVE_INFINITY}: todas as
+ * buscas pulam arestas com esse peso, exatamente como o Dijkstra original fazia ao relaxá-las.
+ */
+public class RoutingGraph {
+    private final FrozenGraph topology;
+    private final Graph source;
+    private final int nodeCount;
+    private volatile double[] weights; // Tempo de viagem exato (s), sem truncamento; trocado inteiro em refreshWeights()
+    private volatile long weightVersion; // Graph#getWeightVersion() correspondente a weights
+    private volatile double maxSpeed; // Maior velocidade efetiva da rede (m/s), usada pela heurística do A*
+
+    public RoutingGraph(Graph graph) {
+        this(frozenTopologyOf(graph));
+    }
+
+    public RoutingGraph(FrozenGraph topology) {
+        this.topology = topology;
+        this.source = topology.getSource();
+        this.weightVersion = source.getWeightVersion();
+        this.nodeCount = topology.getNodeCount();
+        // Lidos das arestas, e não do retrato: o retrato pode ser anterior a mudanças de tempo de viagem
+        double[] initialWeights = readWeights();
+        this.weights = initialWeights;
+        this.maxSpeed = computeMaxSpeed(initialWeights);
+    }
+
+    private static FrozenGraph frozenTopologyOf(Graph graph) {
+        if (graph == null || graph.getNodes() == null) {
+            throw new IllegalArgumentException("Grafo nulo não pode ser convertido para roteamento.");
+        }
+        return graph.freeze();
+    }
+
+    /**
+     * Relê os tempos de viagem das arestas se algum {@link Edge#setTravelTime(double)} ocorreu desde a última leitura.
+     * Os novos pesos são montados em outro array e publicados de uma vez, então uma busca em andamento em outra
+     * thread nunca vê uma mistura de pesos antigos e novos no mesmo array. A topologia não muda: uma aresta cujo
+     * tempo passe a ser inválido fica com peso infinito.
+     *
+     * @return true se os pesos foram atualizados.
+     */
+    public boolean refreshWeights() {
+        if (source.getWeightVersion() == weightVersion) {
+            return false; // Caminho comum, sem bloqueio
+        }
+        return reloadWeights();
+    }
+
+    private synchronized boolean reloadWeights() {
+        long version = source.getWeightVersion();
+        if (version == weightVersion) {
+            return false;
+        }
+        double[] updated = readWeights();
+        this.maxSpeed = computeMaxSpeed(updated);
+        this.weights = updated;
+        this.weightVersion = version;
+        return true;
+    }
+
+    private double[] readWeights() {
+        double[] current = new double[topology.getEdgeCount()];
+        for (int e = 0; e < current.length; e++) {
+            double travelTime = topology.getEdge(e).getTravelTime();
+            current[e] = (travelTime > 0 && !Double.isNaN(travelTime)) ? travelTime : Double.POSITIVE_INFINITY;
+        }
+        return current;
+    }
+
+    public long getWeightVersion() {
+        return weightVersion;
+    }
+
+    // A velocidade efetiva de cada aresta considera tanto o comprimento declarado quanto a distância em linha reta
+    // entre as extremidades. Assim, distância_reta(u, v) / maxSpeed <= tempo(u, v) para toda aresta, e a heurística
+    // do A* é consistente mesmo quando o comprimento do OSM é menor que a distância geodésica.
+    private double computeMaxSpeed(double[] weights) {
+        double max = 0.0;
+        for (int u = 0; u < nodeCount; u++) {
+            for (int e = topology.firstEdge(u), end = topology.lastEdge(u); e < end; e++) {
+                int v = topology.getTarget(e);
+                double straight = GeoUtils.haversineMeters(topology.getLatitude(u), topology.getLongitude(u),
+                        topology.getLatitude(v), topology.getLongitude(v));
+                double length = Math.max(straight, topology.getLength(e));
+                max = Math.max(max, length / weights[e]);
+            }
+        }
+        return max;
+    }
+
+    // Indica se o grafo de origem ganhou nós ou arestas depois desta construção
+    public boolean isStale() {
+        return topology.isStale();
+    }
+
+    public FrozenGraph getTopology() { return topology; }
+    public Graph getSource() { return source; }
+    public int getNodeCount() { return nodeCount; }
+    public int getEdgeCount() { return topology.getEdgeCount(); }
+
+    // Índice denso do nó com o ID informado, ou -1 se não existir
+    public int indexOf(String nodeId) {
+        return topology.indexOf(nodeId);
+    }
+
+    public String getNodeId(int index) { return topology.getNodeId(index); }
+
+    public int firstEdge(int node) { return topology.firstEdge(node); }
+    public int lastEdge(int node) { return topology.lastEdge(node); } // Exclusivo
+    public int getTarget(int edge) { return topology.getTarget(edge); }
+    public double getWeight(int edge) { return weights[edge]; } // POSITIVE_INFINITY = intransitável
+    public Edge getEdge(int edge) { return topology.getEdge(edge); }
+
+    public int firstIncomingEdge(int node) { return topology.firstIncomingEdge(node); }
+    public int lastIncomingEdge(int node) { return topology.lastIncomingEdge(node); } // Exclusivo
+    public int getIncomingSource(int incoming) { return topology.getIncomingSource(incoming); }
+    public double getIncomingWeight(int incoming) { return weights[topology.getIncomingEdgeSlot(incoming)]; }
+
+    public double getLatitude(int node) { return topology.getLatitude(node); }
+    public double getLongitude(int node) { return topology.getLongitude(node); }
+    public double getMaxSpeed() { return maxSpeed; }
+
+    // Tempo de viagem de uma rota em índices, somado da origem para o destino (mesma ordem de acumulação do Dijkstra).
+    // Entre nós com arestas paralelas vale a de menor tempo, que é a que qualquer busca de menor caminho escolheria.
+    public double pathTravelTime(int[] path) {
+        double total = 0.0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = topology.firstEdge(path[i]), end = topology.lastEdge(path[i]); e < end; e++) {
+                if (topology.getTarget(e) == path[i + 1]) {
+                    best = Math.min(best, weights[e]);
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    // Limite inferior do tempo de viagem (s) entre dois nós: distância em linha reta na velocidade máxima da rede
+    public double lowerBoundTravelTime(int from, int to) {
+        if (maxSpeed <= 0) return 0.0;
+        return GeoUtils.haversineMeters(topology.getLatitude(from), topology.getLongitude(from),
+                topology.getLatitude(to), topology.getLongitude(to)) / maxSpeed;
+    }
+}
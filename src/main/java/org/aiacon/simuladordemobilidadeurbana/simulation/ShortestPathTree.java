@@ -0,0 +1,94 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Árvore de caminhos mínimos a partir de uma origem: resultado de um Dijkstra de um para todos sobre o
+ * {@link RoutingGraph}. Guarda o antecessor e a distância de cada nó, de modo que a rota até qualquer destino
+ * é extraída em O(tamanho da rota), sem nova busca.
+ * <p>
+ * Como o Dijkstra nunca altera o antecessor de um nó já assentado, as rotas extraídas são exatamente as que
+ * {@link Dijkstra#findRoute(RoutingGraph, int, int)} devolveria com parada no destino.
+ */
+public final class ShortestPathTree {
+    private final int origin;
+    private final int[] predecessor; // -1 na origem e nos nós inalcançáveis
+    private final double[] distance; // Infinito nos nós inalcançáveis
+    private final int reachedCount;
+
+    private ShortestPathTree(int origin, int[] predecessor, double[] distance, int reachedCount) {
+        this.origin = origin;
+        this.predecessor = predecessor;
+        this.distance = distance;
+        this.reachedCount = reachedCount;
+    }
+
+    public static ShortestPathTree compute(RoutingGraph routingGraph, int origin) {
+        int n = routingGraph.getNodeCount();
+        int[] predecessor = new int[n];
+        double[] distance = new double[n];
+        Arrays.fill(predecessor, -1);
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+
+        Dijkstra.SearchSpace space = Dijkstra.acquireSearchSpace(n);
+        space.reset();
+        IndexedMinHeap heap = space.heap;
+        space.reach(origin, 0.0, -1);
+        heap.insertOrDecrease(origin, 0.0);
+
+        int reachedCount = 0;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            reachedCount++;
+            space.settle(current);
+            double currentDistance = space.distance[current];
+            distance[current] = currentDistance;
+            predecessor[current] = space.predecessor[current];
+
+            for (int e = routingGraph.firstEdge(current), end = routingGraph.lastEdge(current); e < end; e++) {
+                int neighbor = routingGraph.getTarget(e);
+                if (space.isSettled(neighbor)) continue;
+                double weight = routingGraph.getWeight(e);
+                if (weight == Double.POSITIVE_INFINITY) continue; // Aresta intransitável
+                double newDist = currentDistance + weight;
+                if (!space.isReached(neighbor) || newDist < space.distance[neighbor]) {
+                    space.reach(neighbor, newDist, current);
+                    heap.insertOrDecrease(neighbor, newDist);
+                }
+            }
+        }
+        return new ShortestPathTree(origin, predecessor, distance, reachedCount);
+    }
+
+    public int getOrigin() { return origin; }
+    public int getNodeCount() { return distance.length; }
+    public int getReachedCount() { return reachedCount; } // Nós assentados pela busca que construiu a árvore
+    public boolean reaches(int destination) { return distance[destination] != Double.POSITIVE_INFINITY; }
+    public double getTravelTime(int destination) { return distance[destination]; }
+
+    // Bytes ocupados pelos arrays da árvore (usado para limitar a memória do cache)
+    public long estimatedBytes() {
+        return (long) distance.length * (Integer.BYTES + Double.BYTES);
+    }
+
+    /**
+     * Extrai a rota até o destino seguindo os antecessores. O resultado informa 0 nós assentados, pois nenhuma
+     * busca foi executada.
+     */
+    public RouteResult routeTo(int destination) {
+        if (!reaches(destination)) {
+            return RouteResult.unreachable(0);
+        }
+        int length = 1;
+        for (int node = destination; node != origin; node = predecessor[node]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int node = destination;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = node;
+            node = predecessor[node];
+        }
+        return new RouteResult(path, distance[destination], 0);
+    }
+}
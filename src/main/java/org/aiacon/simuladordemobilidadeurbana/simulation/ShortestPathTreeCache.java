@@ -0,0 +1,94 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU de {@link ShortestPathTree} por nó de origem, limitado por memória.
+ * Cada árvore ocupa ~12 bytes por nó do grafo; o número máximo de árvores é o orçamento dividido por esse
+ * tamanho. Ao exceder o limite, a árvore usada há mais tempo é descartada. Assim como o {@link RouteCache},
+ * todas as árvores são descartadas quando a versão dos pesos do {@link RoutingGraph} muda.
+ */
+public class ShortestPathTreeCache {
+    private final long memoryBudgetBytes;
+    private final LinkedHashMap<Integer, ShortestPathTree> trees;
+    private int maxTrees;
+
+    private RoutingGraph routingGraph;
+    private long weightVersion;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public ShortestPathTreeCache(long memoryBudgetBytes) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Orçamento de memória das árvores de caminhos deve ser positivo: " + memoryBudgetBytes);
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathTree> eldest) {
+                if (size() > maxTrees) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private void validate(RoutingGraph current, long currentVersion) {
+        if (current != routingGraph || currentVersion != weightVersion) {
+            if (!trees.isEmpty()) {
+                invalidations++;
+                trees.clear();
+            }
+            routingGraph = current;
+            weightVersion = currentVersion;
+            long bytesPerTree = (long) current.getNodeCount() * (Integer.BYTES + Double.BYTES);
+            maxTrees = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudgetBytes / Math.max(1, bytesPerTree)));
+        }
+    }
+
+    // Árvore da origem para os pesos atuais, ou null se precisar ser calculada
+    public synchronized ShortestPathTree get(RoutingGraph current, int origin) {
+        validate(current, current.getWeightVersion());
+        ShortestPathTree tree = trees.get(origin);
+        if (tree != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return tree;
+    }
+
+    // Guarda a árvore se os pesos não mudaram desde o início do seu cálculo
+    public synchronized void put(RoutingGraph current, long computedVersion, ShortestPathTree tree) {
+        long currentVersion = current.getWeightVersion();
+        validate(current, currentVersion);
+        if (computedVersion == currentVersion && tree != null) {
+            trees.put(tree.getOrigin(), tree);
+        }
+    }
+
+    public synchronized void clear() {
+        trees.clear();
+    }
+
+    public long getMemoryBudgetBytes() { return memoryBudgetBytes; }
+    public synchronized int size() { return trees.size(); }
+    public synchronized int getMaxTrees() { return maxTrees; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized long getInvalidations() { return invalidations; }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format("ShortestPathTreeCache{árvores=%d/%d, acertos=%d, faltas=%d (%.1f%% de acerto), despejos=%d, invalidações=%d}",
+                trees.size(), maxTrees, hits, misses, lookups > 0 ? 100.0 * hits / lookups : 0.0, evictions, invalidations);
+    }
+}
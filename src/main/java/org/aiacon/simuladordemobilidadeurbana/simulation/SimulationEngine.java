@@ -0,0 +1,7 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+// Como o Simulator avança o tempo (ver Configuration.simulationEngine)
+public enum SimulationEngine {
+    TIME_STEPPED,   // Passos fixos de 1 s, visitando todos os veículos e semáforos a cada passo
+    DISCRETE_EVENT  // Fila de eventos com instante: cada veículo ou semáforo só é processado quando algo lhe acontece
+}
@@ -1,39 +1,175 @@
 package org.aiacon.simuladordemobilidadeurbana.simulation;
 
 import org.aiacon.simuladordemobilidadeurbana.model.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class Simulator implements Runnable {
     private Graph graph;
     private Configuration config;
-    private CustomLinkedList<Vehicle> vehicles;
+    private final FrozenGraph topology; // Índices de nós e arestas usados pelas colunas da VehicleStore
+    private final VehicleStore vehicleStore; // Estado dos veículos em circulação, em colunas primitivas
+    private final TrafficLight[] trafficLightsByNode; // Semáforo de cada nó pelo índice denso (null se não houver)
+    private final TrafficLight[] trafficLights; // Todos os semáforos, percorridos a cada passo sem iterador
+    private double[] edgeTravelTimes; // Tempo de viagem de cada aresta da topologia, relido quando os pesos mudam
+    private long edgeTravelTimesVersion = -1;
     private Statistics stats;
     private VehicleGenerator generator;
+    private RoutePlanner routePlanner;
+    private final Random random; // Semeada por Configuration.randomSeed, quando definida
+    private final TripPipeline tripPipeline; // null se Configuration.asyncTripPipeline for falso
+    private final VehiclePool vehiclePool; // Veículos que chegaram, reaproveitados pelo gerador (null = sem pool)
+    private final CustomArrayList<Vehicle> readyVehicles = new CustomArrayList<>(); // Partidas do passo, reaproveitada
+    private final AllocationProbe allocationProbe; // null se Configuration.allocationProbe for falso
+    private final ForkJoinPool vehicleUpdatePool; // Primeira fase de moveVehicles em paralelo (null = serial)
+    private RegionParallelStepper regionStepper; // Passo por regiões do mapa, criado em run() (null = moveVehicles)
     private double time;
+    private long wallClockNanos; // Duração real do último run(), para a velocidade em segundos simulados por segundo real
     private volatile boolean running = true;
     private boolean generationStopped = false; // Adicione esta flag
 
+    // Efeitos do passo de cada veículo sobre estado compartilhado, anotados por posição e aplicados em ordem
+    static final int VEHICLE_UPDATE_CHUNK = 4096; // Posições por tarefa na atualização paralela
+    private static final byte EFFECT_NONE = 0;
+    private static final byte EFFECT_QUEUE = 1;   // Entra na fila do semáforo (pendingLights/pendingApproaches)
+    private static final byte EFFECT_MESSAGE = 2; // Mensagem de erro (pendingMessages)
+    private static final byte EFFECT_ABORT = 3;   // Mensagem de erro que interrompe a simulação
+    private byte[] pendingEffects = new byte[0];
+    private TrafficLight[] pendingLights = new TrafficLight[0];
+    private String[] pendingApproaches = new String[0];
+    private String[] pendingMessages = new String[0];
+
     public Simulator(Graph graph, Configuration config) {
-        this.graph = graph;
         this.config = config;
-        this.vehicles = new CustomLinkedList<>();
+        this.graph = graph;
+        validateGraph();
+        graph = checkStrongConnectivity();
+        this.graph = graph;
         this.stats = new Statistics();
-        this.generator = new VehicleGenerator(graph, config.getVehicleGenerationRate());
+        this.routePlanner = new RoutePlanner(graph, config);
+        this.random = (config.getRandomSeed() != null) ? new Random(config.getRandomSeed()) : new Random();
+        // Semente própria do gerador, derivada da configurada, para as viagens não dependerem dos sorteios do Simulator
+        Long generatorSeed = (config.getRandomSeed() != null) ? config.getRandomSeed() * 31 + 17 : null;
+        this.generator = new VehicleGenerator(graph, config.getVehicleGenerationRate(), routePlanner, generatorSeed);
+        this.vehiclePool = (config.getVehiclePoolCapacity() > 0) ? new VehiclePool(config.getVehiclePoolCapacity()) : null;
+        generator.setVehiclePool(vehiclePool);
+        generator.setVerbose(config.isVerboseLogging());
+        this.allocationProbe = config.isAllocationProbe() ? new AllocationProbe() : null;
+        this.tripPipeline = config.isAsyncTripPipeline() ? new TripPipeline(generator, config) : null;
+        this.vehicleUpdatePool = (config.getVehicleUpdateParallelism() > 1) ? new ForkJoinPool(config.getVehicleUpdateParallelism()) : null;
         this.time = 0.0;
         // this.generationStopped = false; // Inicializada na declaração do campo
 
-        validateGraph();
-        if (!isGraphConnected()) {
-            throw new IllegalStateException("Erro: O grafo não está totalmente conectado. Nem todos os nós podem ser alcançados.");
+        this.topology = graph.freeze();
+        VehicleColumns columns = config.isOffHeapVehicleState()
+                ? new OffHeapVehicleColumns(1024)
+                : new HeapVehicleColumns(1024);
+        this.vehicleStore = new VehicleStore(topology, columns);
+        this.trafficLightsByNode = new TrafficLight[topology.getNodeCount()];
+        for (int node = 0; node < trafficLightsByNode.length; node++) {
+            trafficLightsByNode[node] = graph.getTrafficLight(topology.getNodeId(node));
+        }
+        CustomArrayList<TrafficLight> lights = new CustomArrayList<>();
+        if (graph.getTrafficLights() != null) {
+            for (TrafficLight tl : graph.getTrafficLights()) {
+                if (tl != null) lights.add(tl);
+            }
+        }
+        this.trafficLights = new TrafficLight[lights.size()];
+        for (int i = 0; i < trafficLights.length; i++) {
+            trafficLights[i] = lights.get(i);
         }
+        this.edgeTravelTimes = new double[topology.getEdgeCount()];
+        configureDemandZones();
+    }
+
+    // Configuration.partitionRegions > 1 (chamado em run()): divide o mapa por bissecção de coordenadas e sobe uma thread por região
+    private RegionParallelStepper createRegionStepper() {
+        int regions = config.getPartitionRegions();
+        if (regions <= 1) return null;
+        if (config.getSimulationEngine() == SimulationEngine.DISCRETE_EVENT) {
+            System.err.println("SIMULATOR_PARTITION: Aviso: a divisão em regiões só vale para o motor por passos; ignorada no motor de eventos discretos.");
+            return null;
+        }
+        GraphPartition partition = GraphPartition.recursiveCoordinateBisection(topology, regions);
+        System.out.println("SIMULATOR_PARTITION: " + partition.describe());
+        if (config.isVerboseLogging()) {
+            System.out.print(partition.describeRegions());
+        }
+        RegionParallelStepper stepper = new RegionParallelStepper(this, vehicleStore, topology, partition, trafficLights, config.isPeakHour());
+        for (int slot = 0; slot < vehicleStore.getSlotLimit(); slot++) {
+            if (vehicleStore.isActive(slot)) stepper.adopt(slot); // Veículos colocados antes de run()
+        }
+        return stepper;
+    }
+
+    // Zonas de demanda da Configuration: os nós de cada círculo saem do índice espacial, uma única vez
+    private void configureDemandZones() {
+        int[] origins = zoneNodes("origem", config.getOriginZoneLatitude(), config.getOriginZoneLongitude(), config.getOriginZoneRadiusMeters());
+        int[] destinations = zoneNodes("destino", config.getDestinationZoneLatitude(), config.getDestinationZoneLongitude(), config.getDestinationZoneRadiusMeters());
+        generator.setDemandZones(origins, destinations);
+    }
+
+    private int[] zoneNodes(String label, double latitude, double longitude, double radiusMeters) {
+        if (radiusMeters <= 0) return null;
+        int[] nodes = topology.getSpatialGrid().withinRadius(latitude, longitude, radiusMeters);
+        if (nodes.length == 0) {
+            System.err.println("SIMULATOR_DEMAND_ZONE: Nenhum nó a " + radiusMeters + " m de (" + latitude + ", " + longitude + "); zona de " + label + " ignorada.");
+            return null;
+        }
+        System.out.println("SIMULATOR_DEMAND_ZONE: Zona de " + label + " com " + nodes.length + " nós a até " + radiusMeters + " m de (" + latitude + ", " + longitude + ").");
+        return nodes;
     }
 
     @Override
     public void run() {
         System.out.println("SIMULATOR_RUN: Iniciando loop de simulação. Duração: " + config.getSimulationDuration() + "s");
         double deltaTime = 1.0; // Passo de simulação em segundos
+        long startNanos = System.nanoTime();
+        if (tripPipeline != null) {
+            tripPipeline.start(); // Começa a preparar as viagens dos próximos passos
+        }
+        regionStepper = createRegionStepper();
+
+        if (config.getSimulationEngine() == SimulationEngine.DISCRETE_EVENT) {
+            new DiscreteEventEngine(this, config, topology, vehicleStore, trafficLights, trafficLightsByNode, stats, vehiclePool).run();
+        } else {
+            runTimeSteps(deltaTime);
+        }
+        wallClockNanos = System.nanoTime() - startNanos;
+        System.out.println("SIMULATOR_RUN: Loop de simulação terminado. Tempo final: " + String.format("%.2f", time)
+                + String.format(" (%.2f s reais, %.1f s simulados por segundo real)", getWallClockSeconds(), getSimulationSpeed()));
+        stats.printSummary();
+        routePlanner.printSummary();
+        if (vehiclePool != null) {
+            vehiclePool.printSummary();
+        }
+        if (allocationProbe != null) {
+            allocationProbe.printSummary();
+        }
+        writeVehicleStateSnapshot();
+        if (tripPipeline != null) {
+            tripPipeline.stop();
+            tripPipeline.printSummary();
+        }
+        routePlanner.shutdown();
+        if (vehicleUpdatePool != null) {
+            vehicleUpdatePool.shutdown();
+        }
+        if (regionStepper != null) {
+            regionStepper.printSummary();
+            regionStepper.shutdown();
+        }
+    }
 
+    // Motor por passos: a cada segundo simulado, partidas, todos os semáforos, todos os veículos e o congestionamento
+    private void runTimeSteps(double deltaTime) {
         while (running && time < config.getSimulationDuration()) {
             time += deltaTime;
             stats.updateCurrentTime(time);
@@ -57,17 +193,73 @@ public class Simulator implements Runnable {
             }
             // A CHAMADA EXTRA E INCONDICIONAL A generateVehicles(deltaTime); FOI REMOVIDA DAQUI
 
-            updateTrafficLights(deltaTime);
-            moveVehicles(deltaTime);
-            logSimulationState();
-            stats.calculateCurrentCongestion(this.vehicles, this.graph);
+            // O crescimento dos buffers de efeitos acompanha as posições criadas pela geração e fica fora da medição
+            ensureEffectCapacity(vehicleStore.getSlotLimit());
+            if (allocationProbe != null) allocationProbe.begin();
+            if (regionStepper != null) {
+                refreshEdgeTravelTimes();
+                regionStepper.step(deltaTime);
+            } else {
+                updateTrafficLights(deltaTime);
+                moveVehicles(deltaTime);
+            }
+            stats.calculateCurrentCongestion(vehicleStore.getActiveCount(), topology.getNodeCount(), countQueuedVehicles());
+            if (allocationProbe != null) allocationProbe.end();
+            if (config.isVerboseLogging()) {
+                logSimulationState();
+            }
 
-            if (running) {
+            if (running && config.isRealTimePacing()) {
                 sleep(deltaTime);
             }
         }
-        System.out.println("SIMULATOR_RUN: Loop de simulação terminado. Tempo final: " + String.format("%.2f", time));
-        stats.printSummary();
+    }
+
+    // Grava o estado dos veículos ainda em circulação, se Configuration.vehicleStateSnapshotFile estiver definido
+    private void writeVehicleStateSnapshot() {
+        String file = config.getVehicleStateSnapshotFile();
+        if (file == null || file.isBlank()) return;
+        try {
+            long bytes = vehicleStore.writeSnapshot(Path.of(file));
+            System.out.println("SIMULATOR_SNAPSHOT: Estado de " + vehicleStore.getActiveCount() + " veículos gravado em " + file + " (" + bytes + " bytes).");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("SIMULATOR_SNAPSHOT: Falha ao gravar o estado dos veículos em " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Relógio da simulação, avançado pelo DiscreteEventEngine (no motor por passos, pelo próprio loop)
+    void setSimulationTime(double time) {
+        this.time = time;
+        stats.updateCurrentTime(time);
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    // Interrompe o loop por erro de consistência (sem a mensagem de parada pedida pelo usuário)
+    void abort() {
+        this.running = false;
+    }
+
+    // Tempos de viagem atuais por posição CSR da aresta
+    double[] getEdgeTravelTimes() {
+        refreshEdgeTravelTimes();
+        return edgeTravelTimes;
+    }
+
+    public double getSimulationTime() {
+        return time;
+    }
+
+    // Duração real do último run() em segundos (0 antes de terminar)
+    public double getWallClockSeconds() {
+        return wallClockNanos / 1e9;
+    }
+
+    // Segundos simulados por segundo real no último run()
+    public double getSimulationSpeed() {
+        return (wallClockNanos > 0) ? time / getWallClockSeconds() : 0.0;
     }
 
     public void stopSimulation() {
@@ -82,103 +274,202 @@ public class Simulator implements Runnable {
         System.out.println("Grafo validado com sucesso! Nós carregados: " + graph.getNodes().size());
     }
 
-    private boolean isGraphConnected() {
-        if (graph == null || graph.getNodes() == null || graph.getNodes().isEmpty()) {
-            System.out.println("BFS: Grafo nulo ou sem nós.");
-            return false;
+    /**
+     * Componentes fortemente conexas do mapa (Tarjan, O(V + E)). Com mais de uma componente há pares de nós sem
+     * caminho entre si (ex.: ruas de mão única sem saída); com Configuration.pruneToLargestComponent a simulação
+     * passa a usar só a maior componente, senão apenas avisa.
+     *
+     * @return o grafo a simular: o original, ou o recortado na maior componente.
+     */
+    private Graph checkStrongConnectivity() {
+        StronglyConnectedComponents components = new StronglyConnectedComponents(graph.freeze());
+        System.out.println("SIMULATOR_SCC: " + components.describe(5));
+        if (components.isStronglyConnected()) {
+            return graph;
         }
-        CustomLinkedList<String> visited = new CustomLinkedList<>();
-        CustomLinkedList<String> queue = new CustomLinkedList<>();
-
-        Node startNode = graph.getNodes().get(0);
-        if (startNode == null) {
-            System.out.println("BFS: Primeiro nó do grafo é nulo!");
-            return false;
+        if (!config.isPruneToLargestComponent()) {
+            System.err.println("SIMULATOR_SCC: Aviso: o grafo não é fortemente conexo; viagens entre componentes diferentes não terão rota. "
+                    + "Ative Configuration.pruneToLargestComponent para simular só a maior componente.");
+            return graph;
         }
+        Graph pruned = graph.inducedSubgraph(components.largestComponentMask());
+        System.out.println("SIMULATOR_SCC: Grafo recortado na maior componente: " + pruned.getNodes().size() + " nós, "
+                + pruned.getEdges().size() + " arestas, " + pruned.getTrafficLights().size() + " semáforos (removidos "
+                + (graph.getNodes().size() - pruned.getNodes().size()) + " nós).");
+        return pruned;
+    }
 
-        queue.add(startNode.getId());
-        visited.add(startNode.getId());
-
-        int iterations = 0;
-        int maxIterations = graph.getNodes().size();
-
-        while (!queue.isEmpty() && iterations < maxIterations) {
-            iterations++;
-            String currentNodeId = queue.removeFirst();
-            Node currentNodeObject = graph.getNode(currentNodeId);
+    // Grafo simulado: difere do recebido no construtor quando foi recortado na maior componente
+    public Graph getGraph() {
+        return graph;
+    }
 
-            if (currentNodeObject != null && currentNodeObject.getEdges() != null) {
-                for (Edge edge : currentNodeObject.getEdges()) {
-                    if (edge == null) continue;
-                    String neighborId = edge.getDestination();
-                    if (neighborId != null && !neighborId.isEmpty() && !visited.contains(neighborId)) {
-                        visited.add(neighborId);
-                        queue.add(neighborId);
-                    }
-                }
-            }
+    private void generateVehicles(double deltaTime) {
+        collectDepartures(deltaTime, readyVehicles);
+        for (int i = 0; i < readyVehicles.size(); i++) {
+            addVehicle(readyVehicles.get(i));
         }
-        boolean connected = visited.size() == graph.getNodes().size();
-        System.out.println("BFS RESULTADO: Nós visitados: " + visited.size() + " de " + graph.getNodes().size() + ". Grafo conectado: " + connected);
-        return connected;
+        readyVehicles.clear();
     }
 
-    private void generateVehicles(double deltaTime) {
+    /**
+     * Veículos que partem no passo atual (instante {@code time}), já roteados, acrescentados em departures: os do
+     * pipeline com partida até agora, ou os sorteados e roteados aqui quando não há pipeline. Usado também pelo
+     * {@link DiscreteEventEngine}.
+     */
+    void collectDepartures(double deltaTime, CustomArrayList<Vehicle> departures) {
+        if (tripPipeline != null) {
+            // Veículos já roteados pela thread do pipeline, com partida até o instante atual
+            tripPipeline.collectReady(time, departures);
+            return;
+        }
         double numExpectedVehicles = deltaTime * config.getVehicleGenerationRate();
         int numToGenerate = (int) numExpectedVehicles;
-        if (Math.random() < (numExpectedVehicles - numToGenerate)) {
+        if (random.nextDouble() < (numExpectedVehicles - numToGenerate)) {
             numToGenerate++;
         }
 
-        for (int i = 0; i < numToGenerate; i++) {
-            int vehicleId = stats.getTotalVehiclesGenerated() + 1;
-            Vehicle vehicle = generator.generateVehicle(vehicleId);
+        if (numToGenerate == 0) return;
 
-            if (vehicle != null) {
-                vehicles.add(vehicle);
-                stats.vehicleGenerated();
-            }
+        // As rotas do lote são calculadas juntas (em paralelo, conforme Configuration.routeExecutorType)
+        int firstVehicleId = stats.getTotalVehiclesGenerated() + departures.size() + 1;
+        for (Vehicle vehicle : generator.generateVehicles(firstVehicleId, numToGenerate)) {
+            departures.add(vehicle);
         }
     }
 
+    // Coloca o veículo em circulação: o estado passa para as colunas da VehicleStore. Devolve a posição ocupada
+    public int addVehicle(Vehicle vehicle) {
+        if (vehicle == null) return -1;
+        int slot = vehicleStore.add(vehicle);
+        stats.vehicleGenerated();
+        if (regionStepper != null) {
+            regionStepper.adopt(slot);
+        }
+        return slot;
+    }
+
     private void updateTrafficLights(double deltaTime) {
-        if (graph.getTrafficLights() == null) return;
-        for (TrafficLight tl : graph.getTrafficLights()) {
-            if (tl != null) {
-                tl.update(deltaTime, config.isPeakHour());
-            }
+        boolean peakHour = config.isPeakHour();
+        for (TrafficLight tl : trafficLights) {
+            tl.update(deltaTime, peakHour);
         }
     }
 
+    // Veículos parados nas filas de todos os semáforos
+    private int countQueuedVehicles() {
+        int total = 0;
+        for (TrafficLight tl : trafficLights) {
+            total += tl.getTotalVehiclesInQueues();
+        }
+        return total;
+    }
+
+    /**
+     * Atualiza os veículos em duas fases. Na primeira, cada veículo calcula o seu passo lendo só os semáforos (já
+     * atualizados neste passo), a topologia e os tempos de viagem, e escreve só na sua posição da VehicleStore; o que
+     * afeta estado compartilhado (entrada na fila de um semáforo, mensagens de erro) fica anotado na posição. Na
+     * segunda, as anotações e as chegadas (estatísticas, liberação da posição, pool) são aplicadas em ordem de
+     * posição. Com Configuration.vehicleUpdateParallelism > 1, a primeira fase roda em blocos de posições num
+     * ForkJoinPool; como nenhum veículo lê o estado de outro no mesmo passo e a segunda fase é sempre serial, o
+     * resultado é idêntico bit a bit ao do modo serial para a mesma semente. A única diferença: se um erro de
+     * consistência interromper a simulação no meio do passo, no modo paralelo os veículos das posições seguintes já
+     * terão avançado esse passo (as estatísticas não mudam, pois as suas chegadas não são aplicadas).
+     */
     private void moveVehicles(double deltaTime) {
-        CustomLinkedList<Vehicle> vehiclesStillActive = new CustomLinkedList<>();
-        for (Vehicle vehicle : vehicles) {
-            if (vehicle == null) continue;
-            updateVehicle(vehicle, deltaTime);
-
-            if (running && vehicle.getCurrentNode().equals(vehicle.getDestination()) && vehicle.getPosition() == 0.0) {
-                stats.vehicleArrived(vehicle.getTravelTime(), vehicle.getWaitTime(), vehicle.getFuelConsumed());
-            } else if (running) {
-                vehiclesStillActive.add(vehicle);
+        refreshEdgeTravelTimes();
+        int slotLimit = vehicleStore.getSlotLimit();
+        if (vehicleUpdatePool == null || slotLimit < 2 * VEHICLE_UPDATE_CHUNK) {
+            for (int slot = 0; slot < slotLimit && running; slot++) { // Simulação interrompida: os restantes ficam como estão
+                if (!vehicleStore.isActive(slot)) continue;
+                updateVehicle(slot, deltaTime);
+                commitVehicle(slot);
             }
+            return;
         }
-        if (running) {
-            vehicles = vehiclesStillActive;
+        int chunks = (slotLimit + VEHICLE_UPDATE_CHUNK - 1) / VEHICLE_UPDATE_CHUNK;
+        // Um stream paralelo submetido a um ForkJoinPool roda nos workers desse pool (como em RouteBatchExecutor)
+        vehicleUpdatePool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(slotLimit, (chunk + 1) * VEHICLE_UPDATE_CHUNK);
+            for (int slot = chunk * VEHICLE_UPDATE_CHUNK; slot < end; slot++) {
+                if (vehicleStore.isActive(slot)) updateVehicle(slot, deltaTime);
+            }
+        })).join();
+        for (int slot = 0; slot < slotLimit && running; slot++) {
+            if (!vehicleStore.isActive(slot)) continue;
+            commitVehicle(slot);
         }
     }
 
-    private String determineCardinalDirection(String fromNodeId, String toNodeId) {
-        if (fromNodeId == null || toNodeId == null || fromNodeId.equals(toNodeId)) {
-            return "unknown";
+    // Segunda fase do passo de um veículo: efeito anotado na primeira fase e, se chegou, a saída da simulação
+    void commitVehicle(int slot) {
+        byte effect = pendingEffects[slot];
+        if (effect != EFFECT_NONE) {
+            pendingEffects[slot] = EFFECT_NONE;
+            if (effect == EFFECT_QUEUE) {
+                pendingLights[slot].addVehicleToQueue(pendingApproaches[slot], vehicleStore.getVehicle(slot));
+                pendingLights[slot] = null;
+                pendingApproaches[slot] = null;
+            } else {
+                System.err.println(pendingMessages[slot]);
+                pendingMessages[slot] = null;
+                if (effect == EFFECT_ABORT) {
+                    this.running = false;
+                    return;
+                }
+            }
         }
-        Node fromNode = graph.getNode(fromNodeId);
-        Node toNode = graph.getNode(toNodeId);
-        if (fromNode == null || toNode == null) {
-            return "unknown";
+        if (running && vehicleStore.hasArrived(slot)) {
+            stats.vehicleArrived(vehicleStore.getTravelTime(slot), vehicleStore.getWaitTime(slot), vehicleStore.getFuelConsumed(slot));
+            Vehicle arrived = vehicleStore.release(slot);
+            if (vehiclePool != null) {
+                vehiclePool.release(arrived); // O objeto volta para o gerador; nenhuma referência a ele fica aqui
+            }
+        }
+    }
+
+    boolean hasPendingEffect(int slot) {
+        return pendingEffects[slot] != EFFECT_NONE;
+    }
+
+    private void deferQueueEntry(int slot, TrafficLight tl, String approachDirection) {
+        pendingEffects[slot] = EFFECT_QUEUE;
+        pendingLights[slot] = tl;
+        pendingApproaches[slot] = approachDirection;
+    }
+
+    // Mensagem de erro do veículo; fatal interrompe a simulação quando aplicada
+    private void deferMessage(int slot, String message, boolean fatal) {
+        pendingEffects[slot] = fatal ? EFFECT_ABORT : EFFECT_MESSAGE;
+        pendingMessages[slot] = message;
+    }
+
+    private void ensureEffectCapacity(int slotLimit) {
+        if (slotLimit <= pendingEffects.length) return;
+        int capacity = Math.max(slotLimit, pendingEffects.length * 2);
+        pendingEffects = Arrays.copyOf(pendingEffects, capacity);
+        pendingLights = Arrays.copyOf(pendingLights, capacity);
+        pendingApproaches = Arrays.copyOf(pendingApproaches, capacity);
+        pendingMessages = Arrays.copyOf(pendingMessages, capacity);
+    }
+
+    // Copia os tempos de viagem das arestas para um array indexado pela posição CSR, só quando algum deles mudou
+    void refreshEdgeTravelTimes() {
+        long version = graph.getWeightVersion();
+        if (version == edgeTravelTimesVersion) return;
+        for (int edge = 0; edge < edgeTravelTimes.length; edge++) {
+            edgeTravelTimes[edge] = topology.getEdge(edge).getTravelTime();
         }
+        edgeTravelTimesVersion = version;
+    }
 
-        double deltaLat = toNode.getLatitude() - fromNode.getLatitude();
-        double deltaLon = toNode.getLongitude() - fromNode.getLongitude();
+    // Direção cardeal de fromNode para toNode pelas coordenadas da topologia congelada (índices densos dos nós)
+    String determineCardinalDirection(int fromNode, int toNode) {
+        if (fromNode < 0 || toNode < 0 || fromNode == toNode) {
+            return "unknown";
+        }
+        double deltaLat = topology.getLatitude(toNode) - topology.getLatitude(fromNode);
+        double deltaLon = topology.getLongitude(toNode) - topology.getLongitude(fromNode);
         double absDeltaLat = Math.abs(deltaLat);
         double absDeltaLon = Math.abs(deltaLon);
         double threshold = 0.000001;
@@ -191,137 +482,128 @@ public class Simulator implements Runnable {
         return "unknown";
     }
 
-    private void updateVehicle(Vehicle vehicle, double deltaTime) {
+    // Passo de um veículo sobre as colunas da VehicleStore: nós e arestas são índices da topologia congelada
+    void updateVehicle(int slot, double deltaTime) {
         if (!running) return;
 
-        vehicle.incrementTravelTime(deltaTime);
+        VehicleStore store = vehicleStore;
+        store.addTravelTime(slot, deltaTime);
         boolean vehicleIsMoving = false;
+        int currentNode = store.getCurrentNode(slot);
+        int nextNode = store.getNextNode(slot);
+        int destinationNode = store.getDestinationNode(slot);
 
-        if (vehicle.getPosition() == 0.0) {
-            String currentVehicleNodeId = vehicle.getCurrentNode();
-            String previousNodeIdInRoute = getPreviousNodeInRoute(vehicle);
-
-            TrafficLight tl = getTrafficLight(currentVehicleNodeId);
-
-            /*
-            if (tl != null && config.getRedirectThreshold() > 0) {
-                redirectIfNeeded(vehicle, currentVehicleNodeId, graph);
-            }
-             */
-
-            String nextNodeIdInRoute = getNextNodeInRoute(vehicle);
+        if (store.getPosition(slot) == 0.0) {
+            TrafficLight tl = (currentNode >= 0) ? trafficLightsByNode[currentNode] : null;
 
-            if (nextNodeIdInRoute == null) {
-                if(!currentVehicleNodeId.equals(vehicle.getDestination())){
-                    System.err.println("UPDATE_VEHICLE: Veículo " + vehicle.getId() + " em " + currentVehicleNodeId + " sem próximo nó, mas não está no destino " + vehicle.getDestination() + ". Rota: " + vehicle.getRoute());
+            if (nextNode < 0) {
+                if (currentNode != destinationNode) {
+                    Vehicle vehicle = store.getVehicle(slot);
+                    deferMessage(slot, "UPDATE_VEHICLE: Veículo " + vehicle.getId() + " em " + vehicle.getCurrentNode() + " sem próximo nó, mas não está no destino " + vehicle.getDestination() + ". Rota: " + describeRoute(vehicle), false);
                 }
-                vehicle.incrementFuelConsumption(vehicle.getFuelConsumptionRateIdle() * deltaTime);
+                store.addFuel(slot, store.getFuelRateIdle(slot) * deltaTime);
                 return;
             }
 
             if (tl != null) {
-                String approachToLightDirection = "unknown";
-                if (previousNodeIdInRoute != null) {
-                    approachToLightDirection = determineCardinalDirection(previousNodeIdInRoute, currentVehicleNodeId);
-                } else {
-                    approachToLightDirection = determineCardinalDirection(currentVehicleNodeId, nextNodeIdInRoute);
-                }
+                int previousNode = store.getPreviousNode(slot);
+                String approachToLightDirection = (previousNode >= 0)
+                        ? determineCardinalDirection(previousNode, currentNode)
+                        : determineCardinalDirection(currentNode, nextNode);
 
                 String lightState = tl.getLightStateForApproach(approachToLightDirection);
 
                 if (!"green".equalsIgnoreCase(lightState)) {
-                    vehicle.incrementWaitTime(deltaTime);
-                    vehicle.incrementFuelConsumption(vehicle.getFuelConsumptionRateIdle() * deltaTime);
-                    tl.addVehicleToQueue(approachToLightDirection, vehicle);
+                    store.addWaitTime(slot, deltaTime);
+                    store.addFuel(slot, store.getFuelRateIdle(slot) * deltaTime);
+                    store.setFlag(slot, VehicleStore.WAITING, true);
+                    store.setFlag(slot, VehicleStore.MOVING, false);
+                    deferQueueEntry(slot, tl, approachToLightDirection);
                     return;
                 }
             }
 
-            Edge edgeToTraverse = findEdge(currentVehicleNodeId, nextNodeIdInRoute);
-            if (edgeToTraverse == null) {
-                System.err.println("UPDATE_VEHICLE (EM NÓ): Veículo " + vehicle.getId() + " no nó " + currentVehicleNodeId +
-                        ". Não foi possível encontrar a aresta para o PRÓXIMO nó da rota: " + nextNodeIdInRoute +
-                        ". Rota: " + (vehicle.getRoute() != null ? vehicle.getRoute().toString() : "NULA"));
-                this.running = false;
+            int edgeToTraverse = topology.findEdge(currentNode, nextNode);
+            if (edgeToTraverse < 0) {
+                Vehicle vehicle = store.getVehicle(slot);
+                deferMessage(slot, "UPDATE_VEHICLE (EM NÓ): Veículo " + vehicle.getId() + " no nó " + vehicle.getCurrentNode() +
+                        ". Não foi possível encontrar a aresta para o PRÓXIMO nó da rota: " + topology.getNodeId(nextNode) +
+                        ". Rota: " + describeRoute(vehicle), true);
                 return;
             }
-            double edgeTravelTime = edgeToTraverse.getTravelTime();
+            double edgeTravelTime = edgeTravelTimes[edgeToTraverse];
             if (edgeTravelTime <= 0) edgeTravelTime = deltaTime;
 
-            vehicle.setPosition(deltaTime / edgeTravelTime);
+            double position = deltaTime / edgeTravelTime;
+            store.setCurrentEdge(slot, edgeToTraverse); // Os próximos passos usam a aresta diretamente
             vehicleIsMoving = true;
 
-            if (vehicle.getPosition() >= 1.0) {
-                vehicle.setCurrentNode(nextNodeIdInRoute);
-                vehicle.setPosition(0.0);
+            if (position >= 1.0) {
+                store.advance(slot, nextNode);
+                position = 0.0;
                 vehicleIsMoving = false;
             }
+            store.setPosition(slot, position);
 
         } else {
             vehicleIsMoving = true;
-            String sourceNodeOfCurrentSegment = vehicle.getCurrentNode();
-            String targetNodeOfCurrentSegment = getNextNodeInRoute(vehicle);
 
-            if (targetNodeOfCurrentSegment == null) {
-                System.err.println("UPDATE_VEHICLE (EM ARESTA): Veículo " + vehicle.getId() + " na aresta de " + sourceNodeOfCurrentSegment +
-                        " mas getNextNodeInRoute é nulo. Posição: " + String.format("%.2f",vehicle.getPosition()));
-                vehicle.setPosition(0.0);
-                vehicleIsMoving = false;
-                if (!sourceNodeOfCurrentSegment.equals(vehicle.getDestination())) {
-                    System.err.println("    Veículo " + vehicle.getId() + " parou em " + sourceNodeOfCurrentSegment + " pois a rota terminou inesperadamente.");
-                }
-                if (!vehicle.getCurrentNode().equals(vehicle.getDestination())) {
-                    vehicle.incrementFuelConsumption(vehicle.getFuelConsumptionRateIdle() * deltaTime);
+            if (nextNode < 0) {
+                Vehicle vehicle = store.getVehicle(slot);
+                String message = "UPDATE_VEHICLE (EM ARESTA): Veículo " + vehicle.getId() + " na aresta de " + vehicle.getCurrentNode() +
+                        " mas getNextNodeInRoute é nulo. Posição: " + String.format("%.2f", store.getPosition(slot));
+                store.setPosition(slot, 0.0);
+                store.setCurrentEdge(slot, -1);
+                store.setFlag(slot, VehicleStore.MOVING, false);
+                if (currentNode != destinationNode) {
+                    message += System.lineSeparator() + "    Veículo " + vehicle.getId() + " parou em " + vehicle.getCurrentNode() + " pois a rota terminou inesperadamente.";
+                    store.addFuel(slot, store.getFuelRateIdle(slot) * deltaTime);
                 }
+                deferMessage(slot, message, false);
                 return;
             }
 
-            Edge currentEdge = findEdge(sourceNodeOfCurrentSegment, targetNodeOfCurrentSegment);
-            if (currentEdge == null) {
-                System.err.println("UPDATE_VEHICLE (EM ARESTA): Veículo " + vehicle.getId() +
-                        ". Não foi possível encontrar a aresta entre " + sourceNodeOfCurrentSegment + " e " + targetNodeOfCurrentSegment);
-                this.running = false;
+            // Aresta guardada ao sair do nó; a busca só ocorre se ela não foi definida
+            int currentEdge = store.getCurrentEdge(slot);
+            if (currentEdge < 0) {
+                currentEdge = topology.findEdge(currentNode, nextNode);
+                store.setCurrentEdge(slot, currentEdge);
+            }
+            if (currentEdge < 0) {
+                deferMessage(slot, "UPDATE_VEHICLE (EM ARESTA): Veículo " + store.getVehicle(slot).getId() +
+                        ". Não foi possível encontrar a aresta entre " + topology.getNodeId(currentNode) + " e " + topology.getNodeId(nextNode), true);
                 return;
             }
-            double edgeTravelTime = currentEdge.getTravelTime();
+            double edgeTravelTime = edgeTravelTimes[currentEdge];
             if (edgeTravelTime <= 0) edgeTravelTime = deltaTime;
 
-            vehicle.setPosition(vehicle.getPosition() + (deltaTime / edgeTravelTime));
+            double position = store.getPosition(slot) + (deltaTime / edgeTravelTime);
 
-            if (vehicle.getPosition() >= 1.0) {
-                vehicle.setCurrentNode(targetNodeOfCurrentSegment);
-                vehicle.setPosition(0.0);
+            if (position >= 1.0) {
+                store.advance(slot, nextNode);
+                position = 0.0;
                 vehicleIsMoving = false;
             }
+            store.setPosition(slot, position);
         }
 
+        store.setFlag(slot, VehicleStore.WAITING, false);
+        store.setFlag(slot, VehicleStore.MOVING, vehicleIsMoving);
         if (vehicleIsMoving) {
-            vehicle.incrementFuelConsumption(vehicle.getFuelConsumptionRateMoving() * deltaTime);
+            store.addFuel(slot, store.getFuelRateMoving(slot) * deltaTime);
         } else {
-            if (!vehicle.getCurrentNode().equals(vehicle.getDestination()) || vehicle.getPosition() > 0) {
-                vehicle.incrementFuelConsumption(vehicle.getFuelConsumptionRateIdle() * deltaTime);
-            }
-        }
-    }
-
-    private Edge findEdge(String sourceNodeId, String targetNodeId) {
-        if (sourceNodeId == null || targetNodeId == null) return null;
-        Node sourceNode = graph.getNode(sourceNodeId);
-        if (sourceNode == null || sourceNode.getEdges() == null) return null;
-        for (Edge edge : sourceNode.getEdges()) {
-            if (edge != null && edge.getDestination() != null && edge.getDestination().equals(targetNodeId)) {
-                return edge;
+            if (store.getCurrentNode(slot) != destinationNode || store.getPosition(slot) > 0) {
+                store.addFuel(slot, store.getFuelRateIdle(slot) * deltaTime);
             }
         }
-        return null;
     }
 
     private void logSimulationState() {
-        System.out.println("Tempo: " + String.format("%.2f", time) + "s, Veículos: " + (vehicles != null ? vehicles.size() : 0) +
+        System.out.println("Tempo: " + String.format("%.2f", time) + "s, Veículos: " + vehicleStore.getActiveCount() +
                 ", Congestionamento: " + String.format("%.0f", stats.getCurrentCongestionIndex()));
     }
 
-    private void sleep(double deltaTime) {
+    void sleep(double deltaTime) {
         try {
             Thread.sleep((long) (deltaTime * 10));
         } catch (InterruptedException e) {
@@ -331,18 +613,18 @@ public class Simulator implements Runnable {
         }
     }
 
-    private void redirectIfNeeded(Vehicle vehicle, String trafficLightNodeId, Graph graph) {
-        if (vehicle == null || trafficLightNodeId == null || graph == null || config == null || config.getRedirectThreshold() <= 0) {
+    private void redirectIfNeeded(Vehicle vehicle, int trafficLightNode) {
+        if (vehicle == null || trafficLightNode < 0 || config == null || config.getRedirectThreshold() <= 0) {
             return;
         }
 
-        TrafficLight tl = getTrafficLight(trafficLightNodeId);
+        TrafficLight tl = trafficLightsByNode[trafficLightNode];
         if (tl == null) return;
 
-        String nextNodeInOriginalRoute = getNextNodeInRoute(vehicle);
-        if (nextNodeInOriginalRoute == null) return;
+        int nextNodeInOriginalRoute = vehicle.hasRoute() ? vehicle.getNextNodeIndex() : -1;
+        if (nextNodeInOriginalRoute < 0) return;
 
-        String currentRouteOutgoingDirection = determineCardinalDirection(trafficLightNodeId, nextNodeInOriginalRoute);
+        String currentRouteOutgoingDirection = determineCardinalDirection(trafficLightNode, nextNodeInOriginalRoute);
         if ("unknown".equals(currentRouteOutgoingDirection)) return;
 
         Integer currentDirectionIndex = tl.getDirectionIndex(currentRouteOutgoingDirection);
@@ -351,13 +633,14 @@ public class Simulator implements Runnable {
         if (currentDirectionIndex != null && currentDirectionIndex >= 0 && currentDirectionIndex < queueSizes.length &&
                 queueSizes[currentDirectionIndex] > config.getRedirectThreshold()) {
 
-            System.out.println("REDIRECT_IF_NEEDED: Veículo " + vehicle.getId() + " no nó " + trafficLightNodeId +
-                    ". Rota atual via " + currentRouteOutgoingDirection + " (nó " + nextNodeInOriginalRoute + ") congestionada (fila: " + queueSizes[currentDirectionIndex] + "). Procurando alternativa...");
+            System.out.println("REDIRECT_IF_NEEDED: Veículo " + vehicle.getId() + " no nó " + topology.getNodeId(trafficLightNode) +
+                    ". Rota atual via " + currentRouteOutgoingDirection + " (nó " + topology.getNodeId(nextNodeInOriginalRoute) + ") congestionada (fila: " + queueSizes[currentDirectionIndex] + "). Procurando alternativa...");
 
             String bestAlternativeOutgoingDirection = null;
             int minQueueSizeForAlternative = queueSizes[currentDirectionIndex];
-            Node bestAlternativeNextNode = null;
+            int bestAlternativeNextNode = -1;
             String oppositeOfCurrentOutgoing = getOppositeDirection(currentRouteOutgoingDirection);
+            int previousNodeInRoute = vehicle.getPreviousNodeIndex();
 
             String[] tryDirections = {"north", "east", "south", "west"};
 
@@ -366,8 +649,8 @@ public class Simulator implements Runnable {
                         (oppositeOfCurrentOutgoing != null && potentialOutgoingDir.equalsIgnoreCase(oppositeOfCurrentOutgoing))) {
                     continue;
                 }
-                Node potentialNextNode = findNeighborInDirection(trafficLightNodeId, potentialOutgoingDir, graph);
-                if (potentialNextNode != null && (getPreviousNodeInRoute(vehicle) == null || !potentialNextNode.getId().equals(getPreviousNodeInRoute(vehicle)))) {
+                int potentialNextNode = findNeighborInDirection(trafficLightNode, potentialOutgoingDir);
+                if (potentialNextNode >= 0 && potentialNextNode != previousNodeInRoute) {
                     Integer potentialDirIndex = tl.getDirectionIndex(potentialOutgoingDir);
                     if (potentialDirIndex != null && potentialDirIndex >= 0 && potentialDirIndex < queueSizes.length &&
                             queueSizes[potentialDirIndex] < minQueueSizeForAlternative) {
@@ -378,29 +661,26 @@ public class Simulator implements Runnable {
                 }
             }
 
-            if (bestAlternativeNextNode != null) {
+            if (bestAlternativeNextNode >= 0) {
                 System.out.println("  -> Redirecionando Veículo " + vehicle.getId() + " para direção '" + bestAlternativeOutgoingDirection +
-                        "' (nó: " + bestAlternativeNextNode.getId() + ") com fila: " + minQueueSizeForAlternative);
-
-                CustomLinkedList<String> newRouteFromAlternative = Dijkstra.calculateRoute(graph, bestAlternativeNextNode.getId(), vehicle.getDestination());
-
-                if (newRouteFromAlternative != null && !newRouteFromAlternative.isEmpty()) {
-                    CustomLinkedList<String> finalNewRoute = new CustomLinkedList<>();
-                    finalNewRoute.add(trafficLightNodeId);
-                    finalNewRoute.add(bestAlternativeNextNode.getId());
-
-                    boolean firstNodeSkipped = false;
-                    for(String routeNode : newRouteFromAlternative) {
-                        if (!firstNodeSkipped && routeNode.equals(bestAlternativeNextNode.getId())) {
-                            firstNodeSkipped = true;
-                            continue;
-                        }
-                        finalNewRoute.add(routeNode);
+                        "' (nó: " + topology.getNodeId(bestAlternativeNextNode) + ") com fila: " + minQueueSizeForAlternative);
+
+                int destinationNode = topology.indexOf(vehicle.getDestination());
+                RouteResult newRouteFromAlternative = (destinationNode >= 0)
+                        ? routePlanner.findRoute(bestAlternativeNextNode, destinationNode)
+                        : null;
+
+                if (newRouteFromAlternative != null && newRouteFromAlternative.isFound()) {
+                    // Nova rota: semáforo atual seguido da rota a partir do vizinho alternativo (que já começa nele)
+                    int[] finalNewRoute = new int[newRouteFromAlternative.size() + 1];
+                    finalNewRoute[0] = trafficLightNode;
+                    for (int i = 0; i < newRouteFromAlternative.size(); i++) {
+                        finalNewRoute[i + 1] = newRouteFromAlternative.getNode(i);
                     }
                     vehicle.setRoute(finalNewRoute);
-                    System.out.println("  -> Nova rota para V" + vehicle.getId() + ": " + finalNewRoute.toString());
+                    System.out.println("  -> Nova rota para V" + vehicle.getId() + ": " + describeRoute(vehicle));
                 } else {
-                    System.out.println("  -> Não foi possível calcular rota alternativa para Veículo " + vehicle.getId() + " via " + bestAlternativeNextNode.getId());
+                    System.out.println("  -> Não foi possível calcular rota alternativa para Veículo " + vehicle.getId() + " via " + topology.getNodeId(bestAlternativeNextNode));
                 }
             } else {
                 System.out.println("  -> Nenhuma direção alternativa viável encontrada para Veículo " + vehicle.getId());
@@ -420,49 +700,38 @@ public class Simulator implements Runnable {
     }
 
     public TrafficLight getTrafficLight(String nodeId) {
-        if (graph == null || graph.getTrafficLights() == null || nodeId == null) return null;
-        for (TrafficLight tl : graph.getTrafficLights()) {
-            if (tl != null && nodeId.equals(tl.getNodeId())) {
-                return tl;
-            }
-        }
-        return null;
+        if (graph == null || nodeId == null) return null;
+        return graph.getTrafficLight(nodeId); // O(1): referência guardada no nó
     }
 
-    private String getNextNodeInRoute(Vehicle vehicle) {
-        if (vehicle == null || vehicle.getRoute() == null || vehicle.getRoute().isEmpty()) return null;
-        String currentNode = vehicle.getCurrentNode();
-        if (currentNode == null) return null;
-        int currentIndex = vehicle.getRoute().indexOf(currentNode);
-        if (currentIndex == -1 || currentIndex + 1 >= vehicle.getRoute().size()) return null;
-        return vehicle.getRoute().get(currentIndex + 1);
+    private String getNodeIdByIndex(int index) {
+        Node node = graph.getNodeByIndex(index);
+        return (node != null) ? node.getId() : null;
     }
 
-    private String getPreviousNodeInRoute(Vehicle vehicle) {
-        if (vehicle == null || vehicle.getRoute() == null || vehicle.getRoute().isEmpty() || vehicle.getCurrentNode() == null) return null;
-        String currentVehicleNodeId = vehicle.getCurrentNode();
-        int currentIndex = vehicle.getRoute().indexOf(currentVehicleNodeId);
-        if (currentIndex > 0) {
-            return vehicle.getRoute().get(currentIndex - 1);
+    // Rota do veículo como IDs de nós, apenas para logs
+    String describeRoute(Vehicle vehicle) {
+        int[] route = vehicle.getRoute();
+        CustomLinkedList<String> ids = new CustomLinkedList<>();
+        for (int index : route) {
+            ids.add(getNodeIdByIndex(index));
         }
-        return null;
+        return ids.toString();
     }
 
-    private Node findNeighborInDirection(String sourceNodeId, String targetDirection, Graph graph) {
-        Node sourceNode = graph.getNode(sourceNodeId);
-        if (sourceNode == null || sourceNode.getEdges() == null || targetDirection == null || targetDirection.equals("unknown")) {
-            return null;
+    // Vizinho de saída de sourceNode mais alinhado com a direção, pelas arestas CSR (-1 se não houver)
+    private int findNeighborInDirection(int sourceNode, String targetDirection) {
+        if (sourceNode < 0 || targetDirection == null || targetDirection.equals("unknown")) {
+            return -1;
         }
-        Node bestNeighbor = null;
+        int bestNeighbor = -1;
         double bestScore = -Double.MAX_VALUE;
 
-        for (Edge edge : sourceNode.getEdges()) {
-            if (edge == null) continue;
-            Node neighbor = graph.getNode(edge.getDestination());
-            if (neighbor == null) continue;
+        for (int edge = topology.firstEdge(sourceNode), end = topology.lastEdge(sourceNode); edge < end; edge++) {
+            int neighbor = topology.getTarget(edge);
 
-            double deltaLat = neighbor.getLatitude() - sourceNode.getLatitude();
-            double deltaLon = neighbor.getLongitude() - sourceNode.getLongitude();
+            double deltaLat = topology.getLatitude(neighbor) - topology.getLatitude(sourceNode);
+            double deltaLon = topology.getLongitude(neighbor) - topology.getLongitude(sourceNode);
             double score = 0.0;
 
             switch (targetDirection.toLowerCase()) {
@@ -489,12 +758,42 @@ public class Simulator implements Runnable {
         return bestNeighbor;
     }
 
-    public CustomLinkedList<Vehicle> getVehicles() {
-        return this.vehicles;
+    // Cópia com as visões dos veículos em circulação, para a interface; o passo da simulação usa as colunas
+    public CustomArrayList<Vehicle> getVehicles() {
+        return vehicleStore.snapshotVehicles();
+    }
+
+    public int getActiveVehicleCount() {
+        return vehicleStore.getActiveCount();
+    }
+
+    public VehicleStore getVehicleStore() {
+        return this.vehicleStore;
     }
 
     public Statistics getStats() {
         return this.stats;
     }
+
+    // Passo por regiões da última execução (null sem partitionRegions > 1); só para os testes do pacote
+    RegionParallelStepper getRegionStepper() {
+        return this.regionStepper;
+    }
+
+    public VehiclePool getVehiclePool() {
+        return this.vehiclePool;
+    }
+
+    public AllocationProbe getAllocationProbe() {
+        return this.allocationProbe;
+    }
+
+    public TripPipeline getTripPipeline() {
+        return this.tripPipeline;
+    }
+
+    public RoutePlanner getRoutePlanner() {
+        return this.routePlanner;
+    }
     public double getCurrentTime() { return this.time; }
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package org.aiacon.simuladordemobilidadeurbana.simulation;
 
-import org.aiacon.simuladordemobilidadeurbana.model.CustomLinkedList;
+import org.aiacon.simuladordemobilidadeurbana.model.CustomArrayList;
 import org.aiacon.simuladordemobilidadeurbana.model.Graph;
 import org.aiacon.simuladordemobilidadeurbana.model.TrafficLight;
 import org.aiacon.simuladordemobilidadeurbana.model.Vehicle;
@@ -18,7 +18,8 @@ public class Statistics {
     private double totalWaitTime;
     private double totalFuelConsumed;
     private double currentTime;
-    private CustomLinkedList<Double> congestionIndexHistory; // Para armazenar o histórico do índice de congestionamento
+    private double congestionIndexSum; // Soma dos índices de congestionamento de todos os passos, para a média
+    private long congestionIndexSamples; // Quantidade de passos somados
     private double currentCongestionIndex; // O índice de congestionamento atual (percentual)
     private double maxRecordedCongestionRatio; // Para guardar o pico de congestionamento (percentual)
 
@@ -35,7 +36,8 @@ public class Statistics {
         this.currentTime = 0.0;
         this.currentCongestionIndex = 0.0;
         this.maxRecordedCongestionRatio = 0.0;
-        this.congestionIndexHistory = new CustomLinkedList<>(); // Inicializa a lista
+        this.congestionIndexSum = 0.0;
+        this.congestionIndexSamples = 0;
     }
 
     /**
@@ -71,21 +73,23 @@ public class Statistics {
      * Calcula e atualiza o índice de congestionamento atual da simulação.
      * O índice é baseado na densidade de veículos e na proporção de veículos enfileirados.
      * O valor calculado é armazenado em {@code currentCongestionIndex} como uma porcentagem
-     * e também adicionado ao {@code congestionIndexHistory} para cálculo posterior da média.
+     * e também somado a {@code congestionIndexSum} para cálculo posterior da média.
      *
      * @param activeVehicles Lista de todos os veículos atualmente ativos na simulação.
      * @param graph          O grafo da rede urbana.
      */
-    public synchronized void calculateCurrentCongestion(CustomLinkedList<Vehicle> activeVehicles, Graph graph) {
-        if (graph == null || graph.getNodes() == null || graph.getNodes().isEmpty() || activeVehicles == null) {
+    public synchronized void calculateCurrentCongestion(CustomArrayList<Vehicle> activeVehicles, Graph graph) {
+        calculateCurrentCongestion(activeVehicles != null ? activeVehicles.size() : -1, graph);
+    }
+
+    // Mesmo cálculo a partir só da quantidade de veículos em circulação (negativa se desconhecida)
+    public synchronized void calculateCurrentCongestion(int numberOfActiveVehicles, Graph graph) {
+        if (graph == null || graph.getNodes() == null || graph.getNodes().isEmpty() || numberOfActiveVehicles < 0) {
             this.currentCongestionIndex = 0.0;
-            if (this.congestionIndexHistory != null) { // Adiciona 0 se não houver dados
-                this.congestionIndexHistory.add(0.0);
-            }
+            recordCongestionSample(0.0); // Conta 0 se não houver dados
             return;
         }
 
-        int numberOfActiveVehicles = activeVehicles.size();
         int totalNodes = graph.getNodes().size();
         int totalQueuedVehicles = 0;
 
@@ -97,6 +101,24 @@ public class Statistics {
             }
         }
 
+        calculateCurrentCongestion(numberOfActiveVehicles, totalNodes, totalQueuedVehicles);
+    }
+
+    /**
+     * Mesmo cálculo com os totais já contados pelo chamador (o Simulator soma as filas dos semáforos sem percorrer
+     * a lista do grafo, e o passo não aloca iteradores).
+     *
+     * @param numberOfActiveVehicles Veículos em circulação.
+     * @param totalNodes Quantidade de nós do grafo.
+     * @param totalQueuedVehicles Veículos nas filas dos semáforos.
+     */
+    public synchronized void calculateCurrentCongestion(int numberOfActiveVehicles, int totalNodes, int totalQueuedVehicles) {
+        if (numberOfActiveVehicles < 0) {
+            this.currentCongestionIndex = 0.0;
+            recordCongestionSample(0.0);
+            return;
+        }
+
         if (totalNodes == 0) {
             // Se não houver nós, a definição de congestionamento fica ambígua.
             // Poderia ser 100% se houver veículos, ou 0% se não houver.
@@ -124,10 +146,14 @@ public class Statistics {
             this.maxRecordedCongestionRatio = this.currentCongestionIndex;
         }
 
-        // Adiciona o índice atual ao histórico para cálculo da média
-        if (this.congestionIndexHistory != null) {
-            this.congestionIndexHistory.add(this.currentCongestionIndex);
-        }
+        // Acumula o índice atual para cálculo da média
+        recordCongestionSample(this.currentCongestionIndex);
+    }
+
+    // Soma acumulada em vez de histórico: a média sai em O(1) e o passo não aloca
+    private void recordCongestionSample(double congestionIndex) {
+        this.congestionIndexSum += congestionIndex;
+        this.congestionIndexSamples++;
     }
 
     /**
@@ -151,20 +177,7 @@ public class Statistics {
      * @return A média do índice de congestionamento como porcentagem, ou 0.0 se nenhum dado foi registrado.
      */
     public synchronized double getAverageCongestionIndex() {
-        if (congestionIndexHistory == null || congestionIndexHistory.isEmpty()) {
-            return 0.0;
-        }
-        double sum = 0;
-        int count = 0;
-        // Assumindo que CustomLinkedList é iterável ou tem get(index) e size()
-        for (int i = 0; i < congestionIndexHistory.size(); i++) {
-            Double congestionValue = congestionIndexHistory.get(i); // Ajuste se o método de acesso for diferente
-            if (congestionValue != null) {
-                sum += congestionValue;
-                count++;
-            }
-        }
-        return (count > 0) ? (sum / count) : 0.0;
+        return (congestionIndexSamples > 0) ? (congestionIndexSum / congestionIndexSamples) : 0.0;
     }
 
 
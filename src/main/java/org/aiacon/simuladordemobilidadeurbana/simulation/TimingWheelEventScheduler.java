@@ -0,0 +1,238 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * {@link EventScheduler} em roda de tempo hierárquica: o tempo é dividido em intervalos de {@code resolution}
+ * segundos (ticks) e cada nível é uma roda de 2^slotBits posições. O nível 0 tem uma posição por tick; cada posição
+ * do nível i cobre uma volta inteira do nível i - 1. Um evento vai para o nível do dígito mais alto (em base
+ * 2^slotBits) em que o seu tick difere do tick atual, então inserir é O(1); eventos além do último nível ficam numa
+ * fila de transbordo ({@link HeapEventScheduler}) até o tempo chegar perto deles.
+ * <p>
+ * Quando a posição atual se esgota, o tick avança direto para a próxima posição ocupada (um mapa de bits por nível
+ * evita percorrer posições vazias); se ela estiver num nível acima, os seus eventos descem para os níveis de baixo
+ * (cada evento desce no máximo uma vez por nível). Os eventos que chegam ao tick atual saem na mesma ordem de
+ * {@link HeapEventScheduler} (instante e depois o valor do evento): se todos têm o mesmo instante, o caso comum com
+ * instantes inteiros e resolução de 1 s, são ordenados de uma vez num array; senão, e para os eventos agendados no
+ * tick atual enquanto ele é processado, passam por um pequeno heap.
+ */
+public class TimingWheelEventScheduler implements EventScheduler {
+    public static final double DEFAULT_RESOLUTION = 1.0;
+    public static final int DEFAULT_SLOT_BITS = 8;
+    public static final int DEFAULT_LEVELS = 3;
+
+    private final double resolution;
+    private final int slotBits;
+    private final int slotMask;
+    private final int levels;
+
+    // Eventos de cada posição (nível * 2^slotBits + posição), sem ordem; os arrays crescem sob demanda
+    private final double[][] slotTimes;
+    private final long[][] slotEvents;
+    private final long[][] slotTicks;
+    private final int[] slotCounts;
+    private final BitSet[] occupied; // Posições não vazias de cada nível
+
+    private final HeapEventScheduler due = new HeapEventScheduler();      // Eventos do tick atual (ou anteriores)
+    private long[] run = new long[64];  // Eventos do tick atual com o mesmo instante, em ordem, a partir de runPosition
+    private int runPosition;
+    private int runLength;
+    private double runTime;
+    private long[] landing = new long[64]; // Eventos que caem no tick atual durante uma descida de nível
+    private double[] landingTimes = new double[64];
+    private int landingCount;
+    private boolean cascading;
+    private final HeapEventScheduler overflow = new HeapEventScheduler(); // Eventos além do último nível
+    private long currentTick;
+    private int size;
+
+    public TimingWheelEventScheduler() {
+        this(DEFAULT_RESOLUTION, DEFAULT_SLOT_BITS, DEFAULT_LEVELS);
+    }
+
+    public TimingWheelEventScheduler(double resolution, int slotBits, int levels) {
+        if (!(resolution > 0) || Double.isInfinite(resolution)) {
+            throw new IllegalArgumentException("Resolução da roda de tempo deve ser positiva: " + resolution);
+        }
+        if (slotBits < 1 || slotBits > 16) {
+            throw new IllegalArgumentException("Bits por nível da roda de tempo devem estar entre 1 e 16: " + slotBits);
+        }
+        if (levels < 1 || (long) slotBits * levels > 62) {
+            throw new IllegalArgumentException("Níveis da roda de tempo inválidos: " + levels);
+        }
+        this.resolution = resolution;
+        this.slotBits = slotBits;
+        this.slotMask = (1 << slotBits) - 1;
+        this.levels = levels;
+        int slots = levels << slotBits;
+        this.slotTimes = new double[slots][];
+        this.slotEvents = new long[slots][];
+        this.slotTicks = new long[slots][];
+        this.slotCounts = new int[slots];
+        this.occupied = new BitSet[levels];
+        for (int level = 0; level < levels; level++) {
+            occupied[level] = new BitSet(1 << slotBits);
+        }
+    }
+
+    // Tick do instante; negativos e NaN contam como tick 0, infinitos como o maior tick possível
+    private long tickOf(double time) {
+        double ticks = Math.floor(time / resolution);
+        if (!(ticks > 0)) return 0;
+        return (ticks >= Long.MAX_VALUE) ? Long.MAX_VALUE : (long) ticks;
+    }
+
+    @Override
+    public void schedule(double time, long event) {
+        size++;
+        place(time, event, tickOf(time));
+    }
+
+    private void place(double time, long event, long tick) {
+        if (tick <= currentTick) {
+            if (cascading) {
+                if (landingCount == landing.length) {
+                    landing = Arrays.copyOf(landing, landingCount * 2);
+                    landingTimes = Arrays.copyOf(landingTimes, landingCount * 2);
+                }
+                landing[landingCount] = event;
+                landingTimes[landingCount++] = time;
+            } else {
+                due.schedule(time, event);
+            }
+            return;
+        }
+        // Nível do dígito mais alto em que o tick difere do atual
+        int level = (63 - Long.numberOfLeadingZeros(tick ^ currentTick)) / slotBits;
+        if (level >= levels) {
+            overflow.schedule(time, event);
+            return;
+        }
+        int position = (int) (tick >>> (level * slotBits)) & slotMask;
+        int slot = (level << slotBits) | position;
+        int count = slotCounts[slot];
+        if (slotEvents[slot] == null) {
+            slotTimes[slot] = new double[8];
+            slotEvents[slot] = new long[8];
+            slotTicks[slot] = new long[8];
+        } else if (count == slotEvents[slot].length) {
+            slotTimes[slot] = Arrays.copyOf(slotTimes[slot], count * 2);
+            slotEvents[slot] = Arrays.copyOf(slotEvents[slot], count * 2);
+            slotTicks[slot] = Arrays.copyOf(slotTicks[slot], count * 2);
+        }
+        slotTimes[slot][count] = time;
+        slotEvents[slot][count] = event;
+        slotTicks[slot][count] = tick;
+        slotCounts[slot] = count + 1;
+        if (count == 0) occupied[level].set(position);
+    }
+
+    // Avança o tick atual até a próxima posição ocupada, se não houver mais eventos no tick atual
+    private void advance() {
+        while (due.isEmpty() && runPosition == runLength && size > 0) {
+            boolean found = false;
+            for (int level = 0; level < levels && !found; level++) {
+                int shift = level * slotBits;
+                int digit = (int) (currentTick >>> shift) & slotMask;
+                int position = occupied[level].nextSetBit(digit + 1);
+                if (position < 0) continue;
+                // Início da posição: dígitos acima iguais, dígito deste nível = position, dígitos abaixo zerados
+                long above = (currentTick >>> (shift + slotBits)) << (shift + slotBits);
+                currentTick = above | ((long) position << shift);
+                cascade((level << slotBits) | position, level, position);
+                found = true;
+            }
+            if (!found) {
+                // Rodas vazias: o tempo salta para o primeiro evento do transbordo, que traz para as rodas os
+                // eventos que agora estão ao alcance delas
+                long next = tickOf(overflow.peekTime());
+                currentTick = next;
+                long window = next >>> (levels * slotBits);
+                while (!overflow.isEmpty()) {
+                    double time = overflow.peekTime();
+                    long tick = tickOf(time);
+                    if ((tick >>> (levels * slotBits)) != window) break;
+                    place(time, overflow.poll(), tick);
+                }
+            }
+        }
+    }
+
+    // Redistribui os eventos da posição em relação ao novo tick atual: descem de nível ou vão para o tick atual
+    private void cascade(int slot, int level, int position) {
+        int count = slotCounts[slot];
+        double[] times = slotTimes[slot];
+        long[] events = slotEvents[slot];
+        long[] ticks = slotTicks[slot];
+        slotCounts[slot] = 0;
+        occupied[level].clear(position);
+        cascading = true;
+        for (int i = 0; i < count; i++) {
+            place(times[i], events[i], ticks[i]);
+        }
+        cascading = false;
+        land();
+    }
+
+    // Eventos que chegaram ao tick atual: ordenados num array se têm todos o mesmo instante, senão no heap
+    private void land() {
+        int count = landingCount;
+        landingCount = 0;
+        if (count == 0) return;
+        boolean sameTime = runPosition == runLength;
+        for (int i = 1; i < count && sameTime; i++) {
+            sameTime = landingTimes[i] == landingTimes[0];
+        }
+        if (!sameTime) {
+            for (int i = 0; i < count; i++) {
+                due.schedule(landingTimes[i], landing[i]);
+            }
+            return;
+        }
+        if (run.length < count) run = new long[Math.max(count, run.length * 2)];
+        System.arraycopy(landing, 0, run, 0, count);
+        Arrays.sort(run, 0, count);
+        runTime = landingTimes[0];
+        runPosition = 0;
+        runLength = count;
+    }
+
+    @Override
+    public double peekTime() {
+        advance();
+        return (runPosition < runLength) ? Math.min(runTime, due.peekTime()) : due.peekTime();
+    }
+
+    @Override
+    public long poll() {
+        advance();
+        long event;
+        if (runPosition < runLength && (due.isEmpty() || runTime < due.peekTime()
+                || (runTime == due.peekTime() && run[runPosition] < due.peekEvent()))) {
+            event = run[runPosition++];
+        } else {
+            event = due.poll();
+        }
+        size--;
+        return event;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public double getResolution() { return resolution; }
+    public int getSlotBits() { return slotBits; }
+    public int getLevels() { return levels; }
+
+    // Alcance das rodas a partir do tick atual, em segundos; eventos mais distantes passam pelo transbordo
+    public double getHorizonSeconds() {
+        return Math.scalb(resolution, slotBits * levels);
+    }
+
+    public int getOverflowSize() {
+        return overflow.size();
+    }
+}
@@ -0,0 +1,200 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.model.CustomArrayList;
+import org.aiacon.simuladordemobilidadeurbana.model.SpscRingBuffer;
+import org.aiacon.simuladordemobilidadeurbana.model.Vehicle;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipeline assíncrono de viagens: uma thread produtora sorteia as partidas de cada passo de tempo à frente do
+ * relógio da simulação (até {@code lookahead} segundos simulados), calcula as rotas em lote no
+ * {@link RoutePlanner} e entrega os veículos prontos ao {@link Simulator} por uma {@link SpscRingBuffer}.
+ * <p>
+ * O Simulator só retira veículos cuja partida já chegou. Se a fila enche, o produtor espera (contrapressão);
+ * se o produtor ainda não terminou o passo atual, o Simulator espera por ele, e esse atraso é contabilizado
+ * como atraso de roteamento. As partidas de cada passo são sorteadas como no gerador síncrono, com
+ * a semente de {@link Configuration#getRandomSeed()}, então a sequência de veículos é a mesma de uma execução
+ * sem pipeline com a mesma semente. As rotas usam os tempos de viagem do momento em que são calculadas, até
+ * {@code lookahead} segundos antes da partida.
+ */
+public class TripPipeline {
+    private static final double STEP = 1.0; // Passo de tempo da simulação (s), o mesmo do Simulator
+    private static final long PRODUCER_IDLE_NANOS = 1_000_000L; // Espera do produtor quando à frente da janela
+    private static final long BACKPRESSURE_WAIT_NANOS = 100_000L;
+    private static final long CONSUMER_WAIT_NANOS = 50_000L;
+
+    private final VehicleGenerator generator;
+    private final double generationRate;
+    private final double generationStopTime;
+    private final double lookahead;
+    private final Random random;
+    private final SpscRingBuffer<Vehicle> queue; // Veículos prontos, com o instante de partida em Vehicle#getDepartureTime
+
+    private volatile boolean running;
+    private volatile double simulatedTime;          // Publicado pelo Simulator a cada passo
+    private volatile double producedUntil;          // Todos os passos <= este instante já estão na fila
+    private Thread producerThread;
+    private int nextVehicleId = 1;
+
+    // Métricas
+    private final AtomicLong producedVehicles = new AtomicLong();
+    private final AtomicLong consumedVehicles = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private volatile int maxQueueDepth;
+    private long stalledSteps;      // Passos em que o Simulator precisou esperar o produtor (thread do Simulator)
+    private long stallNanosTotal;
+
+    public TripPipeline(VehicleGenerator generator, Configuration config) {
+        this.generator = generator;
+        this.generationRate = config.getVehicleGenerationRate();
+        this.generationStopTime = config.getVehicleGenerationStopTime();
+        this.lookahead = Math.max(STEP, config.getTripLookaheadSeconds());
+        Long seed = config.getRandomSeed();
+        this.random = (seed != null) ? new Random(seed) : new Random();
+        this.queue = new SpscRingBuffer<>(config.getTripQueueCapacity());
+        this.producedUntil = 0.0;
+    }
+
+    public synchronized void start() {
+        if (producerThread != null) return;
+        running = true;
+        producerThread = new Thread(this::runProducer, "TripPipelineThread");
+        producerThread.setDaemon(true);
+        producerThread.start();
+        System.out.println("TRIP_PIPELINE: Produtor iniciado (janela de " + lookahead + "s, fila de " + queue.capacity() + " veículos).");
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (producerThread != null) {
+            LockSupport.unpark(producerThread);
+            try {
+                producerThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            producerThread = null;
+        }
+    }
+
+    private void runProducer() {
+        try {
+            produce();
+        } catch (RuntimeException e) {
+            // Sem isso o Simulator esperaria para sempre pelo próximo passo
+            System.err.println("TRIP_PIPELINE_ERROR: Produtor encerrado por exceção: " + e);
+            e.printStackTrace();
+            producedUntil = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    // Thread produtora: um passo de tempo por iteração, nunca além de simulatedTime + lookahead
+    private void produce() {
+        double step = STEP;
+        while (running) {
+            if (step > generationStopTime) {
+                producedUntil = Double.POSITIVE_INFINITY; // Não haverá mais partidas
+                return;
+            }
+            if (step > simulatedTime + lookahead) {
+                LockSupport.parkNanos(PRODUCER_IDLE_NANOS);
+                continue;
+            }
+
+            // Mesmo sorteio do Simulator.generateVehicles: parte inteira + 1 com a probabilidade da parte fracionária
+            double expected = STEP * generationRate;
+            int count = (int) expected;
+            if (random.nextDouble() < (expected - count)) {
+                count++;
+            }
+            if (count > 0) {
+                CustomArrayList<Vehicle> vehicles = generator.generateVehicles(nextVehicleId, count);
+                for (Vehicle vehicle : vehicles) {
+                    vehicle.setDepartureTime(step);
+                    if (!offer(vehicle)) {
+                        return; // Pipeline parado enquanto esperava espaço
+                    }
+                    nextVehicleId++;
+                }
+            }
+            producedUntil = step;
+            step += STEP;
+        }
+    }
+
+    // Contrapressão: espera espaço na fila em vez de descartar ou crescer sem limite
+    private boolean offer(Vehicle vehicle) {
+        while (!queue.offer(vehicle)) {
+            if (!running) return false;
+            backpressureWaits.incrementAndGet();
+            LockSupport.parkNanos(BACKPRESSURE_WAIT_NANOS);
+        }
+        producedVehicles.incrementAndGet();
+        int depth = queue.size();
+        if (depth > maxQueueDepth) maxQueueDepth = depth;
+        return true;
+    }
+
+    /**
+     * Chamado pelo Simulator a cada passo: devolve os veículos com partida até {@code time}, na ordem de geração.
+     * Se o produtor ainda não concluiu esse passo, espera por ele (esvaziando a fila enquanto isso, para o
+     * produtor nunca ficar bloqueado por contrapressão esperando o próprio Simulator).
+     */
+    public CustomArrayList<Vehicle> collectReady(double time) {
+        CustomArrayList<Vehicle> ready = new CustomArrayList<>();
+        collectReady(time, ready);
+        return ready;
+    }
+
+    // Mesmo que collectReady(double), acrescentando os veículos em ready (lista reaproveitada pelo Simulator)
+    public void collectReady(double time, CustomArrayList<Vehicle> ready) {
+        simulatedTime = time;
+        if (producerThread != null) {
+            LockSupport.unpark(producerThread);
+        }
+        if (producedUntil < time) {
+            long waitStart = System.nanoTime();
+            stalledSteps++;
+            while (producedUntil < time && running) {
+                drainReady(time, ready);
+                LockSupport.parkNanos(CONSUMER_WAIT_NANOS);
+            }
+            stallNanosTotal += System.nanoTime() - waitStart;
+        }
+        drainReady(time, ready);
+    }
+
+    private void drainReady(double time, CustomArrayList<Vehicle> ready) {
+        Vehicle next;
+        while ((next = queue.peek()) != null && next.getDepartureTime() <= time) {
+            queue.poll();
+            ready.add(next);
+            consumedVehicles.incrementAndGet();
+        }
+    }
+
+    public int getQueueDepth() { return queue.size(); }
+    public int getMaxQueueDepth() { return maxQueueDepth; }
+    public long getProducedVehicles() { return producedVehicles.get(); }
+    public long getConsumedVehicles() { return consumedVehicles.get(); }
+    public long getBackpressureWaits() { return backpressureWaits.get(); }
+
+    // Quantos segundos simulados de partidas já estão prontos à frente do relógio (negativo = produtor atrasado)
+    public double getLookaheadReady() {
+        return producedUntil - simulatedTime;
+    }
+
+    // Atraso de roteamento visto pelo Simulator: passos em que esperou o produtor e o tempo total de espera
+    public long getStalledSteps() { return stalledSteps; }
+    public double getStallMillis() { return stallNanosTotal / 1e6; }
+
+    public void printSummary() {
+        System.out.printf("Pipeline de viagens: %d produzidos, %d entregues, fila atual %d (máx. %d de %d), " +
+                        "%d esperas por espaço, %d passos aguardando rotas (%.1f ms no total)%n",
+                getProducedVehicles(), getConsumedVehicles(), getQueueDepth(), getMaxQueueDepth(), queue.capacity(),
+                getBackpressureWaits(), getStalledSteps(), getStallMillis());
+    }
+}
@@ -1,10 +1,11 @@
 package org.aiacon.simuladordemobilidadeurbana.simulation;
 
 import org.aiacon.simuladordemobilidadeurbana.model.Graph;
-import org.aiacon.simuladordemobilidadeurbana.model.CustomLinkedList;
-import org.aiacon.simuladordemobilidadeurbana.model.Node;
+import org.aiacon.simuladordemobilidadeurbana.model.CustomArrayList;
 import org.aiacon.simuladordemobilidadeurbana.model.Vehicle;
+import org.aiacon.simuladordemobilidadeurbana.model.VehiclePool;
 
+import java.util.Arrays;
 import java.util.Random;
 
 // Gera veículos aleatoriamente
@@ -12,84 +13,155 @@ public class VehicleGenerator {
     private Graph graph;
     private double generationRate; // Veículos por segundo
     private Random random;
+    private RoutePlanner routePlanner;
+    private VehiclePool vehiclePool; // Veículos reaproveitados de viagens encerradas (null = sempre alocar)
+    private int[] originCandidates;      // Nós sorteáveis como origem (null = todos os nós)
+    private int[] destinationCandidates; // Nós sorteáveis como destino (null = todos os nós)
+    private boolean verbose = true; // Log de cada veículo gerado
 
     public VehicleGenerator(Graph graph, double generationRate) {
+        this(graph, generationRate, new RoutePlanner(graph, null));
+    }
+
+    public VehicleGenerator(Graph graph, double generationRate, RoutePlanner routePlanner) {
+        this(graph, generationRate, routePlanner, null);
+    }
+
+    // Com semente fixa, a sequência de origens/destinos (e portanto a simulação) é reproduzível
+    public VehicleGenerator(Graph graph, double generationRate, RoutePlanner routePlanner, Long seed) {
         this.graph = graph;
         this.generationRate = generationRate;
-        this.random = new Random();
+        this.random = (seed != null) ? new Random(seed) : new Random();
+        this.routePlanner = routePlanner;
     }
 
 
 
     public Vehicle generateVehicle(int id) {
-        // Verificar se o grafo contém nós e não está vazio
-        if (graph == null || graph.getNodes() == null || graph.getNodes().isEmpty()) {
-            System.err.println("Erro: Grafo está vazio ou não foi inicializado. Não é possível gerar veículo.");
+        int nodeCount = countNodes();
+        if (nodeCount < 0) {
             return null;
         }
+        int[] trip = new int[2];
+        if (!pickTrip(nodeCount, trip)) {
+            return null;
+        }
+
+        // Calcular a rota: algoritmo configurado, ou a árvore da origem se o cache de árvores estiver ligado
+        RouteResult result = routePlanner.findRouteFromOrigin(trip[0], trip[1]);
+        return buildVehicle(id, trip[0], trip[1], result);
+    }
+
+    /**
+     * Gera até {@code count} veículos de uma vez. As origens e destinos são sorteados em sequência (mesma ordem do
+     * gerador unitário) e as rotas são calculadas em lote pelo {@link RoutePlanner}, possivelmente em paralelo.
+     * Os IDs são atribuídos em ordem a partir de {@code firstId}, apenas aos veículos com rota válida, de modo que
+     * o resultado não depende do número de threads.
+     */
+    public CustomArrayList<Vehicle> generateVehicles(int firstId, int count) {
+        CustomArrayList<Vehicle> generated = new CustomArrayList<>(count);
+        int nodeCount = countNodes();
+        if (nodeCount < 0 || count <= 0) {
+            return generated;
+        }
+
+        int[] origins = new int[count];
+        int[] destinations = new int[count];
+        int[] trip = new int[2];
+        int tripCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (!pickTrip(nodeCount, trip)) continue;
+            origins[tripCount] = trip[0];
+            destinations[tripCount] = trip[1];
+            tripCount++;
+        }
+        if (tripCount < count) {
+            origins = Arrays.copyOf(origins, tripCount);
+            destinations = Arrays.copyOf(destinations, tripCount);
+        }
+
+        RouteResult[] results = routePlanner.findRoutesFromOrigins(origins, destinations);
+
+        int nextId = firstId;
+        for (int i = 0; i < tripCount; i++) {
+            Vehicle vehicle = buildVehicle(nextId, origins[i], destinations[i], results[i]);
+            if (vehicle != null) {
+                generated.add(vehicle);
+                nextId++;
+            }
+        }
+        return generated;
+    }
 
-        // Criar uma lista com os IDs de todos os nós no grafo
-        CustomLinkedList<String> nodeIds = new CustomLinkedList<>();
-        for (Node node : graph.getNodes()) {
-            nodeIds.add(node.getId());
+    // Quantidade de nós para o sorteio (índices densos 0..N-1), ou -1 se não houver nós suficientes para uma viagem
+    private int countNodes() {
+        // Verificar se o grafo contém nós e não está vazio
+        if (graph == null || graph.getNodes() == null || graph.getNodes().isEmpty()) {
+            System.err.println("Erro: Grafo está vazio ou não foi inicializado. Não é possível gerar veículo.");
+            return -1;
         }
 
-        int size = nodeIds.size();
-        if (size <= 1) {
+        int nodeCount = graph.getNodes().size();
+        if (nodeCount <= 1) {
             System.err.println("Erro: Grafo não possui nós suficientes para origem e destino. Não é possível gerar veículo.");
-            return null;
+            return -1;
         }
+        return nodeCount;
+    }
 
-        // Escolher origem e destino aleatórios
-        String origin = getRandomNodeId(nodeIds, size);
-        String destination = getRandomNodeId(nodeIds, size);
+    // Sorteia origem e destino distintos em trip[0] e trip[1]; false se algum deles não existir no grafo
+    private boolean pickTrip(int nodeCount, int[] trip) {
+        // Escolher origem e destino aleatórios (dentro das zonas de demanda, se definidas)
+        int origin = getRandomNodeIndex(originCandidates, nodeCount);
+        int destination = getRandomNodeIndex(destinationCandidates, nodeCount);
 
         // Garantir que origem e destino sejam diferentes
         int retries = 0; // Evitar loop infinito
-        while (destination.equals(origin) && retries < 100) {
-            destination = getRandomNodeId(nodeIds, size);
+        while (destination == origin && retries < 100) {
+            destination = getRandomNodeIndex(destinationCandidates, nodeCount);
             retries++;
         }
 
         // Verificar se origem e destino existem de fato no grafo
-        if (!nodeIds.contains(origin) || !nodeIds.contains(destination)) {
+        if (graph.getNodeByIndex(origin) == null || graph.getNodeByIndex(destination) == null) {
             System.err.println("Erro: Nó de origem ou destino não encontrado no grafo.");
-            return null; // Ignorar veículo com nó inválido
+            return false; // Ignorar veículo com nó inválido
         }
+        trip[0] = origin;
+        trip[1] = destination;
+        return true;
+    }
 
+    // Os IDs do OSM só são montados aqui, para o veículo (interface) e os logs
+    private Vehicle buildVehicle(int id, int originIndex, int destinationIndex, RouteResult result) {
+        String origin = graph.getNodeByIndex(originIndex).getId();
+        String destination = graph.getNodeByIndex(destinationIndex).getId();
         // Log para depuração
-        System.out.println("Gerando veículo V" + id + " com origem " + origin + " e destino " + destination);
-
-        // Calcular a rota com Dijkstra
-        CustomLinkedList<String> route = Dijkstra.calculateRoute(graph, origin, destination);
+        if (verbose) System.out.println("Gerando veículo V" + id + " com origem " + origin + " e destino " + destination);
 
         // Verificar se a rota foi calculada corretamente
-        if (route == null || route.isEmpty()) {
+        if (result == null || !result.isFound()) {
             System.err.println("Erro ao calcular rota para veículo V" + id + ": nenhuma rota encontrada entre " + origin + " e " + destination);
             return null; // Ignorar veículo sem rota válida
         }
 
-        // Criar e retornar o veículo com rota válida
-        Vehicle vehicle = new Vehicle("V" + id, origin, destination, route);
-        System.out.println("Veículo V" + id + " gerado com sucesso: Rota = " + route);
+        // Criar (ou reaproveitar do pool) e retornar o veículo com rota válida
+        // O array da rota é compartilhado com o resultado (nenhum dos dois o modifica)
+        Vehicle vehicle = (vehiclePool != null)
+                ? vehiclePool.acquire(id, origin, destination, result.path())
+                : new Vehicle(id, origin, destination, result.path());
+        if (verbose) System.out.println("Veículo V" + id + " gerado com sucesso: Rota = " + routePlanner.toNodeIdList(result) + " (nós assentados: " + result.getSettledNodes() + ")");
         return vehicle;
     }
 
-    private String getRandomNodeId(CustomLinkedList<String> nodeIds, int size) {
-        if (size <= 0) {
-            throw new IllegalArgumentException("Lista de IDs de nós está vazia. Não é possível selecionar um nó aleatório.");
+    private int getRandomNodeIndex(int[] candidates, int nodeCount) {
+        if (candidates != null) {
+            return candidates[random.nextInt(candidates.length)];
         }
-
-        int index = random.nextInt(size); // Escolhe um índice aleatório
-        int currentIndex = 0;
-
-        for (String nodeId : nodeIds) {
-            if (currentIndex++ == index) {
-                return nodeId;
-            }
+        if (nodeCount <= 0) {
+            throw new IllegalArgumentException("Grafo sem nós. Não é possível selecionar um nó aleatório.");
         }
-
-        throw new IllegalStateException("Erro na seleção de nó aleatório: índice fora do intervalo.");
+        return random.nextInt(nodeCount); // Índice denso escolhido diretamente, sem lista de IDs
     }
 
     public double getGenerationRate() {
@@ -99,4 +171,28 @@ public class VehicleGenerator {
     public void setGenerationRate(double rate) {
         this.generationRate = rate;
     }
+
+    /**
+     * Restringe o sorteio de origens e destinos a conjuntos de nós (zonas de demanda, ex.: os nós dentro de um raio
+     * obtidos do {@link org.aiacon.simuladordemobilidadeurbana.model.SpatialGrid}). Conjunto null ou vazio = todos
+     * os nós. Deve ser definido antes de o gerador começar a ser usado.
+     */
+    public void setDemandZones(int[] originCandidates, int[] destinationCandidates) {
+        this.originCandidates = (originCandidates != null && originCandidates.length > 0) ? originCandidates : null;
+        this.destinationCandidates = (destinationCandidates != null && destinationCandidates.length > 0) ? destinationCandidates : null;
+    }
+
+    public VehiclePool getVehiclePool() {
+        return vehiclePool;
+    }
+
+    // Deve ser definido antes de o gerador começar a ser usado (a thread do TripPipeline lê o campo)
+    public void setVehiclePool(VehiclePool vehiclePool) {
+        this.vehiclePool = vehiclePool;
+    }
+
+    // Desligado, os veículos são gerados sem log (ver Configuration.verboseLogging)
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
 }
\ No newline at end of file
@@ -6,8 +6,10 @@ import org.aiacon.simuladordemobilidadeurbana.model.Graph;
 import org.aiacon.simuladordemobilidadeurbana.model.Node;
 import org.aiacon.simuladordemobilidadeurbana.model.TrafficLight;
 import org.aiacon.simuladordemobilidadeurbana.model.Vehicle;
+import org.aiacon.simuladordemobilidadeurbana.model.CustomArrayList;
 import org.aiacon.simuladordemobilidadeurbana.model.CustomLinkedList;
 import org.aiacon.simuladordemobilidadeurbana.model.LightPhase; // Importar o LightPhase
+import org.aiacon.simuladordemobilidadeurbana.model.SpatialGrid;
 import org.aiacon.simuladordemobilidadeurbana.simulation.Simulator;
 
 import javafx.application.Application;
@@ -44,6 +46,8 @@ public class Visualizer extends Application {
     private static final double ALTURA_TELA = 750;
     private static final double MARGEM_TELA = 50;
     private static final double ANGULO_ROTACAO_GRAUS = 0;
+    private static final double FATOR_ZOOM = 1.25; // Por passo da roda do mouse
+    private static final double RAIO_SELECAO_PIXELS = 15; // Distância máxima do clique até o nó selecionado
 
     private double minLat, maxLat, minLon, maxLon;
     private double centroLat, centroLon;
@@ -53,6 +57,9 @@ public class Visualizer extends Application {
     private Graph graph;
     private Simulator simulator;
     private Text congestionText;
+    private Text selectionText; // Informações do nó selecionado com o clique
+    private SpatialGrid spatialGrid; // Coordenadas dos nós: limites do mapa, recorte da área visível e seleção
+    private double arrasteInicioX, arrasteInicioY; // Posição do mouse ao começar a arrastar o mapa
 
     private Pane pane;
     private Map<String, Group> trafficLightNodeVisuals;
@@ -66,17 +73,19 @@ public class Visualizer extends Application {
 
     // Classe interna para representar o visual de um semáforo
     private static class TrafficLightDisplay {
+        TrafficLight light; // Semáforo exibido, lido a cada quadro sem busca por ID
         Rectangle nsIndicator; // Indicador para Norte-Sul
         Rectangle ewIndicator; // Indicador para Leste-Oeste
         // Circle baseNodeCircle; // O círculo base do nó já está em trafficLightNodeVisuals ou regularNodeVisuals
 
-        TrafficLightDisplay(Rectangle ns, Rectangle ew) {
+        TrafficLightDisplay(TrafficLight light, Rectangle ns, Rectangle ew) {
             // this.baseNodeCircle = base;
+            this.light = light;
             this.nsIndicator = ns;
             this.ewIndicator = ew;
         }
     }
-    private Map<String, TrafficLightDisplay> lightVisualsMap;
+    private TrafficLightDisplay[] lightVisualsByNode = new TrafficLightDisplay[0]; // Pelo índice denso do nó
 
 
     public Visualizer(Graph graph, Simulator simulator) {
@@ -84,14 +93,12 @@ public class Visualizer extends Application {
         this.simulator = simulator;
         this.trafficLightNodeVisuals = new HashMap<>();
         this.regularNodeVisuals = new HashMap<>();
-        this.lightVisualsMap = new HashMap<>();
         this.vehicleVisuals = new HashMap<>();
     }
 
     public Visualizer() {
         this.trafficLightNodeVisuals = new HashMap<>();
         this.regularNodeVisuals = new HashMap<>();
-        this.lightVisualsMap = new HashMap<>();
         this.vehicleVisuals = new HashMap<>();
     }
 
@@ -116,11 +123,15 @@ public class Visualizer extends Application {
         // Adicionar o texto para o congestionamento
         congestionText = new Text(10, ALTURA_TELA - 10, "Congestionamento: N/A"); // Posição de exemplo
         pane.getChildren().add(congestionText);
+        selectionText = new Text(10, 20, "");
+        pane.getChildren().add(selectionText);
 
         this.carroImage = new Image(getClass().getResourceAsStream("/carros/carroofc.png"));
 
+        this.spatialGrid = graph.freeze().getSpatialGrid();
         calcularParametrosDeTransformacao();
         desenharElementosEstaticos();
+        configurarNavegacao();
 
         Scene scene = new Scene(pane, LARGURA_TELA, ALTURA_TELA);
         primaryStage.setScene(scene);
@@ -160,15 +171,12 @@ public class Visualizer extends Application {
             System.err.println("Visualizer: Nenhum nó no grafo para calcular transformação. Usando defaults.");
             minLat = -5.12; maxLat = -5.06; minLon = -42.84; maxLon = -42.78;
         } else {
-            minLat = Double.MAX_VALUE; maxLat = -Double.MAX_VALUE;
-            minLon = Double.MAX_VALUE; maxLon = -Double.MAX_VALUE;
-            for (Node node : graph.getNodes()) {
-                if (node == null) continue;
-                if (node.getLatitude() < minLat) minLat = node.getLatitude();
-                if (node.getLatitude() > maxLat) maxLat = node.getLatitude();
-                if (node.getLongitude() < minLon) minLon = node.getLongitude();
-                if (node.getLongitude() > maxLon) maxLon = node.getLongitude();
+            // Limites já calculados na construção do índice espacial, sem percorrer os nós
+            if (spatialGrid == null) {
+                spatialGrid = graph.freeze().getSpatialGrid();
             }
+            minLat = spatialGrid.getMinLatitude(); maxLat = spatialGrid.getMaxLatitude();
+            minLon = spatialGrid.getMinLongitude(); maxLon = spatialGrid.getMaxLongitude();
         }
         if (Math.abs(maxLat - minLat) < 0.00001) { maxLat = minLat + 0.001; minLat = minLat - 0.001;}
         if (Math.abs(maxLon - minLon) < 0.00001) { maxLon = minLon + 0.001; minLon = minLon - 0.001;}
@@ -200,150 +208,227 @@ public class Visualizer extends Application {
         return new Point2D(xTela, yTela);
     }
 
+    // Inversa de transformarCoordenadas: {latitude, longitude} do ponto da tela
+    private double[] coordenadasGeograficas(double xTela, double yTela) {
+        double lon = (xTela - LARGURA_TELA / 2) / escalaX + centroLon;
+        double lat = -(yTela - ALTURA_TELA / 2) / escalaY + centroLat;
+        return new double[]{lat, lon};
+    }
+
+    // Área visível em coordenadas {sul, oeste, norte, leste}, com uma folga de margemPixels em cada lado
+    private double[] areaVisivel(double margemPixels) {
+        double[] noroeste = coordenadasGeograficas(-margemPixels, -margemPixels);
+        double[] sudeste = coordenadasGeograficas(LARGURA_TELA + margemPixels, ALTURA_TELA + margemPixels);
+        return new double[]{sudeste[0], noroeste[1], noroeste[0], sudeste[1]};
+    }
+
+    private static boolean dentroDaArea(double[] area, double lat, double lon) {
+        return lat >= area[0] && lat <= area[2] && lon >= area[1] && lon <= area[3];
+    }
+
+    // Roda do mouse: zoom em torno do cursor; arrastar: move o mapa; clique: seleciona o nó mais próximo
+    private void configurarNavegacao() {
+        pane.setOnScroll(event -> {
+            if (!transformacaoCalculada || event.getDeltaY() == 0) return;
+            double fator = (event.getDeltaY() > 0) ? FATOR_ZOOM : 1 / FATOR_ZOOM;
+            double[] sobCursor = coordenadasGeograficas(event.getX(), event.getY());
+            escalaX *= fator;
+            escalaY *= fator;
+            // O ponto sob o cursor continua no mesmo lugar da tela
+            centroLon = sobCursor[1] - (event.getX() - LARGURA_TELA / 2) / escalaX;
+            centroLat = sobCursor[0] + (event.getY() - ALTURA_TELA / 2) / escalaY;
+            desenharElementosEstaticos();
+        });
+        pane.setOnMousePressed(event -> {
+            arrasteInicioX = event.getX();
+            arrasteInicioY = event.getY();
+        });
+        pane.setOnMouseReleased(event -> {
+            if (event.isStillSincePress() || !transformacaoCalculada) return;
+            centroLon -= (event.getX() - arrasteInicioX) / escalaX;
+            centroLat += (event.getY() - arrasteInicioY) / escalaY;
+            desenharElementosEstaticos();
+        });
+        pane.setOnMouseClicked(event -> {
+            if (event.isStillSincePress()) {
+                selecionarNo(event.getX(), event.getY());
+            }
+        });
+    }
+
+    // Nó mais próximo do clique pelo índice espacial; mostra ID, coordenadas e o estado do semáforo, se houver
+    private void selecionarNo(double xTela, double yTela) {
+        if (!transformacaoCalculada || spatialGrid == null || selectionText == null) return;
+        double[] ponto = coordenadasGeograficas(xTela, yTela);
+        Node node = graph.getNodeByIndex(spatialGrid.nearest(ponto[0], ponto[1]));
+        if (node == null) return;
+        Point2D posicao = transformarCoordenadas(node.getLatitude(), node.getLongitude());
+        if (posicao.distance(xTela, yTela) > RAIO_SELECAO_PIXELS) {
+            selectionText.setText("");
+            return;
+        }
+        String info = String.format("Nó %s (%.6f, %.6f)", node.getId(), node.getLatitude(), node.getLongitude());
+        TrafficLight tl = node.getTrafficLight();
+        if (tl != null) {
+            int[] filas = tl.getAllQueueSizes();
+            info += String.format(" | Semáforo: %s, filas N/L/S/O: %d/%d/%d/%d", tl.getCurrentPhase(), filas[0], filas[1], filas[2], filas[3]);
+        }
+        selectionText.setText(info);
+        System.out.println("Visualizer: " + info);
+    }
+
+    // Desenha ruas e semáforos da área visível (nós pelo índice espacial); refeito a cada zoom ou deslocamento
     private void desenharElementosEstaticos() {
         pane.getChildren().clear();
         trafficLightNodeVisuals.clear();
         regularNodeVisuals.clear();
-        lightVisualsMap.clear();
-
-        if (graph.getEdges() != null) {
-            for (Edge edge : graph.getEdges()) {
-                if (edge == null) continue;
-                Node sourceNode = graph.getNode(edge.getSource());
-                Node targetNode = graph.getNode(edge.getDestination());
-                if (sourceNode != null && targetNode != null) {
-                    Point2D p1 = transformarCoordenadas(sourceNode.getLatitude(), sourceNode.getLongitude());
-                    Point2D p2 = transformarCoordenadas(targetNode.getLatitude(), targetNode.getLongitude());
-                    Line line = new Line(p1.getX(), p1.getY(), p2.getX(), p2.getY());
-                    line.setStroke(Color.BLACK); // Define a cor como preto
-                    line.setStrokeWidth(5.0);    // Aumenta a espessura para 3.0 (ajuste conforme necessário)
-                    pane.getChildren().add(line);
-
-                    // Linha amarela tracejada por cima da preta
-                    Line dashedLine = new Line(p1.getX(), p1.getY(), p2.getX(), p2.getY());
-                    dashedLine.setStroke(Color.YELLOW);
-                    dashedLine.setStrokeWidth(0.5);
-                    dashedLine.getStrokeDashArray().addAll(10.0, 10.0); // 10 px traço, 10 px espaço
-                    dashedLine.setStrokeLineCap(javafx.scene.shape.StrokeLineCap.ROUND); // pontas suaves
-
-                    pane.getChildren().add(dashedLine);
-
+        vehicleVisuals.clear(); // As imagens saíram do pane; o próximo quadro as recria
+        lightVisualsByNode = new TrafficLightDisplay[graph.getNodes() != null ? graph.getNodes().size() : 0];
+        if (spatialGrid == null) {
+            spatialGrid = graph.freeze().getSpatialGrid();
+        }
 
+        double[] area = areaVisivel(RAIO_SELECAO_PIXELS);
+        List<javafx.scene.Node> ruas = new ArrayList<>();
+        List<javafx.scene.Node> semaforos = new ArrayList<>();
+        spatialGrid.forEachInBox(area[0], area[1], area[2], area[3], index -> {
+            Node node = graph.getNodeByIndex(index);
+            if (node == null) return;
+            // Arestas com pelo menos uma ponta visível: as de saída, e as de entrada cuja origem está fora da área
+            for (Edge edge : node.getEdges()) {
+                desenharAresta(edge, node, graph.getNodeByIndex(edge.getTargetIndex()), ruas);
+            }
+            for (Edge edge : node.getIncomingEdges()) {
+                Node sourceNode = graph.getNodeByIndex(edge.getSourceIndex());
+                if (sourceNode != null && !dentroDaArea(area, sourceNode.getLatitude(), sourceNode.getLongitude())) {
+                    desenharAresta(edge, sourceNode, node, ruas);
                 }
             }
-        }
-
-        if (graph.getNodes() != null) {
-            for (Node node : graph.getNodes()) {
-                if (node == null) continue;
+            TrafficLight tl = (node.getTrafficLight() != null) ? node.getTrafficLight() : graph.getTrafficLight(node.getId());
+            if (tl != null) {
                 Point2D p = transformarCoordenadas(node.getLatitude(), node.getLongitude());
-                TrafficLight tl = simulator.getTrafficLight(node.getId());
-
-                if (tl != null) {
-                    Group trafficLightGroup = new Group(); // Agrupa todos os elementos do semáforo
-
-                    Circle baseCircle = new Circle(p.getX(), p.getY(), 5, Color.DARKSLATEGRAY);
-                    baseCircle.setStroke(Color.BLACK);
-                    baseCircle.setStrokeWidth(0.5);
-                    trafficLightGroup.getChildren().add(baseCircle);
-
-                    // Indicador Vertical (N-S) - um pouco mais longo
-                    Rectangle nsIndicator = new Rectangle(p.getX() - 2, p.getY() - 8, 4, 16);
-                    nsIndicator.setFill(Color.GRAY); // Cor inicial
-                    nsIndicator.setStroke(Color.BLACK);
-                    nsIndicator.setStrokeWidth(0.4);
-
-                    // Indicador Horizontal (L-O) - um pouco mais longo
-                    Rectangle ewIndicator = new Rectangle(p.getX() - 8, p.getY() - 2, 16, 4);
-                    ewIndicator.setFill(Color.GRAY); // Cor inicial
-                    ewIndicator.setStroke(Color.BLACK);
-                    ewIndicator.setStrokeWidth(0.4);
-
-                    trafficLightGroup.getChildren().addAll(nsIndicator, ewIndicator);
-                    pane.getChildren().add(trafficLightGroup);
-
-                    // Armazenar os componentes para atualização
-                    lightVisualsMap.put(node.getId(), new TrafficLightDisplay(nsIndicator, ewIndicator));
-                    // Não precisa mais do trafficLightNodeVisuals se lightVisualsMap guarda os componentes
-                } else {
-
-                }
+                Group trafficLightGroup = new Group(); // Agrupa todos os elementos do semáforo
+
+                Circle baseCircle = new Circle(p.getX(), p.getY(), 5, Color.DARKSLATEGRAY);
+                baseCircle.setStroke(Color.BLACK);
+                baseCircle.setStrokeWidth(0.5);
+                trafficLightGroup.getChildren().add(baseCircle);
+
+                // Indicador Vertical (N-S) - um pouco mais longo
+                Rectangle nsIndicator = new Rectangle(p.getX() - 2, p.getY() - 8, 4, 16);
+                nsIndicator.setFill(Color.GRAY); // Cor inicial
+                nsIndicator.setStroke(Color.BLACK);
+                nsIndicator.setStrokeWidth(0.4);
+
+                // Indicador Horizontal (L-O) - um pouco mais longo
+                Rectangle ewIndicator = new Rectangle(p.getX() - 8, p.getY() - 2, 16, 4);
+                ewIndicator.setFill(Color.GRAY); // Cor inicial
+                ewIndicator.setStroke(Color.BLACK);
+                ewIndicator.setStrokeWidth(0.4);
+
+                trafficLightGroup.getChildren().addAll(nsIndicator, ewIndicator);
+                semaforos.add(trafficLightGroup);
+
+                // Armazenar os componentes para atualização
+                lightVisualsByNode[index] = new TrafficLightDisplay(tl, nsIndicator, ewIndicator);
             }
+        });
+        // Semáforos por cima das ruas, e os textos por cima de tudo
+        pane.getChildren().addAll(ruas);
+        pane.getChildren().addAll(semaforos);
+        for (Text text : new Text[]{statsText, congestionText, selectionText}) {
+            if (text != null) pane.getChildren().add(text);
         }
     }
 
+    private void desenharAresta(Edge edge, Node sourceNode, Node targetNode, List<javafx.scene.Node> ruas) {
+        if (edge == null || sourceNode == null || targetNode == null) return;
+        Point2D p1 = transformarCoordenadas(sourceNode.getLatitude(), sourceNode.getLongitude());
+        Point2D p2 = transformarCoordenadas(targetNode.getLatitude(), targetNode.getLongitude());
+        Line line = new Line(p1.getX(), p1.getY(), p2.getX(), p2.getY());
+        line.setStroke(Color.BLACK); // Define a cor como preto
+        line.setStrokeWidth(5.0);    // Aumenta a espessura para 3.0 (ajuste conforme necessário)
+        ruas.add(line);
+
+        // Linha amarela tracejada por cima da preta
+        Line dashedLine = new Line(p1.getX(), p1.getY(), p2.getX(), p2.getY());
+        dashedLine.setStroke(Color.YELLOW);
+        dashedLine.setStrokeWidth(0.5);
+        dashedLine.getStrokeDashArray().addAll(10.0, 10.0); // 10 px traço, 10 px espaço
+        dashedLine.setStrokeLineCap(javafx.scene.shape.StrokeLineCap.ROUND); // pontas suaves
+        ruas.add(dashedLine);
+    }
+
     private void atualizarElementosDinamicos() {
         if (pane == null || graph == null || simulator == null || !transformacaoCalculada) return;
 
         // 1. Atualizar Cores dos Semáforos
-        if (graph.getTrafficLights() != null) {
-            for (TrafficLight tl : graph.getTrafficLights()) {
-                if (tl == null) continue;
-                TrafficLightDisplay display = lightVisualsMap.get(tl.getNodeId());
-                if (display != null) {
-                    LightPhase phase = tl.getCurrentPhase();
-                    Color nsColor = Color.DARKRED; // Vermelho padrão
-                    Color ewColor = Color.DARKRED; // Vermelho padrão
-
-                    if (phase != null) {
-                        switch (phase) {
-                            case NS_GREEN_EW_RED:
-                                nsColor = Color.LIMEGREEN;
-                                ewColor = Color.INDIANRED;
-                                break;
-                            case NS_YELLOW_EW_RED:
-                                nsColor = Color.GOLD;
-                                ewColor = Color.INDIANRED;
-                                break;
-                            case NS_RED_EW_GREEN:
-                                nsColor = Color.INDIANRED;
-                                ewColor = Color.LIMEGREEN;
-                                break;
-                            case NS_RED_EW_YELLOW:
-                                nsColor = Color.INDIANRED;
-                                ewColor = Color.GOLD;
-                                break;
-                            // Caso não haja default, ambas ficam vermelhas (já setado)
-                        }
+        for (TrafficLightDisplay display : lightVisualsByNode) {
+            if (display != null) {
+                LightPhase phase = display.light.getCurrentPhase();
+                Color nsColor = Color.DARKRED; // Vermelho padrão
+                Color ewColor = Color.DARKRED; // Vermelho padrão
+
+                if (phase != null) {
+                    switch (phase) {
+                        case NS_GREEN_EW_RED:
+                            nsColor = Color.LIMEGREEN;
+                            ewColor = Color.INDIANRED;
+                            break;
+                        case NS_YELLOW_EW_RED:
+                            nsColor = Color.GOLD;
+                            ewColor = Color.INDIANRED;
+                            break;
+                        case NS_RED_EW_GREEN:
+                            nsColor = Color.INDIANRED;
+                            ewColor = Color.LIMEGREEN;
+                            break;
+                        case NS_RED_EW_YELLOW:
+                            nsColor = Color.INDIANRED;
+                            ewColor = Color.GOLD;
+                            break;
+                        // Caso não haja default, ambas ficam vermelhas (já setado)
                     }
-                    display.nsIndicator.setFill(nsColor);
-                    display.ewIndicator.setFill(ewColor);
                 }
+                display.nsIndicator.setFill(nsColor);
+                display.ewIndicator.setFill(ewColor);
             }
         }
 
         // 2. Atualizar Posições dos Veículos
-        CustomLinkedList<Vehicle> currentVehicles = simulator.getVehicles();
+        CustomArrayList<Vehicle> currentVehicles = simulator.getVehicles();
         if (currentVehicles == null) return;
 
         Map<String, ImageView> newVehicleVisualsMap = new HashMap<>();
         List<javafx.scene.Node> childrenToAdd = new ArrayList<>();
         List<javafx.scene.Node> childrenToRemove = new ArrayList<>();
+        double[] area = areaVisivel(RAIO_SELECAO_PIXELS);
 
         for (Vehicle vehicle : currentVehicles) {
             if (vehicle == null || vehicle.getCurrentNode() == null) continue;
 
             Point2D vehiclePos;
-            Node currentNodeObject = graph.getNode(vehicle.getCurrentNode());
+            Node currentNodeObject = graph.getNodeByIndex(vehicle.getCurrentNodeIndex());
             if (currentNodeObject == null) continue;
+            Node nextNodeForArea = graph.getNodeByIndex(vehicle.getNextNodeIndex());
+            if (!dentroDaArea(area, currentNodeObject.getLatitude(), currentNodeObject.getLongitude())
+                    && (nextNodeForArea == null || !dentroDaArea(area, nextNodeForArea.getLatitude(), nextNodeForArea.getLongitude()))) {
+                continue; // Fora da área visível: não desenha (a imagem anterior, se houver, é removida abaixo)
+            }
 
-            if (vehicle.getPosition() == 0.0 || vehicle.getRoute() == null || vehicle.getRoute().isEmpty()) {
+            if (vehicle.getPosition() == 0.0 || !vehicle.hasRoute()) {
                 vehiclePos = transformarCoordenadas(currentNodeObject.getLatitude(), currentNodeObject.getLongitude());
             } else {
-                String nextNodeId = getNextNodeIdInRoute(vehicle, currentNodeObject.getId());
-                if (nextNodeId == null) {
+                // Próximo nó pelo cursor da rota do veículo (O(1), sem busca por ID)
+                Node nextNodeObject = graph.getNodeByIndex(vehicle.getNextNodeIndex());
+                if (nextNodeObject == null) {
                     vehiclePos = transformarCoordenadas(currentNodeObject.getLatitude(), currentNodeObject.getLongitude());
                 } else {
-                    Node nextNodeObject = graph.getNode(nextNodeId);
-                    if (nextNodeObject == null) {
-                        vehiclePos = transformarCoordenadas(currentNodeObject.getLatitude(), currentNodeObject.getLongitude());
-                    } else {
-                        Point2D startScreenPos = transformarCoordenadas(currentNodeObject.getLatitude(), currentNodeObject.getLongitude());
-                        Point2D endScreenPos = transformarCoordenadas(nextNodeObject.getLatitude(), nextNodeObject.getLongitude());
-                        double interpolatedX = startScreenPos.getX() + vehicle.getPosition() * (endScreenPos.getX() - startScreenPos.getX());
-                        double interpolatedY = startScreenPos.getY() + vehicle.getPosition() * (endScreenPos.getY() - startScreenPos.getY());
-                        vehiclePos = new Point2D(interpolatedX, interpolatedY);
-                    }
+                    Point2D startScreenPos = transformarCoordenadas(currentNodeObject.getLatitude(), currentNodeObject.getLongitude());
+                    Point2D endScreenPos = transformarCoordenadas(nextNodeObject.getLatitude(), nextNodeObject.getLongitude());
+                    double interpolatedX = startScreenPos.getX() + vehicle.getPosition() * (endScreenPos.getX() - startScreenPos.getX());
+                    double interpolatedY = startScreenPos.getY() + vehicle.getPosition() * (endScreenPos.getY() - startScreenPos.getY());
+                    vehiclePos = new Point2D(interpolatedX, interpolatedY);
                 }
             }
 
@@ -381,7 +466,7 @@ public class Visualizer extends Application {
                             "Chegadas: %d | T Médio Viagem: %.1fs | T Médio Espera: %.1fs\n" +
                             "Comb. Total: %.2f L | Comb. Médio/Veículo: %.3f L",
                     currentStats.getCurrentTime(), // Adicionar currentTime em Statistics ou pegar do simulator.time
-                    (simulator.getVehicles() != null ? simulator.getVehicles().size() : 0),
+                    simulator.getActiveVehicleCount(),
                     currentStats.getCurrentCongestionIndex(),
                     currentStats.getVehiclesArrived(),
                     currentStats.getAverageTravelTime(),
@@ -392,15 +477,4 @@ public class Visualizer extends Application {
             statsText.setText(statsDisplay);
         }
     }
-
-    private String getNextNodeIdInRoute(Vehicle vehicle, String currentVehicleNodeId) {
-        CustomLinkedList<String> route = vehicle.getRoute();
-        if (route == null || route.isEmpty()) return null;
-
-        int currentIndex = route.indexOf(currentVehicleNodeId);
-        if (currentIndex != -1 && currentIndex + 1 < route.size()) {
-            return route.get(currentIndex + 1);
-        }
-        return null;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package org.aiacon.simuladordemobilidadeurbana;
+
+import org.aiacon.simuladordemobilidadeurbana.io.JsonParser;
+import org.aiacon.simuladordemobilidadeurbana.model.Edge;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.aiacon.simuladordemobilidadeurbana.model.Node;
+import org.aiacon.simuladordemobilidadeurbana.simulation.Configuration;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Grafos usados pelos benchmarks (classes *Benchmark, com main próprio; não rodam com os testes) e pelos testes:
+ * o mapa embutido e grades sintéticas de tamanho arbitrário.
+ */
+public final class BenchmarkGraphs {
+    private static final String BUNDLED_MAP = "/mapa/CentroTeresinaPiauiBrazil.json";
+
+    private BenchmarkGraphs() {
+    }
+
+    // Mapa embutido, sem os logs do parser
+    public static Graph bundledMap() throws Exception {
+        return bundledMap(new Configuration());
+    }
+
+    // Mapa embutido com a configuração da simulação (os semáforos herdam dela o log detalhado)
+    public static Graph bundledMap(Configuration config) throws Exception {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (InputStream stream = BenchmarkGraphs.class.getResourceAsStream(BUNDLED_MAP)) {
+            if (stream == null) {
+                throw new IllegalStateException("Mapa embutido não encontrado: " + BUNDLED_MAP);
+            }
+            return JsonParser.loadGraphFromStream(stream, config);
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * Grade de side x side nós a cerca de 110 m uns dos outros, com vias de mão dupla. O comprimento (90 a 130 m)
+     * e a velocidade (40 ou 60 km/h) de cada via são sorteados com a semente, então quase não há empates de custo.
+     */
+    public static Graph grid(int side, long seed) {
+        Graph graph = new Graph();
+        Random random = new Random(seed);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                graph.addNode(new Node("n" + (y * side + x), -5.0 - y * 0.001, -42.8 + x * 0.001, false));
+            }
+        }
+        int edge = 0;
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                int node = y * side + x;
+                if (x + 1 < side) addRoad(graph, random, node, node + 1, edge++);
+                if (y + 1 < side) addRoad(graph, random, node, node + side, edge++);
+            }
+        }
+        return graph;
+    }
+
+    private static void addRoad(Graph graph, Random random, int from, int to, int id) {
+        double length = 90 + random.nextDouble() * 40;
+        double speed = random.nextBoolean() ? 40 : 60;
+        double travelTime = length / (speed / 3.6);
+        addEdge(graph, new Edge("e" + id, "n" + from, "n" + to, length, travelTime, false, speed, (int) (speed / 10)));
+        addEdge(graph, new Edge("e" + id + "_rev", "n" + to, "n" + from, length, travelTime, false, speed, (int) (speed / 10)));
+    }
+
+    private static void addEdge(Graph graph, Edge edge) {
+        graph.addEdge(edge);
+        graph.getNode(edge.getSource()).addEdge(edge);
+        graph.getNode(edge.getTarget()).addIncomingEdge(edge);
+    }
+}
@@ -0,0 +1,155 @@
+package org.aiacon.simuladordemobilidadeurbana.model;
+
+import org.aiacon.simuladordemobilidadeurbana.BenchmarkGraphs;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * SpatialGrid contra uma varredura linear dos nós, nas mesmas coordenadas sorteadas (a área do mapa com 5% de folga
+ * de cada lado): nó mais próximo, raio de 300 m e caixa de 10% da área. Conta as respostas divergentes e mede o
+ * tempo por consulta. Roda com o classpath de teste, por exemplo:
+ * <pre>
+ * java -cp target/classes:target/test-classes:json.jar org.aiacon.simuladordemobilidadeurbana.model.SpatialGridBenchmark [lado da grade]
+ * </pre>
+ * Sem argumento, só o mapa embutido; com um lado, também uma grade lado x lado (1000 reproduz a de um milhão de nós).
+ */
+public class SpatialGridBenchmark {
+    private static final int QUERIES = 2000;
+    private static final double RADIUS_METERS = 300;
+    private static final double METERS_PER_DEGREE_LAT = Math.toRadians(1.0) * GeoUtils.EARTH_RADIUS_METERS;
+
+    public static void main(String[] args) throws Exception {
+        run("mapa embutido", BenchmarkGraphs.bundledMap().freeze());
+        if (args.length > 0) {
+            int side = Integer.parseInt(args[0]);
+            run("grade " + side + "x" + side, BenchmarkGraphs.grid(side, 7).freeze());
+        }
+    }
+
+    private static void run(String name, FrozenGraph topology) {
+        long buildStart = System.nanoTime();
+        SpatialGrid grid = new SpatialGrid(topology);
+        long buildNanos = System.nanoTime() - buildStart;
+        Scan scan = new Scan(topology, (grid.getMinLatitude() + grid.getMaxLatitude()) / 2);
+
+        double height = grid.getMaxLatitude() - grid.getMinLatitude();
+        double width = grid.getMaxLongitude() - grid.getMinLongitude();
+        Random random = new Random(1);
+        double[] lats = new double[QUERIES];
+        double[] lons = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            lats[i] = grid.getMinLatitude() - height * 0.05 + random.nextDouble() * height * 1.1;
+            lons[i] = grid.getMinLongitude() - width * 0.05 + random.nextDouble() * width * 1.1;
+        }
+        double boxHeight = height * 0.1, boxWidth = width * 0.1;
+
+        // Empate no mais próximo não conta como divergência: basta a mesma distância
+        int mismatches = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            int fromGrid = grid.nearest(lats[i], lons[i]);
+            int fromScan = scan.nearest(lats[i], lons[i]);
+            if (fromGrid != fromScan && scan.squaredMeters(lats[i], lons[i], fromGrid) != scan.squaredMeters(lats[i], lons[i], fromScan)) {
+                mismatches++;
+            }
+            if (!Arrays.equals(grid.withinRadius(lats[i], lons[i], RADIUS_METERS), scan.withinRadius(lats[i], lons[i], RADIUS_METERS))) {
+                mismatches++;
+            }
+            if (!Arrays.equals(grid.withinBox(lats[i], lons[i], lats[i] + boxHeight, lons[i] + boxWidth),
+                    scan.withinBox(lats[i], lons[i], lats[i] + boxHeight, lons[i] + boxWidth))) {
+                mismatches++;
+            }
+        }
+
+        // Três rodadas; só a última é impressa (as anteriores aquecem o JIT)
+        long sink = 0;
+        long[] nanos = new long[6];
+        for (int round = 0; round < 3; round++) {
+            Arrays.fill(nanos, 0);
+            long t = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) sink += grid.nearest(lats[i], lons[i]);
+            t = lap(nanos, 0, t);
+            for (int i = 0; i < QUERIES; i++) sink += scan.nearest(lats[i], lons[i]);
+            t = lap(nanos, 1, t);
+            for (int i = 0; i < QUERIES; i++) sink += grid.withinRadius(lats[i], lons[i], RADIUS_METERS).length;
+            t = lap(nanos, 2, t);
+            for (int i = 0; i < QUERIES; i++) sink += scan.withinRadius(lats[i], lons[i], RADIUS_METERS).length;
+            t = lap(nanos, 3, t);
+            for (int i = 0; i < QUERIES; i++) sink += grid.withinBox(lats[i], lons[i], lats[i] + boxHeight, lons[i] + boxWidth).length;
+            t = lap(nanos, 4, t);
+            for (int i = 0; i < QUERIES; i++) sink += scan.withinBox(lats[i], lons[i], lats[i] + boxHeight, lons[i] + boxWidth).length;
+            lap(nanos, 5, t);
+        }
+        System.out.printf("%s: %d nós, grade %dx%d, construção %.1f ms e %d KB, %d divergências (checksum %d)%n",
+                name, topology.getNodeCount(), grid.getRows(), grid.getColumns(), buildNanos / 1e6,
+                grid.estimatedBytes() / 1024, mismatches, sink % 10);
+        System.out.printf("  mais próximo %.2f us vs %.1f us | raio %.0f m %.2f us vs %.1f us | caixa 10%% %.2f us vs %.1f us%n",
+                perQuery(nanos[0]), perQuery(nanos[1]), RADIUS_METERS, perQuery(nanos[2]), perQuery(nanos[3]),
+                perQuery(nanos[4]), perQuery(nanos[5]));
+    }
+
+    private static long lap(long[] nanos, int index, long start) {
+        long now = System.nanoTime();
+        nanos[index] += now - start;
+        return now;
+    }
+
+    private static double perQuery(long nanos) {
+        return nanos / 1e3 / QUERIES;
+    }
+
+    // Referência: varredura de todos os nós, com a mesma projeção equirretangular da SpatialGrid
+    private static final class Scan {
+        private final FrozenGraph topology;
+        private final double metersPerDegreeLon;
+
+        Scan(FrozenGraph topology, double centerLatitude) {
+            this.topology = topology;
+            this.metersPerDegreeLon = METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(centerLatitude));
+        }
+
+        double squaredMeters(double lat, double lon, int node) {
+            double dy = (topology.getLatitude(node) - lat) * METERS_PER_DEGREE_LAT;
+            double dx = (topology.getLongitude(node) - lon) * metersPerDegreeLon;
+            return dx * dx + dy * dy;
+        }
+
+        int nearest(double lat, double lon) {
+            int best = -1;
+            double bestDistance = Double.MAX_VALUE;
+            for (int node = 0; node < topology.getNodeCount(); node++) {
+                double distance = squaredMeters(lat, lon, node);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = node;
+                }
+            }
+            return best;
+        }
+
+        int[] withinRadius(double lat, double lon, double radiusMeters) {
+            int[] found = new int[16];
+            int count = 0;
+            for (int node = 0; node < topology.getNodeCount(); node++) {
+                if (squaredMeters(lat, lon, node) <= radiusMeters * radiusMeters) {
+                    if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                    found[count++] = node;
+                }
+            }
+            return Arrays.copyOf(found, count);
+        }
+
+        int[] withinBox(double south, double west, double north, double east) {
+            int[] found = new int[16];
+            int count = 0;
+            for (int node = 0; node < topology.getNodeCount(); node++) {
+                double lat = topology.getLatitude(node), lon = topology.getLongitude(node);
+                if (lat >= south && lat <= north && lon >= west && lon <= east) {
+                    if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                    found[count++] = node;
+                }
+            }
+            return Arrays.copyOf(found, count);
+        }
+    }
+}
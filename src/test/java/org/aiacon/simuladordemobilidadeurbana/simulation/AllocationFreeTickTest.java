@@ -0,0 +1,76 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.BenchmarkGraphs;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * O passo aquecido do motor por passos (semáforos, movimento dos veículos, chegadas e congestionamento) não aloca:
+ * depois de rodar a mesma simulação semeada para carregar classes e resolver constantes, cada passo medido pela
+ * {@link AllocationProbe} deve alocar 0 bytes, nos três modos de semáforo.
+ * <p>
+ * Uma alocação do código se repete em toda execução com a mesma semente. Já o JIT, ao compilar um método chamado
+ * pela thread da simulação, às vezes aparece como uma centena de bytes num passo qualquer de uma execução só; por
+ * isso basta que uma das execuções medidas fique sem nenhum passo com alocação.
+ */
+class AllocationFreeTickTest {
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 3;
+
+    @Test
+    void warmedUpTickAllocatesNothing() throws Exception {
+        for (int mode = 1; mode <= 3; mode++) {
+            for (int run = 0; run < WARMUP_RUNS; run++) {
+                simulate(mode);
+            }
+            AllocationProbe best = null;
+            for (int run = 0; run < MEASURED_RUNS; run++) {
+                AllocationProbe probe = simulate(mode);
+                assumeTrue(probe.isSupported(), "JVM sem contador de bytes alocados por thread");
+                assertTrue(probe.getSamples() > 0, "Nenhum passo medido no modo " + mode);
+                if (best == null || probe.getAllocatingSamples() < best.getAllocatingSamples()) {
+                    best = probe;
+                }
+                if (best.getAllocatingSamples() == 0) break;
+            }
+            assertEquals(0, best.getAllocatingSamples(), String.format(
+                    "Modo %d: %d de %d passos aquecidos alocaram (máximo %d B)",
+                    mode, best.getAllocatingSamples(), best.getSamples(), best.getMaxBytes()));
+        }
+    }
+
+    // Simulação headless e semeada, sem logs: o mapa é carregado com a mesma configuração (log dos semáforos)
+    private static AllocationProbe simulate(int mode) throws Exception {
+        Configuration config = new Configuration();
+        config.setTrafficLightMode(mode);
+        config.setVehicleGenerationRate(0.5);
+        config.setRandomSeed(11L);
+        config.setSimulationDuration(3000);
+        config.setVehicleGenerationStopTime(3000);
+        config.setRealTimePacing(false);
+        config.setVerboseLogging(false);
+        config.setAllocationProbe(true);
+        Graph graph = BenchmarkGraphs.bundledMap(config);
+
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(silent);
+        System.setErr(silent);
+        try {
+            Simulator simulator = new Simulator(graph, config);
+            simulator.run();
+            return simulator.getAllocationProbe();
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+    }
+}
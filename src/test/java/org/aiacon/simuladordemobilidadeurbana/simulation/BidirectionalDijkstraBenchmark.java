@@ -0,0 +1,55 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.BenchmarkGraphs;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+
+import java.util.Random;
+
+/**
+ * Dijkstra bidirecional contra o unidirecional nos mesmos pares origem/destino sorteados: custos divergentes,
+ * nós assentados e tempo por consulta. Roda com o classpath de teste, por exemplo:
+ * <pre>
+ * java -cp target/classes:target/test-classes:json.jar org.aiacon.simuladordemobilidadeurbana.simulation.BidirectionalDijkstraBenchmark [lado da grade]
+ * </pre>
+ * Sem argumento, só o mapa embutido (20000 pares); com um lado, também uma grade lado x lado (500 pares).
+ */
+public class BidirectionalDijkstraBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Graph map = BenchmarkGraphs.bundledMap();
+        run("aquecimento", map, 20000);
+        run("mapa embutido", map, 20000);
+        if (args.length > 0) {
+            int side = Integer.parseInt(args[0]);
+            run("grade " + side + "x" + side, BenchmarkGraphs.grid(side, 7), 500);
+        }
+    }
+
+    private static void run(String name, Graph graph, int queries) {
+        RoutingGraph routingGraph = Dijkstra.getRoutingGraph(graph);
+        int nodeCount = routingGraph.getNodeCount();
+        Random random = new Random(5);
+        int costMismatches = 0;
+        long dijkstraSettled = 0, bidirectionalSettled = 0, dijkstraNanos = 0, bidirectionalNanos = 0;
+        for (int i = 0; i < queries; i++) {
+            int origin = random.nextInt(nodeCount);
+            int destination = random.nextInt(nodeCount);
+            long start = System.nanoTime();
+            RouteResult dijkstra = Dijkstra.findRoute(routingGraph, origin, destination);
+            long middle = System.nanoTime();
+            RouteResult bidirectional = BidirectionalDijkstra.findRoute(routingGraph, origin, destination);
+            long end = System.nanoTime();
+            dijkstraNanos += middle - start;
+            bidirectionalNanos += end - middle;
+            dijkstraSettled += dijkstra.getSettledNodes();
+            bidirectionalSettled += bidirectional.getSettledNodes();
+            if (dijkstra.isFound() != bidirectional.isFound()
+                    || (dijkstra.isFound() && dijkstra.getTravelTime() != bidirectional.getTravelTime())) {
+                costMismatches++;
+            }
+        }
+        System.out.printf("%s: %d pares, %d custos divergentes; nós assentados %.0f -> %.0f; %.1f us -> %.1f us por consulta%n",
+                name, queries, costMismatches, (double) dijkstraSettled / queries, (double) bidirectionalSettled / queries,
+                dijkstraNanos / 1e3 / queries, bidirectionalNanos / 1e3 / queries);
+    }
+}
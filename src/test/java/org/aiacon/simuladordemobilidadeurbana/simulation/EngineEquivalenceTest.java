@@ -0,0 +1,72 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.BenchmarkGraphs;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O motor de eventos discretos reproduz o motor por passos: a mesma simulação headless e semeada, nos três modos de
+ * semáforo e com as duas filas de eventos, gera e entrega os mesmos veículos, e as médias de viagem e espera, o
+ * combustível e o congestionamento só diferem pela ordem das somas em ponto flutuante.
+ */
+class EngineEquivalenceTest {
+    private static final double RELATIVE_TOLERANCE = 1e-9;
+
+    @Test
+    void discreteEventMatchesTimeStepped() throws Exception {
+        for (int mode = 1; mode <= 3; mode++) {
+            Statistics stepped = simulate(mode, SimulationEngine.TIME_STEPPED, EventSchedulerType.TIMING_WHEEL);
+            assertTrue(stepped.getVehiclesArrived() > 0, "Nenhuma chegada no modo " + mode);
+            for (EventSchedulerType scheduler : EventSchedulerType.values()) {
+                Statistics events = simulate(mode, SimulationEngine.DISCRETE_EVENT, scheduler);
+                String scenario = "modo " + mode + ", " + scheduler + ": ";
+                assertEquals(stepped.getTotalVehiclesGenerated(), events.getTotalVehiclesGenerated(), scenario + "veículos gerados");
+                assertEquals(stepped.getVehiclesArrived(), events.getVehiclesArrived(), scenario + "chegadas");
+                assertClose(stepped.getAverageTravelTime(), events.getAverageTravelTime(), scenario + "viagem média");
+                assertClose(stepped.getAverageWaitTime(), events.getAverageWaitTime(), scenario + "espera média");
+                assertClose(stepped.getTotalFuelConsumed(), events.getTotalFuelConsumed(), scenario + "combustível");
+                assertClose(stepped.getAverageCongestionIndex(), events.getAverageCongestionIndex(), scenario + "congestionamento médio");
+                assertClose(stepped.getMaxRecordedCongestionRatio(), events.getMaxRecordedCongestionRatio(), scenario + "congestionamento máximo");
+            }
+        }
+    }
+
+    private static void assertClose(double expected, double actual, String message) {
+        assertEquals(expected, actual, RELATIVE_TOLERANCE * Math.max(Math.abs(expected), Math.abs(actual)), message);
+    }
+
+    // Simulação headless e semeada, sem logs; a geração para na metade para que os veículos cheguem
+    private static Statistics simulate(int mode, SimulationEngine engine, EventSchedulerType scheduler) throws Exception {
+        Configuration config = new Configuration();
+        config.setTrafficLightMode(mode);
+        config.setVehicleGenerationRate(0.5);
+        config.setRandomSeed(11L);
+        config.setSimulationDuration(3000);
+        config.setVehicleGenerationStopTime(1500);
+        config.setRealTimePacing(false);
+        config.setVerboseLogging(false);
+        config.setSimulationEngine(engine);
+        config.setEventSchedulerType(scheduler);
+        Graph graph = BenchmarkGraphs.bundledMap(config);
+
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(silent);
+        System.setErr(silent);
+        try {
+            Simulator simulator = new Simulator(graph, config);
+            simulator.run();
+            return simulator.getStats();
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * TimingWheelEventScheduler contra HeapEventScheduler e uma PriorityQueue de objetos. Primeiro um teste diferencial:
+ * a roda, em 108 configurações (resolução, bits por nível, níveis), recebe as mesmas 20000 operações sorteadas que o
+ * heap (eventos no mesmo tick, no futuro distante, além do horizonte) e deve devolver a mesma sequência. Depois o
+ * modelo "hold": N eventos pendentes; cada operação retira o próximo e o agenda de novo mais adiante. Roda com o
+ * classpath de teste, por exemplo:
+ * <pre>
+ * java -cp target/classes:target/test-classes org.aiacon.simuladordemobilidadeurbana.simulation.EventSchedulerBenchmark [N máximo]
+ * </pre>
+ * Sem argumento, o hold vai até N = 1000000 (o padrão da roda: 1 s, 8 bits, 3 níveis).
+ */
+public class EventSchedulerBenchmark {
+    private static final int DIFFERENTIAL_OPERATIONS = 20000;
+    private static final int HOLD_OPERATIONS = 3_000_000;
+    private static final int HOLD_REPETITIONS = 5;
+
+    private static long sink; // Soma dos eventos retirados no hold, impressa no resultado
+
+    public static void main(String[] args) {
+        int maxPending = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+
+        int configurations = 0, mismatches = 0;
+        for (double resolution : new double[]{0.25, 1, 3}) {
+            for (int slotBits : new int[]{1, 3, 6, 8}) {
+                for (int levels = 1; levels <= 3; levels++) {
+                    for (long seed = 1; seed <= 3; seed++) {
+                        mismatches += differential(new TimingWheelEventScheduler(resolution, slotBits, levels), new HeapEventScheduler(), seed);
+                        configurations++;
+                    }
+                }
+            }
+        }
+        System.out.printf("diferencial roda x heap: %d configurações x %d operações, %d divergências%n",
+                configurations, DIFFERENTIAL_OPERATIONS, mismatches);
+
+        for (boolean integerDelays : new boolean[]{true, false}) {
+            for (int pending : new int[]{1_000, 100_000, 1_000_000}) {
+                if (pending > maxPending) break;
+                // Melhor de HOLD_REPETITIONS; as primeiras rodadas aquecem o JIT
+                double[] best = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+                for (int rep = 0; rep < HOLD_REPETITIONS; rep++) {
+                    best[0] = Math.min(best[0], hold(new PriorityQueueScheduler(), pending, rep, integerDelays));
+                    best[1] = Math.min(best[1], hold(new HeapEventScheduler(), pending, rep, integerDelays));
+                    best[2] = Math.min(best[2], hold(new TimingWheelEventScheduler(), pending, rep, integerDelays));
+                }
+                System.out.printf("hold N=%,d (%s): PriorityQueue %.1f ns, heap %.1f ns, roda %.1f ns por poll+schedule (checksum %d)%n",
+                        pending, integerDelays ? "atrasos inteiros de 1 a 300 s" : "atrasos exponenciais, média 30 s",
+                        best[0], best[1], best[2], Math.floorMod(sink, 10));
+            }
+        }
+    }
+
+    // Mesmas operações nas duas filas; conta instantes, eventos ou tamanhos diferentes
+    private static int differential(EventScheduler wheel, EventScheduler heap, long seed) {
+        Random random = new Random(seed);
+        double now = 0;
+        long next = 0;
+        int mismatches = 0;
+        for (int i = 0; i < DIFFERENTIAL_OPERATIONS; i++) {
+            if (random.nextInt(10) < 6 || heap.isEmpty()) {
+                double time = switch (random.nextInt(6)) {
+                    case 0 -> now; // O tick em processamento
+                    case 1 -> now + random.nextInt(5);
+                    case 2 -> now + random.nextDouble() * 300;
+                    case 3 -> Math.floor(now) + random.nextInt(3000);
+                    case 4 -> now + random.nextInt(2_000_000); // Níveis superiores
+                    default -> now + random.nextDouble() * 1e8; // Além do horizonte
+                };
+                // Metade com valores pequenos, para haver empates de instante e evento
+                long event = random.nextBoolean() ? random.nextInt(50) : ((long) random.nextInt(4) << 32) | (next++ % 1000);
+                wheel.schedule(time, event);
+                heap.schedule(time, event);
+            } else {
+                if (wheel.peekTime() != heap.peekTime()) mismatches++;
+                now = heap.peekTime();
+                if (wheel.poll() != heap.poll()) mismatches++;
+            }
+            if (wheel.size() != heap.size()) mismatches++;
+        }
+        while (!heap.isEmpty()) {
+            if (wheel.peekTime() != heap.peekTime()) mismatches++;
+            if (wheel.poll() != heap.poll()) mismatches++;
+        }
+        if (!wheel.isEmpty()) mismatches++;
+        return mismatches;
+    }
+
+    // Nanossegundos por poll+schedule com 'pending' eventos na fila
+    private static double hold(EventScheduler scheduler, int pending, long seed, boolean integerDelays) {
+        Random random = new Random(seed);
+        double[] delays = new double[1 << 16];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = integerDelays ? 1 + random.nextInt(300) : -30 * Math.log(1 - random.nextDouble());
+        }
+        int mask = delays.length - 1;
+        for (int i = 0; i < pending; i++) {
+            scheduler.schedule(delays[(i * 7) & mask], (2L << 32) | i);
+        }
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < HOLD_OPERATIONS; i++) {
+            double time = scheduler.peekTime();
+            long event = scheduler.poll();
+            checksum += event;
+            scheduler.schedule(time + delays[i & mask], event);
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += checksum;
+        return (double) elapsed / HOLD_OPERATIONS;
+    }
+
+    // Referência ingênua: um objeto por evento numa PriorityQueue, com a mesma ordem (instante, evento)
+    private static final class PriorityQueueScheduler implements EventScheduler {
+        private record Entry(double time, long event) {
+        }
+
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> (a.time != b.time)
+                ? Double.compare(a.time, b.time) : Long.compare(a.event, b.event));
+
+        @Override
+        public void schedule(double time, long event) {
+            queue.add(new Entry(time, event));
+        }
+
+        @Override
+        public double peekTime() {
+            Entry head = queue.peek();
+            return (head != null) ? head.time : Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public long poll() {
+            return queue.poll().event;
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.model.Edge;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.aiacon.simuladordemobilidadeurbana.model.Node;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arestas cujo tempo de viagem fica inválido depois do congelamento (infinito, como o JsonParser monta para
+ * maxspeed 0, ou zero) são intransitáveis para todos os algoritmos: a -> b só existe por uma delas e fica
+ * inalcançável; a -> c tem um atalho intransitável e um desvio por d, que é a rota devolvida. (Arestas já inválidas
+ * ao congelar nem entram na topologia.)
+ */
+class ImpassableEdgeRoutingTest {
+    private static final double ROAD_SPEED = 40; // km/h das vias transitáveis
+    private static final double ROAD_LENGTH = 120; // m
+
+    @Test
+    void everyAlgorithmSkipsImpassableEdges() {
+        Graph graph = new Graph();
+        graph.addNode(new Node("a", -5.000, -42.800, false));
+        graph.addNode(new Node("b", -5.000, -42.799, false));
+        graph.addNode(new Node("c", -5.001, -42.800, false));
+        graph.addNode(new Node("d", -5.001, -42.799, false));
+        Edge closedToB = addEdge(graph, "a-b", "a", "b", 110, ROAD_SPEED);
+        Edge closedToC = addEdge(graph, "a-c", "a", "c", 110, ROAD_SPEED);
+        addEdge(graph, "a-d", "a", "d", ROAD_LENGTH, ROAD_SPEED);
+        addEdge(graph, "d-c", "d", "c", ROAD_LENGTH, ROAD_SPEED);
+
+        RoutingGraph routingGraph = new RoutingGraph(graph);
+        closedToB.setTravelTime(travelTime(110, 0));
+        closedToC.setTravelTime(0.0);
+        assertTrue(routingGraph.refreshWeights(), "os pesos deveriam ser relidos");
+        int a = graph.getNode("a").getIndex();
+        int b = graph.getNode("b").getIndex();
+        int c = graph.getNode("c").getIndex();
+        int d = graph.getNode("d").getIndex();
+        double detourTime = 2 * ROAD_LENGTH / (ROAD_SPEED * 1000.0 / 3600.0);
+
+        Landmarks landmarks = Landmarks.build(routingGraph, 2);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(routingGraph);
+        ShortestPathTree tree = ShortestPathTree.compute(routingGraph, a);
+        String[] names = {"Dijkstra", "A*", "bidirecional", "ALT", "CH", "árvore"};
+        RouteResult[] unreachable = {
+                Dijkstra.findRoute(routingGraph, a, b), AStar.findRoute(routingGraph, a, b),
+                BidirectionalDijkstra.findRoute(routingGraph, a, b), landmarks.findRoute(a, b),
+                hierarchy.findRoute(a, b), tree.routeTo(b)};
+        RouteResult[] detour = {
+                Dijkstra.findRoute(routingGraph, a, c), AStar.findRoute(routingGraph, a, c),
+                BidirectionalDijkstra.findRoute(routingGraph, a, c), landmarks.findRoute(a, c),
+                hierarchy.findRoute(a, c), tree.routeTo(c)};
+        for (int i = 0; i < names.length; i++) {
+            assertFalse(unreachable[i].isFound(), names[i] + ": a -> b só passa por uma aresta intransitável");
+            assertTrue(detour[i].isFound(), names[i] + ": a -> c tem o desvio por d");
+            assertArrayEquals(new int[]{a, d, c}, detour[i].toArray(), names[i] + ": rota a -> c");
+            assertEquals(detourTime, detour[i].getTravelTime(), 1e-9, names[i] + ": custo a -> c");
+        }
+        assertFalse(tree.reaches(b), "árvore: b não é alcançável");
+    }
+
+    private static Edge addEdge(Graph graph, String id, String from, String to, double length, double maxspeed) {
+        Edge edge = new Edge(id, from, to, length, travelTime(length, maxspeed), true, maxspeed, (int) (maxspeed / 10));
+        graph.addEdge(edge);
+        graph.getNode(from).addEdge(edge);
+        graph.getNode(to).addIncomingEdge(edge);
+        return edge;
+    }
+
+    // Mesma conta do JsonParser: maxspeed <= 0 vira tempo infinito
+    private static double travelTime(double length, double maxspeed) {
+        return (maxspeed > 0) ? (length / (maxspeed * 1000.0 / 3600.0)) : Double.POSITIVE_INFINITY;
+    }
+}
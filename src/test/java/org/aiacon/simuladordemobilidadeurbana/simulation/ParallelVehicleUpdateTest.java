@@ -0,0 +1,82 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.BenchmarkGraphs;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.aiacon.simuladordemobilidadeurbana.model.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A atualização dos veículos em blocos num ForkJoinPool (Configuration.vehicleUpdateParallelism > 1) dá o mesmo
+ * resultado bit a bit que a serial: a mesma simulação semeada, com 1 e 4 threads, termina com os mesmos agregados
+ * da {@link Statistics} (comparados pelos bits dos doubles) e as mesmas filas em todos os semáforos. A taxa de
+ * geração é alta o bastante para que a VehicleStore passe de 2 * VEHICLE_UPDATE_CHUNK posições, abaixo das quais o
+ * passo continua serial.
+ * <p>
+ * Aqui só se verifica a equivalência; a curva de aceleração precisa de vários núcleos e sai da execução em lote
+ * com o mesmo cenário (ver {@link org.aiacon.simuladordemobilidadeurbana.HeadlessSimulation}, opção --threads).
+ */
+class ParallelVehicleUpdateTest {
+    private static final int PARALLELISM = 4;
+
+    @Test
+    void parallelUpdateMatchesSerialBitForBit() throws Exception {
+        for (int mode = 1; mode <= 3; mode++) {
+            long[] serial = simulate(mode, 1);
+            long[] parallel = simulate(mode, PARALLELISM);
+            assertArrayEquals(serial, parallel, "Modo " + mode + ": agregados ou filas divergentes com " + PARALLELISM + " threads");
+        }
+    }
+
+    // Bits dos agregados da Statistics seguidos dos tamanhos das filas de cada semáforo
+    private static long[] simulate(int mode, int parallelism) throws Exception {
+        Configuration config = new Configuration();
+        config.setTrafficLightMode(mode);
+        config.setVehicleGenerationRate(80);
+        config.setRandomSeed(3L);
+        config.setSimulationDuration(300);
+        config.setVehicleGenerationStopTime(300);
+        config.setRealTimePacing(false);
+        config.setVerboseLogging(false);
+        config.setVehicleUpdateParallelism(parallelism);
+        Graph graph = BenchmarkGraphs.bundledMap(config);
+
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(silent);
+        System.setErr(silent);
+        Simulator simulator;
+        try {
+            simulator = new Simulator(graph, config);
+            simulator.run();
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+        assertTrue(simulator.getVehicleStore().getSlotLimit() >= 2 * Simulator.VEHICLE_UPDATE_CHUNK,
+                "Poucos veículos para a atualização em blocos: " + simulator.getVehicleStore().getSlotLimit() + " posições");
+
+        Statistics stats = simulator.getStats();
+        long[] fingerprint = {
+                stats.getTotalVehiclesGenerated(), stats.getVehiclesArrived(),
+                Double.doubleToRawLongBits(stats.getAverageTravelTime()),
+                Double.doubleToRawLongBits(stats.getAverageWaitTime()),
+                Double.doubleToRawLongBits(stats.getTotalFuelConsumed()),
+                Double.doubleToRawLongBits(stats.getCurrentCongestionIndex()),
+                Double.doubleToRawLongBits(stats.getAverageCongestionIndex()),
+                Double.doubleToRawLongBits(stats.getMaxRecordedCongestionRatio())};
+        int size = fingerprint.length;
+        for (TrafficLight light : graph.getTrafficLights()) {
+            fingerprint = Arrays.copyOf(fingerprint, size + 4);
+            for (int queue : light.getAllQueueSizes()) fingerprint[size++] = queue;
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,118 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.BenchmarkGraphs;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.aiacon.simuladordemobilidadeurbana.model.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O passo por regiões (Configuration.partitionRegions > 1) dá o mesmo resultado bit a bit que o passo serial: a mesma
+ * simulação semeada, com 1, 2 e 4 regiões, termina com os mesmos agregados da {@link Statistics} (comparados pelos
+ * bits dos doubles) e as mesmas filas em todos os semáforos. No mapa embutido, nos três modos de semáforo; numa
+ * grade 4x4 com milhares de veículos por segundo, mais de HANDOFF_CAPACITY veículos passam de uma região para a
+ * outra no mesmo passo e o excedente vai pela lista de transbordo, que precisa manter a ordem das posições.
+ */
+class RegionPartitionTest {
+    private static final int[] REGIONS = {2, 4};
+
+    @Test
+    void regionsMatchSerialStepOnBundledMap() throws Exception {
+        for (int mode = 1; mode <= 3; mode++) {
+            long[] serial = bundledMap(mode, 1);
+            for (int regions : REGIONS) {
+                assertArrayEquals(serial, bundledMap(mode, regions),
+                        "Modo " + mode + ": agregados ou filas divergentes com " + regions + " regiões");
+            }
+        }
+    }
+
+    @Test
+    void handoffOverflowKeepsSerialResult() throws Exception {
+        long[] serial = crowdedGrid(1);
+        for (int regions : REGIONS) {
+            assertArrayEquals(serial, crowdedGrid(regions), "Grade: agregados divergentes com " + regions + " regiões");
+        }
+    }
+
+    private static long[] bundledMap(int mode, int regions) throws Exception {
+        Configuration config = headless(regions);
+        config.setTrafficLightMode(mode);
+        config.setVehicleGenerationRate(0.5);
+        config.setRandomSeed(11L);
+        config.setSimulationDuration(3000);
+        config.setVehicleGenerationStopTime(3000);
+        Graph graph = BenchmarkGraphs.bundledMap(config);
+        return fingerprint(simulate(graph, config), graph);
+    }
+
+    // 10000 veículos/s em 16 nós: as filas entre regiões (HANDOFF_CAPACITY) transbordam em vários passos
+    private static long[] crowdedGrid(int regions) throws Exception {
+        Configuration config = headless(regions);
+        config.setVehicleGenerationRate(10000);
+        config.setRandomSeed(3L);
+        config.setSimulationDuration(30);
+        config.setVehicleGenerationStopTime(30);
+        Graph graph = BenchmarkGraphs.grid(4, 3);
+        Simulator simulator = simulate(graph, config);
+        if (regions > 1) {
+            assertTrue(simulator.getRegionStepper().getSpilledHandoffs() > 0,
+                    "Nenhum veículo além da fila entre regiões com " + regions + " regiões");
+        }
+        return fingerprint(simulator, graph);
+    }
+
+    private static Configuration headless(int regions) {
+        Configuration config = new Configuration();
+        config.setRealTimePacing(false);
+        config.setVerboseLogging(false);
+        config.setPartitionRegions(regions);
+        return config;
+    }
+
+    // Simulação sem logs; com mais de uma região, confere que o passo por regiões foi de fato usado
+    private static Simulator simulate(Graph graph, Configuration config) throws Exception {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(silent);
+        System.setErr(silent);
+        Simulator simulator;
+        try {
+            simulator = new Simulator(graph, config);
+            simulator.run();
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+        if (config.getPartitionRegions() > 1) {
+            assertTrue(simulator.getRegionStepper() != null, "Passo por regiões não foi usado com " + config.getPartitionRegions() + " regiões");
+        }
+        return simulator;
+    }
+
+    // Bits dos agregados da Statistics seguidos dos tamanhos das filas de cada semáforo
+    private static long[] fingerprint(Simulator simulator, Graph graph) {
+        Statistics stats = simulator.getStats();
+        long[] fingerprint = {
+                stats.getTotalVehiclesGenerated(), stats.getVehiclesArrived(),
+                Double.doubleToRawLongBits(stats.getAverageTravelTime()),
+                Double.doubleToRawLongBits(stats.getAverageWaitTime()),
+                Double.doubleToRawLongBits(stats.getTotalFuelConsumed()),
+                Double.doubleToRawLongBits(stats.getCurrentCongestionIndex()),
+                Double.doubleToRawLongBits(stats.getAverageCongestionIndex()),
+                Double.doubleToRawLongBits(stats.getMaxRecordedCongestionRatio())};
+        int size = fingerprint.length;
+        for (TrafficLight light : graph.getTrafficLights()) {
+            fingerprint = Arrays.copyOf(fingerprint, size + 4);
+            for (int queue : light.getAllQueueSizes()) fingerprint[size++] = queue;
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,110 @@
+package org.aiacon.simuladordemobilidadeurbana.simulation;
+
+import org.aiacon.simuladordemobilidadeurbana.BenchmarkGraphs;
+import org.aiacon.simuladordemobilidadeurbana.model.CustomLinkedList;
+import org.aiacon.simuladordemobilidadeurbana.model.FrozenGraph;
+import org.aiacon.simuladordemobilidadeurbana.model.Graph;
+import org.aiacon.simuladordemobilidadeurbana.model.Vehicle;
+import org.aiacon.simuladordemobilidadeurbana.model.VehicleStore;
+
+import java.util.Random;
+
+/**
+ * Cursor de rota da VehicleStore contra a busca do nó atual numa lista de IDs (indexOf + get), em grades de tamanho
+ * crescente: a cada passo, cada veículo lê o nó anterior e o próximo, e avança um nó a cada quatro passos. Com o
+ * cursor o custo por veículo por passo não depende do comprimento da rota; com indexOf cresce com ele. Roda com o
+ * classpath de teste, por exemplo:
+ * <pre>
+ * java -cp target/classes:target/test-classes:json.jar org.aiacon.simuladordemobilidadeurbana.simulation.RouteCursorBenchmark [lado da grade...]
+ * </pre>
+ * Sem argumento, grades de lado 15, 40, 100 e 200.
+ */
+public class RouteCursorBenchmark {
+    private static final int VEHICLES = 2000;
+    private static final int TICKS = 400;
+    private static final int REPETITIONS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int[] sides = {15, 40, 100, 200};
+        if (args.length > 0) {
+            sides = new int[args.length];
+            for (int i = 0; i < args.length; i++) sides[i] = Integer.parseInt(args[i]);
+        }
+        for (int side : sides) {
+            run(side);
+        }
+    }
+
+    private static void run(int side) {
+        Graph graph = BenchmarkGraphs.grid(side, 7);
+        RoutingGraph routingGraph = Dijkstra.getRoutingGraph(graph);
+        FrozenGraph topology = graph.freeze();
+        int nodeCount = routingGraph.getNodeCount();
+
+        // Rotas sorteadas; pares sem caminho (ou com origem = destino) são sorteados de novo
+        Random random = new Random(1);
+        int[][] routes = new int[VEHICLES][];
+        long routeNodes = 0;
+        for (int i = 0; i < VEHICLES; i++) {
+            RouteResult result;
+            do {
+                result = Dijkstra.findRoute(routingGraph, random.nextInt(nodeCount), random.nextInt(nodeCount));
+            } while (!result.isFound() || result.size() < 2);
+            routes[i] = result.toArray();
+            routeNodes += routes[i].length;
+        }
+
+        // Caminho antigo: lista de IDs e posição atual reencontrada por indexOf a cada passo
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CustomLinkedList<String>[] idRoutes = new CustomLinkedList[VEHICLES];
+        for (int i = 0; i < VEHICLES; i++) idRoutes[i] = Dijkstra.toNodeIdList(routingGraph, routes[i]);
+
+        // Caminho atual: colunas da VehicleStore, como no passo do Simulator
+        VehicleStore store = new VehicleStore(topology, VEHICLES);
+        int[] slots = new int[VEHICLES];
+        for (int i = 0; i < VEHICLES; i++) {
+            String origin = topology.getNodeId(routes[i][0]);
+            String destination = topology.getNodeId(routes[i][routes[i].length - 1]);
+            slots[i] = store.add(new Vehicle(i, origin, destination, routes[i]));
+        }
+
+        // Melhor de REPETITIONS; as primeiras rodadas aquecem o JIT
+        long sink = 0;
+        double bestIndexOf = Double.MAX_VALUE, bestCursor = Double.MAX_VALUE;
+        for (int rep = 0; rep < REPETITIONS; rep++) {
+            String[] current = new String[VEHICLES];
+            for (int i = 0; i < VEHICLES; i++) current[i] = idRoutes[i].get(0);
+            long start = System.nanoTime();
+            for (int t = 0; t < TICKS; t++) {
+                for (int i = 0; i < VEHICLES; i++) {
+                    CustomLinkedList<String> route = idRoutes[i];
+                    int index = route.indexOf(current[i]);
+                    String previous = (index > 0) ? route.get(index - 1) : null;
+                    String next = (index + 1 < route.size()) ? route.get(index + 1) : null;
+                    if (previous != null) sink += previous.length();
+                    if (next != null && ((t + i) & 3) == 0) current[i] = next;
+                }
+            }
+            bestIndexOf = Math.min(bestIndexOf, perVehicleTick(System.nanoTime() - start));
+
+            for (int slot : slots) store.setRouteCursor(slot, 0);
+            start = System.nanoTime();
+            for (int t = 0; t < TICKS; t++) {
+                for (int i = 0; i < VEHICLES; i++) {
+                    int slot = slots[i];
+                    int previous = store.getPreviousNode(slot);
+                    int next = store.getNextNode(slot);
+                    sink += previous;
+                    if (next >= 0 && ((t + i) & 3) == 0) store.advance(slot, next);
+                }
+            }
+            bestCursor = Math.min(bestCursor, perVehicleTick(System.nanoTime() - start));
+        }
+        System.out.printf("grade %dx%d: rota média %.1f nós | indexOf %.1f ns | cursor %.1f ns por veículo por passo (checksum %d)%n",
+                side, side, (double) routeNodes / VEHICLES, bestIndexOf, bestCursor, Math.floorMod(sink, 10));
+    }
+
+    private static double perVehicleTick(long nanos) {
+        return (double) nanos / ((long) TICKS * VEHICLES);
+    }
+}